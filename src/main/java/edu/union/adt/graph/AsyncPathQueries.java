@@ -0,0 +1,480 @@
+package edu.union.adt.graph;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs shortest path searches on a bounded pool of threads and hands
+ * back each answer as a CompletableFuture, so one search across a huge
+ * graph cannot hold up the thread that asked.
+ *
+ * Each query can be limited by a deadline and by how many vertices and
+ * edges it may visit (see SearchLimits).  A search that hits a limit
+ * stops and gives a PathResult saying which limit it hit, rather than
+ * claiming there is no path.  Cancelling a query's future stops its
+ * search the next time the search checks, within CHECK_INTERVAL
+ * vertices or edges.  The queue of waiting queries has a fixed capacity; a
+ * query that does not fit fails at once with a
+ * RejectedExecutionException, so a burst of queries cannot build up a
+ * backlog that makes every later answer late.
+ *
+ * Searches are breadth first.  On a GraphImpl they run over its int
+ * storage with arrays each thread reuses from query to query, so a
+ * short search costs only what it visits.  The graph is only read, so
+ * it must not be changed while queries run unless it is safe for
+ * concurrent use, like ShardedGraph.  A GraphImpl is read without any
+ * locking, so changing one during a search can make the query fail
+ * with any exception or give a wrong path; a change is only noticed
+ * on a best-effort basis, failing the query with a
+ * ConcurrentModificationException.
+ *
+ * @version 1
+ */
+public class AsyncPathQueries<V> implements Closeable
+{
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * How many vertices, and how many edges, a search visits between
+     * checks of its deadline and whether it was cancelled.
+     */
+    public static final int CHECK_INTERVAL = 256;
+
+    private final Graph<V> graph;
+
+    // The graph as a GraphImpl, or null if it is another kind
+    private final GraphImpl<V> impl;
+
+    private final ThreadPoolExecutor executor;
+
+    // Search arrays for each worker thread, reused between queries
+    private final ThreadLocal<Scratch> scratch;
+
+    private final AtomicLong rejected;
+
+    // Queries handed to the executor that have not started, for close to cancel
+    private final Set<Search> queued;
+
+    /**
+     * Arrays for a breadth first search by index.  A vertex counts as
+     * seen when its entry in 'seen' equals 'stamp', so starting a new
+     * search only has to bump the stamp.
+     */
+    private static final class Scratch
+    {
+      int[] seen = new int[0];
+      int[] parent = new int[0];
+      int[] queue = new int[0];
+      int stamp;
+
+      // Makes room for n vertices and starts a new search
+      void reset(int n)
+      {
+        if (seen.length < n)
+        {
+          int length = Math.max(n, seen.length + (seen.length >> 1));
+          seen = new int[length];
+          parent = new int[length];
+          queue = new int[length];
+          stamp = 0;
+        }
+        if (++stamp == 0)
+        {
+          Arrays.fill(seen, 0);
+          stamp = 1;
+        }
+      }
+    }
+
+    /**
+     * Create a query runner with one thread per processor and the
+     * default queue capacity.
+     *
+     * @param graph the graph to search
+     */
+    public AsyncPathQueries(Graph<V> graph)
+    {
+      this(graph, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Create a query runner.  Its threads are daemon threads, so they
+     * do not keep the program running, but close should still be
+     * called when it is no longer needed.
+     *
+     * @param graph the graph to search
+     * @param threads the number of searches that can run at once
+     * @param queueCapacity the most queries that can wait for a thread
+     */
+    public AsyncPathQueries(Graph<V> graph, int threads, int queueCapacity)
+    {
+      if (threads < 1 || queueCapacity < 1) {
+        throw new RuntimeException("Need at least one thread and room to queue one query");
+      }
+      this.graph = graph;
+      this.impl = graph instanceof GraphImpl ? (GraphImpl<V>) graph : null;
+      final AtomicInteger created = new AtomicInteger();
+      executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                                        new ArrayBlockingQueue<Runnable>(queueCapacity),
+                                        new ThreadFactory() {
+        public Thread newThread(Runnable task)
+        {
+          Thread thread = new Thread(task, "graph-path-query-" + created.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      scratch = new ThreadLocal<Scratch>() {
+        protected Scratch initialValue()
+        {
+          return new Scratch();
+        }
+      };
+      rejected = new AtomicLong();
+      queued = Collections.newSetFromMap(new ConcurrentHashMap<Search, Boolean>());
+    }
+
+    /**
+     * Finds a shortest path with no limits other than cancellation.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the future result
+     */
+    public CompletableFuture<PathResult<V>> getPath(V from, V to)
+    {
+      return getPath(from, to, new SearchLimits());
+    }
+
+    /**
+     * Finds a shortest path within some limits.  If either vertex is
+     * not in the graph the result is NO_PATH, and a path from a vertex
+     * to itself is just that vertex.  If the queue is full, or the
+     * runner is closed, the future fails with a
+     * RejectedExecutionException.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @param limits the deadline and budgets for the search
+     * @return the future result; cancel it to stop the search
+     */
+    public CompletableFuture<PathResult<V>> getPath(V from, V to, SearchLimits limits)
+    {
+      Search search = new Search(from, to, limits);
+      queued.add(search);
+      try
+      {
+        executor.execute(search);
+      }
+      catch (RejectedExecutionException e)
+      {
+        queued.remove(search);
+        rejected.incrementAndGet();
+        search.future.completeExceptionally(e);
+      }
+      return search.future;
+    }
+
+    /**
+     * Gives the number of queries turned away because the queue was
+     * full or the runner was closed.
+     *
+     * @return the number of rejected queries
+     */
+    public long numRejected()
+    {
+      return rejected.get();
+    }
+
+    /**
+     * Gives the number of queries waiting for a thread.
+     *
+     * @return the number of queued queries
+     */
+    public int numQueued()
+    {
+      return executor.getQueue().size();
+    }
+
+    /**
+     * Stops the threads.  Queries still waiting are cancelled and
+     * running searches are cancelled at their next check.
+     */
+    public void close()
+    {
+      executor.shutdownNow();
+      for (Search waiting : queued)
+      {
+        waiting.future.cancel(false);
+      }
+      queued.clear();
+    }
+
+    /**
+     * One query: runs its search and completes its future.
+     */
+    private final class Search implements Runnable
+    {
+        final V from;
+        final V to;
+        final boolean hasDeadline;
+        final long deadline;
+        final long maxVertices;
+        final long maxEdges;
+        final CompletableFuture<PathResult<V>> future;
+
+        long vertices;
+        long edges;
+
+        Search(V from, V to, SearchLimits limits)
+        {
+          this.from = from;
+          this.to = to;
+          this.hasDeadline = limits.getDeadlineNanos() != Long.MAX_VALUE;
+          this.deadline = System.nanoTime() + (hasDeadline ? limits.getDeadlineNanos() : 0);
+          this.maxVertices = limits.getMaxVertices();
+          this.maxEdges = limits.getMaxEdges();
+          this.future = new CompletableFuture<PathResult<V>>();
+        }
+
+        public void run()
+        {
+          queued.remove(this);
+          if (future.isDone())
+          {
+            return;
+          }
+          try
+          {
+            future.complete(impl != null ? searchImpl() : searchGraph());
+          }
+          catch (RuntimeException e)
+          {
+            // Does nothing if the search stopped because it was cancelled
+            future.completeExceptionally(e);
+          }
+        }
+
+        // A result from the counts so far
+        PathResult<V> result(PathResult.Status status, List<V> path)
+        {
+          return new PathResult<V>(status, path, vertices, edges);
+        }
+
+        /**
+         * Throws a CancellationException if the query was cancelled or
+         * its thread interrupted by close.
+         *
+         * @return DEADLINE_EXCEEDED if the deadline has passed, or null
+         * to go on
+         */
+        PathResult<V> check()
+        {
+          if (Thread.currentThread().isInterrupted())
+          {
+            future.cancel(false);
+          }
+          if (future.isDone()) {
+            throw new CancellationException("The path query was cancelled");
+          }
+          if (hasDeadline && System.nanoTime() - deadline >= 0)
+          {
+            return result(PathResult.Status.DEADLINE_EXCEEDED, Collections.<V>emptyList());
+          }
+          return null;
+        }
+
+        /**
+         * Like check, but first throws a
+         * ConcurrentModificationException if the GraphImpl has changed.
+         */
+        PathResult<V> check(int expectedModCount)
+        {
+          if (impl.modCount() != expectedModCount) {
+            throw new ConcurrentModificationException("The graph changed during a path query");
+          }
+          return check();
+        }
+
+        /**
+         * Breadth first search over a GraphImpl's int storage.
+         */
+        PathResult<V> searchImpl()
+        {
+          PathResult<V> stop = check();
+          if (stop != null)
+          {
+            return stop;
+          }
+          int source = impl.indexOf(from);
+          int target = impl.indexOf(to);
+          if (source == -1 || target == -1)
+          {
+            return result(PathResult.Status.NO_PATH, Collections.<V>emptyList());
+          }
+          if (source == target)
+          {
+            return result(PathResult.Status.FOUND, Collections.singletonList(from));
+          }
+          int expectedModCount = impl.modCount();
+          Scratch s = scratch.get();
+          s.reset(impl.numVertices());
+          int[] seen = s.seen;
+          int[] parent = s.parent;
+          int[] queue = s.queue;
+          int stamp = s.stamp;
+          int head = 0;
+          int tail = 0;
+          seen[source] = stamp;
+          queue[tail++] = source;
+          while (head < tail)
+          {
+            if (vertices % CHECK_INTERVAL == CHECK_INTERVAL - 1)
+            {
+              stop = check(expectedModCount);
+              if (stop != null)
+              {
+                return stop;
+              }
+            }
+            if (vertices == maxVertices)
+            {
+              return result(PathResult.Status.BUDGET_EXCEEDED, Collections.<V>emptyList());
+            }
+            int u = queue[head++];
+            vertices++;
+            int[] row = impl.rowAt(u);
+            int degree = impl.outDegree(u);
+            for (int slot = 0; slot < degree; slot++)
+            {
+              if (edges == maxEdges)
+              {
+                return result(PathResult.Status.BUDGET_EXCEEDED, Collections.<V>emptyList());
+              }
+              // A hub's edges alone can take long, so they are checked too
+              if (edges % CHECK_INTERVAL == CHECK_INTERVAL - 1)
+              {
+                stop = check(expectedModCount);
+                if (stop != null)
+                {
+                  return stop;
+                }
+              }
+              edges++;
+              int v = row[slot];
+              if (seen[v] != stamp)
+              {
+                seen[v] = stamp;
+                parent[v] = u;
+                if (v == target)
+                {
+                  List<V> path = new ArrayList<V>();
+                  for (int at = target; at != source; at = parent[at])
+                  {
+                    path.add(impl.vertexAt(at));
+                  }
+                  path.add(from);
+                  Collections.reverse(path);
+                  return result(PathResult.Status.FOUND, path);
+                }
+                queue[tail++] = v;
+              }
+            }
+          }
+          return result(PathResult.Status.NO_PATH, Collections.<V>emptyList());
+        }
+
+        /**
+         * Breadth first search through the Graph interface, for graphs
+         * other than GraphImpl.
+         */
+        PathResult<V> searchGraph()
+        {
+          PathResult<V> stop = check();
+          if (stop != null)
+          {
+            return stop;
+          }
+          if (!graph.contains(from) || !graph.contains(to))
+          {
+            return result(PathResult.Status.NO_PATH, Collections.<V>emptyList());
+          }
+          if (from.equals(to))
+          {
+            return result(PathResult.Status.FOUND, Collections.singletonList(from));
+          }
+          Map<V, V> parent = new HashMap<V, V>();
+          ArrayDeque<V> queue = new ArrayDeque<V>();
+          parent.put(from, from);
+          queue.add(from);
+          while (!queue.isEmpty())
+          {
+            if (vertices % CHECK_INTERVAL == CHECK_INTERVAL - 1)
+            {
+              stop = check();
+              if (stop != null)
+              {
+                return stop;
+              }
+            }
+            if (vertices == maxVertices)
+            {
+              return result(PathResult.Status.BUDGET_EXCEEDED, Collections.<V>emptyList());
+            }
+            V u = queue.poll();
+            vertices++;
+            for (V v : graph.adjacentTo(u))
+            {
+              if (edges == maxEdges)
+              {
+                return result(PathResult.Status.BUDGET_EXCEEDED, Collections.<V>emptyList());
+              }
+              if (edges % CHECK_INTERVAL == CHECK_INTERVAL - 1)
+              {
+                stop = check();
+                if (stop != null)
+                {
+                  return stop;
+                }
+              }
+              edges++;
+              if (!parent.containsKey(v))
+              {
+                parent.put(v, u);
+                if (v.equals(to))
+                {
+                  List<V> path = new ArrayList<V>();
+                  for (V at = to; !at.equals(from); at = parent.get(at))
+                  {
+                    path.add(at);
+                  }
+                  path.add(from);
+                  Collections.reverse(path);
+                  return result(PathResult.Status.FOUND, path);
+                }
+                queue.add(v);
+              }
+            }
+          }
+          return result(PathResult.Status.NO_PATH, Collections.<V>emptyList());
+        }
+    }
+}
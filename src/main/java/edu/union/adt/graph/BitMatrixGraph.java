@@ -0,0 +1,561 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A directed graph stored as an adjacency matrix of bits, for small
+ * graphs with many edges per vertex.  Each vertex is given a slot, and
+ * the edges leaving it are a row of longs with bit t set when there is
+ * an edge to the vertex in slot t.  hasEdge is a single bit test, and
+ * the matrix takes n * n / 8 bytes however many edges there are, which
+ * is less than an adjacency list once more than about one pair of
+ * vertices in 32 is joined by an edge.
+ *
+ * Path searches expand the frontier a word at a time: the row of each
+ * frontier vertex is masked with the visited set and ORed into the next
+ * frontier, so 64 possible neighbours are handled per instruction.
+ *
+ * A matrix cannot hold two copies of an edge, so adding an edge that
+ * is already present does nothing.  A removed vertex's slot is given to
+ * the next vertex added, and getVertices lists vertices by slot.
+ *
+ * @version 1
+ */
+public class BitMatrixGraph<V> implements Graph<V>
+{
+    // slotVertex[s] is the vertex in slot s, or null if the slot is free
+    private Object[] slotVertex;
+
+    // Maps each vertex to its slot
+    private final Map<V, Integer> indices;
+
+    // rows[s] has bit t set iff there is an edge from slot s to slot t
+    private long[][] rows;
+
+    // Longs in each row; slots 0 to wordsPerRow * 64 - 1 fit
+    private int wordsPerRow;
+
+    // Number of edges leaving each slot
+    private int[] outDegree;
+
+    // Slots in use or freed, so slot numbers stay below this
+    private int slotCount;
+
+    // Slots freed by removeVertex, used before new ones
+    private int[] freeSlots;
+    private int freeCount;
+
+    private int vertexCount;
+    private int edgeCount;
+
+    /**
+     * Create an empty graph.
+     */
+    public BitMatrixGraph()
+    {
+      this(64);
+    }
+
+    /**
+     * Create an empty graph with room for some vertices before the
+     * matrix has to grow.
+     *
+     * @param expectedVertices how many vertices to make room for
+     */
+    public BitMatrixGraph(int expectedVertices)
+    {
+      int capacity = Math.max(64, expectedVertices);
+      wordsPerRow = (capacity + 63) >>> 6;
+      slotVertex = new Object[capacity];
+      rows = new long[capacity][];
+      outDegree = new int[capacity];
+      freeSlots = new int[8];
+      indices = new HashMap<V, Integer>(capacity * 2);
+    }
+
+    /**
+     * Gives the number of vertices in the graph.
+     *
+     * @return the number of vertices in the graph.
+     */
+    public int numVertices()
+    {
+      return vertexCount;
+    }
+
+    /**
+     * Gives the number of edges in the graph.
+     *
+     * @return the number of edges in the graph.
+     */
+    public int numEdges()
+    {
+      return edgeCount;
+    }
+
+    /**
+     * Gets the number of vertices connected by edges from a given
+     * vertex.  If the given vertex is not in the graph, throws a
+     * RuntimeException.
+     *
+     * @param vertex the vertex whose degree we want.
+     * @return the degree of vertex 'vertex'
+     */
+    public int degree(V vertex)
+    {
+      Integer slot = indices.get(vertex);
+      if (slot == null) {
+        throw new RuntimeException("Vertex does not exist");
+      }
+      return outDegree[slot];
+    }
+
+    /**
+     * Adds a directed edge between two vertices, adding either vertex
+     * if it is not in the graph.  Does nothing if the edge is already
+     * there.
+     *
+     * @param from the source vertex for the added edge
+     * @param to the destination vertex for the added edge
+     */
+    public void addEdge(V from, V to)
+    {
+      int fromSlot = slotOrAdd(from);
+      int toSlot = slotOrAdd(to);
+      long[] row = rows[fromSlot];
+      long bit = 1L << toSlot;
+      if ((row[toSlot >>> 6] & bit) == 0)
+      {
+        row[toSlot >>> 6] |= bit;
+        outDegree[fromSlot]++;
+        edgeCount++;
+      }
+    }
+
+    /**
+     * Adds a vertex to the graph.  If the vertex already exists in
+     * the graph, does nothing.
+     *
+     * @param vertex the vertex to add
+     */
+    public void addVertex(V vertex)
+    {
+      slotOrAdd(vertex);
+    }
+
+    /**
+     * Gets all vertices in the graph, in slot order.
+     *
+     * @return an iterable collection for the set of vertices of the
+     * graph.
+     */
+    @SuppressWarnings("unchecked")
+    public Iterable<V> getVertices()
+    {
+      List<V> all = new ArrayList<V>(vertexCount);
+      for (int s = 0; s < slotCount; s++)
+      {
+        if (slotVertex[s] != null)
+        {
+          all.add((V) slotVertex[s]);
+        }
+      }
+      return all;
+    }
+
+    /**
+     * Gets the vertices adjacent to a given vertex, in slot order.  If
+     * 'from' is not a vertex in the graph, returns an empty iterable.
+     *
+     * @param from the source vertex
+     * @return an iterable collection for the set of vertices that are
+     * the destinations of edges for which 'from' is the source vertex.
+     */
+    @SuppressWarnings("unchecked")
+    public Iterable<V> adjacentTo(V from)
+    {
+      Integer slot = indices.get(from);
+      if (slot == null)
+      {
+        return Collections.<V>emptyList();
+      }
+      long[] row = rows[slot];
+      List<V> adjacent = new ArrayList<V>(outDegree[slot]);
+      for (int w = 0; w < wordsPerRow; w++)
+      {
+        long bits = row[w];
+        while (bits != 0)
+        {
+          adjacent.add((V) slotVertex[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+          bits &= bits - 1;
+        }
+      }
+      return adjacent;
+    }
+
+    /**
+     * Tells whether or not a vertex is in the graph.
+     *
+     * @param vertex a vertex
+     * @return true iff 'vertex' is a vertex in the graph.
+     */
+    public boolean contains(V vertex)
+    {
+      return indices.containsKey(vertex);
+    }
+
+    /**
+     * Tells whether an edge exists in the graph connecting two
+     * vertices, with one bit test.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return true iff there is an edge from the source vertex to the
+     * destination vertex in the graph.
+     */
+    public boolean hasEdge(V from, V to)
+    {
+      Integer fromSlot = indices.get(from);
+      Integer toSlot = indices.get(to);
+      if (fromSlot == null || toSlot == null)
+      {
+        return false;
+      }
+      return (rows[fromSlot][toSlot >>> 6] & (1L << toSlot)) != 0;
+    }
+
+    /**
+     * Gives a string representation of the graph, one vertex and its
+     * neighbours per line, in slot order.
+     *
+     * @return a string representation of the graph
+     */
+    public String toString()
+    {
+      StringBuilder str = new StringBuilder();
+      for (V vertex : getVertices())
+      {
+        str.append(vertex).append(":");
+        boolean first = true;
+        for (V adjacent : adjacentTo(vertex))
+        {
+          str.append(first ? " " : ", ").append(adjacent);
+          first = false;
+        }
+        str.append("\n");
+      }
+      return str.toString();
+    }
+
+    /**
+     * Tells whether another graph has the same vertices and edges.
+     *
+     * @param obj the object to compare against
+     * @return true iff 'obj' is a graph with the same vertices and
+     * edges as this one
+     */
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object obj)
+    {
+      if (!(obj instanceof Graph))
+      {
+        return false;
+      }
+      Graph<V> other = (Graph<V>) obj;
+      if (other.numVertices() != numVertices() || other.numEdges() != numEdges())
+      {
+        return false;
+      }
+      for (V vertex : getVertices())
+      {
+        if (!other.contains(vertex))
+        {
+          return false;
+        }
+        for (V adjacent : adjacentTo(vertex))
+        {
+          if (!other.hasEdge(vertex, adjacent))
+          {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    public int hashCode()
+    {
+      int hash = edgeCount;
+      for (V vertex : indices.keySet())
+      {
+        hash += vertex == null ? 0 : vertex.hashCode();
+      }
+      return hash;
+    }
+
+    /**
+     * Tells whether the graph is empty.
+     *
+     * @return true iff the graph is empty.
+     */
+    public boolean isEmpty()
+    {
+      return vertexCount == 0;
+    }
+
+    /**
+     * Removes a vertex and every edge touching it, freeing its slot.
+     * Runs in time proportional to the number of slots.
+     *
+     * @param toRemove the vertex to remove.
+     */
+    public void removeVertex(V toRemove)
+    {
+      Integer removed = indices.remove(toRemove);
+      if (removed == null)
+      {
+        return;
+      }
+      int slot = removed;
+      edgeCount -= outDegree[slot];
+      outDegree[slot] = 0;
+      Arrays.fill(rows[slot], 0L);
+      int word = slot >>> 6;
+      long bit = 1L << slot;
+      for (int s = 0; s < slotCount; s++)
+      {
+        if (slotVertex[s] != null && (rows[s][word] & bit) != 0)
+        {
+          rows[s][word] &= ~bit;
+          outDegree[s]--;
+          edgeCount--;
+        }
+      }
+      slotVertex[slot] = null;
+      if (freeCount == freeSlots.length)
+      {
+        freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+      }
+      freeSlots[freeCount++] = slot;
+      vertexCount--;
+    }
+
+    /**
+     * Removes an edge from the graph, if it is there.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     */
+    public void removeEdge(V from, V to)
+    {
+      Integer fromSlot = indices.get(from);
+      Integer toSlot = indices.get(to);
+      if (fromSlot == null || toSlot == null)
+      {
+        return;
+      }
+      long[] row = rows[fromSlot];
+      long bit = 1L << toSlot;
+      if ((row[toSlot >>> 6] & bit) != 0)
+      {
+        row[toSlot >>> 6] &= ~bit;
+        outDegree[fromSlot]--;
+        edgeCount--;
+      }
+    }
+
+    /**
+     * Tells whether there is a path connecting two given vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return true iff there is a path from 'from' to 'to' in the graph.
+     */
+    public boolean hasPath(V from, V to)
+    {
+      Integer fromSlot = indices.get(from);
+      Integer toSlot = indices.get(to);
+      if (fromSlot == null || toSlot == null)
+      {
+        return false;
+      }
+      return search(fromSlot, toSlot, null) != -1;
+    }
+
+    /**
+     * Gets the number of edges on the shortest path connecting two
+     * given vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the length of the shortest path from 'from' to 'to' in
+     * the graph.  If there is no path, returns Integer.MAX_VALUE
+     */
+    public int pathLength(V from, V to)
+    {
+      Integer fromSlot = indices.get(from);
+      Integer toSlot = indices.get(to);
+      if (fromSlot == null || toSlot == null)
+      {
+        return Integer.MAX_VALUE;
+      }
+      int length = search(fromSlot, toSlot, null);
+      return length == -1 ? Integer.MAX_VALUE : length;
+    }
+
+    /**
+     * Returns the vertices along the shortest path connecting two
+     * given vertices, including both end points.  If there is no path,
+     * returns an empty iterable.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the vertices on the path from 'from' to 'to'
+     */
+    @SuppressWarnings("unchecked")
+    public Iterable<V> getPath(V from, V to)
+    {
+      Integer fromSlot = indices.get(from);
+      Integer toSlot = indices.get(to);
+      if (fromSlot == null || toSlot == null)
+      {
+        return Collections.<V>emptyList();
+      }
+      int[] parent = new int[slotCount];
+      int length = search(fromSlot, toSlot, parent);
+      if (length == -1)
+      {
+        return Collections.<V>emptyList();
+      }
+      Object[] path = new Object[length + 1];
+      int slot = toSlot;
+      for (int i = length; i >= 0; i--)
+      {
+        path[i] = slotVertex[slot];
+        slot = parent[slot];
+      }
+      return (List<V>) Arrays.asList(path);
+    }
+
+    /**
+     * Breadth first search a level at a time over bitsets.  Each
+     * frontier vertex's row, minus the vertices already visited, is
+     * ORed into the next frontier word by word.
+     *
+     * @param parent if not null, filled with the slot each reached
+     * slot was reached from
+     * @return the number of levels to the target, or -1 if it cannot
+     * be reached
+     */
+    private int search(int source, int target, int[] parent)
+    {
+      if (source == target)
+      {
+        return 0;
+      }
+      int words = wordsPerRow;
+      int targetWord = target >>> 6;
+      long targetBit = 1L << target;
+      long[] visited = new long[words];
+      long[] frontier = new long[words];
+      long[] next = new long[words];
+      visited[source >>> 6] |= 1L << source;
+      frontier[source >>> 6] |= 1L << source;
+
+      int level = 0;
+      boolean more = true;
+      while (more)
+      {
+        level++;
+        more = false;
+        for (int w = 0; w < words; w++)
+        {
+          long bits = frontier[w];
+          while (bits != 0)
+          {
+            int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            long[] row = rows[u];
+            for (int x = 0; x < words; x++)
+            {
+              long fresh = row[x] & ~visited[x];
+              if (fresh != 0)
+              {
+                visited[x] |= fresh;
+                next[x] |= fresh;
+                more = true;
+                if (parent != null)
+                {
+                  long claim = fresh;
+                  while (claim != 0)
+                  {
+                    parent[(x << 6) + Long.numberOfTrailingZeros(claim)] = u;
+                    claim &= claim - 1;
+                  }
+                }
+              }
+            }
+            if ((visited[targetWord] & targetBit) != 0)
+            {
+              return level;
+            }
+          }
+        }
+        long[] swap = frontier;
+        frontier = next;
+        next = swap;
+        Arrays.fill(next, 0L);
+      }
+      return -1;
+    }
+
+    // Gives the slot of a vertex, adding it in a free slot if it is new
+    private int slotOrAdd(V vertex)
+    {
+      Integer index = indices.get(vertex);
+      if (index != null)
+      {
+        return index;
+      }
+      int slot;
+      if (freeCount > 0)
+      {
+        slot = freeSlots[--freeCount];
+      }
+      else
+      {
+        slot = slotCount++;
+        grow(slotCount);
+        rows[slot] = new long[wordsPerRow];
+      }
+      slotVertex[slot] = vertex;
+      indices.put(vertex, slot);
+      vertexCount++;
+      return slot;
+    }
+
+    // Makes sure slots 0 to 'slots' - 1 have rows and room in every row
+    private void grow(int slots)
+    {
+      if (slots > slotVertex.length)
+      {
+        int capacity = Math.max(slots, slotVertex.length * 2);
+        slotVertex = Arrays.copyOf(slotVertex, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+        outDegree = Arrays.copyOf(outDegree, capacity);
+      }
+      if (slots > wordsPerRow << 6)
+      {
+        wordsPerRow = Math.max((slots + 63) >>> 6, wordsPerRow * 2);
+        for (int s = 0; s < slots - 1; s++)
+        {
+          rows[s] = Arrays.copyOf(rows[s], wordsPerRow);
+        }
+      }
+    }
+}
@@ -0,0 +1,310 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A labelling of the vertices of a graph by connected component.
+ *
+ * Strongly connected components group vertices that can each reach
+ * the other along directed edges.  Weakly connected components group
+ * vertices that are connected when edge directions are ignored; if two
+ * vertices are in different weak components there is no path between
+ * them in either direction.
+ *
+ * Components are numbered 0 to count() - 1 and labels are kept in a
+ * single int array indexed by the position of each vertex in
+ * getVertices().  Both searches are iterative, so long chains do not
+ * overflow the call stack.
+ *
+ * A labelling is a snapshot and does not follow later changes to the
+ * graph.
+ *
+ * @version 1
+ */
+public class Components<V>
+{
+    // Vertices in getVertices() order
+    private final List<V> vertices;
+
+    // Maps each vertex to its position in 'vertices'
+    private final Map<V, Integer> indices;
+
+    // labels[i] is the component of vertices.get(i)
+    private final int[] labels;
+
+    private final int count;
+
+    private Components(List<V> vertices, int[] labels, int count)
+    {
+      this.vertices = vertices;
+      this.labels = labels;
+      this.count = count;
+      indices = new HashMap<V, Integer>(vertices.size() * 2);
+      for (int i = 0; i < vertices.size(); i++)
+      {
+        indices.put(vertices.get(i), i);
+      }
+    }
+
+    /**
+     * Finds the strongly connected components of a graph using an
+     * iterative version of Tarjan's algorithm.  Runs in time
+     * proportional to the size of the graph.
+     *
+     * Components are numbered in reverse topological order: if there
+     * is an edge from component a to a different component b, then
+     * a > b.
+     *
+     * @param graph the graph to label
+     * @return the strongly connected components of the graph
+     */
+    public static <V> Components<V> strong(Graph<V> graph)
+    {
+      Csr<V> csr = Csr.of(graph);
+      int n = csr.n;
+      int[] labels = new int[n];
+      int count = tarjan(csr, labels);
+
+      if (graph instanceof GraphImpl && ((GraphImpl<V>) graph).isReordered())
+      {
+        return inGraphOrder((GraphImpl<V>) graph, labels, count, false);
+      }
+      List<V> order = new ArrayList<V>(n);
+      for (int i = 0; i < n; i++)
+      {
+        order.add(csr.vertex(i));
+      }
+      return new Components<V>(order, labels, count);
+    }
+
+    /**
+     * Finds the weakly connected components of a graph.  A GraphImpl
+     * keeps these up to date as edges are added, so this only has to
+     * number them; other graphs are scanned with a union-find pass.
+     * Components are numbered in order of their first vertex.
+     *
+     * @param graph the graph to label
+     * @return the weakly connected components of the graph
+     */
+    public static <V> Components<V> weak(Graph<V> graph)
+    {
+      List<V> order = new ArrayList<V>();
+      UnionFind sets;
+      if (graph instanceof GraphImpl)
+      {
+        GraphImpl<V> impl = (GraphImpl<V>) graph;
+        sets = impl.weakComponents();
+        if (impl.isReordered())
+        {
+          return inGraphOrder(impl, sets.labels(), sets.sets(), true);
+        }
+        for (int i = 0; i < impl.numVertices(); i++)
+        {
+          order.add(impl.vertexAt(i));
+        }
+      }
+      else
+      {
+        Csr<V> csr = Csr.of(graph);
+        sets = new UnionFind(csr.n);
+        for (int u = 0; u < csr.n; u++)
+        {
+          order.add(csr.vertex(u));
+          for (int edge = csr.offsets[u]; edge < csr.offsets[u + 1]; edge++)
+          {
+            sets.union(u, csr.targets[edge]);
+          }
+        }
+      }
+      return new Components<V>(order, sets.labels(), sets.sets());
+    }
+
+    /**
+     * Labels a reordered GraphImpl's vertices in getVertices() order,
+     * given labels by index.  With 'renumber', components are also
+     * renumbered in order of their first vertex.
+     */
+    private static <V> Components<V> inGraphOrder(GraphImpl<V> impl, int[] byIndex, int count,
+                                                  boolean renumber)
+    {
+      int[] newLabel = new int[count];
+      Arrays.fill(newLabel, -1);
+      int next = 0;
+      List<V> order = new ArrayList<V>(impl.numVertices());
+      int[] labels = new int[impl.numVertices()];
+      for (V vertex : impl.getVertices())
+      {
+        int label = byIndex[impl.indexOf(vertex)];
+        if (renumber)
+        {
+          if (newLabel[label] == -1)
+          {
+            newLabel[label] = next++;
+          }
+          label = newLabel[label];
+        }
+        labels[order.size()] = label;
+        order.add(vertex);
+      }
+      return new Components<V>(order, labels, count);
+    }
+
+    /**
+     * Tarjan's algorithm with explicit stacks in place of recursion.
+     * Fills in labels and returns the number of components.
+     */
+    private static <V> int tarjan(Csr<V> csr, int[] labels)
+    {
+      int n = csr.n;
+      // Order in which vertices were discovered, or -1 if not yet seen
+      int[] discovered = new int[n];
+      // Smallest discovery number reachable from the vertex's subtree
+      int[] low = new int[n];
+      // Next edge to look at for each vertex on the call stack
+      int[] nextEdge = new int[n];
+      boolean[] onStack = new boolean[n];
+      int[] stack = new int[n];
+      int[] calls = new int[n];
+      Arrays.fill(discovered, -1);
+
+      int counter = 0;
+      int stackTop = 0;
+      int count = 0;
+
+      for (int root = 0; root < n; root++)
+      {
+        if (discovered[root] != -1)
+        {
+          continue;
+        }
+        int callTop = 0;
+        calls[callTop++] = root;
+        discovered[root] = low[root] = counter++;
+        nextEdge[root] = csr.offsets[root];
+        stack[stackTop++] = root;
+        onStack[root] = true;
+
+        while (callTop > 0)
+        {
+          int v = calls[callTop - 1];
+          if (nextEdge[v] < csr.offsets[v + 1])
+          {
+            int w = csr.targets[nextEdge[v]++];
+            if (discovered[w] == -1)
+            {
+              // Descend into w
+              discovered[w] = low[w] = counter++;
+              nextEdge[w] = csr.offsets[w];
+              stack[stackTop++] = w;
+              onStack[w] = true;
+              calls[callTop++] = w;
+            }
+            else if (onStack[w] && discovered[w] < low[v])
+            {
+              low[v] = discovered[w];
+            }
+          }
+          else
+          {
+            // All of v's edges are done; return to its caller
+            callTop--;
+            if (low[v] == discovered[v])
+            {
+              int w;
+              do
+              {
+                w = stack[--stackTop];
+                onStack[w] = false;
+                labels[w] = count;
+              } while (w != v);
+              count++;
+            }
+            if (callTop > 0)
+            {
+              int caller = calls[callTop - 1];
+              if (low[v] < low[caller])
+              {
+                low[caller] = low[v];
+              }
+            }
+          }
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Gives the number of components.
+     *
+     * @return the number of components
+     */
+    public int count()
+    {
+      return count;
+    }
+
+    /**
+     * Gives the component a vertex belongs to.
+     *
+     * @param vertex a vertex
+     * @return the component of 'vertex', or -1 if it was not in the
+     * graph
+     */
+    public int componentOf(V vertex)
+    {
+      Integer index = indices.get(vertex);
+      if (index == null)
+      {
+        return -1;
+      }
+      return labels[index];
+    }
+
+    /**
+     * Tells whether two vertices are in the same component.
+     *
+     * @param a a vertex
+     * @param b a vertex
+     * @return true iff both vertices are in the graph and share a
+     * component
+     */
+    public boolean together(V a, V b)
+    {
+      int label = componentOf(a);
+      return label != -1 && label == componentOf(b);
+    }
+
+    /**
+     * Gives the component of every vertex.
+     *
+     * @return a copy of the labels, where entry i is the component of
+     * the i-th vertex returned by getVertices()
+     */
+    public int[] labels()
+    {
+      return labels.clone();
+    }
+
+    /**
+     * Gives the vertices in each component.
+     *
+     * @param component a component number
+     * @return the vertices in that component, in getVertices() order
+     */
+    public List<V> members(int component)
+    {
+      List<V> members = new ArrayList<V>();
+      for (int i = 0; i < labels.length; i++)
+      {
+        if (labels[i] == component)
+        {
+          members.add(vertices.get(i));
+        }
+      }
+      return members;
+    }
+}
@@ -0,0 +1,856 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only graph that keeps its edges compressed in a single byte
+ * array, for graphs too big to hold as arrays of ints.  It is built
+ * once from another graph and cannot be changed afterwards.
+ *
+ * Vertices are numbered in the order the source graph returns them,
+ * and each vertex's neighbours are sorted by number.  A neighbour list
+ * is stored as its length followed by the gaps between consecutive
+ * neighbours, each written as a Varint, so neighbours numbered close
+ * together cost a byte or less.  A list may also be written as a copy
+ * of part of a list up to 'window' vertices earlier plus the entries
+ * that copy misses (reference compression); this pays off when nearby
+ * vertices share many neighbours, as pages on the same web site do.
+ * Chains of references are limited to 'maxReferenceChain' so decoding
+ * any list stays cheap.
+ *
+ * Lists are decoded when they are read: adjacentTo, hasEdge and the
+ * path methods decode into small reusable int buffers and never build
+ * a copy of the whole graph.  adjacentTo gives neighbours in vertex
+ * number order rather than the order the edges were added.  How well a
+ * graph compresses depends on its numbering; vertices whose neighbours
+ * are numbered near them compress best.  A GraphImpl source is taken
+ * in the order of its own numbers, so reordering it first with
+ * GraphImpl.reorder usually makes the copy smaller.
+ *
+ * The encoded lists live in one byte array indexed by int offsets, so
+ * they can take at most MAX_BYTES bytes, a little under 2 GB; building
+ * a bigger graph throws a RuntimeException rather than overflowing.
+ * Building also takes a CSR snapshot of the source graph first, so
+ * while of() runs it needs room for the int arrays of that snapshot
+ * as well as the compressed copy.
+ *
+ * @version 1
+ */
+public class CompressedGraph<V> implements Graph<V>
+{
+    public static final int DEFAULT_WINDOW = 7;
+    public static final int DEFAULT_MAX_REFERENCE_CHAIN = 3;
+
+    /**
+     * The most bytes the encoded neighbour lists can take, the largest
+     * byte array the JVM reliably allocates.
+     */
+    public static final int MAX_BYTES = Integer.MAX_VALUE - 8;
+
+    // vertices[i] is the vertex numbered i
+    private final Object[] vertices;
+
+    // Maps each vertex back to its number
+    private final Map<V, Integer> indices;
+
+    // Every encoded neighbour list, back to back
+    private final byte[] data;
+
+    // offsets[i] is where the list of vertex i starts in 'data'
+    private final int[] offsets;
+
+    private final int edgeCount;
+
+    // Length of the longest neighbour list, used to size decode buffers
+    private final int maxDegree;
+
+    private final int maxReferenceChain;
+
+    private CompressedGraph(Object[] vertices, Map<V, Integer> indices, byte[] data,
+                            int[] offsets, int edgeCount, int maxDegree,
+                            int maxReferenceChain)
+    {
+      this.vertices = vertices;
+      this.indices = indices;
+      this.data = data;
+      this.offsets = offsets;
+      this.edgeCount = edgeCount;
+      this.maxDegree = maxDegree;
+      this.maxReferenceChain = maxReferenceChain;
+    }
+
+    /**
+     * Compresses a graph with the default reference window and chain
+     * length.
+     *
+     * @param graph the graph to compress
+     * @return a compressed copy of the graph
+     */
+    public static <V> CompressedGraph<V> of(Graph<V> graph)
+    {
+      return of(graph, DEFAULT_WINDOW, DEFAULT_MAX_REFERENCE_CHAIN);
+    }
+
+    /**
+     * Compresses a graph.
+     *
+     * @param graph the graph to compress
+     * @param window how many earlier lists to try copying from; 0
+     * turns reference compression off
+     * @param maxReferenceChain the most lists that may have to be
+     * decoded to decode any one list
+     * @return a compressed copy of the graph
+     */
+    public static <V> CompressedGraph<V> of(Graph<V> graph, int window,
+                                            int maxReferenceChain)
+    {
+      if (window < 0 || maxReferenceChain < 0) {
+        throw new RuntimeException("Window and reference chain must not be negative");
+      }
+      Csr<V> csr = Csr.of(graph);
+      int n = csr.n;
+      Object[] vertices = new Object[n];
+      Map<V, Integer> indices = new HashMap<V, Integer>(n * 2);
+      for (int i = 0; i < n; i++)
+      {
+        vertices[i] = csr.vertex(i);
+        indices.put(csr.vertex(i), i);
+      }
+
+      // Sorted copy of every list; the encoder copies from these
+      int[] sorted = csr.targets.clone();
+      int maxDegree = 0;
+      for (int i = 0; i < n; i++)
+      {
+        Arrays.sort(sorted, csr.offsets[i], csr.offsets[i + 1]);
+        maxDegree = Math.max(maxDegree, csr.degree(i));
+      }
+
+      int[] chain = new int[n];
+      int[] offsets = new int[n + 1];
+      ByteSink out = new ByteSink(Math.max(16, sorted.length));
+      ByteSink best = new ByteSink(16);
+      ByteSink trial = new ByteSink(16);
+      int[] runs = new int[maxDegree + 1];
+      int[] extras = new int[maxDegree];
+      for (int v = 0; v < n; v++)
+      {
+        offsets[v] = out.size;
+        best.size = 0;
+        encode(v, sorted, csr.offsets, 0, runs, extras, best);
+        int bestChain = 0;
+        for (int r = 1; r <= window && r <= v; r++)
+        {
+          int u = v - r;
+          if (chain[u] >= maxReferenceChain)
+          {
+            continue;
+          }
+          trial.size = 0;
+          if (encode(v, sorted, csr.offsets, r, runs, extras, trial)
+              && trial.size < best.size)
+          {
+            ByteSink swap = best;
+            best = trial;
+            trial = swap;
+            bestChain = chain[u] + 1;
+          }
+        }
+        chain[v] = bestChain;
+        out.append(best);
+      }
+      offsets[n] = out.size;
+      return new CompressedGraph<V>(vertices, indices, Arrays.copyOf(out.bytes, out.size),
+                                    offsets, sorted.length, maxDegree, maxReferenceChain);
+    }
+
+    /**
+     * Encodes the sorted list of vertex v, copying from the list of
+     * vertex v - reference when reference is not 0.  The layout is:
+     * degree; if the degree is not 0, the reference; if the reference
+     * is not 0, the number of runs and their lengths, alternately
+     * copying and skipping entries of the referenced list; then the
+     * entries not copied, the first relative to v and the rest as gaps.
+     *
+     * @return false if the reference would copy nothing
+     */
+    private static boolean encode(int v, int[] sorted, int[] offsets, int reference,
+                                  int[] runs, int[] extras, ByteSink out)
+    {
+      int start = offsets[v];
+      int end = offsets[v + 1];
+      int degree = end - start;
+      out.varint(degree);
+      if (degree == 0)
+      {
+        return reference == 0;
+      }
+      out.varint(reference);
+
+      int extraCount = 0;
+      if (reference == 0)
+      {
+        for (int i = start; i < end; i++)
+        {
+          extras[extraCount++] = sorted[i];
+        }
+      }
+      else
+      {
+        // Merge the two sorted lists, marking runs of the referenced
+        // list as copied or skipped
+        int u = v - reference;
+        int j = offsets[u];
+        int refEnd = offsets[u + 1];
+        int i = start;
+        int runCount = 0;
+        int runLength = 0;
+        boolean copying = true;
+        int copied = 0;
+        while (j < refEnd)
+        {
+          while (i < end && sorted[i] < sorted[j])
+          {
+            extras[extraCount++] = sorted[i++];
+          }
+          boolean match = i < end && sorted[i] == sorted[j];
+          if (match != copying)
+          {
+            runs[runCount++] = runLength;
+            runLength = 0;
+            copying = match;
+          }
+          runLength++;
+          if (match)
+          {
+            copied++;
+            i++;
+          }
+          j++;
+        }
+        if (copying)
+        {
+          // A trailing skip run is implied, so only a copy run is kept
+          runs[runCount++] = runLength;
+        }
+        while (i < end)
+        {
+          extras[extraCount++] = sorted[i++];
+        }
+        if (copied == 0)
+        {
+          return false;
+        }
+        out.varint(runCount);
+        for (int k = 0; k < runCount; k++)
+        {
+          out.varint(runs[k]);
+        }
+      }
+
+      if (extraCount > 0)
+      {
+        out.varint(Varint.zigzag(extras[0] - v));
+        for (int k = 1; k < extraCount; k++)
+        {
+          out.varint(extras[k] - extras[k - 1]);
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Gives the size of the encoded edges.
+     *
+     * @return the number of bytes holding the neighbour lists
+     */
+    public int compressedBytes()
+    {
+      return data.length;
+    }
+
+    /**
+     * Gives the average number of bits each edge takes, not counting
+     * the per-vertex offsets.
+     *
+     * @return bits per edge, or 0 for a graph without edges
+     */
+    public double bitsPerEdge()
+    {
+      if (edgeCount == 0)
+      {
+        return 0;
+      }
+      return data.length * 8.0 / edgeCount;
+    }
+
+    /**
+     * Gives the number of vertices in the graph.
+     *
+     * @return the number of vertices in the graph.
+     */
+    public int numVertices()
+    {
+      return vertices.length;
+    }
+
+    /**
+     * Gives the number of edges in the graph.
+     *
+     * @return the number of edges in the graph.
+     */
+    public int numEdges()
+    {
+      return edgeCount;
+    }
+
+    /**
+     * Gives the degree of a vertex, reading only the start of its
+     * list.  If the given vertex is not in the graph, throws a
+     * RuntimeException.
+     *
+     * @param vertex a vertex in the graph
+     * @return the out-degree of 'vertex'
+     */
+    public int degree(V vertex)
+    {
+      Integer index = indices.get(vertex);
+      if (index == null) {
+        throw new RuntimeException("Vertex does not exist");
+      }
+      return new Decoder().degree(index);
+    }
+
+    /**
+     * Always throws, since a compressed graph cannot be changed.
+     */
+    public void addEdge(V from, V to)
+    {
+      throw new RuntimeException("A CompressedGraph cannot be changed");
+    }
+
+    /**
+     * Always throws, since a compressed graph cannot be changed.
+     */
+    public void addVertex(V vertex)
+    {
+      throw new RuntimeException("A CompressedGraph cannot be changed");
+    }
+
+    /**
+     * Gets all vertices in the graph, in number order.
+     *
+     * @return an iterable collection for the set of vertices of the
+     * graph.
+     */
+    @SuppressWarnings("unchecked")
+    public Iterable<V> getVertices()
+    {
+      return (List<V>) Collections.unmodifiableList(Arrays.asList(vertices));
+    }
+
+    /**
+     * Gets the vertices adjacent to a given vertex, decoding its list
+     * when iteration starts.  If 'from' is not a vertex in the graph,
+     * returns an empty iterable.
+     *
+     * @param from the source vertex
+     * @return an iterable collection for the set of vertices that are
+     * the destinations of edges for which 'from' is the source vertex.
+     */
+    public Iterable<V> adjacentTo(V from)
+    {
+      final Integer index = indices.get(from);
+      if (index == null)
+      {
+        return Collections.<V>emptyList();
+      }
+      return new Iterable<V>() {
+        public Iterator<V> iterator()
+        {
+          Decoder decoder = new Decoder();
+          final int count = decoder.decode(index);
+          final int[] list = decoder.list();
+          return new Iterator<V>() {
+            private int next = 0;
+
+            public boolean hasNext()
+            {
+              return next < count;
+            }
+
+            @SuppressWarnings("unchecked")
+            public V next()
+            {
+              if (next >= count) {
+                throw new NoSuchElementException();
+              }
+              return (V) vertices[list[next++]];
+            }
+
+            public void remove()
+            {
+              throw new UnsupportedOperationException("A CompressedGraph cannot be changed");
+            }
+          };
+        }
+      };
+    }
+
+    /**
+     * Tells whether or not a vertex is in the graph.
+     *
+     * @param vertex a vertex
+     * @return true iff 'vertex' is a vertex in the graph.
+     */
+    public boolean contains(V vertex)
+    {
+      return indices.containsKey(vertex);
+    }
+
+    /**
+     * Tells whether an edge exists in the graph connecting two vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return true iff there is an edge from the source vertex to the
+     * destination vertex in the graph.
+     */
+    public boolean hasEdge(V from, V to)
+    {
+      Integer fromIndex = indices.get(from);
+      Integer toIndex = indices.get(to);
+      if (fromIndex == null || toIndex == null)
+      {
+        return false;
+      }
+      Decoder decoder = new Decoder();
+      int count = decoder.decode(fromIndex);
+      return Arrays.binarySearch(decoder.list(), 0, count, toIndex) >= 0;
+    }
+
+    /**
+     * Gives a string representation of the graph, one vertex and its
+     * neighbours per line.
+     *
+     * @return a string representation of the graph
+     */
+    public String toString()
+    {
+      StringBuilder str = new StringBuilder();
+      Decoder decoder = new Decoder();
+      for (int i = 0; i < vertices.length; i++)
+      {
+        str.append(vertices[i]).append(":");
+        int count = decoder.decode(i);
+        int[] list = decoder.list();
+        for (int j = 0; j < count; j++)
+        {
+          str.append(" ").append(vertices[list[j]]);
+          if (j < count - 1)
+          {
+            str.append(",");
+          }
+        }
+        str.append("\n");
+      }
+      return str.toString();
+    }
+
+    /**
+     * Tells whether another graph has the same vertices and edges.
+     *
+     * @param obj the object to compare against
+     * @return true iff 'obj' is a graph with the same vertices and
+     * edges as this one
+     */
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object obj)
+    {
+      if (!(obj instanceof Graph))
+      {
+        return false;
+      }
+      Graph<V> other = (Graph<V>) obj;
+      if (other.numVertices() != numVertices() || other.numEdges() != numEdges())
+      {
+        return false;
+      }
+      Decoder decoder = new Decoder();
+      for (int i = 0; i < vertices.length; i++)
+      {
+        V vertex = (V) vertices[i];
+        if (!other.contains(vertex))
+        {
+          return false;
+        }
+        int count = decoder.decode(i);
+        int[] list = decoder.list();
+        for (int j = 0; j < count; j++)
+        {
+          if (!other.hasEdge(vertex, (V) vertices[list[j]]))
+          {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    public int hashCode()
+    {
+      int hash = edgeCount;
+      for (Object vertex : vertices)
+      {
+        hash += vertex == null ? 0 : vertex.hashCode();
+      }
+      return hash;
+    }
+
+    /**
+     * Tells whether the graph is empty.
+     *
+     * @return true iff the graph is empty.
+     */
+    public boolean isEmpty()
+    {
+      return vertices.length == 0;
+    }
+
+    /**
+     * Always throws, since a compressed graph cannot be changed.
+     */
+    public void removeVertex(V toRemove)
+    {
+      throw new RuntimeException("A CompressedGraph cannot be changed");
+    }
+
+    /**
+     * Always throws, since a compressed graph cannot be changed.
+     */
+    public void removeEdge(V from, V to)
+    {
+      throw new RuntimeException("A CompressedGraph cannot be changed");
+    }
+
+    /**
+     * Tells whether there is a path connecting two given vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return true iff there is a path from 'from' to 'to' in the graph.
+     */
+    public boolean hasPath(V from, V to)
+    {
+      return shortestPath(from, to) != null;
+    }
+
+    /**
+     * Gets the number of edges on the shortest path connecting two
+     * given vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the length of the shortest path from 'from' to 'to' in
+     * the graph.  If there is no path, returns Integer.MAX_VALUE
+     */
+    public int pathLength(V from, V to)
+    {
+      int[] path = shortestPath(from, to);
+      if (path == null)
+      {
+        return Integer.MAX_VALUE;
+      }
+      return path.length - 1;
+    }
+
+    /**
+     * Returns the vertices along the shortest path connecting two
+     * given vertices, including both end points.  If there is no path,
+     * returns an empty iterable.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the vertices on the path from 'from' to 'to'
+     */
+    @SuppressWarnings("unchecked")
+    public Iterable<V> getPath(V from, V to)
+    {
+      int[] path = shortestPath(from, to);
+      if (path == null)
+      {
+        return Collections.<V>emptyList();
+      }
+      List<V> result = new ArrayList<V>(path.length);
+      for (int index : path)
+      {
+        result.add((V) vertices[index]);
+      }
+      return result;
+    }
+
+    /**
+     * Breadth first search that decodes each list as it is reached,
+     * reusing one decoder for the whole search.
+     *
+     * @return the indexes on the path, or null if there is none
+     */
+    private int[] shortestPath(V from, V to)
+    {
+      Integer fromIndex = indices.get(from);
+      Integer toIndex = indices.get(to);
+      if (fromIndex == null || toIndex == null)
+      {
+        return null;
+      }
+      int source = fromIndex;
+      int target = toIndex;
+      if (source == target)
+      {
+        return new int[] { source };
+      }
+
+      int n = vertices.length;
+      int[] parent = new int[n];
+      Arrays.fill(parent, -2);
+      parent[source] = -1;
+      int[] queue = new int[n];
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = source;
+      Decoder decoder = new Decoder();
+
+      while (head < tail)
+      {
+        int u = queue[head++];
+        int count = decoder.decode(u);
+        int[] list = decoder.list();
+        for (int j = 0; j < count; j++)
+        {
+          int v = list[j];
+          if (parent[v] == -2)
+          {
+            parent[v] = u;
+            if (v == target)
+            {
+              return tracePath(parent, source, target);
+            }
+            queue[tail++] = v;
+          }
+        }
+      }
+      return null;
+    }
+
+    // Follows parent links back from target and returns the path in order
+    private static int[] tracePath(int[] parent, int source, int target)
+    {
+      int length = 1;
+      for (int v = target; v != source; v = parent[v])
+      {
+        length++;
+      }
+      int[] path = new int[length];
+      int v = target;
+      for (int i = length - 1; i >= 0; i--)
+      {
+        path[i] = v;
+        v = parent[v];
+      }
+      return path;
+    }
+
+    /**
+     * Decodes neighbour lists into int buffers, one pair of buffers per
+     * level of reference chain.  A decoder is not thread-safe, but any
+     * number can read the same graph at once.
+     */
+    private final class Decoder
+    {
+      // lists[d] holds the list decoded at chain depth d
+      private final int[][] lists;
+
+      // copies[d] holds the entries copied from the referenced list
+      private final int[][] copies;
+
+      private int pos;
+
+      Decoder()
+      {
+        lists = new int[maxReferenceChain + 1][];
+        copies = new int[maxReferenceChain + 1][];
+        for (int d = 0; d <= maxReferenceChain; d++)
+        {
+          lists[d] = new int[Math.min(maxDegree, 16)];
+          copies[d] = new int[Math.min(maxDegree, 16)];
+        }
+      }
+
+      int[] list()
+      {
+        return lists[0];
+      }
+
+      int degree(int v)
+      {
+        pos = offsets[v];
+        return readVarint();
+      }
+
+      /**
+       * Decodes the list of vertex v into list().
+       *
+       * @return the number of neighbours
+       */
+      int decode(int v)
+      {
+        return decode(v, 0);
+      }
+
+      private int decode(int v, int depth)
+      {
+        pos = offsets[v];
+        int degree = readVarint();
+        if (degree == 0)
+        {
+          return 0;
+        }
+        if (lists[depth].length < degree)
+        {
+          lists[depth] = new int[Math.max(degree, lists[depth].length * 2)];
+        }
+        int[] out = lists[depth];
+        int reference = readVarint();
+        if (reference == 0)
+        {
+          readExtras(v, out, 0, degree);
+          return degree;
+        }
+
+        int runCount = readVarint();
+        int runsAt = pos;
+        int refCount = decode(v - reference, depth + 1);
+        int[] refList = lists[depth + 1];
+        pos = runsAt;
+
+        if (copies[depth].length < degree)
+        {
+          copies[depth] = new int[Math.max(degree, copies[depth].length * 2)];
+        }
+        int[] copied = copies[depth];
+        int copiedCount = 0;
+        int j = 0;
+        for (int k = 0; k < runCount; k++)
+        {
+          int length = readVarint();
+          if (k % 2 == 0)
+          {
+            System.arraycopy(refList, j, copied, copiedCount, length);
+            copiedCount += length;
+          }
+          j += length;
+        }
+        if (j > refCount) {
+          throw new RuntimeException("Corrupt neighbour list for vertex " + v);
+        }
+
+        // Read the rest into the tail of 'out', then merge from the front
+        int extraCount = degree - copiedCount;
+        readExtras(v, out, copiedCount, extraCount);
+        int a = 0;
+        int b = copiedCount;
+        int end = degree;
+        for (int i = 0; i < degree; i++)
+        {
+          if (b == end || (a < copiedCount && copied[a] <= out[b]))
+          {
+            out[i] = copied[a++];
+          }
+          else
+          {
+            out[i] = out[b++];
+          }
+        }
+        return degree;
+      }
+
+      private void readExtras(int v, int[] out, int start, int count)
+      {
+        if (count == 0)
+        {
+          return;
+        }
+        int value = v + Varint.unzigzag(readVarint());
+        out[start] = value;
+        for (int i = 1; i < count; i++)
+        {
+          value += readVarint();
+          out[start + i] = value;
+        }
+      }
+
+      private int readVarint()
+      {
+        int value = 0;
+        int shift = 0;
+        while (true)
+        {
+          int b = data[pos++];
+          value |= (b & 0x7f) << shift;
+          if ((b & 0x80) == 0)
+          {
+            return value;
+          }
+          shift += 7;
+        }
+      }
+    }
+
+    /**
+     * A growable byte array the encoder writes into.
+     */
+    private static final class ByteSink
+    {
+      byte[] bytes;
+      int size;
+
+      ByteSink(int capacity)
+      {
+        bytes = new byte[capacity];
+      }
+
+      void varint(int value)
+      {
+        ensure(5);
+        size = Varint.write(value, bytes, size);
+      }
+
+      void append(ByteSink other)
+      {
+        ensure(other.size);
+        System.arraycopy(other.bytes, 0, bytes, size, other.size);
+        size += other.size;
+      }
+
+      // Makes room for 'more' bytes, worked out in long so it cannot overflow
+      private void ensure(int more)
+      {
+        long needed = (long) size + more;
+        if (needed <= bytes.length)
+        {
+          return;
+        }
+        if (needed > MAX_BYTES) {
+          throw new RuntimeException("The compressed neighbour lists need more than " + MAX_BYTES + " bytes");
+        }
+        bytes = Arrays.copyOf(bytes, (int) Math.min(MAX_BYTES, Math.max(needed, 2L * bytes.length)));
+      }
+    }
+}
@@ -0,0 +1,264 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A frozen snapshot of a graph's edges in compressed sparse row form.
+ * Vertices are numbered 0 to n - 1 in the order the graph returns
+ * them; a GraphImpl's are taken in the order of its own numbers, which
+ * differs only after GraphImpl.reorder.  The destinations of the edges leaving vertex i are
+ * targets[offsets[i]] through targets[offsets[i + 1] - 1].
+ *
+ * The snapshot does not follow later changes to the graph it was
+ * taken from.  It is meant for algorithms that want to walk the edges
+ * many times without going through adjacentTo.
+ *
+ * @version 1
+ */
+final class Csr<V>
+{
+    // Number of vertices
+    final int n;
+
+    // offsets[i] is where the edges of vertex i start in 'targets'
+    final int[] offsets;
+
+    // Destination index of every edge, grouped by source
+    final int[] targets;
+
+    // vertices[i] is the vertex with index i
+    private final Object[] vertices;
+
+    // Maps each vertex back to its index
+    private final Map<V, Integer> indices;
+
+    private Csr(Object[] vertices, Map<V, Integer> indices, int[] offsets, int[] targets)
+    {
+      this.n = vertices.length;
+      this.vertices = vertices;
+      this.indices = indices;
+      this.offsets = offsets;
+      this.targets = targets;
+    }
+
+    /**
+     * Takes a snapshot of a graph.  Runs in time proportional to the
+     * size of the graph when it is a GraphImpl; other graphs are read
+     * through getVertices and adjacentTo.
+     *
+     * @param graph the graph to copy
+     * @return a snapshot of the graph's vertices and edges
+     */
+    static <V> Csr<V> of(Graph<V> graph)
+    {
+      if (graph instanceof GraphImpl)
+      {
+        return ofImpl((GraphImpl<V>) graph);
+      }
+      List<V> order = new ArrayList<V>();
+      for (V vertex : graph.getVertices())
+      {
+        order.add(vertex);
+      }
+      int n = order.size();
+      Object[] vertices = order.toArray();
+      Map<V, Integer> indices = new HashMap<V, Integer>(n * 2);
+      for (int i = 0; i < n; i++)
+      {
+        indices.put(order.get(i), i);
+      }
+
+      int[] offsets = new int[n + 1];
+      int[] targets = new int[Math.max(16, graph.numEdges())];
+      int edge = 0;
+      for (int i = 0; i < n; i++)
+      {
+        offsets[i] = edge;
+        for (V adjacent : graph.adjacentTo(order.get(i)))
+        {
+          if (edge == targets.length)
+          {
+            targets = Arrays.copyOf(targets, edge * 2);
+          }
+          targets[edge++] = indices.get(adjacent);
+        }
+      }
+      offsets[n] = edge;
+      return new Csr<V>(vertices, indices, offsets, Arrays.copyOf(targets, edge));
+    }
+
+    private static <V> Csr<V> ofImpl(GraphImpl<V> graph)
+    {
+      int n = graph.numVertices();
+      Object[] vertices = new Object[n];
+      Map<V, Integer> indices = new HashMap<V, Integer>(n * 2);
+      int[] offsets = new int[n + 1];
+      for (int i = 0; i < n; i++)
+      {
+        V vertex = graph.vertexAt(i);
+        vertices[i] = vertex;
+        indices.put(vertex, i);
+        offsets[i + 1] = offsets[i] + graph.outDegree(i);
+      }
+      int[] targets = new int[offsets[n]];
+      for (int i = 0; i < n; i++)
+      {
+        int start = offsets[i];
+        int count = offsets[i + 1] - start;
+        for (int j = 0; j < count; j++)
+        {
+          targets[start + j] = graph.neighborAt(i, j);
+        }
+      }
+      return new Csr<V>(vertices, indices, offsets, targets);
+    }
+
+    /**
+     * Estimates the bytes held by the snapshot, not counting the
+     * vertex objects.
+     *
+     * @return the estimated bytes
+     */
+    long retainedBytes()
+    {
+      return MemoryReport.objectBytes(4 + 4 * MemoryReport.REFERENCE)
+        + MemoryReport.arrayBytes(offsets.length, 4)
+        + MemoryReport.arrayBytes(targets.length, 4)
+        + MemoryReport.arrayBytes(vertices.length, MemoryReport.REFERENCE)
+        + MemoryReport.hashMapBytes(n, MemoryReport.tableLength(n * 2));
+    }
+
+    /**
+     * Gives the number of edges in the snapshot.
+     *
+     * @return the number of edges
+     */
+    int numEdges()
+    {
+      return targets.length;
+    }
+
+    /**
+     * Gives the number of edges leaving a vertex.
+     *
+     * @param index a vertex index
+     * @return the out-degree of the vertex
+     */
+    int degree(int index)
+    {
+      return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Gives the vertex with a given index.
+     *
+     * @param index a vertex index
+     * @return the vertex
+     */
+    @SuppressWarnings("unchecked")
+    V vertex(int index)
+    {
+      return (V) vertices[index];
+    }
+
+    /**
+     * Gives the index of a vertex.
+     *
+     * @param vertex a vertex
+     * @return the index of the vertex, or -1 if it is not in the
+     * snapshot
+     */
+    int indexOf(V vertex)
+    {
+      Integer index = indices.get(vertex);
+      if (index == null)
+      {
+        return -1;
+      }
+      return index;
+    }
+
+    /**
+     * Builds the snapshot with every edge reversed.  Vertex indexes
+     * are the same as in this snapshot.
+     *
+     * @return the reversed snapshot
+     */
+    Csr<V> transpose()
+    {
+      int[] reverseOffsets = new int[n + 1];
+      for (int edge = 0; edge < targets.length; edge++)
+      {
+        reverseOffsets[targets[edge] + 1]++;
+      }
+      for (int i = 0; i < n; i++)
+      {
+        reverseOffsets[i + 1] += reverseOffsets[i];
+      }
+      int[] fill = Arrays.copyOf(reverseOffsets, n);
+      int[] reverseTargets = new int[targets.length];
+      for (int u = 0; u < n; u++)
+      {
+        for (int edge = offsets[u]; edge < offsets[u + 1]; edge++)
+        {
+          reverseTargets[fill[targets[edge]]++] = u;
+        }
+      }
+      return new Csr<V>(vertices, indices, reverseOffsets, reverseTargets);
+    }
+
+    /**
+     * Computes the number of edges on the shortest path from a source
+     * to every vertex with a breadth first search.
+     *
+     * @param source index of the start vertex
+     * @param dist filled with distances; unreachable vertices get -1
+     * @param queue scratch space of at least n ints
+     */
+    void distancesFrom(int source, int[] dist, int[] queue)
+    {
+      Arrays.fill(dist, 0, n, -1);
+      dist[source] = 0;
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = source;
+      while (head < tail)
+      {
+        int u = queue[head++];
+        int next = dist[u] + 1;
+        for (int edge = offsets[u]; edge < offsets[u + 1]; edge++)
+        {
+          int v = targets[edge];
+          if (dist[v] == -1)
+          {
+            dist[v] = next;
+            queue[tail++] = v;
+          }
+        }
+      }
+    }
+
+    /**
+     * Turns a path of indexes into a list of vertices.
+     *
+     * @param path vertex indexes in order, or null for no path
+     * @return the vertices on the path, or an empty list for no path
+     */
+    List<V> toVertices(int[] path)
+    {
+      if (path == null)
+      {
+        return new ArrayList<V>();
+      }
+      List<V> result = new ArrayList<V>(path.length);
+      for (int index : path)
+      {
+        result.add(vertex(index));
+      }
+      return result;
+    }
+}
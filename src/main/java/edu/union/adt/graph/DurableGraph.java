@@ -0,0 +1,674 @@
+package edu.union.adt.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A graph whose changes survive a crash.  Every addVertex, addEdge,
+ * removeEdge and removeVertex call is applied to an in-memory graph
+ * and then appended to a log in a directory, and from
+ * time to time the whole graph is written out as a checkpoint and the
+ * log is started afresh.  Opening the directory again loads the latest
+ * checkpoint and replays only the log written after it.
+ *
+ * Each log record is a length, the operation code and its vertices
+ * written with a VertexCodec, and a CRC32 of the record, so a record
+ * torn by a crash is detected and dropped on recovery.  Records are
+ * gathered in memory and written and forced to disk together every
+ * syncEvery changes (group commit); a crash can lose at most the
+ * changes since the last sync.  With syncEvery set to 1 every change
+ * is durable before its method returns.  A change whose vertices
+ * encode to more than MAX_RECORD_BYTES is refused.  The directory is
+ * forced to disk after a checkpoint is renamed into place and its new
+ * log created, before older files are deleted.
+ *
+ * A change is encoded before it is applied, so one the codec cannot
+ * write leaves the graph as it was, and it is only logged once the
+ * in-memory graph has accepted it, so a change the graph refuses (a
+ * duplicate edge under GraphFactory.Duplicates.REJECT, say) never
+ * reaches the log to fail again on recovery.
+ *
+ * Queries go straight to the in-memory graph.  Changes are
+ * synchronized, so only one thread writes the log at a time.
+ *
+ * @version 1
+ */
+public class DurableGraph<V> implements Graph<V>, Closeable
+{
+    public static final int DEFAULT_SYNC_EVERY = 64;
+    public static final int DEFAULT_CHECKPOINT_EVERY = 100000;
+
+    private static final byte ADD_VERTEX = 1;
+    private static final byte ADD_EDGE = 2;
+    private static final byte REMOVE_EDGE = 3;
+    private static final byte REMOVE_VERTEX = 4;
+
+    private static final int CHECKPOINT_MAGIC = 0x47524350;
+
+    /**
+     * The largest encoded change, in bytes, a log record can hold.
+     * Recovery takes a longer length as the mark of a torn record, so
+     * a change whose vertices encode to more than this is refused.
+     */
+    public static final int MAX_RECORD_BYTES = 1 << 24;
+
+    // Records are flushed to the file once this many bytes are waiting
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final VertexCodec<V> codec;
+    private final Graph<V> graph;
+    private final int syncEvery;
+    private final int checkpointEvery;
+
+    // Number of the current checkpoint and log files
+    private long generation;
+
+    private FileChannel log;
+
+    // Encoded records not yet written to the log file
+    private final ByteArrayOutputStream recordBytes;
+    private final DataOutputStream record;
+    private final ByteArrayOutputStream waiting;
+
+    private int unsynced;
+    private int sinceCheckpoint;
+    private int recovered;
+
+    private DurableGraph(Path directory, VertexCodec<V> codec, Graph<V> graph,
+                         int syncEvery, int checkpointEvery)
+    {
+      this.directory = directory;
+      this.codec = codec;
+      this.graph = graph;
+      this.syncEvery = syncEvery;
+      this.checkpointEvery = checkpointEvery;
+      recordBytes = new ByteArrayOutputStream();
+      record = new DataOutputStream(recordBytes);
+      waiting = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Opens a durable graph in a directory with the default sync and
+     * checkpoint intervals.
+     *
+     * @param directory where the log and checkpoints are kept
+     * @param codec reads and writes vertices
+     * @param empty an empty graph to recover into and then keep in
+     * memory
+     * @return the recovered graph
+     * @throws IOException if the directory cannot be read or written
+     */
+    public static <V> DurableGraph<V> open(Path directory, VertexCodec<V> codec,
+                                           Graph<V> empty) throws IOException
+    {
+      return open(directory, codec, empty, DEFAULT_SYNC_EVERY, DEFAULT_CHECKPOINT_EVERY);
+    }
+
+    /**
+     * Opens a durable graph in a directory, creating the directory if
+     * needed and recovering whatever it already holds.
+     *
+     * @param directory where the log and checkpoints are kept
+     * @param codec reads and writes vertices
+     * @param empty an empty graph to recover into and then keep in
+     * memory
+     * @param syncEvery force the log to disk after this many changes;
+     * 0 only forces it on sync, checkpoint and close
+     * @param checkpointEvery write a checkpoint after this many
+     * changes; 0 never checkpoints automatically
+     * @return the recovered graph
+     * @throws IOException if the directory cannot be read or written
+     */
+    public static <V> DurableGraph<V> open(Path directory, VertexCodec<V> codec,
+                                           Graph<V> empty, int syncEvery,
+                                           int checkpointEvery) throws IOException
+    {
+      if (!empty.isEmpty()) {
+        throw new RuntimeException("A durable graph must be recovered into an empty graph");
+      }
+      Files.createDirectories(directory);
+      DurableGraph<V> durable =
+        new DurableGraph<V>(directory, codec, empty, syncEvery, checkpointEvery);
+      durable.recover();
+      return durable;
+    }
+
+    /**
+     * Loads the newest checkpoint, replays its log, and opens the log
+     * for appending after the last good record.
+     */
+    private void recover() throws IOException
+    {
+      generation = 0;
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "checkpoint-*.bin"))
+      {
+        for (Path file : files)
+        {
+          generation = Math.max(generation, generationOf(file));
+        }
+      }
+      if (generation > 0)
+      {
+        readCheckpoint(checkpointFile(generation));
+      }
+
+      Path logFile = logFile(generation);
+      long goodLength = 0;
+      if (Files.exists(logFile))
+      {
+        goodLength = replay(logFile);
+      }
+      log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      // Cut off a record torn by a crash so new records follow good ones
+      log.truncate(goodLength);
+      log.position(goodLength);
+      syncDirectory();
+      deleteOlderThan(generation);
+    }
+
+    private static long generationOf(Path file)
+    {
+      String name = file.getFileName().toString();
+      String digits = name.substring(name.indexOf('-') + 1, name.lastIndexOf('.'));
+      return Long.parseLong(digits);
+    }
+
+    private Path checkpointFile(long number)
+    {
+      return directory.resolve(String.format("checkpoint-%012d.bin", number));
+    }
+
+    private Path logFile(long number)
+    {
+      return directory.resolve(String.format("log-%012d.bin", number));
+    }
+
+    /**
+     * Applies every intact record in a log file.
+     *
+     * @return the length of the intact prefix of the file
+     */
+    private long replay(Path logFile) throws IOException
+    {
+      long good = 0;
+      CRC32 crc = new CRC32();
+      try (DataInputStream in = new DataInputStream(
+             new BufferedInputStream(Files.newInputStream(logFile))))
+      {
+        while (true)
+        {
+          int length;
+          byte[] payload;
+          int checksum;
+          try
+          {
+            length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES)
+            {
+              break;
+            }
+            payload = new byte[length];
+            in.readFully(payload);
+            checksum = in.readInt();
+          }
+          catch (EOFException e)
+          {
+            break;
+          }
+          crc.reset();
+          crc.update(payload, 0, length);
+          if ((int) crc.getValue() != checksum)
+          {
+            break;
+          }
+          apply(new DataInputStream(new ByteArrayInputStream(payload)));
+          good += 8 + length;
+          recovered++;
+        }
+      }
+      return good;
+    }
+
+    private void apply(DataInputStream in) throws IOException
+    {
+      byte op = in.readByte();
+      V first = codec.read(in);
+      switch (op)
+      {
+        case ADD_VERTEX:
+          graph.addVertex(first);
+          break;
+        case ADD_EDGE:
+          graph.addEdge(first, codec.read(in));
+          break;
+        case REMOVE_EDGE:
+          graph.removeEdge(first, codec.read(in));
+          break;
+        case REMOVE_VERTEX:
+          graph.removeVertex(first);
+          break;
+        default:
+          throw new IOException("Unknown log record type " + op);
+      }
+    }
+
+    /**
+     * Checkpoint layout: magic number, vertex count, every vertex, then
+     * for every vertex its degree and the indexes of its neighbours as
+     * varints.  For an undirected graph only the half of each edge
+     * whose destination comes no earlier than its source is written,
+     * so adding the edges back through the graph restores each edge
+     * once whatever the graph's duplicate policy.
+     */
+    private void readCheckpoint(Path file) throws IOException
+    {
+      try (DataInputStream in = new DataInputStream(
+             new BufferedInputStream(Files.newInputStream(file))))
+      {
+        if (in.readInt() != CHECKPOINT_MAGIC) {
+          throw new IOException(file + " is not a graph checkpoint");
+        }
+        int n = in.readInt();
+        List<V> vertices = new ArrayList<V>(n);
+        for (int i = 0; i < n; i++)
+        {
+          V vertex = codec.read(in);
+          vertices.add(vertex);
+          graph.addVertex(vertex);
+        }
+        for (int i = 0; i < n; i++)
+        {
+          V from = vertices.get(i);
+          int degree = Varint.read(in);
+          for (int j = 0; j < degree; j++)
+          {
+            graph.addEdge(from, vertices.get(Varint.read(in)));
+          }
+        }
+      }
+    }
+
+    private void writeCheckpoint(Path file) throws IOException
+    {
+      Path temporary = directory.resolve(file.getFileName() + ".tmp");
+      FileOutputStream stream = new FileOutputStream(temporary.toFile());
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream)))
+      {
+        Map<V, Integer> indices = new HashMap<V, Integer>();
+        List<V> vertices = new ArrayList<V>();
+        for (V vertex : graph.getVertices())
+        {
+          indices.put(vertex, vertices.size());
+          vertices.add(vertex);
+        }
+        out.writeInt(CHECKPOINT_MAGIC);
+        out.writeInt(vertices.size());
+        for (V vertex : vertices)
+        {
+          codec.write(vertex, out);
+        }
+        boolean undirected = PolicyGraph.isUndirected(graph);
+        List<Integer> neighbours = new ArrayList<Integer>();
+        for (int i = 0; i < vertices.size(); i++)
+        {
+          neighbours.clear();
+          for (V adjacent : graph.adjacentTo(vertices.get(i)))
+          {
+            int index = indices.get(adjacent);
+            if (!undirected || index >= i)
+            {
+              neighbours.add(index);
+            }
+          }
+          Varint.write(neighbours.size(), out);
+          for (int index : neighbours)
+          {
+            Varint.write(index, out);
+          }
+        }
+        out.flush();
+        stream.getFD().sync();
+      }
+      // Only a complete checkpoint ever carries its final name
+      Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+      syncDirectory();
+    }
+
+    /**
+     * Forces the directory's entries to disk, so a renamed or newly
+     * created file is still there after a crash.  Some platforms cannot
+     * open a directory to force it; there the rename is left to the
+     * file system.
+     */
+    private void syncDirectory() throws IOException
+    {
+      FileChannel channel;
+      try
+      {
+        channel = FileChannel.open(directory, StandardOpenOption.READ);
+      }
+      catch (IOException e)
+      {
+        return;
+      }
+      try
+      {
+        channel.force(true);
+      }
+      finally
+      {
+        channel.close();
+      }
+    }
+
+    private void deleteOlderThan(long keep) throws IOException
+    {
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*-*.bin*"))
+      {
+        for (Path file : files)
+        {
+          String name = file.getFileName().toString();
+          if (name.endsWith(".tmp") || generationOf(file) < keep)
+          {
+            Files.delete(file);
+          }
+        }
+      }
+    }
+
+    /**
+     * Gives the number of log records replayed when the graph was
+     * opened.
+     *
+     * @return the number of recovered log records
+     */
+    public int recoveredRecords()
+    {
+      return recovered;
+    }
+
+    /**
+     * Writes every waiting record to the log and forces it to disk.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized void sync() throws IOException
+    {
+      flushWaiting();
+      log.force(false);
+      unsynced = 0;
+    }
+
+    /**
+     * Writes the whole graph to a new checkpoint and starts a new, empty
+     * log.  The previous checkpoint and log are deleted once the new
+     * checkpoint is safely on disk.
+     *
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public synchronized void checkpoint() throws IOException
+    {
+      sync();
+      long next = generation + 1;
+      writeCheckpoint(checkpointFile(next));
+      log.close();
+      log = FileChannel.open(logFile(next), StandardOpenOption.CREATE,
+                             StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      generation = next;
+      sinceCheckpoint = 0;
+      // The new checkpoint and log must be on disk before the old ones go
+      syncDirectory();
+      deleteOlderThan(generation);
+    }
+
+    /**
+     * Syncs the log and closes it.  The graph should not be changed
+     * afterwards.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized void close() throws IOException
+    {
+      if (log.isOpen())
+      {
+        sync();
+        log.close();
+      }
+    }
+
+    private void flushWaiting() throws IOException
+    {
+      if (waiting.size() > 0)
+      {
+        ByteBuffer bytes = ByteBuffer.wrap(waiting.toByteArray());
+        while (bytes.hasRemaining())
+        {
+          log.write(bytes);
+        }
+        waiting.reset();
+      }
+    }
+
+    /**
+     * Encodes one record's operation code and vertices.
+     */
+    private byte[] encode(byte op, V first, V second, boolean hasSecond)
+    {
+      try
+      {
+        recordBytes.reset();
+        record.writeByte(op);
+        codec.write(first, record);
+        if (hasSecond)
+        {
+          codec.write(second, record);
+        }
+        record.flush();
+        if (recordBytes.size() > MAX_RECORD_BYTES) {
+          throw new RuntimeException("A log record of " + recordBytes.size() + " bytes is larger than "
+                                     + MAX_RECORD_BYTES + " bytes");
+        }
+        return recordBytes.toByteArray();
+      }
+      catch (IOException e)
+      {
+        throw new RuntimeException("Could not write to the graph log", e);
+      }
+    }
+
+    /**
+     * Appends one encoded record, committing the group if enough
+     * changes have built up.
+     */
+    private void append(byte[] payload)
+    {
+      try
+      {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        DataOutputStream out = new DataOutputStream(waiting);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+
+        unsynced++;
+        if (syncEvery > 0 && unsynced >= syncEvery)
+        {
+          sync();
+        }
+        else if (waiting.size() >= WRITE_BUFFER_BYTES)
+        {
+          flushWaiting();
+        }
+      }
+      catch (IOException e)
+      {
+        throw new RuntimeException("Could not write to the graph log", e);
+      }
+    }
+
+    // Checkpoints once enough changes have been applied since the last one
+    private void maybeCheckpoint()
+    {
+      sinceCheckpoint++;
+      if (checkpointEvery > 0 && sinceCheckpoint >= checkpointEvery)
+      {
+        try
+        {
+          checkpoint();
+        }
+        catch (IOException e)
+        {
+          throw new RuntimeException("Could not write a graph checkpoint", e);
+        }
+      }
+    }
+
+    public int numVertices()
+    {
+      return graph.numVertices();
+    }
+
+    public int numEdges()
+    {
+      return graph.numEdges();
+    }
+
+    public int degree(V vertex)
+    {
+      return graph.degree(vertex);
+    }
+
+    /**
+     * Adds and then logs a directed edge, adding either vertex if it is
+     * not in the graph.
+     *
+     * @param from the source vertex for the added edge
+     * @param to the destination vertex for the added edge
+     */
+    public synchronized void addEdge(V from, V to)
+    {
+      byte[] payload = encode(ADD_EDGE, from, to, true);
+      graph.addEdge(from, to);
+      append(payload);
+      maybeCheckpoint();
+    }
+
+    /**
+     * Adds and then logs a vertex.
+     *
+     * @param vertex the vertex to add
+     */
+    public synchronized void addVertex(V vertex)
+    {
+      byte[] payload = encode(ADD_VERTEX, vertex, null, false);
+      graph.addVertex(vertex);
+      append(payload);
+      maybeCheckpoint();
+    }
+
+    public Iterable<V> getVertices()
+    {
+      return graph.getVertices();
+    }
+
+    public Iterable<V> adjacentTo(V from)
+    {
+      return graph.adjacentTo(from);
+    }
+
+    public boolean contains(V vertex)
+    {
+      return graph.contains(vertex);
+    }
+
+    public boolean hasEdge(V from, V to)
+    {
+      return graph.hasEdge(from, to);
+    }
+
+    public String toString()
+    {
+      return graph.toString();
+    }
+
+    public boolean equals(Object obj)
+    {
+      return graph.equals(obj);
+    }
+
+    public int hashCode()
+    {
+      return graph.hashCode();
+    }
+
+    public boolean isEmpty()
+    {
+      return graph.isEmpty();
+    }
+
+    /**
+     * Removes a vertex and its edges and then logs the change.
+     *
+     * @param toRemove the vertex to remove.
+     */
+    public synchronized void removeVertex(V toRemove)
+    {
+      byte[] payload = encode(REMOVE_VERTEX, toRemove, null, false);
+      graph.removeVertex(toRemove);
+      append(payload);
+      maybeCheckpoint();
+    }
+
+    /**
+     * Removes and then logs an edge.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     */
+    public synchronized void removeEdge(V from, V to)
+    {
+      byte[] payload = encode(REMOVE_EDGE, from, to, true);
+      graph.removeEdge(from, to);
+      append(payload);
+      maybeCheckpoint();
+    }
+
+    public boolean hasPath(V from, V to)
+    {
+      return graph.hasPath(from, to);
+    }
+
+    public int pathLength(V from, V to)
+    {
+      return graph.pathLength(from, to);
+    }
+
+    public Iterable<V> getPath(V from, V to)
+    {
+      return graph.getPath(from, to);
+    }
+}
@@ -0,0 +1,70 @@
+package edu.union.adt.graph;
+
+/**
+ * A directed edge, as a pair of its source and destination vertices.
+ *
+ * @version 1
+ */
+public final class Edge<V>
+{
+    private final V from;
+    private final V to;
+
+    /**
+     * Create an edge.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     */
+    public Edge(V from, V to)
+    {
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * Gives the source of the edge.
+     *
+     * @return the source vertex
+     */
+    public V getFrom()
+    {
+      return from;
+    }
+
+    /**
+     * Gives the destination of the edge.
+     *
+     * @return the destination vertex
+     */
+    public V getTo()
+    {
+      return to;
+    }
+
+    public boolean equals(Object obj)
+    {
+      if (!(obj instanceof Edge))
+      {
+        return false;
+      }
+      Edge<?> other = (Edge<?>) obj;
+      return same(from, other.from) && same(to, other.to);
+    }
+
+    public int hashCode()
+    {
+      int hash = from == null ? 0 : from.hashCode();
+      return hash * 31 + (to == null ? 0 : to.hashCode());
+    }
+
+    public String toString()
+    {
+      return from + " -> " + to;
+    }
+
+    private static boolean same(Object a, Object b)
+    {
+      return a == null ? b == null : a.equals(b);
+    }
+}
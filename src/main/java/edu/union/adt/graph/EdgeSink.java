@@ -0,0 +1,12 @@
+package edu.union.adt.graph;
+
+/**
+* Interface for anything that takes a stream of edges between
+* numbered vertices, such as graph storage being loaded
+*/
+
+public interface EdgeSink {
+
+  void addEdge(int from, int to);
+
+}
@@ -0,0 +1,99 @@
+package edu.union.adt.graph;
+
+/**
+ * One change to a graph: a vertex or an edge added or removed.
+ * Removing a vertex also removes every edge touching it, and those
+ * edges are reported as removed before the vertex is.
+ *
+ * @version 1
+ */
+public final class GraphEvent<V>
+{
+    /**
+     * The kinds of change.
+     */
+    public enum Type
+    {
+      VERTEX_ADDED, VERTEX_REMOVED, EDGE_ADDED, EDGE_REMOVED
+    }
+
+    private final Type type;
+    private final V from;
+    private final V to;
+
+    /**
+     * Create an event.
+     *
+     * @param type what changed
+     * @param from the vertex, or the source of the edge
+     * @param to the destination of the edge, or null for a vertex event
+     */
+    public GraphEvent(Type type, V from, V to)
+    {
+      this.type = type;
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * Gives the kind of change.
+     *
+     * @return the event type
+     */
+    public Type getType()
+    {
+      return type;
+    }
+
+    /**
+     * Gives the vertex added or removed, or the source of the edge.
+     *
+     * @return the vertex
+     */
+    public V getFrom()
+    {
+      return from;
+    }
+
+    /**
+     * Gives the destination of the edge added or removed.
+     *
+     * @return the destination, or null for a vertex event
+     */
+    public V getTo()
+    {
+      return to;
+    }
+
+    public boolean equals(Object obj)
+    {
+      if (!(obj instanceof GraphEvent))
+      {
+        return false;
+      }
+      GraphEvent<?> other = (GraphEvent<?>) obj;
+      return type == other.type && same(from, other.from) && same(to, other.to);
+    }
+
+    public int hashCode()
+    {
+      int hash = type.hashCode();
+      hash = hash * 31 + (from == null ? 0 : from.hashCode());
+      hash = hash * 31 + (to == null ? 0 : to.hashCode());
+      return hash;
+    }
+
+    public String toString()
+    {
+      if (to == null)
+      {
+        return type + " " + from;
+      }
+      return type + " " + from + " -> " + to;
+    }
+
+    private static boolean same(Object a, Object b)
+    {
+      return a == null ? b == null : a.equals(b);
+    }
+}
@@ -1,21 +1,186 @@
 package edu.union.adt.graph;
 
 /**
-* Simple class to use the new Graph interface
+* Simple class to use the new Graph interface.  By default createGraph
+* gives a directed GraphImpl; the set methods choose a different
+* backend, give size hints, and turn on undirected edges, a duplicate
+* edge policy or instrumentation.  Each set method returns the factory,
+* so calls can be chained.
 */
 
 public class GraphFactory<V>
 {
+  /**
+   * Storage backends createGraph can choose from.
+   */
+  public enum Backend
+  {
+    // Pick one from the size and density hints
+    AUTO,
+    // GraphImpl: vertices mapped to an int adjacency list
+    ADJACENCY_LIST,
+    // BitMatrixGraph: a bit per vertex pair, for small dense graphs
+    DENSE_MATRIX,
+    // ShardedGraph: lock-striped shards with parallel path searches
+    CONCURRENT,
+    // CompressedGraph: read-only compressed lists, built with freeze
+    FROZEN
+  }
+
+  /**
+   * What adding an edge that is already in the graph does.
+   */
+  public enum Duplicates
+  {
+    // Leave it to the backend; GraphImpl keeps a second copy, the
+    // matrix and concurrent backends do not
+    ALLOW,
+    // Do nothing
+    IGNORE,
+    // Throw a RuntimeException
+    REJECT
+  }
 
+  // AUTO picks the matrix when at least this fraction of vertex pairs
+  // are expected to be edges, since a bit per pair then costs less
+  // than an int per edge
+  public static final double DENSE_DENSITY = 1.0 / 32;
+
+  // AUTO never picks the matrix for more vertices than this
+  public static final int DENSE_MAX_VERTICES = 65536;
+
+  private Backend backend;
+  private int expectedVertices;
+  private int expectedEdges;
+  private boolean directed;
+  private Duplicates duplicates;
+  private boolean instrumented;
 
   public GraphFactory()
   {
+    backend = Backend.AUTO;
+    expectedVertices = 0;
+    expectedEdges = 0;
+    directed = true;
+    duplicates = Duplicates.ALLOW;
+    instrumented = false;
+  }
+
+  public GraphFactory<V> setBackend(Backend backend)
+  {
+    this.backend = backend;
+    return this;
+  }
+
+  public GraphFactory<V> setExpectedVertices(int expectedVertices)
+  {
+    this.expectedVertices = Math.max(0, expectedVertices);
+    return this;
+  }
+
+  public GraphFactory<V> setExpectedEdges(int expectedEdges)
+  {
+    this.expectedEdges = Math.max(0, expectedEdges);
+    return this;
+  }
 
+  public GraphFactory<V> setDirected(boolean directed)
+  {
+    this.directed = directed;
+    return this;
+  }
+
+  public GraphFactory<V> setDuplicates(Duplicates duplicates)
+  {
+    this.duplicates = duplicates;
+    return this;
+  }
+
+  /**
+   * Wraps created graphs in an InstrumentedGraph.
+   */
+  public GraphFactory<V> setInstrumented(boolean instrumented)
+  {
+    this.instrumented = instrumented;
+    return this;
+  }
+
+  /**
+   * Gives the backend createGraph will use, working it out from the
+   * hints when the backend is AUTO.  A concurrent or frozen backend is
+   * never picked automatically, since only the caller knows whether
+   * the graph is shared between threads or will stop changing.  The
+   * dense matrix is picked when both size hints are given and the
+   * expected density reaches DENSE_DENSITY.
+   */
+  public Backend chooseBackend()
+  {
+    if (backend != Backend.AUTO)
+    {
+      return backend;
+    }
+    if (expectedVertices > 0 && expectedVertices <= DENSE_MAX_VERTICES)
+    {
+      double pairs = (double) expectedVertices * expectedVertices;
+      if (expectedEdges / pairs >= DENSE_DENSITY)
+      {
+        return Backend.DENSE_MATRIX;
+      }
+    }
+    return Backend.ADJACENCY_LIST;
   }
 
   public Graph<V> createGraph()
   {
-    GraphImpl<V> g = new GraphImpl<V>();
+    Graph<V> g;
+    switch (chooseBackend())
+    {
+      case DENSE_MATRIX:
+        g = new BitMatrixGraph<V>(expectedVertices);
+        break;
+      case CONCURRENT:
+        g = new ShardedGraph<V>();
+        break;
+      case FROZEN:
+        throw new RuntimeException("A frozen graph cannot be changed; build one from an existing graph with freeze");
+      default:
+        g = new GraphImpl<V>(expectedVertices, expectedEdges);
+        break;
+    }
+    if (!directed || duplicates != Duplicates.ALLOW)
+    {
+      g = new PolicyGraph<V>(g, directed, duplicates);
+    }
+    if (instrumented)
+    {
+      g = new InstrumentedGraph<V>(g);
+    }
+    return g;
+  }
+
+  /**
+   * Makes a read-only, compressed copy of a graph.  The backend and
+   * edge settings are not used, but instrumentation is.
+   */
+  public Graph<V> freeze(Graph<V> source)
+  {
+    Graph<V> g = CompressedGraph.of(source);
+    if (instrumented)
+    {
+      g = new InstrumentedGraph<V>(g);
+    }
+    return g;
+  }
+
+  public WeightedGraph<V> createWeightedGraph()
+  {
+    WeightedGraphImpl<V> g = new WeightedGraphImpl<V>();
+    return g;
+  }
+
+  public IntGraph createIntGraph()
+  {
+    IntGraphImpl g = new IntGraphImpl(expectedVertices, expectedEdges);
     return g;
   }
 }
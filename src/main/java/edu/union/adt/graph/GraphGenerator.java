@@ -0,0 +1,365 @@
+package edu.union.adt.graph;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generators of synthetic graphs for benchmarks and stress
+ * tests.  A generator produces its edges one at a time into an
+ * EdgeSink, so nothing holds the edge list: toIntGraph and toGraph
+ * make storage sized for the expected number of edges and stream the
+ * edges straight into it.  The same generator and seed always give
+ * the same edges in the same order.
+ *
+ * Vertices are numbered 0 to numVertices() - 1; in a GraphImpl made by
+ * toGraph they are the Integers 0 to numVertices() - 1, all present
+ * even when they have no edges.  The random models can produce the
+ * same edge twice, or an edge from a vertex to itself, where noted.
+ *
+ * @version 1
+ */
+public abstract class GraphGenerator
+{
+    private final int vertices;
+
+    private GraphGenerator(int vertices)
+    {
+      if (vertices < 0) {
+        throw new RuntimeException("A graph cannot have " + vertices + " vertices");
+      }
+      this.vertices = vertices;
+    }
+
+    /**
+     * Gives the number of vertices generated graphs have.
+     *
+     * @return the number of vertices
+     */
+    public int numVertices()
+    {
+      return vertices;
+    }
+
+    /**
+     * Gives about how many edges a generated graph has, used to size
+     * storage before loading.
+     *
+     * @return the expected number of edges
+     */
+    public abstract long expectedEdges();
+
+    /**
+     * Produces every edge, in order, into a sink.
+     *
+     * @param sink takes the edges
+     */
+    public abstract void generate(EdgeSink sink);
+
+    /**
+     * Generates a graph into new int storage sized for it.
+     *
+     * @return the generated graph
+     */
+    public IntGraphImpl toIntGraph()
+    {
+      IntGraphImpl graph = new IntGraphImpl(vertices, edgeHint());
+      for (int v = 0; v < vertices; v++)
+      {
+        graph.addVertex();
+      }
+      generate(graph);
+      return graph;
+    }
+
+    /**
+     * Generates a graph into a new GraphImpl sized for it, with the
+     * Integers 0 to numVertices() - 1 as vertices.
+     *
+     * @return the generated graph
+     */
+    public GraphImpl<Integer> toGraph()
+    {
+      final GraphImpl<Integer> graph = new GraphImpl<Integer>(vertices, edgeHint());
+      for (int v = 0; v < vertices; v++)
+      {
+        graph.addVertex(v);
+      }
+      generate(new EdgeSink() {
+        public void addEdge(int from, int to)
+        {
+          graph.addEdgeAt(from, to);
+        }
+      });
+      return graph;
+    }
+
+    private int edgeHint()
+    {
+      return (int) Math.min(Integer.MAX_VALUE, expectedEdges());
+    }
+
+    /**
+     * The Erdos-Renyi model G(n, p): each of the n(n - 1) possible
+     * edges between two different vertices is present with probability
+     * p, independently.  The gaps between present edges are drawn
+     * directly, so the time taken grows with the number of edges
+     * made, not with n squared.  No edge is repeated and there are no
+     * self loops.
+     *
+     * @param n the number of vertices
+     * @param p the chance of each edge
+     * @param seed seeds the random choices
+     * @return the generator
+     */
+    public static GraphGenerator erdosRenyi(final int n, final double p, final long seed)
+    {
+      if (!(p >= 0 && p <= 1)) {
+        throw new RuntimeException("Edge probability must be between 0 and 1 but was " + p);
+      }
+      return new GraphGenerator(n) {
+        public long expectedEdges()
+        {
+          return (long) (p * n * (n - 1.0));
+        }
+
+        public void generate(EdgeSink sink)
+        {
+          if (n < 2 || p == 0)
+          {
+            return;
+          }
+          SplittableRandom random = new SplittableRandom(seed);
+          long pairs = (long) n * (n - 1);
+          double logMiss = Math.log(1 - p);
+          long pair = -1;
+          while (true)
+          {
+            // Number of absent pairs before the next present one
+            long skip = p == 1 ? 0 : (long) Math.floor(Math.log(1 - random.nextDouble()) / logMiss);
+            if (skip >= pairs - pair - 1)
+            {
+              return;
+            }
+            pair += skip + 1;
+            int from = (int) (pair / (n - 1));
+            int to = (int) (pair % (n - 1));
+            sink.addEdge(from, to >= from ? to + 1 : to);
+          }
+        }
+      };
+    }
+
+    /**
+     * The R-MAT model with the usual skewed quadrant chances a = 0.57,
+     * b = 0.19, c = 0.19 and d = 0.05.
+     *
+     * @param scale the graph has 2^scale vertices
+     * @param edges the number of edges to make
+     * @param seed seeds the random choices
+     * @return the generator
+     */
+    public static GraphGenerator rmat(int scale, long edges, long seed)
+    {
+      return rmat(scale, edges, 0.57, 0.19, 0.19, seed);
+    }
+
+    /**
+     * The R-MAT (recursive matrix) model, a Kronecker graph: each edge
+     * is placed by splitting the adjacency matrix into quadrants scale
+     * times and picking the top left, top right, bottom left or bottom
+     * right quadrant with chances a, b, c and 1 - a - b - c.  Skewed
+     * chances give the heavy tailed degrees and communities of real
+     * networks.  Edges can repeat and can be self loops.
+     *
+     * @param scale the graph has 2^scale vertices, up to 2^30
+     * @param edges the number of edges to make
+     * @param a the chance of the top left quadrant
+     * @param b the chance of the top right quadrant
+     * @param c the chance of the bottom left quadrant
+     * @param seed seeds the random choices
+     * @return the generator
+     */
+    public static GraphGenerator rmat(final int scale, final long edges, final double a,
+                                      final double b, final double c, final long seed)
+    {
+      if (scale < 0 || scale > 30) {
+        throw new RuntimeException("R-MAT scale must be from 0 to 30 but was " + scale);
+      }
+      if (a < 0 || b < 0 || c < 0 || a + b + c > 1) {
+        throw new RuntimeException("Quadrant chances must be at least 0 and add up to at most 1");
+      }
+      return new GraphGenerator(1 << scale) {
+        public long expectedEdges()
+        {
+          return edges;
+        }
+
+        public void generate(EdgeSink sink)
+        {
+          SplittableRandom random = new SplittableRandom(seed);
+          for (long e = 0; e < edges; e++)
+          {
+            int from = 0;
+            int to = 0;
+            for (int bit = scale - 1; bit >= 0; bit--)
+            {
+              double r = random.nextDouble();
+              if (r >= a)
+              {
+                if (r < a + b)
+                {
+                  to |= 1 << bit;
+                }
+                else if (r < a + b + c)
+                {
+                  from |= 1 << bit;
+                }
+                else
+                {
+                  from |= 1 << bit;
+                  to |= 1 << bit;
+                }
+              }
+            }
+            sink.addEdge(from, to);
+          }
+        }
+      };
+    }
+
+    /**
+     * The Barabasi-Albert preferential attachment model: vertices
+     * 0 to m - 1 start with no edges, and every later vertex adds m
+     * edges to earlier vertices, each chosen with chance proportional
+     * to its degree, so well connected vertices gather more edges.
+     * The first m vertices get one extra chance so they can be picked
+     * before they have edges.  Edges go from the new vertex to the
+     * earlier one.  A new vertex can pick the same earlier vertex
+     * twice.
+     *
+     * The destinations chosen so far are kept to draw from, so this
+     * takes four bytes per edge while generating.
+     *
+     * @param n the number of vertices
+     * @param m the number of edges each new vertex adds
+     * @param seed seeds the random choices
+     * @return the generator
+     */
+    public static GraphGenerator barabasiAlbert(final int n, final int m, final long seed)
+    {
+      if (m < 1) {
+        throw new RuntimeException("Each vertex must add at least one edge but m was " + m);
+      }
+      return new GraphGenerator(n) {
+        public long expectedEdges()
+        {
+          return n > m ? (long) (n - m) * m : 0;
+        }
+
+        public void generate(EdgeSink sink)
+        {
+          if (n <= m)
+          {
+            return;
+          }
+          SplittableRandom random = new SplittableRandom(seed);
+          long total = expectedEdges();
+          if (total > Integer.MAX_VALUE - 8) {
+            throw new RuntimeException("Too many edges to generate: " + total);
+          }
+          // Edge k goes from vertex m + k / m to targets[k]
+          int[] targets = new int[(int) total];
+          for (int k = 0; k < targets.length; k++)
+          {
+            int from = m + k / m;
+            // Each edge made before this vertex offers both its ends,
+            // and each of the first m vertices one extra chance
+            long before = (long) (from - m) * m;
+            long r = random.nextLong(2 * before + m);
+            int to;
+            if (r < m)
+            {
+              to = (int) r;
+            }
+            else
+            {
+              long end = r - m;
+              long edge = end / 2;
+              to = (end & 1) == 0 ? (int) (m + edge / m) : targets[(int) edge];
+            }
+            targets[k] = to;
+            sink.addEdge(from, to);
+          }
+        }
+      };
+    }
+
+    /**
+     * A two dimensional grid: each vertex r * columns + c has edges to
+     * and from its right and lower neighbours, so every edge of the
+     * undirected grid is there in both directions.
+     *
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @return the generator
+     */
+    public static GraphGenerator grid(final int rows, final int columns)
+    {
+      if (rows < 0 || columns < 0 || (long) rows * columns > Integer.MAX_VALUE) {
+        throw new RuntimeException("Cannot make a " + rows + " by " + columns + " grid");
+      }
+      return new GraphGenerator(rows * columns) {
+        public long expectedEdges()
+        {
+          return rows == 0 || columns == 0 ? 0
+            : 2L * ((long) rows * (columns - 1) + (long) columns * (rows - 1));
+        }
+
+        public void generate(EdgeSink sink)
+        {
+          for (int r = 0; r < rows; r++)
+          {
+            for (int c = 0; c < columns; c++)
+            {
+              int v = r * columns + c;
+              if (c + 1 < columns)
+              {
+                sink.addEdge(v, v + 1);
+                sink.addEdge(v + 1, v);
+              }
+              if (r + 1 < rows)
+              {
+                sink.addEdge(v, v + columns);
+                sink.addEdge(v + columns, v);
+              }
+            }
+          }
+        }
+      };
+    }
+
+    /**
+     * A chain: an edge from each vertex to the next, 0 to 1 to ... to
+     * n - 1.  Its shortest paths are as long as they can be, which
+     * makes it the worst case for path searches and recursion.
+     *
+     * @param n the number of vertices
+     * @return the generator
+     */
+    public static GraphGenerator chain(final int n)
+    {
+      return new GraphGenerator(n) {
+        public long expectedEdges()
+        {
+          return Math.max(0, n - 1);
+        }
+
+        public void generate(EdgeSink sink)
+        {
+          for (int v = 0; v + 1 < n; v++)
+          {
+            sink.addEdge(v, v + 1);
+          }
+        }
+      };
+    }
+}
@@ -1,12 +1,11 @@
 package edu.union.adt.graph;
 
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.Queue;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.LinkedList;
 import java.util.Collections;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A graph that establishes connections (edges) between objects of
@@ -21,6 +20,11 @@ import java.util.Collections;
  * parameterized with a vertex type V instead of assuming String
  * vertices.
  *
+ * Each vertex is numbered in the order it was added, and the edges
+ * are kept by number in an IntGraphImpl; this class only maps vertices
+ * to and from their numbers.  reorder can renumber the vertices so
+ * searches touch less memory, without changing getVertices.
+ *
  * @author Aaron G. Cass
  * @version 1
  *
@@ -31,19 +35,168 @@ public class GraphImpl<V> implements Graph<V>
     // Holds the vertices of generic type
     private ArrayList<V> vertices;
 
+    // Maps each vertex to its index in 'vertices'
+    private Map<V, Integer> indices;
+
+    // The vertices in the order they were added, kept once reorder has
+    // numbered them differently; null while 'vertices' is in that order
+    private ArrayList<V> addedOrder;
+
+    // Holds the edges between vertices by index
+    private IntGraphImpl edges;
+
     /**
-     * Holds a record of which objects are connected to which using
-     * their index in the 'objects' LinkedList
+     * Optional landmark index used to answer path queries.  It is a
+     * snapshot, so any change to the graph throws it away.
      */
-    private ArrayList<ArrayList> edges;
+    private LandmarkIndex<V> landmarks;
+
+    /**
+     * Weakly connected components, kept up to date as vertices and
+     * edges are added.  Removals can split a component, so they set
+     * this to null and it is rebuilt the next time it is needed.  It is
+     * volatile so a rebuild made by one reader is seen whole by others.
+     */
+    private volatile UnionFind weak;
+
+    // Counts changes, so views over the graph can tell they are stale
+    private int modCount;
+
+    // Lengths of the arrays behind 'vertices' and 'indices', which those
+    // classes do not expose; the memory report needs them
+    private int vertexCapacity;
+    private int indexTableLength;
 
     /**
      * Create an empty graph.
      */
     public GraphImpl()
     {
-      vertices = new ArrayList<V>();
-      edges = new ArrayList<ArrayList>();
+      this(8);
+    }
+
+    /**
+     * Create an empty graph with room for some vertices before it has
+     * to grow.
+     *
+     * @param expectedVertices how many vertices to make room for
+     */
+    public GraphImpl(int expectedVertices)
+    {
+      this(expectedVertices, 0);
+    }
+
+    /**
+     * Create an empty graph with room for some vertices and edges
+     * before it has to grow.
+     *
+     * @param expectedVertices how many vertices to make room for
+     * @param expectedEdges how many edges are expected in all
+     */
+    public GraphImpl(int expectedVertices, int expectedEdges)
+    {
+      int capacity = Math.max(1, expectedVertices);
+      vertices = new ArrayList<V>(capacity);
+      indices = new HashMap<V, Integer>(capacity * 2);
+      vertexCapacity = capacity;
+      indexTableLength = MemoryReport.tableLength(capacity * 2);
+      edges = new IntGraphImpl(capacity, expectedEdges);
+      landmarks = null;
+      weak = new UnionFind(0);
+    }
+
+    /**
+     * Ways reorder can renumber the vertices.  Each follows edges in
+     * both directions.
+     */
+    public enum Ordering
+    {
+        /** Breadth first order, so a search's next vertices sit together. */
+        BFS,
+        /**
+         * Reverse Cuthill-McKee, which keeps the numbers at the two ends
+         * of each edge close; usually the best for sparse graphs with
+         * local structure such as meshes and road networks.
+         */
+        REVERSE_CUTHILL_MCKEE,
+        /** Highest degree first, so the hubs most paths cross sit together. */
+        DEGREE
+    }
+
+    /**
+     * Answers getPath and pathLength with a landmark index until the
+     * graph is next changed.  Throws a RuntimeException if the index
+     * was built from a different graph, or from this graph before its
+     * latest change.
+     *
+     * @param index an index built from this graph, or null to stop
+     * using one
+     */
+    public void useLandmarks(LandmarkIndex<V> index)
+    {
+      if (index != null && !index.isFor(this)) {
+        throw new RuntimeException("Landmark index was built for a different graph or is out of date");
+      }
+      landmarks = index;
+    }
+
+    /**
+     * Tells whether path queries are currently answered by a landmark
+     * index.
+     *
+     * @return true iff a landmark index is in use
+     */
+    public boolean usesLandmarks()
+    {
+      return landmarks != null;
+    }
+
+    /**
+     * Estimates the memory the graph holds on to, by component: the
+     * vertex dictionary, the edge storage, a landmark index if one is
+     * in use, and the weak components kept for hasPath.
+     *
+     * @return the memory report
+     */
+    public MemoryReport memoryReport()
+    {
+      MemoryReport report = new MemoryReport(vertices.size(), edges.numEdges());
+      report.add(MemoryReport.VERTEX_DICTIONARY,
+                 MemoryReport.objectBytes(MemoryReport.REFERENCE + 2 * 4)
+                 + MemoryReport.arrayBytes(vertexCapacity, MemoryReport.REFERENCE)
+                 + MemoryReport.hashMapBytes(indices.size(), indexTableLength));
+      if (addedOrder != null) {
+        report.add(MemoryReport.VERTEX_DICTIONARY,
+                   MemoryReport.objectBytes(MemoryReport.REFERENCE + 2 * 4)
+                   + MemoryReport.arrayBytes(addedOrder.size(), MemoryReport.REFERENCE));
+      }
+      report.add(MemoryReport.ADJACENCY, edges.retainedBytes());
+      report.add(MemoryReport.INDEXES, landmarks == null ? 0 : landmarks.retainedBytes());
+      report.add(MemoryReport.CACHES, weak == null ? 0 : weak.retainedBytes());
+      return report;
+    }
+
+    /**
+     * Releases room held for vertices and edges that are not there,
+     * left behind by growing and by removals.  The vertex map is
+     * rebuilt at the size it needs, and the weak components are
+     * dropped and rebuilt at their exact size the next time hasPath
+     * needs them.  The graph grows again as usual when more is added.
+     */
+    public void trimToSize()
+    {
+      vertices.trimToSize();
+      if (addedOrder != null) {
+        addedOrder.trimToSize();
+      }
+      vertexCapacity = vertices.size();
+      int capacity = vertices.size() * 4 / 3 + 1;
+      HashMap<V, Integer> trimmed = new HashMap<V, Integer>(capacity);
+      trimmed.putAll(indices);
+      indices = trimmed;
+      indexTableLength = MemoryReport.tableLength(capacity);
+      edges.trimToSize();
+      weak = null;
     }
 
     /**
@@ -53,30 +206,17 @@ public class GraphImpl<V> implements Graph<V>
     */
     public int numVertices()
     {
-      int verticesSize = vertices.size();
-      int edgesSize = edges.size();
-      if (verticesSize != edgesSize) {
-        throw new RuntimeException("Vertices has size " + verticesSize + " while Edges has size " + edgesSize);
-      }
-      else {
-        return verticesSize;
-      }
+      return vertices.size();
     }
 
     /**
     * Gives the number of edges in the graph.
     *
     * @return the number of edges in the graph.
-    * Iterates through edge arraylist and counts the number of elements in each
-    * arraylist contained in the edge arraylist
     */
     public int numEdges()
     {
-      int totalEdges = 0;
-      for (ArrayList edge: edges) {
-        totalEdges = totalEdges + edge.size();
-      }
-      return totalEdges;
+      return edges.numEdges();
     }
 
     /**
@@ -89,14 +229,12 @@ public class GraphImpl<V> implements Graph<V>
      */
     public int degree(V vertex)
     {
-      // Check the vertex list for the object. Will return -1 if it does not exist
-      int objectIndex = vertices.indexOf(vertex);
+      int objectIndex = indexOf(vertex);
       if (objectIndex == -1) {
         throw new RuntimeException("Vertex does not exist");
       }
       else {
-        // Finds the vertex's edges in the edges list and returns the size of it
-        return (edges.get(objectIndex)).size();
+        return edges.degree(objectIndex);
       }
     }
 
@@ -111,22 +249,29 @@ public class GraphImpl<V> implements Graph<V>
      */
     public void addEdge(V from, V to)
     {
-      // Check if the from and to vertex exist. If not, add them.
-      if (!vertices.contains(from)) {
-        addVertex(from);
-      }
-      if (!vertices.contains(to)) {
-        addVertex(to);
-      }
+      // Find the vertices, adding them if they do not exist
+      int fromIndex = indexOrAdd(from);
+      int toIndex = indexOrAdd(to);
 
-      // Find verteces
-      int fromIndex = vertices.indexOf(from);
-      int toIndex = vertices.indexOf(to);
+      addEdgeAt(fromIndex, toIndex);
+    }
 
-      // Get edge array for from Vertex
-      ArrayList<Integer> e = edges.get(fromIndex);
-      // Add to vertex index
-      e.add(toIndex);
+    /**
+     * Adds a directed edge between the vertices at two indices, which
+     * must both be in the graph.  This lets a loader stream edges in
+     * by number without looking the vertices up.
+     *
+     * @param fromIndex the index of the source vertex
+     * @param toIndex the index of the destination vertex
+     */
+    void addEdgeAt(int fromIndex, int toIndex)
+    {
+      edges.addEdge(fromIndex, toIndex);
+      modCount++;
+      landmarks = null;
+      if (weak != null) {
+        weak.union(fromIndex, toIndex);
+      }
     }
 
     /**
@@ -138,13 +283,44 @@ public class GraphImpl<V> implements Graph<V>
      */
     public void addVertex(V vertex)
     {
-      // Only attempt to add the object if it doesn't exist
-      if (!vertices.contains(vertex)) {
-        vertices.add(vertex);
-        // Add a blank arraylist to the edges arraylist to hold this vertece's edges
-        ArrayList<Integer> e = new ArrayList<Integer>();
-        edges.add(e);
+      indexOrAdd(vertex);
+    }
+
+    // Gives the index of a vertex, adding it with no edges if it is new
+    private int indexOrAdd(V vertex)
+    {
+      Integer index = indices.get(vertex);
+      if (index != null) {
+        return index;
+      }
+      int added = edges.addVertex();
+      vertices.add(vertex);
+      if (addedOrder != null) {
+        addedOrder.add(vertex);
+      }
+      indices.put(vertex, added);
+      if (vertices.size() > vertexCapacity) {
+        vertexCapacity = Math.max(vertices.size(), vertexCapacity + (vertexCapacity >> 1));
+      }
+      if (indices.size() > indexTableLength / 4 * 3) {
+        indexTableLength *= 2;
       }
+      modCount++;
+      landmarks = null;
+      if (weak != null) {
+        weak.add();
+      }
+      return added;
+    }
+
+    // Gives the index of a vertex, or -1 if it is not in the graph
+    int indexOf(V vertex)
+    {
+      Integer index = indices.get(vertex);
+      if (index == null) {
+        return -1;
+      }
+      return index;
     }
 
     /**
@@ -156,10 +332,103 @@ public class GraphImpl<V> implements Graph<V>
     */
     public Iterable<V> getVertices()
     {
-      Iterable<V> iterable = vertices;
+      Iterable<V> iterable = addedOrder != null ? addedOrder : vertices;
       return iterable;
     }
 
+    /**
+     * Renumbers the vertices so that vertices near each other in the
+     * graph are stored near each other, and copies the edges into that
+     * layout.  Searches then spend less time waiting on memory, which
+     * pays off on large graphs built in an order unrelated to their
+     * shape.  The vertices, edges and getVertices order stay the same;
+     * the order of vertexStream and edgeStream follows the new
+     * numbering.  Takes time and extra memory proportional to the size
+     * of the graph, and ends views, streams and landmark indexes over
+     * the graph like any other change.
+     *
+     * @param ordering how to renumber the vertices
+     */
+    public void reorder(Ordering ordering)
+    {
+      int[] newId;
+      switch (ordering)
+      {
+        case BFS:
+          newId = VertexOrderings.bfs(edges);
+          break;
+        case REVERSE_CUTHILL_MCKEE:
+          newId = VertexOrderings.reverseCuthillMcKee(edges);
+          break;
+        default:
+          newId = VertexOrderings.degree(edges);
+          break;
+      }
+      if (addedOrder == null) {
+        addedOrder = new ArrayList<V>(vertices);
+      }
+      edges.renumber(newId);
+      ArrayList<V> renumbered = new ArrayList<V>(Collections.<V>nCopies(vertices.size(), null));
+      for (int index = 0; index < vertices.size(); index++) {
+        V vertex = vertices.get(index);
+        renumbered.set(newId[index], vertex);
+        indices.put(vertex, newId[index]);
+      }
+      vertices = renumbered;
+      vertexCapacity = vertices.size();
+      modCount++;
+      landmarks = null;
+      weak = null;
+    }
+
+    /**
+     * Tells whether reorder has numbered the vertices differently from
+     * the order they were added, so that index order and getVertices
+     * order differ.
+     *
+     * @return true iff vertexAt(i) may not be the i-th vertex added
+     */
+    boolean isReordered()
+    {
+      return addedOrder != null;
+    }
+
+    /**
+     * Gives the vertices as a stream, in the order they were added, or
+     * in the order of their numbers after a reorder.
+     * The stream knows its size, and in parallel it splits the
+     * vertices so each part has about as many edges, which keeps work
+     * per vertex that grows with its degree balanced.  Changing the
+     * graph while the stream runs throws a
+     * ConcurrentModificationException.
+     *
+     * @return a stream of the vertices
+     */
+    public Stream<V> vertexStream()
+    {
+      return StreamSupport.stream(
+          new GraphSpliterators.Vertices<V>(this, GraphSpliterators.edgeOffsets(this), modCount, 0, vertices.size()),
+          false);
+    }
+
+    /**
+     * Gives every edge as a stream, source by source in the order the
+     * vertices (or, after a reorder, their numbers) and then their
+     * edges were added.  A repeated edge is
+     * given once for each copy.  The stream reads the edge storage
+     * directly, knows its size, and in parallel splits the edges into
+     * even halves, even inside one vertex's edges.  Changing the graph
+     * while the stream runs throws a ConcurrentModificationException.
+     *
+     * @return a stream of the edges
+     */
+    public Stream<Edge<V>> edgeStream()
+    {
+      return StreamSupport.stream(
+          new GraphSpliterators.Edges<V>(this, GraphSpliterators.edgeOffsets(this), modCount, 0, edges.numEdges()),
+          false);
+    }
+
     /**
      * Gets the vertices adjacent to a given vertex.  A vertex y is
      * "adjacent to" vertex x if there is an edge (x, y) in the graph.
@@ -175,14 +444,15 @@ public class GraphImpl<V> implements Graph<V>
      */
     public Iterable<V> adjacentTo(V from)
     {
-      int fromIndex = vertices.indexOf(from);
-
-      ArrayList<Integer> e = edges.get(fromIndex);
-
-      ArrayList<V> adjacentVertices = new ArrayList<V>();
+      int fromIndex = indexOf(from);
+      if (fromIndex == -1) {
+        return Collections.<V>emptyList();
+      }
 
-      for (int vertexIndex: e) {
-        adjacentVertices.add(vertices.get(vertexIndex));
+      int degree = edges.degree(fromIndex);
+      ArrayList<V> adjacentVertices = new ArrayList<V>(degree);
+      for (int slot = 0; slot < degree; slot++) {
+        adjacentVertices.add(vertices.get(edges.neighbor(fromIndex, slot)));
       }
 
       Iterable<V> iterable = adjacentVertices;
@@ -198,7 +468,7 @@ public class GraphImpl<V> implements Graph<V>
      */
     public boolean contains(V vertex)
     {
-      return vertices.contains(vertex);
+      return indices.containsKey(vertex);
     }
 
     /**
@@ -214,24 +484,12 @@ public class GraphImpl<V> implements Graph<V>
      */
     public boolean hasEdge(V from, V to)
     {
-      // Get index of from vertex
-      int fromIndex = vertices.indexOf(from);
-      // Get index of to vertex
-      int toIndex = vertices.indexOf(to);
+      int fromIndex = indexOf(from);
+      int toIndex = indexOf(to);
 
-      if (fromIndex != -1)
+      if (fromIndex != -1 && toIndex != -1)
       {
-        // Find from vertice edge ArrayList
-        ArrayList<Integer> fromEdges = edges.get(fromIndex);
-
-        if (!fromEdges.contains(toIndex))
-        {
-          return false;
-        }
-        else
-        {
-          return true;
-        }
+        return edges.hasEdge(fromIndex, toIndex);
       }
       else
       {
@@ -274,23 +532,19 @@ public class GraphImpl<V> implements Graph<V>
       // String to store as we go
       StringBuffer str = new StringBuffer();
 
-      int index = 0;
       // Iterate through each vertex in the graph
-      for (V vertex: vertices) {
+      for (V vertex: getVertices()) {
+        int index = indexOf(vertex);
         str.append(vertex.toString() + ":");
-        // Find the list of edges for this vertex
-        ArrayList<Integer> e = edges.get(index);
         // Add the verteces that this vertex is connected to
-        int edgeIndex = 0;
-        for (int edge: e) {
-          str.append(" " + vertices.get(edge).toString());
-          if (edgeIndex < e.size()-1) {
+        int degree = edges.degree(index);
+        for (int edgeIndex = 0; edgeIndex < degree; edgeIndex++) {
+          str.append(" " + vertices.get(edges.neighbor(index, edgeIndex)).toString());
+          if (edgeIndex < degree - 1) {
             str.append(",");
           }
-          edgeIndex++;
         }
         str.append("\n");
-        index++;
       }
       System.out.println(str.toString());
       return str.toString();
@@ -313,6 +567,11 @@ public class GraphImpl<V> implements Graph<V>
         return false;
       }
 
+      // Another GraphImpl can be checked by index, with one lookup per vertex
+      if (obj instanceof GraphImpl) {
+        return containsAllOf((GraphImpl<?>) obj);
+      }
+
       // Since object is of type Graph, cast it as such
       Graph otherGraph = (Graph) obj;
 
@@ -336,6 +595,24 @@ public class GraphImpl<V> implements Graph<V>
       return true;
     }
 
+    /**
+     * Tells whether every vertex of another GraphImpl is in this graph.
+     * Every vertex the other graph's edges lead to is one of its
+     * vertices, so its edges need no separate check.
+     *
+     * @param other the graph to compare against
+     * @return true iff this graph contains all of the other's vertices
+     */
+    private boolean containsAllOf(GraphImpl<?> other)
+    {
+      for (int index = 0; index < other.numVertices(); index++) {
+        if (!indices.containsKey(other.vertexAt(index))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
     /**
      * Tells whether the graph is empty.
      *
@@ -346,7 +623,7 @@ public class GraphImpl<V> implements Graph<V>
     {
       if (vertices.size() == 0)
       {
-        if (edges.size() != 0)
+        if (edges.numVertices() != 0)
         {
           throw new RuntimeException("Graph has edges but no vertices");
         }
@@ -375,33 +652,27 @@ public class GraphImpl<V> implements Graph<V>
      */
     public void removeVertex(V toRemove)
     {
-      int removeIndex = vertices.indexOf(toRemove);
+      int removeIndex = indexOf(toRemove);
 
       // Only attempt to remove if the index actually exists
       if (removeIndex != -1)
       {
-        // Delete the edges coming from the vertex to remove
-        edges.remove(removeIndex);
+        // Removes its edges and renumbers the vertices after it
+        edges.removeVertex(removeIndex);
 
-        // Delete the edges going to the vertex to remove
-        for (ArrayList<Integer> edge : edges)
-        {
-          edge.remove(new Integer(removeIndex));
+        // Remove the vertex and shift the indexes of those after it
+        vertices.remove(removeIndex);
+        indices.remove(toRemove);
+        if (addedOrder != null) {
+          addedOrder.remove(toRemove);
         }
-
-        // Decrement the edge indexes of vertices at greater than the removed index
-        for (ArrayList<Integer> edge : edges)
+        for (int index = removeIndex; index < vertices.size(); index++)
         {
-          for (int index : edge)
-          {
-            if (index > removeIndex)
-            {
-              edge.set(index, index - 1);
-            }
-          }
+          indices.put(vertices.get(index), index);
         }
-        // Remove the index after all its remnants are gone
-        vertices.remove(removeIndex);
+        modCount++;
+        landmarks = null;
+        weak = null;
       }
     }
 
@@ -413,18 +684,16 @@ public class GraphImpl<V> implements Graph<V>
      */
     public void removeEdge(V from, V to)
     {
-      // Get index of from vertex
-      int fromIndex = vertices.indexOf(from);
-      // Get index of to vertex
-      int toIndex = vertices.indexOf(to);
+      int fromIndex = indexOf(from);
+      int toIndex = indexOf(to);
 
-      if (fromIndex != -1)
+      if (fromIndex != -1 && toIndex != -1)
       {
-        // Find from vertice edge ArrayList
-        ArrayList<Integer> fromEdges = edges.get(fromIndex);
-
         // Remove the to vertex index if it exists
-        fromEdges.remove(new Integer(toIndex));
+        edges.removeEdge(fromIndex, toIndex);
+        modCount++;
+        landmarks = null;
+        weak = null;
       }
     }
 
@@ -439,12 +708,27 @@ public class GraphImpl<V> implements Graph<V>
      * <li>for all i from 1 to n-1, (x_i, x_{i+1}) is an edge in the graph.
      * </ul>
      *
+     * This may rebuild the weak components kept for it, but it never
+     * changes components other threads can see, so several threads may
+     * ask at once as long as none of them changes the graph.
+     *
      * @param from the source vertex
      * @param to the destination vertex
      * @return true iff there is a path from 'from' to 'to' in the graph.
      */
     public boolean hasPath(V from, V to)
     {
+      // Vertices in different weak components can never be connected
+      int fromIndex = indexOf(from);
+      int toIndex = indexOf(to);
+      if (fromIndex != -1 && toIndex != -1)
+      {
+        UnionFind components = weakComponents();
+        if (components.root(fromIndex) != components.root(toIndex))
+        {
+          return false;
+        }
+      }
       if (pathLength(from, to) == Integer.MAX_VALUE)
       {
         return false;
@@ -478,20 +762,19 @@ public class GraphImpl<V> implements Graph<V>
       {
         return 0;
       }
+      else if (landmarks != null)
+      {
+        return landmarks.pathLength(from, to);
+      }
       else
       {
-        Iterable<V> path = getPath(from, to);
-
-        Integer length = iteratorLength(path);
-
-        if (length == 0)
+        int fromIndex = indexOf(from);
+        int toIndex = indexOf(to);
+        if (fromIndex == -1 || toIndex == -1)
         {
           return Integer.MAX_VALUE;
         }
-        else
-        {
-          return length - 1;
-        }
+        return edges.pathLength(fromIndex, toIndex);
       }
     }
 
@@ -529,95 +812,108 @@ public class GraphImpl<V> implements Graph<V>
         shortList.add(to);
         shortList.add(from);
       }
-      // If either of the vertices doesn't exist, don't bother doing a search
+      // Let the landmark index answer if there is one
+      else if (landmarks != null)
+      {
+        return landmarks.getPath(from, to);
+      }
+      // Search the int storage and map the path back to vertices
       else
       {
-        // Queue to store yet-to-be-visited vertices
-        Queue<V> queue = new LinkedList<V>();
-
-        // Store vertices that have been visited
-        ArrayList<V> visited = new ArrayList<V>();
-
-        // Store a mapping of parent/child verticesSize
-        Map<V, V> neighborMap = new TreeMap<V, V>();
-
-        // Add the main node to the queue and mark it as visited
-        queue.add(from);
-        visited.add(from);
-
-        while (!queue.isEmpty())
+        for (int index : edges.getPath(indexOf(from), indexOf(to)))
         {
-          // Get the element from the top of the Queue
-          V element = queue.poll();
-
-          // If we have found the node, end the while loop
-          if (element.equals(to))
-          {
-            break;
-          }
-
-          // Traverse the element's adjacent vertices
-          for (V adjVert : adjacentTo(element))
-          {
-            // Check if the vertex has been visited already
-            if (!visited.contains(adjVert))
-            {
-              // Mark as visited
-              visited.add(adjVert);
-              // Add to Queue
-              queue.add(adjVert);
-
-              // Add the parent/child pair to the mapping
-              neighborMap.put(adjVert, element);
-            }
-          }
+          shortList.add(vertices.get(index));
         }
+      }
 
-        if (!neighborMap.isEmpty())
+      Iterable<V> iterable = shortList;
+      return iterable;
+    }
+
+    /**
+     * Gives the weakly connected components of the graph, indexed like
+     * the vertices, rebuilding them if a removal made them stale.  The
+     * rebuild is made in full before it is published, so threads that
+     * only read the graph may call this together; at worst each of
+     * them rebuilds the same components.  Callers must not change the
+     * result except through the graph.
+     *
+     * @return the weak components
+     */
+    UnionFind weakComponents()
+    {
+      UnionFind current = weak;
+      if (current == null)
+      {
+        UnionFind rebuilt = new UnionFind(vertices.size());
+        for (int from = 0; from < vertices.size(); from++)
         {
-          V vertex = to;
-          while (neighborMap.get(vertex) != null)
+          for (int slot = 0; slot < outDegree(from); slot++)
           {
-            shortList.add(vertex);
-            vertex = neighborMap.get(vertex);
+            rebuilt.union(from, neighborAt(from, slot));
           }
-          shortList.add(from);
-
-          Collections.reverse(shortList);
         }
+        weak = rebuilt;
+        current = rebuilt;
       }
+      return current;
+    }
 
-      if (shortList.contains(to))
-      {
-        Iterable<V> iterable = shortList;
-        return iterable;
-      }
-      else
-      {
-        shortList = new ArrayList<V>();
-        Iterable<V> iterable = shortList;
-        return iterable;
-      }
-
-
+    /**
+     * Gives the vertex stored at a given index.
+     *
+     * @param index a vertex index
+     * @return the vertex at that index
+     */
+    V vertexAt(int index)
+    {
+      return vertices.get(index);
+    }
 
+    /**
+     * Gives the number of edges leaving the vertex at a given index.
+     *
+     * @param index a vertex index
+     * @return the number of outgoing edges
+     */
+    int outDegree(int index)
+    {
+      return edges.degree(index);
     }
 
     /**
-     * Returns the length of a interator by counting its elements
+     * Gives the index of the destination of one of a vertex's edges.
      *
-     * @param container the iterable to be counted
-     * @return an integer representing the length of the iterable
+     * @param index a vertex index
+     * @param slot which of the vertex's edges, from 0 to outDegree - 1
+     * @return the index of the edge's destination
      */
-    private int iteratorLength(Iterable<V> container)
+    int neighborAt(int index, int slot)
     {
-      int length = 0;
+      return edges.neighbor(index, slot);
+    }
 
-      for (V element: container)
-      {
-      length++;
-      }
+    /**
+     * Gives the destinations of a vertex's edges as stored, without
+     * copying.  Only the first outDegree(index) entries are edges, and
+     * the array must not be changed.
+     *
+     * @param index a vertex index
+     * @return the vertex's row of destination indices
+     */
+    int[] rowAt(int index)
+    {
+      return edges.row(index);
+    }
 
-      return length;
+    /**
+     * Gives a count that goes up with every change to the graph.
+     *
+     * @return the number of changes made so far
+     */
+    int modCount()
+    {
+      return modCount;
     }
+
 }
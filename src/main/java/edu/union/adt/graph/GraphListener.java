@@ -0,0 +1,14 @@
+package edu.union.adt.graph;
+
+import java.util.List;
+
+/**
+* Interface for code that wants to hear about changes to an
+* ObservableGraph, a batch of events at a time
+*/
+
+public interface GraphListener<V> {
+
+  void graphChanged(List<GraphEvent<V>> events);
+
+}
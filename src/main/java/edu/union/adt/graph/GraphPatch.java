@@ -0,0 +1,460 @@
+package edu.union.adt.graph;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The changes that turn one graph into another: vertices removed and
+ * added, and edges removed and added.  A patch is made by diff, can be
+ * written to a compact binary form and read back, and is applied to
+ * another graph with applyTo, so a replica can be kept in step by
+ * shipping only what changed.
+ *
+ * diff numbers the vertices of both graphs, sorts each vertex's
+ * destinations by number and merges the two sorted lists, so it finds
+ * the changed edges in one pass without building edge sets.  Repeated
+ * edges are counted, so a patch between graphs that allow them adds or
+ * removes the right number of copies.  Edges from and to a removed
+ * vertex are not listed, since removing the vertex removes them.
+ * Between two undirected graphs from GraphFactory, which store each
+ * edge in both directions, each changed edge is listed once, so such a
+ * patch should be applied to an undirected graph too.
+ *
+ * The binary form holds only the vertices the patch mentions, written
+ * once each with a VertexCodec, and then the changes by vertex number:
+ * numbers are varints and each vertex's edge destinations are written
+ * as gaps between sorted numbers.  Its size grows with the change, not
+ * with the graphs.
+ *
+ * @version 1
+ */
+public class GraphPatch<V>
+{
+    // Marks the start of a patch in binary form
+    private static final int MAGIC = 0x47525054;
+
+    // The vertices the patch mentions; the changes refer to them by position
+    private final List<V> vertices;
+
+    private final int[] removedVertices;
+    private final int[] addedVertices;
+
+    // Edges as parallel source and destination arrays, sorted by source and then destination
+    private final int[] removedFrom;
+    private final int[] removedTo;
+    private final int[] addedFrom;
+    private final int[] addedTo;
+
+    private GraphPatch(List<V> vertices, int[] removedVertices, int[] addedVertices,
+                       int[] removedFrom, int[] removedTo, int[] addedFrom, int[] addedTo)
+    {
+      this.vertices = vertices;
+      this.removedVertices = removedVertices;
+      this.addedVertices = addedVertices;
+      this.removedFrom = removedFrom;
+      this.removedTo = removedTo;
+      this.addedFrom = addedFrom;
+      this.addedTo = addedTo;
+    }
+
+    /**
+     * Finds the changes that turn one graph into another.
+     *
+     * @param before the graph as it was
+     * @param after the graph as it is now
+     * @return a patch that, applied to a copy of 'before', makes it
+     * equal to 'after'
+     */
+    public static <V> GraphPatch<V> diff(Graph<V> before, Graph<V> after)
+    {
+      // Number every vertex of either graph
+      final Map<V, Integer> numbers = new HashMap<V, Integer>();
+      final List<V> all = new ArrayList<V>();
+      for (V vertex : before.getVertices())
+      {
+        numbers.put(vertex, all.size());
+        all.add(vertex);
+      }
+      for (V vertex : after.getVertices())
+      {
+        if (!numbers.containsKey(vertex))
+        {
+          numbers.put(vertex, all.size());
+          all.add(vertex);
+        }
+      }
+      int n = all.size();
+      // An undirected edge is listed only from its lower numbered end
+      boolean undirected = PolicyGraph.isUndirected(before) && PolicyGraph.isUndirected(after);
+
+      boolean[] gone = new boolean[n];
+      IntList removedVertices = new IntList();
+      IntList addedVertices = new IntList();
+      for (int v = 0; v < n; v++)
+      {
+        boolean inBefore = before.contains(all.get(v));
+        boolean inAfter = after.contains(all.get(v));
+        if (inBefore && !inAfter)
+        {
+          gone[v] = true;
+          removedVertices.add(v);
+        }
+        else if (inAfter && !inBefore)
+        {
+          addedVertices.add(v);
+        }
+      }
+
+      // Merge each surviving vertex's sorted destinations from both graphs
+      IntList removedFrom = new IntList();
+      IntList removedTo = new IntList();
+      IntList addedFrom = new IntList();
+      IntList addedTo = new IntList();
+      for (int v = 0; v < n; v++)
+      {
+        if (gone[v])
+        {
+          continue;
+        }
+        V vertex = all.get(v);
+        int lowest = undirected ? v : 0;
+        int[] was = before.contains(vertex)
+          ? sortedNumbers(before.adjacentTo(vertex), numbers, gone, lowest)
+          : new int[0];
+        int[] now = sortedNumbers(after.adjacentTo(vertex), numbers, gone, lowest);
+        int i = 0;
+        int j = 0;
+        while (i < was.length || j < now.length)
+        {
+          if (j == now.length || (i < was.length && was[i] < now[j]))
+          {
+            removedFrom.add(v);
+            removedTo.add(was[i++]);
+          }
+          else if (i == was.length || now[j] < was[i])
+          {
+            addedFrom.add(v);
+            addedTo.add(now[j++]);
+          }
+          else
+          {
+            i++;
+            j++;
+          }
+        }
+      }
+
+      // Keep only the vertices the patch mentions, renumbered in the same order
+      int[] renumber = new int[n];
+      Arrays.fill(renumber, -1);
+      markUsed(renumber, removedVertices);
+      markUsed(renumber, addedVertices);
+      markUsed(renumber, removedFrom);
+      markUsed(renumber, removedTo);
+      markUsed(renumber, addedFrom);
+      markUsed(renumber, addedTo);
+      List<V> mentioned = new ArrayList<V>();
+      for (int v = 0; v < n; v++)
+      {
+        if (renumber[v] != -1)
+        {
+          renumber[v] = mentioned.size();
+          mentioned.add(all.get(v));
+        }
+      }
+      return new GraphPatch<V>(mentioned,
+                               removedVertices.renumbered(renumber), addedVertices.renumbered(renumber),
+                               removedFrom.renumbered(renumber), removedTo.renumbered(renumber),
+                               addedFrom.renumbered(renumber), addedTo.renumbered(renumber));
+    }
+
+    // Gives the sorted numbers of some vertices, leaving out removed ones and those below 'lowest'
+    private static <V> int[] sortedNumbers(Iterable<V> adjacent, Map<V, Integer> numbers, boolean[] gone,
+                                           int lowest)
+    {
+      IntList list = new IntList();
+      for (V vertex : adjacent)
+      {
+        int number = numbers.get(vertex);
+        if (!gone[number] && number >= lowest)
+        {
+          list.add(number);
+        }
+      }
+      int[] sorted = list.toArray();
+      Arrays.sort(sorted);
+      return sorted;
+    }
+
+    // Marks the numbers in a list as used, with any value but -1
+    private static void markUsed(int[] renumber, IntList numbers)
+    {
+      for (int k = 0; k < numbers.size; k++)
+      {
+        renumber[numbers.items[k]] = 0;
+      }
+    }
+
+    /**
+     * Makes the patch's changes to a graph: removes edges, then removes
+     * vertices, then adds vertices and edges.  If the graph is not the
+     * one the patch was made from, changes that do not fit are made as
+     * far as the graph allows; removing what is not there does nothing.
+     *
+     * @param graph the graph to change
+     */
+    public void applyTo(Graph<V> graph)
+    {
+      for (int k = 0; k < removedFrom.length; k++)
+      {
+        graph.removeEdge(vertices.get(removedFrom[k]), vertices.get(removedTo[k]));
+      }
+      for (int v : removedVertices)
+      {
+        graph.removeVertex(vertices.get(v));
+      }
+      for (int v : addedVertices)
+      {
+        graph.addVertex(vertices.get(v));
+      }
+      for (int k = 0; k < addedFrom.length; k++)
+      {
+        graph.addEdge(vertices.get(addedFrom[k]), vertices.get(addedTo[k]));
+      }
+    }
+
+    /**
+     * Tells whether the patch changes nothing.
+     *
+     * @return true iff the two graphs were the same
+     */
+    public boolean isEmpty()
+    {
+      return size() == 0;
+    }
+
+    /**
+     * Gives the number of changes in the patch.
+     *
+     * @return the number of vertices and edges removed or added
+     */
+    public int size()
+    {
+      return removedVertices.length + addedVertices.length + removedFrom.length + addedFrom.length;
+    }
+
+    /**
+     * Writes the patch in binary form.
+     *
+     * @param out where to write it
+     * @param codec writes the vertices the patch mentions
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(DataOutput out, VertexCodec<V> codec) throws IOException
+    {
+      out.writeInt(MAGIC);
+      Varint.write(vertices.size(), out);
+      for (V vertex : vertices)
+      {
+        codec.write(vertex, out);
+      }
+      writeNumbers(removedVertices, out);
+      writeNumbers(addedVertices, out);
+      writeEdges(removedFrom, removedTo, out);
+      writeEdges(addedFrom, addedTo, out);
+    }
+
+    /**
+     * Reads a patch written by writeTo.
+     *
+     * @param in where to read it from
+     * @param codec reads the vertices
+     * @return the patch
+     * @throws IOException if the stream fails or does not hold a patch
+     */
+    public static <V> GraphPatch<V> readFrom(DataInput in, VertexCodec<V> codec) throws IOException
+    {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a graph patch");
+      }
+      int count = Varint.read(in);
+      List<V> vertices = new ArrayList<V>(count);
+      for (int v = 0; v < count; v++)
+      {
+        vertices.add(codec.read(in));
+      }
+      int[] removedVertices = readNumbers(in, count);
+      int[] addedVertices = readNumbers(in, count);
+      int[][] removed = readEdges(in, count);
+      int[][] added = readEdges(in, count);
+      return new GraphPatch<V>(vertices, removedVertices, addedVertices,
+                               removed[0], removed[1], added[0], added[1]);
+    }
+
+    /**
+     * Gives the patch in binary form.
+     *
+     * @param codec writes the vertices the patch mentions
+     * @return the bytes written by writeTo
+     */
+    public byte[] toBytes(VertexCodec<V> codec)
+    {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try
+      {
+        writeTo(new DataOutputStream(bytes), codec);
+      }
+      catch (IOException e)
+      {
+        throw new RuntimeException("Could not write a graph patch", e);
+      }
+      return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a patch from bytes made by toBytes.
+     *
+     * @param bytes the patch in binary form
+     * @param codec reads the vertices
+     * @return the patch
+     */
+    public static <V> GraphPatch<V> fromBytes(byte[] bytes, VertexCodec<V> codec)
+    {
+      try
+      {
+        return readFrom(new DataInputStream(new ByteArrayInputStream(bytes)), codec);
+      }
+      catch (IOException e)
+      {
+        throw new RuntimeException("Could not read a graph patch", e);
+      }
+    }
+
+    private static void writeNumbers(int[] numbers, DataOutput out) throws IOException
+    {
+      Varint.write(numbers.length, out);
+      for (int number : numbers)
+      {
+        Varint.write(number, out);
+      }
+    }
+
+    private static int[] readNumbers(DataInput in, int count) throws IOException
+    {
+      int[] numbers = new int[Varint.read(in)];
+      for (int k = 0; k < numbers.length; k++)
+      {
+        numbers[k] = checked(Varint.read(in), count);
+      }
+      return numbers;
+    }
+
+    /**
+     * Writes sorted edges grouped by source: the number of sources,
+     * then for each the source, its number of edges, and its
+     * destinations as gaps from the one before.
+     */
+    private static void writeEdges(int[] from, int[] to, DataOutput out) throws IOException
+    {
+      int sources = 0;
+      for (int k = 0; k < from.length; k++)
+      {
+        if (k == 0 || from[k] != from[k - 1])
+        {
+          sources++;
+        }
+      }
+      Varint.write(sources, out);
+      int k = 0;
+      while (k < from.length)
+      {
+        int end = k;
+        while (end < from.length && from[end] == from[k])
+        {
+          end++;
+        }
+        Varint.write(from[k], out);
+        Varint.write(end - k, out);
+        int last = 0;
+        for (int e = k; e < end; e++)
+        {
+          Varint.write(to[e] - last, out);
+          last = to[e];
+        }
+        k = end;
+      }
+    }
+
+    private static int[][] readEdges(DataInput in, int count) throws IOException
+    {
+      int sources = Varint.read(in);
+      IntList from = new IntList();
+      IntList to = new IntList();
+      for (int s = 0; s < sources; s++)
+      {
+        int source = checked(Varint.read(in), count);
+        int edges = Varint.read(in);
+        int last = 0;
+        for (int e = 0; e < edges; e++)
+        {
+          last = checked(last + Varint.read(in), count);
+          from.add(source);
+          to.add(last);
+        }
+      }
+      return new int[][] {from.toArray(), to.toArray()};
+    }
+
+    // Makes sure a vertex number read from a stream is in range
+    private static int checked(int number, int count) throws IOException
+    {
+      if (number < 0 || number >= count) {
+        throw new IOException("Graph patch mentions vertex " + number + " of " + count);
+      }
+      return number;
+    }
+
+    /**
+     * A growable list of ints.
+     */
+    private static class IntList
+    {
+        int[] items = new int[8];
+        int size;
+
+        void add(int item)
+        {
+          if (size == items.length)
+          {
+            items = Arrays.copyOf(items, size * 2);
+          }
+          items[size++] = item;
+        }
+
+        int[] toArray()
+        {
+          return Arrays.copyOf(items, size);
+        }
+
+        // Gives the items mapped through a renumbering table
+        int[] renumbered(int[] renumber)
+        {
+          int[] mapped = new int[size];
+          for (int k = 0; k < size; k++)
+          {
+            mapped[k] = renumber[items[k]];
+          }
+          return mapped;
+        }
+    }
+}
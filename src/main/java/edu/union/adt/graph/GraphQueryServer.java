@@ -0,0 +1,674 @@
+package edu.union.adt.graph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A small TCP server that answers path and adjacency queries about a
+ * graph, for sharing one in-memory graph between processes.
+ *
+ * The protocol is line based.  Each request is one line of
+ * space-separated words starting with a request id chosen by the
+ * client, and each response line starts with the same id.  Responses
+ * may come back in a different order from the requests.
+ *
+ * <PRE>
+ * id HASPATH from to [deadlineMillis]     id OK true|false
+ * id PATHLENGTH from to [deadlineMillis]  id OK length
+ * id ADJACENT vertex                      id OK v1 v2 ...
+ * id HASEDGE from to                      id OK true|false
+ * </PRE>
+ *
+ * A request that cannot be parsed gets "id ERROR message", and a path
+ * query not answered before its deadline gets "id TIMEOUT".  A
+ * connection that sends a line longer than MAX_LINE_LENGTH characters
+ * is closed.
+ * pathLength answers follow Graph.pathLength, so an unreachable
+ * destination gives Integer.MAX_VALUE.  Vertices are read with the
+ * parser given to the constructor and written with toString, so their
+ * text form must not contain whitespace.
+ *
+ * A single thread runs a non-blocking selector loop for all
+ * connections.  Path queries are collected for a short batching
+ * window, and all queries in a batch that share a source vertex are
+ * answered by one breadth first search, which stops as soon as every
+ * destination has been reached or has run out of time.  Searches run
+ * on a fixed pool of worker threads.  The graph is only read, so it
+ * must not be changed while the server is running unless it is safe
+ * for concurrent use, like ShardedGraph.
+ *
+ * @version 1
+ */
+public class GraphQueryServer<V> implements Closeable
+{
+    public static final long DEFAULT_BATCH_WINDOW_MILLIS = 2;
+    public static final long DEFAULT_DEADLINE_MILLIS = 1000;
+    public static final int MAX_LINE_LENGTH = 8192;
+
+    // How many vertices a search settles between deadline checks
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    private final Graph<V> graph;
+    private final Function<String, V> parser;
+
+    private final long batchWindowNanos;
+    private final long defaultDeadlineNanos;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService workers;
+    private final Thread selectorThread;
+    private final Thread batcherThread;
+
+    // Path queries waiting to be batched
+    private final BlockingQueue<Query<V>> pending;
+
+    // Connections with responses waiting to be written
+    private final Queue<Connection> writable;
+
+    private final AtomicLong queries;
+    private final AtomicLong traversals;
+
+    private volatile boolean running;
+
+    /**
+     * A client connection and the bytes waiting to go out on it.
+     */
+    private static final class Connection
+    {
+      final SocketChannel channel;
+      final ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+      // Keeps the bytes of a character split across reads until the rest arrive
+      final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      final CharBuffer decoded = CharBuffer.allocate(4096);
+      final StringBuilder partialLine = new StringBuilder();
+      final Queue<ByteBuffer> responses = new ConcurrentLinkedQueue<ByteBuffer>();
+
+      Connection(SocketChannel channel)
+      {
+        this.channel = channel;
+      }
+    }
+
+    /**
+     * One HASPATH or PATHLENGTH request.
+     */
+    private static final class Query<V>
+    {
+      final String id;
+      final boolean lengthWanted;
+      final V from;
+      final V to;
+      final long deadline;
+      final Connection connection;
+
+      Query(String id, boolean lengthWanted, V from, V to, long deadline, Connection connection)
+      {
+        this.id = id;
+        this.lengthWanted = lengthWanted;
+        this.from = from;
+        this.to = to;
+        this.deadline = deadline;
+        this.connection = connection;
+      }
+    }
+
+    /**
+     * Create a server for a graph on an ephemeral localhost port with
+     * the default batching window and deadline.
+     *
+     * @param graph the graph to answer queries about
+     * @param parser turns a word from a request into a vertex
+     * @throws IOException if the port cannot be opened
+     */
+    public GraphQueryServer(Graph<V> graph, Function<String, V> parser) throws IOException
+    {
+      this(graph, parser, 0, Runtime.getRuntime().availableProcessors(),
+           DEFAULT_BATCH_WINDOW_MILLIS, DEFAULT_DEADLINE_MILLIS);
+    }
+
+    /**
+     * Create a server for a graph, listening on localhost.  The server
+     * does not accept connections until start is called.
+     *
+     * @param graph the graph to answer queries about
+     * @param parser turns a word from a request into a vertex
+     * @param port the port to listen on, or 0 for any free port
+     * @param workerThreads the number of threads running searches
+     * @param batchWindowMillis how long to gather path queries before
+     * running them together
+     * @param defaultDeadlineMillis the deadline for path queries that
+     * do not give their own
+     * @throws IOException if the port cannot be opened
+     */
+    public GraphQueryServer(Graph<V> graph, Function<String, V> parser, int port,
+                            int workerThreads, long batchWindowMillis,
+                            long defaultDeadlineMillis) throws IOException
+    {
+      this.graph = graph;
+      this.parser = parser;
+      this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+      this.defaultDeadlineNanos = TimeUnit.MILLISECONDS.toNanos(defaultDeadlineMillis);
+      pending = new LinkedBlockingQueue<Query<V>>();
+      writable = new ConcurrentLinkedQueue<Connection>();
+      queries = new AtomicLong();
+      traversals = new AtomicLong();
+
+      selector = Selector.open();
+      serverChannel = ServerSocketChannel.open();
+      serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+      serverChannel.configureBlocking(false);
+      serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+      workers = Executors.newFixedThreadPool(workerThreads);
+
+      selectorThread = new Thread(new Runnable() {
+        public void run()
+        {
+          selectLoop();
+        }
+      }, "graph-server-selector");
+      batcherThread = new Thread(new Runnable() {
+        public void run()
+        {
+          batchLoop();
+        }
+      }, "graph-server-batcher");
+      selectorThread.setDaemon(true);
+      batcherThread.setDaemon(true);
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start()
+    {
+      running = true;
+      selectorThread.start();
+      batcherThread.start();
+    }
+
+    /**
+     * Gives the port the server is listening on.
+     *
+     * @return the local port
+     */
+    public int getPort()
+    {
+      return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gives the number of path queries received so far.
+     *
+     * @return the number of HASPATH and PATHLENGTH requests
+     */
+    public long numQueries()
+    {
+      return queries.get();
+    }
+
+    /**
+     * Gives the number of searches run so far.  When queries share a
+     * source this is smaller than numQueries().
+     *
+     * @return the number of breadth first searches
+     */
+    public long numTraversals()
+    {
+      return traversals.get();
+    }
+
+    /**
+     * Stops the server and closes every connection.  Queries still in
+     * progress are not answered.
+     */
+    public void close() throws IOException
+    {
+      running = false;
+      batcherThread.interrupt();
+      workers.shutdownNow();
+      selector.wakeup();
+      try
+      {
+        selectorThread.join(1000);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+      for (SelectionKey key : selector.keys())
+      {
+        closeQuietly(key);
+      }
+      selector.close();
+      serverChannel.close();
+    }
+
+    private void selectLoop()
+    {
+      try
+      {
+        while (running)
+        {
+          selector.select();
+          Connection ready;
+          while ((ready = writable.poll()) != null)
+          {
+            SelectionKey key = ready.channel.keyFor(selector);
+            if (key != null && key.isValid())
+            {
+              key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+          }
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+          while (keys.hasNext())
+          {
+            SelectionKey key = keys.next();
+            keys.remove();
+            try
+            {
+              if (key.isAcceptable())
+              {
+                accept();
+              }
+              else
+              {
+                if (key.isReadable())
+                {
+                  read(key);
+                }
+                if (key.isValid() && key.isWritable())
+                {
+                  write(key);
+                }
+              }
+            }
+            catch (IOException e)
+            {
+              closeQuietly(key);
+            }
+          }
+        }
+      }
+      catch (IOException e)
+      {
+        running = false;
+      }
+      catch (ClosedSelectorException e)
+      {
+        running = false;
+      }
+    }
+
+    // Drops a connection without letting a failed close stop the server
+    private static void closeQuietly(SelectionKey key)
+    {
+      key.cancel();
+      try
+      {
+        key.channel().close();
+      }
+      catch (IOException e)
+      {
+        // The connection is gone either way
+      }
+    }
+
+    private void accept() throws IOException
+    {
+      SocketChannel channel = serverChannel.accept();
+      if (channel == null)
+      {
+        return;
+      }
+      channel.configureBlocking(false);
+      channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+    }
+
+    private void read(SelectionKey key) throws IOException
+    {
+      Connection connection = (Connection) key.attachment();
+      ByteBuffer buffer = connection.readBuffer;
+      int count = connection.channel.read(buffer);
+      if (count == -1)
+      {
+        key.cancel();
+        connection.channel.close();
+        return;
+      }
+      buffer.flip();
+      CharBuffer text = connection.decoded;
+      connection.decoder.decode(buffer, text, false);
+      // Bytes of an unfinished character stay for the next read
+      buffer.compact();
+      text.flip();
+
+      StringBuilder partial = connection.partialLine;
+      while (text.hasRemaining())
+      {
+        char c = text.get();
+        if (c == '\n')
+        {
+          handle(partial.toString().trim(), connection);
+          partial.setLength(0);
+        }
+        else if (partial.length() == MAX_LINE_LENGTH)
+        {
+          throw new IOException("Request line longer than " + MAX_LINE_LENGTH + " characters");
+        }
+        else
+        {
+          partial.append(c);
+        }
+      }
+      text.clear();
+    }
+
+    private void write(SelectionKey key) throws IOException
+    {
+      Connection connection = (Connection) key.attachment();
+      ByteBuffer next;
+      while ((next = connection.responses.peek()) != null)
+      {
+        connection.channel.write(next);
+        if (next.hasRemaining())
+        {
+          return;
+        }
+        connection.responses.poll();
+      }
+      key.interestOps(SelectionKey.OP_READ);
+      // A response may have arrived after the queue was found empty
+      if (!connection.responses.isEmpty())
+      {
+        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+      }
+    }
+
+    /**
+     * Parses one request line.  Path queries are queued for batching;
+     * everything else is answered on a worker straight away.
+     */
+    private void handle(String line, final Connection connection)
+    {
+      if (line.isEmpty())
+      {
+        return;
+      }
+      final String[] words = line.split("\\s+");
+      final String id = words[0];
+      if (words.length < 2)
+      {
+        respond(connection, id, "ERROR missing command");
+        return;
+      }
+      String command = words[1].toUpperCase();
+      try
+      {
+        if (command.equals("HASPATH") || command.equals("PATHLENGTH"))
+        {
+          if (words.length != 4 && words.length != 5) {
+            throw new RuntimeException(command + " takes a source, a destination and an optional deadline");
+          }
+          long deadline = System.nanoTime() + (words.length == 5
+              ? TimeUnit.MILLISECONDS.toNanos(Long.parseLong(words[4]))
+              : defaultDeadlineNanos);
+          queries.incrementAndGet();
+          pending.add(new Query<V>(id, command.equals("PATHLENGTH"),
+                                   parser.apply(words[2]), parser.apply(words[3]),
+                                   deadline, connection));
+        }
+        else if (command.equals("ADJACENT") && words.length == 3)
+        {
+          final V vertex = parser.apply(words[2]);
+          workers.execute(new Runnable() {
+            public void run()
+            {
+              StringBuilder answer = new StringBuilder("OK");
+              for (V adjacent : graph.adjacentTo(vertex))
+              {
+                answer.append(' ').append(adjacent);
+              }
+              respond(connection, id, answer.toString());
+            }
+          });
+        }
+        else if (command.equals("HASEDGE") && words.length == 4)
+        {
+          final V from = parser.apply(words[2]);
+          final V to = parser.apply(words[3]);
+          workers.execute(new Runnable() {
+            public void run()
+            {
+              respond(connection, id, "OK " + graph.hasEdge(from, to));
+            }
+          });
+        }
+        else
+        {
+          respond(connection, id, "ERROR unknown request " + line);
+        }
+      }
+      catch (RuntimeException e)
+      {
+        respond(connection, id, "ERROR " + e.getMessage());
+      }
+    }
+
+    private void respond(Connection connection, String id, String answer)
+    {
+      byte[] bytes = (id + " " + answer + "\n").getBytes(StandardCharsets.UTF_8);
+      connection.responses.add(ByteBuffer.wrap(bytes));
+      writable.add(connection);
+      selector.wakeup();
+    }
+
+    /**
+     * Waits for a path query, gathers whatever else arrives within the
+     * batching window, and hands each group of queries with the same
+     * source to a worker.
+     */
+    private void batchLoop()
+    {
+      List<Query<V>> batch = new ArrayList<Query<V>>();
+      while (running)
+      {
+        try
+        {
+          Query<V> first = pending.take();
+          batch.add(first);
+          long windowEnd = System.nanoTime() + batchWindowNanos;
+          long left;
+          while ((left = windowEnd - System.nanoTime()) > 0)
+          {
+            Query<V> next = pending.poll(left, TimeUnit.NANOSECONDS);
+            if (next == null)
+            {
+              break;
+            }
+            batch.add(next);
+          }
+          pending.drainTo(batch);
+        }
+        catch (InterruptedException e)
+        {
+          return;
+        }
+
+        Map<V, List<Query<V>>> bySource = new LinkedHashMap<V, List<Query<V>>>();
+        for (Query<V> query : batch)
+        {
+          List<Query<V>> group = bySource.get(query.from);
+          if (group == null)
+          {
+            group = new ArrayList<Query<V>>();
+            bySource.put(query.from, group);
+          }
+          group.add(query);
+        }
+        batch.clear();
+        for (final List<Query<V>> group : bySource.values())
+        {
+          workers.execute(new Runnable() {
+            public void run()
+            {
+              answer(group);
+            }
+          });
+        }
+      }
+    }
+
+    /**
+     * Answers a group of path queries that share a source with one
+     * breadth first search.
+     */
+    private void answer(List<Query<V>> group)
+    {
+      traversals.incrementAndGet();
+      V source = group.get(0).from;
+
+      // Destinations still waiting for an answer
+      Map<V, List<Query<V>>> waiting = new HashMap<V, List<Query<V>>>();
+      for (Query<V> query : group)
+      {
+        if (query.from.equals(query.to))
+        {
+          reply(query, 0);
+        }
+        else if (!graph.contains(query.from) || !graph.contains(query.to))
+        {
+          reply(query, Integer.MAX_VALUE);
+        }
+        else
+        {
+          List<Query<V>> sameTarget = waiting.get(query.to);
+          if (sameTarget == null)
+          {
+            sameTarget = new ArrayList<Query<V>>();
+            waiting.put(query.to, sameTarget);
+          }
+          sameTarget.add(query);
+        }
+      }
+      if (waiting.isEmpty())
+      {
+        return;
+      }
+
+      Map<V, Integer> distance = new HashMap<V, Integer>();
+      ArrayDeque<V> queue = new ArrayDeque<V>();
+      distance.put(source, 0);
+      queue.add(source);
+      int settled = 0;
+      while (!queue.isEmpty() && !waiting.isEmpty())
+      {
+        if (++settled % DEADLINE_CHECK_INTERVAL == 0)
+        {
+          expire(waiting);
+          if (waiting.isEmpty())
+          {
+            return;
+          }
+        }
+        V u = queue.poll();
+        int next = distance.get(u) + 1;
+        for (V v : graph.adjacentTo(u))
+        {
+          if (!distance.containsKey(v))
+          {
+            distance.put(v, next);
+            queue.add(v);
+            List<Query<V>> reached = waiting.remove(v);
+            if (reached != null)
+            {
+              for (Query<V> query : reached)
+              {
+                reply(query, next);
+              }
+            }
+          }
+        }
+      }
+      // Anything still waiting is unreachable, unless its time is up
+      expire(waiting);
+      for (List<Query<V>> unreachable : waiting.values())
+      {
+        for (Query<V> query : unreachable)
+        {
+          reply(query, Integer.MAX_VALUE);
+        }
+      }
+    }
+
+    // Sends TIMEOUT for every waiting query whose deadline has passed
+    private void expire(Map<V, List<Query<V>>> waiting)
+    {
+      long now = System.nanoTime();
+      Iterator<List<Query<V>>> groups = waiting.values().iterator();
+      while (groups.hasNext())
+      {
+        List<Query<V>> sameTarget = groups.next();
+        Iterator<Query<V>> each = sameTarget.iterator();
+        while (each.hasNext())
+        {
+          Query<V> query = each.next();
+          if (now - query.deadline >= 0)
+          {
+            respond(query.connection, query.id, "TIMEOUT");
+            each.remove();
+          }
+        }
+        if (sameTarget.isEmpty())
+        {
+          groups.remove();
+        }
+      }
+    }
+
+    private void reply(Query<V> query, int length)
+    {
+      if (System.nanoTime() - query.deadline >= 0)
+      {
+        respond(query.connection, query.id, "TIMEOUT");
+      }
+      else if (query.lengthWanted)
+      {
+        respond(query.connection, query.id, "OK " + length);
+      }
+      else
+      {
+        respond(query.connection, query.id, "OK " + (length != Integer.MAX_VALUE));
+      }
+    }
+}
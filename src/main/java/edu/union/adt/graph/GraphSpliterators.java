@@ -0,0 +1,241 @@
+package edu.union.adt.graph;
+
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterators over a GraphImpl's own arrays, behind its vertexStream
+ * and edgeStream.  Both know their exact size and split so the halves
+ * hold about the same number of edges, so a parallel stream stays
+ * balanced when a few vertices have most of the edges.  They fail with
+ * a ConcurrentModificationException if the graph changes after they
+ * were made, and the halves split off one keep the change count it
+ * was made with.
+ *
+ * @version 1
+ */
+final class GraphSpliterators
+{
+    private GraphSpliterators()
+    {
+
+    }
+
+    /**
+     * Gives where each vertex's edges start in the order of all edges.
+     *
+     * @param graph the graph
+     * @return offsets where vertex v's edges are positions offsets[v]
+     * to offsets[v + 1] - 1
+     */
+    static int[] edgeOffsets(GraphImpl<?> graph)
+    {
+      int n = graph.numVertices();
+      int[] offsets = new int[n + 1];
+      for (int v = 0; v < n; v++)
+      {
+        offsets[v + 1] = offsets[v] + graph.outDegree(v);
+      }
+      return offsets;
+    }
+
+    /**
+     * The vertices in [lo, hi), split where the vertices plus their
+     * edges on each side are about even.
+     */
+    static final class Vertices<V> implements Spliterator<V>
+    {
+        private final GraphImpl<V> graph;
+        private final int[] offsets;
+        private final int expectedModCount;
+        private int lo;
+        private final int hi;
+
+        Vertices(GraphImpl<V> graph, int[] offsets, int expectedModCount, int lo, int hi)
+        {
+          this.graph = graph;
+          this.offsets = offsets;
+          this.expectedModCount = expectedModCount;
+          this.lo = lo;
+          this.hi = hi;
+        }
+
+        // The work up to vertex v: one for each vertex and each edge before it
+        private long cost(int v)
+        {
+          return (long) v + offsets[v];
+        }
+
+        public Spliterator<V> trySplit()
+        {
+          check(graph, expectedModCount);
+          if (hi - lo < 2)
+          {
+            return null;
+          }
+          long goal = (cost(lo) + cost(hi)) / 2;
+          // Smallest vertex in (lo, hi) whose cost reaches the goal
+          int low = lo + 1;
+          int high = hi - 1;
+          while (low < high)
+          {
+            int mid = (low + high) >>> 1;
+            if (cost(mid) < goal)
+            {
+              low = mid + 1;
+            }
+            else
+            {
+              high = mid;
+            }
+          }
+          Spliterator<V> prefix = new Vertices<V>(graph, offsets, expectedModCount, lo, low);
+          lo = low;
+          return prefix;
+        }
+
+        public boolean tryAdvance(Consumer<? super V> action)
+        {
+          check(graph, expectedModCount);
+          if (lo >= hi)
+          {
+            return false;
+          }
+          action.accept(graph.vertexAt(lo++));
+          return true;
+        }
+
+        public void forEachRemaining(Consumer<? super V> action)
+        {
+          check(graph, expectedModCount);
+          for (; lo < hi; lo++)
+          {
+            action.accept(graph.vertexAt(lo));
+          }
+          check(graph, expectedModCount);
+        }
+
+        public long estimateSize()
+        {
+          return hi - lo;
+        }
+
+        public int characteristics()
+        {
+          return SIZED | SUBSIZED | ORDERED;
+        }
+    }
+
+    /**
+     * The edges at positions [lo, hi) in the order of all edges, source
+     * by source.  A split can fall inside one vertex's edges, so even a
+     * single vertex with most of the edges is shared out.
+     */
+    static final class Edges<V> implements Spliterator<Edge<V>>
+    {
+        private final GraphImpl<V> graph;
+        private final int[] offsets;
+        private final int expectedModCount;
+        private int lo;
+        private final int hi;
+
+        Edges(GraphImpl<V> graph, int[] offsets, int expectedModCount, int lo, int hi)
+        {
+          this.graph = graph;
+          this.offsets = offsets;
+          this.expectedModCount = expectedModCount;
+          this.lo = lo;
+          this.hi = hi;
+        }
+
+        // The vertex whose edges include a position
+        private int sourceOf(int position)
+        {
+          int low = 0;
+          int high = offsets.length - 2;
+          while (low < high)
+          {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= position)
+            {
+              low = mid;
+            }
+            else
+            {
+              high = mid - 1;
+            }
+          }
+          return low;
+        }
+
+        public Spliterator<Edge<V>> trySplit()
+        {
+          check(graph, expectedModCount);
+          if (hi - lo < 2)
+          {
+            return null;
+          }
+          int mid = (lo + hi) >>> 1;
+          Spliterator<Edge<V>> prefix = new Edges<V>(graph, offsets, expectedModCount, lo, mid);
+          lo = mid;
+          return prefix;
+        }
+
+        public boolean tryAdvance(Consumer<? super Edge<V>> action)
+        {
+          check(graph, expectedModCount);
+          if (lo >= hi)
+          {
+            return false;
+          }
+          int from = sourceOf(lo);
+          int to = graph.rowAt(from)[lo - offsets[from]];
+          lo++;
+          action.accept(new Edge<V>(graph.vertexAt(from), graph.vertexAt(to)));
+          return true;
+        }
+
+        public void forEachRemaining(Consumer<? super Edge<V>> action)
+        {
+          check(graph, expectedModCount);
+          if (lo >= hi)
+          {
+            return;
+          }
+          int from = sourceOf(lo);
+          while (lo < hi)
+          {
+            while (offsets[from + 1] <= lo)
+            {
+              from++;
+            }
+            int[] row = graph.rowAt(from);
+            V source = graph.vertexAt(from);
+            int end = Math.min(hi, offsets[from + 1]);
+            for (; lo < end; lo++)
+            {
+              action.accept(new Edge<V>(source, graph.vertexAt(row[lo - offsets[from]])));
+            }
+          }
+          check(graph, expectedModCount);
+        }
+
+        public long estimateSize()
+        {
+          return hi - lo;
+        }
+
+        public int characteristics()
+        {
+          return SIZED | SUBSIZED | ORDERED | NONNULL;
+        }
+    }
+
+    private static void check(GraphImpl<?> graph, int expectedModCount)
+    {
+      if (graph.modCount() != expectedModCount) {
+        throw new ConcurrentModificationException("The graph changed while it was being streamed");
+      }
+    }
+}
@@ -0,0 +1,569 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * A read-only graph that shows part of a GraphImpl without copying
+ * it.  A view keeps the vertices whose bits are set in a bitset over
+ * the parent's vertex numbers, and the parent's edges between them
+ * that pass an optional edge filter.  Every query reads the parent's
+ * own edge arrays and skips what the view leaves out, so adjacentTo,
+ * hasEdge and the path searches cost about the same as on the parent.
+ *
+ * A view stays valid only while its parent is unchanged: once the
+ * parent gains or loses a vertex or edge, every query on the view
+ * throws a RuntimeException, and a new view has to be made.  Calls
+ * that would change the view also throw.
+ *
+ * @version 1
+ */
+public class GraphView<V> implements Graph<V>
+{
+    private final GraphImpl<V> parent;
+
+    // Parent vertex numbers in the view, or null for all of them
+    private final BitSet members;
+
+    // Which parent edges between members are in the view, or null for all
+    private final BiPredicate<? super V, ? super V> edgeFilter;
+
+    // The parent's change count when the view was made
+    private final int expectedModCount;
+
+    // Number of vertices and edges in the view; edges are counted when first asked
+    private final int vertexCount;
+    private int edgeCount;
+
+    private GraphView(GraphImpl<V> parent, BitSet members,
+                      BiPredicate<? super V, ? super V> edgeFilter)
+    {
+      this.parent = parent;
+      this.members = members;
+      this.edgeFilter = edgeFilter;
+      this.expectedModCount = parent.modCount();
+      this.vertexCount = members == null ? parent.numVertices() : members.cardinality();
+      this.edgeCount = -1;
+    }
+
+    /**
+     * Makes a view of the subgraph induced by some vertices: those
+     * vertices and every parent edge between two of them.  Vertices
+     * not in the parent are ignored.
+     *
+     * @param parent the graph to view
+     * @param vertices the vertices to keep
+     * @return the view
+     */
+    public static <V> GraphView<V> induced(GraphImpl<V> parent, Iterable<V> vertices)
+    {
+      BitSet members = new BitSet(parent.numVertices());
+      for (V vertex : vertices)
+      {
+        int index = parent.indexOf(vertex);
+        if (index != -1)
+        {
+          members.set(index);
+        }
+      }
+      return new GraphView<V>(parent, members, null);
+    }
+
+    /**
+     * Makes a view of the subgraph induced by the vertices whose bits
+     * are set, where bit i stands for the i-th vertex in the parent's
+     * getVertices order.
+     *
+     * @param parent the graph to view
+     * @param vertices bits of the vertices to keep; the view keeps its
+     * own copy
+     * @return the view
+     */
+    public static <V> GraphView<V> induced(GraphImpl<V> parent, BitSet vertices)
+    {
+      BitSet members;
+      if (parent.isReordered())
+      {
+        // Bits follow getVertices order but members follow the numbers
+        members = new BitSet(parent.numVertices());
+        int position = 0;
+        for (V vertex : parent.getVertices())
+        {
+          if (vertices.get(position++))
+          {
+            members.set(parent.indexOf(vertex));
+          }
+        }
+      }
+      else
+      {
+        members = (BitSet) vertices.clone();
+        if (members.length() > parent.numVertices())
+        {
+          members.clear(parent.numVertices(), members.length());
+        }
+      }
+      return new GraphView<V>(parent, members, null);
+    }
+
+    /**
+     * Makes a view with all of the parent's vertices and only the edges
+     * a filter accepts.  The filter is called with an edge's source
+     * and destination each time the view looks at the edge, so it
+     * should be cheap and always give the same answer.
+     *
+     * @param parent the graph to view
+     * @param edgeFilter tells whether to keep an edge
+     * @return the view
+     */
+    public static <V> GraphView<V> filtered(GraphImpl<V> parent,
+                                            BiPredicate<? super V, ? super V> edgeFilter)
+    {
+      return new GraphView<V>(parent, null, edgeFilter);
+    }
+
+    /**
+     * Narrows this view to the subgraph induced by some of its
+     * vertices.  The new view shares the same parent.
+     *
+     * @param vertices the vertices to keep
+     * @return the narrower view
+     */
+    public GraphView<V> induced(Iterable<V> vertices)
+    {
+      checkCurrent();
+      BitSet narrowed = new BitSet(parent.numVertices());
+      for (V vertex : vertices)
+      {
+        int index = indexOf(vertex);
+        if (index != -1)
+        {
+          narrowed.set(index);
+        }
+      }
+      return new GraphView<V>(parent, narrowed, edgeFilter);
+    }
+
+    /**
+     * Narrows this view to the edges that also pass another filter.
+     *
+     * @param filter tells whether to keep an edge
+     * @return the narrower view
+     */
+    public GraphView<V> filtered(final BiPredicate<? super V, ? super V> filter)
+    {
+      checkCurrent();
+      if (edgeFilter == null)
+      {
+        return new GraphView<V>(parent, members, filter);
+      }
+      final BiPredicate<? super V, ? super V> first = edgeFilter;
+      return new GraphView<V>(parent, members, new BiPredicate<V, V>() {
+        public boolean test(V from, V to)
+        {
+          return first.test(from, to) && filter.test(from, to);
+        }
+      });
+    }
+
+    /**
+     * Tells whether the parent is unchanged since the view was made,
+     * so the view can still be used.
+     *
+     * @return true iff the view is still valid
+     */
+    public boolean isCurrent()
+    {
+      return parent.modCount() == expectedModCount;
+    }
+
+    private void checkCurrent()
+    {
+      if (!isCurrent()) {
+        throw new RuntimeException("The graph changed after this view was made");
+      }
+    }
+
+    // Tells whether the parent vertex at an index is in the view
+    private boolean isMember(int index)
+    {
+      return members == null || members.get(index);
+    }
+
+    // Gives the parent index of a vertex in the view, or -1
+    private int indexOf(V vertex)
+    {
+      int index = parent.indexOf(vertex);
+      if (index == -1 || !isMember(index))
+      {
+        return -1;
+      }
+      return index;
+    }
+
+    // Tells whether the parent edge between two member indices is in the view
+    private boolean keeps(int from, int to)
+    {
+      return isMember(to)
+        && (edgeFilter == null || edgeFilter.test(parent.vertexAt(from), parent.vertexAt(to)));
+    }
+
+    public int numVertices()
+    {
+      checkCurrent();
+      return vertexCount;
+    }
+
+    /**
+     * Gives the number of edges in the view.  The first call counts
+     * them by looking at every edge leaving a vertex in the view.
+     *
+     * @return the number of edges in the view
+     */
+    public int numEdges()
+    {
+      checkCurrent();
+      if (edgeCount == -1)
+      {
+        int count = 0;
+        for (int from = nextMember(0); from != -1; from = nextMember(from + 1))
+        {
+          int[] row = parent.rowAt(from);
+          int degree = parent.outDegree(from);
+          for (int slot = 0; slot < degree; slot++)
+          {
+            if (keeps(from, row[slot]))
+            {
+              count++;
+            }
+          }
+        }
+        edgeCount = count;
+      }
+      return edgeCount;
+    }
+
+    // Gives the first member index at or after 'index', or -1
+    private int nextMember(int index)
+    {
+      if (members == null)
+      {
+        return index < parent.numVertices() ? index : -1;
+      }
+      return members.nextSetBit(index);
+    }
+
+    /**
+     * Gets the number of edges in the view leaving a vertex.  If the
+     * vertex is not in the view, throws a RuntimeException.
+     *
+     * @param vertex the vertex whose degree we want
+     * @return the degree of 'vertex' in the view
+     */
+    public int degree(V vertex)
+    {
+      checkCurrent();
+      int from = indexOf(vertex);
+      if (from == -1) {
+        throw new RuntimeException("Vertex " + vertex + " is not in the view");
+      }
+      int[] row = parent.rowAt(from);
+      int degree = parent.outDegree(from);
+      int count = 0;
+      for (int slot = 0; slot < degree; slot++)
+      {
+        if (keeps(from, row[slot]))
+        {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Always throws a RuntimeException, since views cannot be changed.
+     */
+    public void addEdge(V from, V to)
+    {
+      throw new RuntimeException("A graph view cannot be changed");
+    }
+
+    /**
+     * Always throws a RuntimeException, since views cannot be changed.
+     */
+    public void addVertex(V vertex)
+    {
+      throw new RuntimeException("A graph view cannot be changed");
+    }
+
+    /**
+     * Gets the vertices in the view, in the order they were added to
+     * the parent.
+     *
+     * @return the vertices in the view
+     */
+    public Iterable<V> getVertices()
+    {
+      checkCurrent();
+      List<V> kept = new ArrayList<V>(vertexCount);
+      if (parent.isReordered())
+      {
+        for (V vertex : parent.getVertices())
+        {
+          if (isMember(parent.indexOf(vertex)))
+          {
+            kept.add(vertex);
+          }
+        }
+        return kept;
+      }
+      for (int index = nextMember(0); index != -1; index = nextMember(index + 1))
+      {
+        kept.add(parent.vertexAt(index));
+      }
+      return kept;
+    }
+
+    /**
+     * Gets the vertices that edges in the view lead to from a vertex.
+     *
+     * @param from the source vertex
+     * @return the destinations of from's edges in the view, or an empty
+     * list if 'from' is not in the view
+     */
+    public Iterable<V> adjacentTo(V from)
+    {
+      checkCurrent();
+      int fromIndex = indexOf(from);
+      if (fromIndex == -1)
+      {
+        return Collections.<V>emptyList();
+      }
+      int[] row = parent.rowAt(fromIndex);
+      int degree = parent.outDegree(fromIndex);
+      List<V> adjacent = new ArrayList<V>(degree);
+      for (int slot = 0; slot < degree; slot++)
+      {
+        if (keeps(fromIndex, row[slot]))
+        {
+          adjacent.add(parent.vertexAt(row[slot]));
+        }
+      }
+      return adjacent;
+    }
+
+    public boolean contains(V vertex)
+    {
+      checkCurrent();
+      return indexOf(vertex) != -1;
+    }
+
+    public boolean hasEdge(V from, V to)
+    {
+      checkCurrent();
+      int fromIndex = indexOf(from);
+      int toIndex = indexOf(to);
+      if (fromIndex == -1 || toIndex == -1)
+      {
+        return false;
+      }
+      return parent.hasEdge(from, to)
+        && (edgeFilter == null || edgeFilter.test(from, to));
+    }
+
+    public String toString()
+    {
+      StringBuilder str = new StringBuilder();
+      for (V vertex : getVertices())
+      {
+        str.append(vertex).append(":");
+        boolean first = true;
+        for (V adjacent : adjacentTo(vertex))
+        {
+          str.append(first ? " " : ", ").append(adjacent);
+          first = false;
+        }
+        str.append("\n");
+      }
+      return str.toString();
+    }
+
+    /**
+     * Tells whether another graph has the same vertices and edges as
+     * the view.
+     *
+     * @param obj the object to compare against
+     * @return true iff 'obj' is a graph with the same vertices and
+     * edges as this view
+     */
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object obj)
+    {
+      if (!(obj instanceof Graph))
+      {
+        return false;
+      }
+      Graph<V> other = (Graph<V>) obj;
+      if (other.numVertices() != numVertices() || other.numEdges() != numEdges())
+      {
+        return false;
+      }
+      for (V vertex : getVertices())
+      {
+        if (!other.contains(vertex))
+        {
+          return false;
+        }
+        for (V adjacent : adjacentTo(vertex))
+        {
+          if (!other.hasEdge(vertex, adjacent))
+          {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    public int hashCode()
+    {
+      int hash = numEdges();
+      for (V vertex : getVertices())
+      {
+        hash += vertex == null ? 0 : vertex.hashCode();
+      }
+      return hash;
+    }
+
+    public boolean isEmpty()
+    {
+      return numVertices() == 0;
+    }
+
+    /**
+     * Always throws a RuntimeException, since views cannot be changed.
+     */
+    public void removeVertex(V toRemove)
+    {
+      throw new RuntimeException("A graph view cannot be changed");
+    }
+
+    /**
+     * Always throws a RuntimeException, since views cannot be changed.
+     */
+    public void removeEdge(V from, V to)
+    {
+      throw new RuntimeException("A graph view cannot be changed");
+    }
+
+    public boolean hasPath(V from, V to)
+    {
+      return pathLength(from, to) != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Gets the number of edges on the shortest path between two
+     * vertices using only the view's vertices and edges.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the length of the shortest path, 0 from a vertex in the
+     * view to itself, or Integer.MAX_VALUE if there is no path or
+     * either vertex is not in the view
+     */
+    public int pathLength(V from, V to)
+    {
+      int[] parents = search(from, to);
+      if (parents == null)
+      {
+        return Integer.MAX_VALUE;
+      }
+      int length = 0;
+      for (int index = indexOf(to); parents[index] != index; index = parents[index])
+      {
+        length++;
+      }
+      return length;
+    }
+
+    /**
+     * Gets the vertices on a shortest path between two vertices using
+     * only the view's vertices and edges.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the path from 'from' to 'to', both included, [from] if
+     * they are the same vertex, or an empty list if there is no path
+     */
+    public Iterable<V> getPath(V from, V to)
+    {
+      int[] parents = search(from, to);
+      if (parents == null)
+      {
+        return Collections.<V>emptyList();
+      }
+      List<V> path = new ArrayList<V>();
+      int index = indexOf(to);
+      path.add(parent.vertexAt(index));
+      while (parents[index] != index)
+      {
+        index = parents[index];
+        path.add(parent.vertexAt(index));
+      }
+      Collections.reverse(path);
+      return path;
+    }
+
+    /**
+     * Breadth first search over the parent's storage, skipping what
+     * the view leaves out.
+     *
+     * @return each reached vertex's predecessor by parent index, with
+     * the source its own predecessor, or null if 'to' was not reached
+     */
+    private int[] search(V from, V to)
+    {
+      checkCurrent();
+      int source = indexOf(from);
+      int target = indexOf(to);
+      if (source == -1 || target == -1)
+      {
+        return null;
+      }
+      int[] parents = new int[parent.numVertices()];
+      Arrays.fill(parents, -1);
+      parents[source] = source;
+      if (source == target)
+      {
+        return parents;
+      }
+      int[] queue = new int[vertexCount];
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = source;
+      while (head < tail)
+      {
+        int current = queue[head++];
+        int[] row = parent.rowAt(current);
+        int degree = parent.outDegree(current);
+        for (int slot = 0; slot < degree; slot++)
+        {
+          int next = row[slot];
+          if (parents[next] == -1 && keeps(current, next))
+          {
+            parents[next] = current;
+            if (next == target)
+            {
+              return parents;
+            }
+            queue[tail++] = next;
+          }
+        }
+      }
+      return null;
+    }
+}
@@ -0,0 +1,212 @@
+package edu.union.adt.graph;
+
+import java.util.Arrays;
+
+/**
+ * A min-heap of int ids in the range [0, capacity) keyed by a double
+ * priority.  Each id can be in the heap at most once, and its key can
+ * be lowered in place, which is what Dijkstra-style searches need.
+ *
+ * Everything is held in primitive arrays, so pushing, polling and
+ * decreasing keys never allocate.
+ *
+ * @version 1
+ */
+class IndexedDaryHeap
+{
+    // Number of children per node
+    private final int arity;
+
+    // heap[i] is the id stored at heap position i
+    private int[] heap;
+
+    // position[id] is where id sits in heap, or -1 if it is not queued
+    private int[] position;
+
+    // keys[id] is the current priority of id
+    private double[] keys;
+
+    private int size;
+
+    /**
+     * Create an empty heap for ids 0 through capacity - 1.
+     *
+     * @param arity the number of children per node, at least 2
+     * @param capacity one more than the largest id that will be queued
+     */
+    IndexedDaryHeap(int arity, int capacity)
+    {
+      if (arity < 2) {
+        throw new RuntimeException("Heap arity must be at least 2 but was " + arity);
+      }
+      this.arity = arity;
+      heap = new int[capacity];
+      position = new int[capacity];
+      keys = new double[capacity];
+      Arrays.fill(position, -1);
+      size = 0;
+    }
+
+    /**
+     * Tells whether the heap has no queued ids.
+     *
+     * @return true iff no ids are queued
+     */
+    boolean isEmpty()
+    {
+      return size == 0;
+    }
+
+    /**
+     * Gives the number of queued ids.
+     *
+     * @return the number of queued ids
+     */
+    int size()
+    {
+      return size;
+    }
+
+    /**
+     * Tells whether an id is currently queued.
+     *
+     * @param id the id to look for
+     * @return true iff id is in the heap
+     */
+    boolean contains(int id)
+    {
+      return position[id] != -1;
+    }
+
+    /**
+     * Gives the key an id was last queued with.
+     *
+     * @param id a queued id
+     * @return the key of id
+     */
+    double key(int id)
+    {
+      return keys[id];
+    }
+
+    /**
+     * Queues an id, or lowers its key if it is already queued with a
+     * larger one.  A larger key for a queued id is ignored.
+     *
+     * @param id the id to queue
+     * @param key the priority of id
+     * @return true iff the heap changed
+     */
+    boolean offer(int id, double key)
+    {
+      int pos = position[id];
+      if (pos == -1)
+      {
+        keys[id] = key;
+        heap[size] = id;
+        position[id] = size;
+        size++;
+        siftUp(size - 1);
+        return true;
+      }
+      else if (key < keys[id])
+      {
+        keys[id] = key;
+        siftUp(pos);
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Removes and returns the id with the smallest key.  Throws a
+     * RuntimeException if the heap is empty.
+     *
+     * @return the id with the smallest key
+     */
+    int poll()
+    {
+      if (size == 0) {
+        throw new RuntimeException("Heap is empty");
+      }
+      int top = heap[0];
+      position[top] = -1;
+      size--;
+      if (size > 0)
+      {
+        heap[0] = heap[size];
+        position[heap[0]] = 0;
+        siftDown(0);
+      }
+      return top;
+    }
+
+    /**
+     * Empties the heap so it can be reused for another search.  Runs in
+     * time proportional to the number of ids still queued.
+     */
+    void clear()
+    {
+      for (int i = 0; i < size; i++)
+      {
+        position[heap[i]] = -1;
+      }
+      size = 0;
+    }
+
+    private void siftUp(int pos)
+    {
+      int id = heap[pos];
+      double key = keys[id];
+      while (pos > 0)
+      {
+        int parentPos = (pos - 1) / arity;
+        int parent = heap[parentPos];
+        if (keys[parent] <= key)
+        {
+          break;
+        }
+        heap[pos] = parent;
+        position[parent] = pos;
+        pos = parentPos;
+      }
+      heap[pos] = id;
+      position[id] = pos;
+    }
+
+    private void siftDown(int pos)
+    {
+      int id = heap[pos];
+      double key = keys[id];
+      while (true)
+      {
+        int firstChild = pos * arity + 1;
+        if (firstChild >= size)
+        {
+          break;
+        }
+        // Find the smallest of up to 'arity' children
+        int lastChild = Math.min(firstChild + arity, size);
+        int best = firstChild;
+        double bestKey = keys[heap[firstChild]];
+        for (int child = firstChild + 1; child < lastChild; child++)
+        {
+          double childKey = keys[heap[child]];
+          if (childKey < bestKey)
+          {
+            best = child;
+            bestKey = childKey;
+          }
+        }
+        if (bestKey >= key)
+        {
+          break;
+        }
+        heap[pos] = heap[best];
+        position[heap[pos]] = pos;
+        pos = best;
+      }
+      heap[pos] = id;
+      position[id] = pos;
+    }
+}
@@ -0,0 +1,286 @@
+package edu.union.adt.graph;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Wraps a graph and counts how often each operation is called and how
+ * long the calls take in total, so callers can see where the time goes
+ * without a profiler.  Counters are atomic, so a concurrent graph can
+ * be instrumented too.
+ *
+ * @version 1
+ */
+public class InstrumentedGraph<V> implements Graph<V>
+{
+    /**
+     * The operations that are counted and timed.
+     */
+    public enum Operation
+    {
+      ADD_VERTEX, ADD_EDGE, REMOVE_VERTEX, REMOVE_EDGE, CONTAINS, HAS_EDGE,
+      DEGREE, ADJACENT_TO, HAS_PATH, PATH_LENGTH, GET_PATH
+    }
+
+    private final Graph<V> graph;
+
+    // Indexed by Operation.ordinal()
+    private final AtomicLongArray calls;
+    private final AtomicLongArray nanos;
+
+    /**
+     * Wraps a graph.
+     *
+     * @param graph the graph to instrument
+     */
+    public InstrumentedGraph(Graph<V> graph)
+    {
+      this.graph = graph;
+      calls = new AtomicLongArray(Operation.values().length);
+      nanos = new AtomicLongArray(Operation.values().length);
+    }
+
+    // The instrumented graph, for code that needs to see through the wrapper
+    Graph<V> wrapped()
+    {
+      return graph;
+    }
+
+    /**
+     * Gives the number of calls made to an operation.
+     *
+     * @param operation an operation
+     * @return how many times it was called
+     */
+    public long calls(Operation operation)
+    {
+      return calls.get(operation.ordinal());
+    }
+
+    /**
+     * Gives the total time spent in an operation.
+     *
+     * @param operation an operation
+     * @return the time spent in all calls to it, in nanoseconds
+     */
+    public long nanos(Operation operation)
+    {
+      return nanos.get(operation.ordinal());
+    }
+
+    /**
+     * Sets every counter back to zero.
+     */
+    public void reset()
+    {
+      for (int i = 0; i < calls.length(); i++)
+      {
+        calls.set(i, 0);
+        nanos.set(i, 0);
+      }
+    }
+
+    /**
+     * Gives the counters as text, one line per operation that was
+     * called.
+     *
+     * @return calls and average time per operation
+     */
+    public String report()
+    {
+      StringBuilder str = new StringBuilder();
+      for (Operation operation : Operation.values())
+      {
+        long count = calls(operation);
+        if (count > 0)
+        {
+          str.append(operation).append(": ").append(count).append(" calls, ")
+            .append(nanos(operation) / count).append(" ns each\n");
+        }
+      }
+      return str.toString();
+    }
+
+    private void record(Operation operation, long start)
+    {
+      calls.incrementAndGet(operation.ordinal());
+      nanos.addAndGet(operation.ordinal(), System.nanoTime() - start);
+    }
+
+    public int numVertices()
+    {
+      return graph.numVertices();
+    }
+
+    public int numEdges()
+    {
+      return graph.numEdges();
+    }
+
+    public int degree(V vertex)
+    {
+      long start = System.nanoTime();
+      try
+      {
+        return graph.degree(vertex);
+      }
+      finally
+      {
+        record(Operation.DEGREE, start);
+      }
+    }
+
+    public void addEdge(V from, V to)
+    {
+      long start = System.nanoTime();
+      try
+      {
+        graph.addEdge(from, to);
+      }
+      finally
+      {
+        record(Operation.ADD_EDGE, start);
+      }
+    }
+
+    public void addVertex(V vertex)
+    {
+      long start = System.nanoTime();
+      try
+      {
+        graph.addVertex(vertex);
+      }
+      finally
+      {
+        record(Operation.ADD_VERTEX, start);
+      }
+    }
+
+    public Iterable<V> getVertices()
+    {
+      return graph.getVertices();
+    }
+
+    public Iterable<V> adjacentTo(V from)
+    {
+      long start = System.nanoTime();
+      try
+      {
+        return graph.adjacentTo(from);
+      }
+      finally
+      {
+        record(Operation.ADJACENT_TO, start);
+      }
+    }
+
+    public boolean contains(V vertex)
+    {
+      long start = System.nanoTime();
+      try
+      {
+        return graph.contains(vertex);
+      }
+      finally
+      {
+        record(Operation.CONTAINS, start);
+      }
+    }
+
+    public boolean hasEdge(V from, V to)
+    {
+      long start = System.nanoTime();
+      try
+      {
+        return graph.hasEdge(from, to);
+      }
+      finally
+      {
+        record(Operation.HAS_EDGE, start);
+      }
+    }
+
+    public String toString()
+    {
+      return graph.toString();
+    }
+
+    public boolean equals(Object obj)
+    {
+      return graph.equals(obj);
+    }
+
+    public int hashCode()
+    {
+      return graph.hashCode();
+    }
+
+    public boolean isEmpty()
+    {
+      return graph.isEmpty();
+    }
+
+    public void removeVertex(V toRemove)
+    {
+      long start = System.nanoTime();
+      try
+      {
+        graph.removeVertex(toRemove);
+      }
+      finally
+      {
+        record(Operation.REMOVE_VERTEX, start);
+      }
+    }
+
+    public void removeEdge(V from, V to)
+    {
+      long start = System.nanoTime();
+      try
+      {
+        graph.removeEdge(from, to);
+      }
+      finally
+      {
+        record(Operation.REMOVE_EDGE, start);
+      }
+    }
+
+    public boolean hasPath(V from, V to)
+    {
+      long start = System.nanoTime();
+      try
+      {
+        return graph.hasPath(from, to);
+      }
+      finally
+      {
+        record(Operation.HAS_PATH, start);
+      }
+    }
+
+    public int pathLength(V from, V to)
+    {
+      long start = System.nanoTime();
+      try
+      {
+        return graph.pathLength(from, to);
+      }
+      finally
+      {
+        record(Operation.PATH_LENGTH, start);
+      }
+    }
+
+    public Iterable<V> getPath(V from, V to)
+    {
+      long start = System.nanoTime();
+      try
+      {
+        return graph.getPath(from, to);
+      }
+      finally
+      {
+        record(Operation.GET_PATH, start);
+      }
+    }
+}
@@ -0,0 +1,26 @@
+package edu.union.adt.graph;
+
+import java.util.function.IntConsumer;
+
+/**
+* Interface for a directed Graph whose vertices are the ints 0 to
+* numVertices() - 1, so no vertex is ever boxed or hashed
+*/
+
+public interface IntGraph extends EdgeSink {
+
+  int numVertices();
+  int numEdges();
+  int addVertex();
+  void addEdge(int from, int to);
+  int degree(int vertex);
+  int neighbor(int vertex, int slot);
+  void forEachNeighbor(int vertex, IntConsumer action);
+  boolean hasEdge(int from, int to);
+  void removeEdge(int from, int to);
+  void removeVertex(int vertex);
+  boolean hasPath(int from, int to);
+  int pathLength(int from, int to);
+  int[] getPath(int from, int to);
+
+}
@@ -0,0 +1,526 @@
+package edu.union.adt.graph;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A directed graph over the vertices 0 to numVertices() - 1.  The
+ * edges leaving each vertex are kept in a primitive int array in the
+ * order they were added, so adding, testing and walking edges never
+ * creates an object.  Like GraphImpl, adding an edge that already
+ * exists adds a second copy of it.
+ *
+ * Vertices are numbered in the order they were added until renumber
+ * gives them new numbers.  Removing a vertex renumbers every vertex
+ * above it down by one, so the vertices always stay numbered 0 to
+ * numVertices() - 1.  This is the storage behind GraphImpl.
+ *
+ * @version 1
+ */
+public class IntGraphImpl implements IntGraph
+{
+    private static final int[] NO_EDGES = new int[0];
+
+    // targets[v][0 .. outDegree[v]) are the destinations of edges from v
+    private int[][] targets;
+
+    // Number of edges leaving each vertex
+    private int[] outDegree;
+
+    private int vertexCount;
+
+    private int edgeCount;
+
+    // Room given to a vertex's edges the first time one is added
+    private final int firstRowLength;
+
+    /**
+     * Create an empty graph.
+     */
+    public IntGraphImpl()
+    {
+      this(8);
+    }
+
+    /**
+     * Create an empty graph with room for some vertices before it has
+     * to grow.
+     *
+     * @param expectedVertices how many vertices to make room for
+     */
+    public IntGraphImpl(int expectedVertices)
+    {
+      this(expectedVertices, 0);
+    }
+
+    /**
+     * Create an empty graph with room for some vertices, and for about
+     * the average number of edges per vertex, before it has to grow.
+     *
+     * @param expectedVertices how many vertices to make room for
+     * @param expectedEdges how many edges are expected in all
+     */
+    public IntGraphImpl(int expectedVertices, int expectedEdges)
+    {
+      int capacity = Math.max(1, expectedVertices);
+      targets = new int[capacity][];
+      outDegree = new int[capacity];
+      vertexCount = 0;
+      edgeCount = 0;
+      firstRowLength = Math.max(4, (int) Math.min(1024, (long) expectedEdges / capacity));
+    }
+
+    /**
+     * Gives the number of vertices in the graph.
+     *
+     * @return the number of vertices in the graph.
+     */
+    public int numVertices()
+    {
+      return vertexCount;
+    }
+
+    /**
+     * Gives the number of edges in the graph.
+     *
+     * @return the number of edges in the graph.
+     */
+    public int numEdges()
+    {
+      return edgeCount;
+    }
+
+    /**
+     * Adds a vertex with no edges.
+     *
+     * @return the number of the new vertex, which is numVertices() - 1
+     */
+    public int addVertex()
+    {
+      if (vertexCount == outDegree.length)
+      {
+        int newLength = vertexCount * 2;
+        targets = Arrays.copyOf(targets, newLength);
+        outDegree = Arrays.copyOf(outDegree, newLength);
+      }
+      targets[vertexCount] = NO_EDGES;
+      outDegree[vertexCount] = 0;
+      return vertexCount++;
+    }
+
+    /**
+     * Adds a directed edge.  If either vertex is not yet in the graph,
+     * vertices are added until it is.  Throws a RuntimeException for a
+     * negative vertex.
+     *
+     * @param from the source vertex for the added edge
+     * @param to the destination vertex for the added edge
+     */
+    public void addEdge(int from, int to)
+    {
+      if (from < 0 || to < 0) {
+        throw new RuntimeException("Vertex numbers must not be negative: " + from + ", " + to);
+      }
+      while (vertexCount <= Math.max(from, to))
+      {
+        addVertex();
+      }
+      int[] row = targets[from];
+      int size = outDegree[from];
+      if (size == row.length)
+      {
+        row = Arrays.copyOf(row, Math.max(firstRowLength, size * 2));
+        targets[from] = row;
+      }
+      row[size] = to;
+      outDegree[from] = size + 1;
+      edgeCount++;
+    }
+
+    /**
+     * Gets the number of edges leaving a vertex.  Throws a
+     * RuntimeException if the vertex is not in the graph.
+     *
+     * @param vertex a vertex
+     * @return the out-degree of the vertex
+     */
+    public int degree(int vertex)
+    {
+      check(vertex);
+      return outDegree[vertex];
+    }
+
+    /**
+     * Gives the destination of one of a vertex's edges, in the order
+     * the edges were added.
+     *
+     * @param vertex a vertex
+     * @param slot which edge, from 0 to degree(vertex) - 1
+     * @return the destination of the edge
+     */
+    public int neighbor(int vertex, int slot)
+    {
+      check(vertex);
+      if (slot < 0 || slot >= outDegree[vertex]) {
+        throw new RuntimeException("Vertex " + vertex + " has no edge " + slot);
+      }
+      return targets[vertex][slot];
+    }
+
+    /**
+     * Gives the array holding a vertex's edge destinations, without
+     * copying or checking.  Only the first degree(vertex) entries are
+     * edges, and the array must not be changed.
+     *
+     * @param vertex a vertex
+     * @return the vertex's row of destinations
+     */
+    int[] row(int vertex)
+    {
+      return targets[vertex];
+    }
+
+    /**
+     * Calls an action with the destination of every edge leaving a
+     * vertex, in the order the edges were added.  Does nothing if the
+     * vertex is not in the graph.
+     *
+     * @param vertex the source vertex
+     * @param action called once per edge
+     */
+    public void forEachNeighbor(int vertex, IntConsumer action)
+    {
+      if (vertex < 0 || vertex >= vertexCount)
+      {
+        return;
+      }
+      int[] row = targets[vertex];
+      int size = outDegree[vertex];
+      for (int i = 0; i < size; i++)
+      {
+        action.accept(row[i]);
+      }
+    }
+
+    /**
+     * Tells whether an edge exists in the graph connecting two vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return true iff there is an edge from the source vertex to the
+     * destination vertex in the graph.
+     */
+    public boolean hasEdge(int from, int to)
+    {
+      if (from < 0 || from >= vertexCount)
+      {
+        return false;
+      }
+      return find(from, to) != -1;
+    }
+
+    /**
+     * Removes one copy of an edge, keeping the order of the others.
+     * Does nothing if there is no such edge.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     */
+    public void removeEdge(int from, int to)
+    {
+      if (from < 0 || from >= vertexCount)
+      {
+        return;
+      }
+      int slot = find(from, to);
+      if (slot != -1)
+      {
+        int[] row = targets[from];
+        System.arraycopy(row, slot + 1, row, slot, outDegree[from] - slot - 1);
+        outDegree[from]--;
+        edgeCount--;
+      }
+    }
+
+    /**
+     * Removes a vertex and every edge leaving or reaching it.  Every
+     * vertex numbered above it is renumbered one lower.  Does nothing
+     * if the vertex is not in the graph.  Runs in time proportional to
+     * the size of the graph.
+     *
+     * @param vertex the vertex to remove
+     */
+    public void removeVertex(int vertex)
+    {
+      if (vertex < 0 || vertex >= vertexCount)
+      {
+        return;
+      }
+      edgeCount -= outDegree[vertex];
+      System.arraycopy(targets, vertex + 1, targets, vertex, vertexCount - vertex - 1);
+      System.arraycopy(outDegree, vertex + 1, outDegree, vertex, vertexCount - vertex - 1);
+      vertexCount--;
+      targets[vertexCount] = null;
+
+      for (int v = 0; v < vertexCount; v++)
+      {
+        int[] row = targets[v];
+        int size = outDegree[v];
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+        {
+          int to = row[i];
+          if (to != vertex)
+          {
+            row[kept++] = to > vertex ? to - 1 : to;
+          }
+        }
+        edgeCount -= size - kept;
+        outDegree[v] = kept;
+      }
+    }
+
+    /**
+     * Renumbers every vertex, keeping the edges between them and the
+     * order of each vertex's edges.  The rows are copied at their exact
+     * size in the new order, so vertices numbered close together have
+     * their edges close together in memory.  Throws a RuntimeException
+     * if newId is not a renumbering of all the vertices.
+     *
+     * @param newId newId[v] is the new number of the vertex now
+     * numbered v
+     */
+    public void renumber(int[] newId)
+    {
+      if (newId.length != vertexCount) {
+        throw new RuntimeException("Expected " + vertexCount + " new numbers but got " + newId.length);
+      }
+      int[] oldId = new int[vertexCount];
+      Arrays.fill(oldId, -1);
+      for (int v = 0; v < vertexCount; v++)
+      {
+        int id = newId[v];
+        if (id < 0 || id >= vertexCount || oldId[id] != -1) {
+          throw new RuntimeException("New numbers must use each of 0 to " + (vertexCount - 1) + " once");
+        }
+        oldId[id] = v;
+      }
+      int[][] renumbered = new int[Math.max(1, vertexCount)][];
+      int[] degrees = new int[renumbered.length];
+      for (int id = 0; id < vertexCount; id++)
+      {
+        int v = oldId[id];
+        int size = outDegree[v];
+        int[] row = NO_EDGES;
+        if (size > 0)
+        {
+          row = new int[size];
+          int[] old = targets[v];
+          for (int i = 0; i < size; i++)
+          {
+            row[i] = newId[old[i]];
+          }
+        }
+        renumbered[id] = row;
+        degrees[id] = size;
+      }
+      targets = renumbered;
+      outDegree = degrees;
+    }
+
+    /**
+     * Releases room held for vertices and edges that are not there:
+     * every edge array is cut to the vertex's degree, and the per
+     * vertex arrays to the number of vertices.  The graph grows again
+     * as usual when more are added.
+     */
+    public void trimToSize()
+    {
+      for (int v = 0; v < vertexCount; v++)
+      {
+        if (outDegree[v] == 0)
+        {
+          targets[v] = NO_EDGES;
+        }
+        else if (targets[v].length > outDegree[v])
+        {
+          targets[v] = Arrays.copyOf(targets[v], outDegree[v]);
+        }
+      }
+      int length = Math.max(1, vertexCount);
+      if (outDegree.length > length)
+      {
+        targets = Arrays.copyOf(targets, length);
+        outDegree = Arrays.copyOf(outDegree, length);
+      }
+    }
+
+    /**
+     * Estimates the memory the graph holds on to.
+     *
+     * @return a report with the edge storage as its one component
+     */
+    public MemoryReport memoryReport()
+    {
+      MemoryReport report = new MemoryReport(vertexCount, edgeCount);
+      report.add(MemoryReport.ADJACENCY, retainedBytes());
+      return report;
+    }
+
+    /**
+     * Estimates the bytes held by this object and its arrays, counting
+     * unused room.
+     *
+     * @return the estimated bytes
+     */
+    long retainedBytes()
+    {
+      long bytes = MemoryReport.objectBytes(2 * MemoryReport.REFERENCE + 3 * 4)
+        + MemoryReport.arrayBytes(targets.length, MemoryReport.REFERENCE)
+        + MemoryReport.arrayBytes(outDegree.length, 4);
+      for (int v = 0; v < vertexCount; v++)
+      {
+        if (targets[v] != NO_EDGES)
+        {
+          bytes += MemoryReport.arrayBytes(targets[v].length, 4);
+        }
+      }
+      return bytes;
+    }
+
+    /**
+     * Tells whether there is a path connecting two given vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return true iff there is a path from 'from' to 'to' in the graph.
+     */
+    public boolean hasPath(int from, int to)
+    {
+      return search(from, to) != null;
+    }
+
+    /**
+     * Gets the number of edges on the shortest path connecting two
+     * given vertices.  The path from a vertex to itself has length 0.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the length of the shortest path from 'from' to 'to' in
+     * the graph.  If there is no path, returns Integer.MAX_VALUE
+     */
+    public int pathLength(int from, int to)
+    {
+      int[] parent = search(from, to);
+      if (parent == null)
+      {
+        return Integer.MAX_VALUE;
+      }
+      int length = 0;
+      for (int v = to; v != from; v = parent[v])
+      {
+        length++;
+      }
+      return length;
+    }
+
+    /**
+     * Returns the vertices along the shortest path connecting two
+     * given vertices, including both end points.  The path from a
+     * vertex to itself is just that vertex.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the vertices on the path, or an empty array if there is
+     * no path
+     */
+    public int[] getPath(int from, int to)
+    {
+      int[] parent = search(from, to);
+      if (parent == null)
+      {
+        return NO_EDGES;
+      }
+      int length = 1;
+      for (int v = to; v != from; v = parent[v])
+      {
+        length++;
+      }
+      int[] path = new int[length];
+      int v = to;
+      for (int i = length - 1; i >= 0; i--)
+      {
+        path[i] = v;
+        v = parent[v];
+      }
+      return path;
+    }
+
+    /**
+     * Breadth first search from 'from' that stops once 'to' is reached.
+     *
+     * @return the parent of every reached vertex, or null if 'to' was
+     * not reached
+     */
+    private int[] search(int from, int to)
+    {
+      if (from < 0 || from >= vertexCount || to < 0 || to >= vertexCount)
+      {
+        return null;
+      }
+      int[] parent = new int[vertexCount];
+      if (from == to)
+      {
+        return parent;
+      }
+      Arrays.fill(parent, -2);
+      parent[from] = -1;
+      int[] queue = new int[vertexCount];
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = from;
+
+      while (head < tail)
+      {
+        int u = queue[head++];
+        int[] row = targets[u];
+        int size = outDegree[u];
+        for (int i = 0; i < size; i++)
+        {
+          int v = row[i];
+          if (parent[v] == -2)
+          {
+            parent[v] = u;
+            if (v == to)
+            {
+              return parent;
+            }
+            queue[tail++] = v;
+          }
+        }
+      }
+      return null;
+    }
+
+    // Gives the slot of 'to' among the edges leaving 'from', or -1
+    private int find(int from, int to)
+    {
+      int[] row = targets[from];
+      int size = outDegree[from];
+      for (int i = 0; i < size; i++)
+      {
+        if (row[i] == to)
+        {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private void check(int vertex)
+    {
+      if (vertex < 0 || vertex >= vertexCount) {
+        throw new RuntimeException("Vertex " + vertex + " does not exist");
+      }
+    }
+}
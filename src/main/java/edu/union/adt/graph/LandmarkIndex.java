@@ -0,0 +1,439 @@
+package edu.union.adt.graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A precomputed index for fast point-to-point shortest path queries
+ * using the ALT technique (A*, Landmarks, Triangle inequality).
+ *
+ * A small number of landmark vertices are chosen and the distance from
+ * every landmark to every vertex, and from every vertex to every
+ * landmark, is stored in flat int arrays.  The triangle inequality
+ * then gives a lower bound on the distance between any two vertices,
+ * which steers an A* search towards the destination so it settles far
+ * fewer vertices than a breadth first search.
+ *
+ * The index is a snapshot: it does not see changes made to the graph
+ * after it was built.  A GraphImpl given an index with useLandmarks
+ * answers getPath and pathLength with it and drops it as soon as the
+ * graph is changed.
+ *
+ * @version 1
+ */
+public class LandmarkIndex<V>
+{
+    /**
+     * How landmarks are picked.
+     */
+    public enum Selection
+    {
+      // Vertices chosen uniformly at random with a fixed seed
+      RANDOM,
+      // The vertices with the most outgoing edges
+      DEGREE,
+      // Each landmark is the vertex farthest from the ones already chosen
+      FARTHEST
+    }
+
+    // Marks an unreachable vertex in the distance arrays
+    private static final int UNREACHABLE = -1;
+
+    // Seed used for RANDOM selection so indexes are reproducible
+    private static final long SEED = 260L;
+
+    private final Graph<V> source;
+
+    // The source's change count when the index was built, if it is a GraphImpl
+    private final int sourceModCount;
+
+    private final Csr<V> csr;
+
+    // Landmark vertex indexes
+    private final int[] landmarks;
+
+    // fromLandmark[l * n + v] is the distance from landmark l to v
+    private final int[] fromLandmark;
+
+    // toLandmark[l * n + v] is the distance from v to landmark l
+    private final int[] toLandmark;
+
+    private LandmarkIndex(Graph<V> source, Csr<V> csr, int[] landmarks,
+                          int[] fromLandmark, int[] toLandmark)
+    {
+      this.source = source;
+      this.sourceModCount = source instanceof GraphImpl ? ((GraphImpl<V>) source).modCount() : 0;
+      this.csr = csr;
+      this.landmarks = landmarks;
+      this.fromLandmark = fromLandmark;
+      this.toLandmark = toLandmark;
+    }
+
+    /**
+     * Builds an index with up to 'count' landmarks chosen with the
+     * FARTHEST strategy and no memory limit.
+     *
+     * @param graph the graph to index
+     * @param count the number of landmarks wanted
+     * @return the landmark index
+     */
+    public static <V> LandmarkIndex<V> build(Graph<V> graph, int count)
+    {
+      return build(graph, count, Selection.FARTHEST, Long.MAX_VALUE);
+    }
+
+    /**
+     * Builds an index for a graph.  Each landmark costs two ints per
+     * vertex; if 'count' landmarks would need more than 'maxBytes'
+     * bytes, fewer landmarks are used.  Each table is a single int
+     * array, so there are also never more landmarks than fit k * n
+     * entries in one array.  An index with no landmarks is still
+     * correct but no faster than a breadth first search.
+     *
+     * @param graph the graph to index
+     * @param count the number of landmarks wanted
+     * @param selection how landmarks are chosen
+     * @param maxBytes the most memory the distance tables may use
+     * @return the landmark index
+     */
+    public static <V> LandmarkIndex<V> build(Graph<V> graph, int count,
+                                             Selection selection, long maxBytes)
+    {
+      if (count < 0) {
+        throw new RuntimeException("Landmark count must not be negative but was " + count);
+      }
+      Csr<V> csr = Csr.of(graph);
+      Csr<V> reverse = csr.transpose();
+      int n = csr.n;
+
+      // Worked out in long, since k * n can overflow an int
+      long bytesPerLandmark = 2L * Integer.BYTES * Math.max(1, n);
+      long fitInArray = (Integer.MAX_VALUE - 8) / Math.max(1, n);
+      int k = (int) Math.min(Math.min(Math.min(count, n), maxBytes / bytesPerLandmark), fitInArray);
+
+      int[] landmarks = new int[k];
+      int[] fromLandmark = new int[k * n];
+      int[] toLandmark = new int[k * n];
+      int[] dist = new int[n];
+      int[] queue = new int[n];
+
+      if (selection == Selection.FARTHEST)
+      {
+        chooseFarthest(csr, landmarks, fromLandmark, dist, queue);
+      }
+      else
+      {
+        int[] chosen = selection == Selection.DEGREE
+            ? highestDegree(csr, k)
+            : randomVertices(n, k);
+        for (int l = 0; l < k; l++)
+        {
+          landmarks[l] = chosen[l];
+          csr.distancesFrom(chosen[l], dist, queue);
+          System.arraycopy(dist, 0, fromLandmark, l * n, n);
+        }
+      }
+      for (int l = 0; l < k; l++)
+      {
+        reverse.distancesFrom(landmarks[l], dist, queue);
+        System.arraycopy(dist, 0, toLandmark, l * n, n);
+      }
+      return new LandmarkIndex<V>(graph, csr, landmarks, fromLandmark, toLandmark);
+    }
+
+    /**
+     * Picks landmarks one at a time, each being the vertex whose
+     * distance to the closest landmark so far is largest.  Vertices no
+     * landmark reaches count as farthest of all, so every part of the
+     * graph gets covered.
+     */
+    private static <V> void chooseFarthest(Csr<V> csr, int[] landmarks,
+                                           int[] fromLandmark, int[] dist, int[] queue)
+    {
+      int n = csr.n;
+      if (landmarks.length == 0)
+      {
+        return;
+      }
+      // closest[v] is v's distance to the nearest chosen landmark
+      int[] closest = new int[n];
+      Arrays.fill(closest, Integer.MAX_VALUE);
+      int next = highestDegree(csr, 1)[0];
+      for (int l = 0; l < landmarks.length; l++)
+      {
+        landmarks[l] = next;
+        csr.distancesFrom(next, dist, queue);
+        System.arraycopy(dist, 0, fromLandmark, l * n, n);
+
+        int farthest = -1;
+        for (int v = 0; v < n; v++)
+        {
+          if (dist[v] != UNREACHABLE && dist[v] < closest[v])
+          {
+            closest[v] = dist[v];
+          }
+          if (closest[v] != 0 && (farthest == -1 || closest[v] > closest[farthest]))
+          {
+            farthest = v;
+          }
+        }
+        if (farthest == -1)
+        {
+          farthest = next;
+        }
+        next = farthest;
+      }
+    }
+
+    private static <V> int[] highestDegree(Csr<V> csr, int k)
+    {
+      // Sort indexes by degree, largest first, keeping index order on ties
+      long[] keyed = new long[csr.n];
+      for (int v = 0; v < csr.n; v++)
+      {
+        keyed[v] = ((long) (Integer.MAX_VALUE - csr.degree(v)) << 32) | v;
+      }
+      Arrays.sort(keyed);
+      int[] chosen = new int[k];
+      for (int i = 0; i < k; i++)
+      {
+        chosen[i] = (int) keyed[i];
+      }
+      return chosen;
+    }
+
+    private static int[] randomVertices(int n, int k)
+    {
+      // Partial Fisher-Yates shuffle of the vertex indexes
+      int[] order = new int[n];
+      for (int i = 0; i < n; i++)
+      {
+        order[i] = i;
+      }
+      Random random = new Random(SEED);
+      for (int i = 0; i < k; i++)
+      {
+        int j = i + random.nextInt(n - i);
+        int swap = order[i];
+        order[i] = order[j];
+        order[j] = swap;
+      }
+      return Arrays.copyOf(order, k);
+    }
+
+    /**
+     * Tells whether this index was built from a given graph and is
+     * still up to date with it.  A GraphImpl is checked for changes
+     * since the index was built; other graphs cannot be, so the caller
+     * must know they have not changed.
+     *
+     * @param graph a graph
+     * @return true iff the index is a current snapshot of 'graph'
+     */
+    public boolean isFor(Graph<V> graph)
+    {
+      if (source != graph)
+      {
+        return false;
+      }
+      return !(graph instanceof GraphImpl) || ((GraphImpl<V>) graph).modCount() == sourceModCount;
+    }
+
+    /**
+     * Gives the landmarks the index uses.
+     *
+     * @return the landmark vertices
+     */
+    public List<V> getLandmarks()
+    {
+      return csr.toVertices(landmarks);
+    }
+
+    /**
+     * Gives the number of bytes used by the distance tables.
+     *
+     * @return the size of the distance tables in bytes
+     */
+    public long memoryBytes()
+    {
+      return (long) Integer.BYTES * (fromLandmark.length + toLandmark.length);
+    }
+
+    /**
+     * Estimates all the bytes the index holds on to: its distance
+     * tables and its snapshot of the graph.
+     *
+     * @return the estimated bytes
+     */
+    long retainedBytes()
+    {
+      return MemoryReport.objectBytes(5 * MemoryReport.REFERENCE)
+        + MemoryReport.arrayBytes(landmarks.length, 4)
+        + MemoryReport.arrayBytes(fromLandmark.length, 4)
+        + MemoryReport.arrayBytes(toLandmark.length, 4)
+        + csr.retainedBytes();
+    }
+
+    /**
+     * Gives a lower bound on the length of the shortest path between
+     * two vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return a number no larger than pathLength(from, to), or
+     * Integer.MAX_VALUE if the landmarks prove there is no path
+     */
+    public int lowerBound(V from, V to)
+    {
+      int u = csr.indexOf(from);
+      int t = csr.indexOf(to);
+      if (u == -1 || t == -1)
+      {
+        return Integer.MAX_VALUE;
+      }
+      return bound(u, t);
+    }
+
+    /**
+     * Gets the length of the shortest path connecting two vertices as
+     * they were when the index was built.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the number of edges on the shortest path, or
+     * Integer.MAX_VALUE if there is none
+     */
+    public int pathLength(V from, V to)
+    {
+      int[] path = search(from, to);
+      if (path == null)
+      {
+        return Integer.MAX_VALUE;
+      }
+      return path.length - 1;
+    }
+
+    /**
+     * Returns the vertices along the shortest path connecting two
+     * vertices as they were when the index was built, including both
+     * end points.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the vertices on the path, or an empty iterable if there
+     * is none
+     */
+    public Iterable<V> getPath(V from, V to)
+    {
+      return csr.toVertices(search(from, to));
+    }
+
+    /**
+     * A* search guided by the landmark lower bounds.  The bounds are
+     * consistent, so the destination is on its shortest path the first
+     * time it is taken off the heap and no vertex is settled twice.
+     */
+    private int[] search(V from, V to)
+    {
+      int source = csr.indexOf(from);
+      int target = csr.indexOf(to);
+      if (source == -1 || target == -1)
+      {
+        return null;
+      }
+      if (source == target)
+      {
+        return new int[] { source };
+      }
+      if (bound(source, target) == Integer.MAX_VALUE)
+      {
+        return null;
+      }
+
+      int n = csr.n;
+      int[] dist = new int[n];
+      int[] parent = new int[n];
+      Arrays.fill(dist, Integer.MAX_VALUE);
+      dist[source] = 0;
+      parent[source] = -1;
+      IndexedDaryHeap heap = new IndexedDaryHeap(4, n);
+      heap.offer(source, bound(source, target));
+
+      while (!heap.isEmpty())
+      {
+        int u = heap.poll();
+        if (u == target)
+        {
+          return trace(parent, target, dist[target]);
+        }
+        int next = dist[u] + 1;
+        for (int edge = csr.offsets[u]; edge < csr.offsets[u + 1]; edge++)
+        {
+          int v = csr.targets[edge];
+          if (next < dist[v])
+          {
+            int estimate = bound(v, target);
+            if (estimate == Integer.MAX_VALUE)
+            {
+              // The landmarks prove v cannot reach the target
+              continue;
+            }
+            dist[v] = next;
+            parent[v] = u;
+            heap.offer(v, next + estimate);
+          }
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Lower bound on the distance from u to t over all landmarks, or
+     * Integer.MAX_VALUE if some landmark shows t is unreachable from u.
+     */
+    private int bound(int u, int t)
+    {
+      int n = csr.n;
+      int best = 0;
+      for (int l = 0; l < landmarks.length; l++)
+      {
+        int base = l * n;
+        // d(L, t) <= d(L, u) + d(u, t)
+        int landmarkToU = fromLandmark[base + u];
+        int landmarkToT = fromLandmark[base + t];
+        if (landmarkToU != UNREACHABLE)
+        {
+          if (landmarkToT == UNREACHABLE)
+          {
+            return Integer.MAX_VALUE;
+          }
+          best = Math.max(best, landmarkToT - landmarkToU);
+        }
+        // d(u, L) <= d(u, t) + d(t, L)
+        int uToLandmark = toLandmark[base + u];
+        int tToLandmark = toLandmark[base + t];
+        if (tToLandmark != UNREACHABLE)
+        {
+          if (uToLandmark == UNREACHABLE)
+          {
+            return Integer.MAX_VALUE;
+          }
+          best = Math.max(best, uToLandmark - tToLandmark);
+        }
+      }
+      return best;
+    }
+
+    private static int[] trace(int[] parent, int target, int length)
+    {
+      int[] path = new int[length + 1];
+      int v = target;
+      for (int i = length; i >= 0; i--)
+      {
+        path[i] = v;
+        v = parent[v];
+      }
+      return path;
+    }
+}
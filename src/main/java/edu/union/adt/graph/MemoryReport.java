@@ -0,0 +1,211 @@
+package edu.union.adt.graph;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An estimate of the memory a graph holds on to, split by component.
+ * Sizes are worked out from the lengths of the arrays and tables the
+ * graph keeps, including room not yet used, assuming a 64-bit JVM
+ * with compressed references: 12 byte object headers, 16 byte array
+ * headers, 4 byte references and sizes rounded up to 8 bytes.  The
+ * vertex objects themselves are not counted, since the caller made
+ * them and may share them.
+ *
+ * @version 1
+ */
+public final class MemoryReport
+{
+    /** The vertex list and the map from vertices to their numbers. */
+    public static final String VERTEX_DICTIONARY = "vertex dictionary";
+
+    /** The edge storage. */
+    public static final String ADJACENCY = "adjacency";
+
+    /** Indexes built on request to speed up queries, such as landmarks. */
+    public static final String INDEXES = "indexes";
+
+    /** Structures the graph keeps up to date or rebuilds by itself. */
+    public static final String CACHES = "caches";
+
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    // A HashMap node and the boxed Integer it holds as its value
+    private static final int MAP_ENTRY = 32 + 16;
+
+    // A HashMap's own fields
+    private static final int MAP_FIELDS = 6 * REFERENCE + 4 * 4;
+
+    private final Map<String, Long> components;
+
+    private final int vertices;
+    private final int edges;
+
+    /**
+     * Create an empty report for a graph of a given size.
+     *
+     * @param vertices the number of vertices in the graph
+     * @param edges the number of edges in the graph
+     */
+    MemoryReport(int vertices, int edges)
+    {
+      this.components = new LinkedHashMap<String, Long>();
+      this.vertices = vertices;
+      this.edges = edges;
+    }
+
+    /**
+     * Adds bytes to a component, creating it if needed.
+     *
+     * @param component the component's name
+     * @param bytes the bytes to add
+     */
+    void add(String component, long bytes)
+    {
+      Long before = components.get(component);
+      components.put(component, (before == null ? 0 : before) + bytes);
+    }
+
+    /**
+     * Gives the names of the components, in the order they were added.
+     *
+     * @return the component names
+     */
+    public Set<String> components()
+    {
+      return Collections.unmodifiableSet(components.keySet());
+    }
+
+    /**
+     * Gives the estimated bytes held by one component.
+     *
+     * @param component the component's name
+     * @return its bytes, or 0 if the report has no such component
+     */
+    public long bytes(String component)
+    {
+      Long bytes = components.get(component);
+      return bytes == null ? 0 : bytes;
+    }
+
+    /**
+     * Gives the estimated bytes held by all components together.
+     *
+     * @return the total bytes
+     */
+    public long totalBytes()
+    {
+      long total = 0;
+      for (long bytes : components.values())
+      {
+        total += bytes;
+      }
+      return total;
+    }
+
+    /**
+     * Gives the total bytes divided by the number of vertices.
+     *
+     * @return bytes per vertex, or 0 for a graph with no vertices
+     */
+    public double bytesPerVertex()
+    {
+      return vertices == 0 ? 0 : (double) totalBytes() / vertices;
+    }
+
+    /**
+     * Gives the total bytes divided by the number of edges.
+     *
+     * @return bytes per edge, or 0 for a graph with no edges
+     */
+    public double bytesPerEdge()
+    {
+      return edges == 0 ? 0 : (double) totalBytes() / edges;
+    }
+
+    /**
+     * Gives one line per component and a line for the total, like
+     *
+     * <PRE>
+     * vertex dictionary: 5208 bytes
+     * adjacency: 9120 bytes
+     * total: 14328 bytes for 100 vertices and 400 edges
+     * </PRE>
+     *
+     * @return the report as text
+     */
+    public String toString()
+    {
+      StringBuilder str = new StringBuilder();
+      for (Map.Entry<String, Long> component : components.entrySet())
+      {
+        str.append(component.getKey()).append(": ").append(component.getValue()).append(" bytes\n");
+      }
+      str.append("total: ").append(totalBytes()).append(" bytes for ").append(vertices)
+        .append(" vertices and ").append(edges).append(" edges\n");
+      return str.toString();
+    }
+
+    /**
+     * Gives the bytes taken by an object with fields of the given
+     * total size.
+     *
+     * @param fieldBytes the bytes of all its fields
+     * @return the object's size
+     */
+    static long objectBytes(int fieldBytes)
+    {
+      return align(OBJECT_HEADER + fieldBytes);
+    }
+
+    /**
+     * Gives the bytes taken by an array.
+     *
+     * @param length the array's length
+     * @param elementBytes the size of one element
+     * @return the array's size
+     */
+    static long arrayBytes(long length, int elementBytes)
+    {
+      return align(ARRAY_HEADER + length * elementBytes);
+    }
+
+    /**
+     * Gives the bytes taken by a HashMap whose values are Integers,
+     * not counting its keys.
+     *
+     * @param size the number of entries
+     * @param tableLength the length of its table
+     * @return the map's size
+     */
+    static long hashMapBytes(int size, int tableLength)
+    {
+      return objectBytes(MAP_FIELDS) + arrayBytes(tableLength, REFERENCE) + (long) size * MAP_ENTRY;
+    }
+
+    /**
+     * Gives the table length a HashMap made with a given initial
+     * capacity starts with: the capacity rounded up to a power of two.
+     *
+     * @param capacity the initial capacity
+     * @return the table length
+     */
+    static int tableLength(int capacity)
+    {
+      int length = 1;
+      while (length < capacity)
+      {
+        length <<= 1;
+      }
+      return length;
+    }
+
+    private static long align(long bytes)
+    {
+      return (bytes + 7) & ~7L;
+    }
+}
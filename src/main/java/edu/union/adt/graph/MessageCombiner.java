@@ -0,0 +1,32 @@
+package edu.union.adt.graph;
+
+/**
+* Interface for merging two messages bound for the same vertex into one
+*/
+
+public interface MessageCombiner {
+
+  double combine(double first, double second);
+
+  MessageCombiner MIN = new MessageCombiner() {
+    public double combine(double first, double second)
+    {
+      return Math.min(first, second);
+    }
+  };
+
+  MessageCombiner MAX = new MessageCombiner() {
+    public double combine(double first, double second)
+    {
+      return Math.max(first, second);
+    }
+  };
+
+  MessageCombiner SUM = new MessageCombiner() {
+    public double combine(double first, double second)
+    {
+      return first + second;
+    }
+  };
+
+}
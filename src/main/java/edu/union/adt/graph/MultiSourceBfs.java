@@ -0,0 +1,262 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Answers many path length queries at once with multi-source breadth
+ * first search (MS-BFS).  The distinct sources of a batch of queries
+ * are taken 64 at a time, and the 64 searches run together: every
+ * vertex holds a long whose bit i says whether search i has reached
+ * it, so when the searches' frontiers overlap, each shared vertex and
+ * its edges are expanded once for all of them instead of once each.
+ * Groups of 64 sources are independent and run in parallel.
+ *
+ * Searches work on a CSR snapshot taken when the object is created,
+ * so later changes to the graph are not seen.  A group stops as soon
+ * as every query in it is answered.
+ *
+ * @version 1
+ */
+public class MultiSourceBfs<V>
+{
+    // Searches that share a pass, one per bit of a long
+    private static final int WIDTH = 64;
+
+    private final Csr<V> csr;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a batch searcher over a snapshot of a graph, run on the
+     * common fork/join pool.
+     *
+     * @param graph the graph to search
+     */
+    public MultiSourceBfs(Graph<V> graph)
+    {
+      this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a batch searcher over a snapshot of a graph.
+     *
+     * @param graph the graph to search
+     * @param pool runs groups of searches in parallel
+     */
+    public MultiSourceBfs(Graph<V> graph, ForkJoinPool pool)
+    {
+      this.csr = Csr.of(graph);
+      this.pool = pool;
+    }
+
+    /**
+     * Gives the length of the shortest path for every (from, to) pair,
+     * where the pairs are from.get(i) and to.get(i).
+     *
+     * @param from the source of each query
+     * @param to the destination of each query
+     * @return the number of edges on the shortest path for each query,
+     * or Integer.MAX_VALUE where there is no path or either vertex is
+     * not in the graph
+     */
+    public int[] pathLengths(List<V> from, List<V> to)
+    {
+      if (from.size() != to.size()) {
+        throw new RuntimeException("Got " + from.size() + " sources but " + to.size() + " destinations");
+      }
+      final int queries = from.size();
+      final int[] result = new int[queries];
+      Arrays.fill(result, Integer.MAX_VALUE);
+
+      // Number the distinct sources; queries with a missing end stay unanswered
+      final int[] sourceOf = new int[queries];
+      final int[] targetOf = new int[queries];
+      Map<Integer, Integer> sourceNumbers = new HashMap<Integer, Integer>();
+      List<Integer> sources = new ArrayList<Integer>();
+      for (int q = 0; q < queries; q++)
+      {
+        int source = csr.indexOf(from.get(q));
+        int target = csr.indexOf(to.get(q));
+        sourceOf[q] = -1;
+        if (source == -1 || target == -1)
+        {
+          continue;
+        }
+        Integer number = sourceNumbers.get(source);
+        if (number == null)
+        {
+          number = sources.size();
+          sourceNumbers.put(source, number);
+          sources.add(source);
+        }
+        sourceOf[q] = number;
+        targetOf[q] = target;
+      }
+
+      // Sort the queries into groups by source number
+      int groups = (sources.size() + WIDTH - 1) / WIDTH;
+      int[] groupStart = new int[groups + 1];
+      for (int q = 0; q < queries; q++)
+      {
+        if (sourceOf[q] != -1)
+        {
+          groupStart[sourceOf[q] / WIDTH + 1]++;
+        }
+      }
+      for (int g = 0; g < groups; g++)
+      {
+        groupStart[g + 1] += groupStart[g];
+      }
+      final int[] grouped = new int[groupStart[groups]];
+      int[] fill = Arrays.copyOf(groupStart, groups);
+      for (int q = 0; q < queries; q++)
+      {
+        if (sourceOf[q] != -1)
+        {
+          grouped[fill[sourceOf[q] / WIDTH]++] = q;
+        }
+      }
+
+      List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(groups);
+      for (int g = 0; g < groups; g++)
+      {
+        final int[] groupSources = new int[Math.min(WIDTH, sources.size() - g * WIDTH)];
+        for (int i = 0; i < groupSources.length; i++)
+        {
+          groupSources[i] = sources.get(g * WIDTH + i);
+        }
+        final int lo = groupStart[g];
+        final int hi = groupStart[g + 1];
+        final int firstSource = g * WIDTH;
+        tasks.add(new Callable<Void>() {
+          public Void call()
+          {
+            searchGroup(groupSources, firstSource, grouped, lo, hi, sourceOf, targetOf, result);
+            return null;
+          }
+        });
+      }
+      Parallel.runAll(pool, tasks, "multi-source search");
+      return result;
+    }
+
+    /**
+     * Tells for every (from, to) pair whether there is a path.
+     *
+     * @param from the source of each query
+     * @param to the destination of each query
+     * @return whether each query's destination can be reached from its
+     * source
+     */
+    public boolean[] hasPaths(List<V> from, List<V> to)
+    {
+      int[] lengths = pathLengths(from, to);
+      boolean[] reachable = new boolean[lengths.length];
+      for (int q = 0; q < lengths.length; q++)
+      {
+        reachable[q] = lengths[q] != Integer.MAX_VALUE;
+      }
+      return reachable;
+    }
+
+    /**
+     * Runs up to 64 searches in one pass.  Search i starts at
+     * groupSources[i] and owns bit i.  Queries grouped[lo .. hi) all
+     * have their source in this group.
+     */
+    private void searchGroup(int[] groupSources, int firstSource, int[] grouped, int lo, int hi,
+                             int[] sourceOf, int[] targetOf, int[] result)
+    {
+      int n = csr.n;
+      int[] offsets = csr.offsets;
+      int[] targets = csr.targets;
+
+      // Chain this group's queries by destination so each newly reached
+      // vertex can find the queries waiting on it
+      int[] waiting = new int[n];
+      Arrays.fill(waiting, -1);
+      int[] nextWaiting = new int[hi - lo];
+      int remaining = 0;
+      for (int k = lo; k < hi; k++)
+      {
+        int q = grouped[k];
+        int target = targetOf[q];
+        if (groupSources[sourceOf[q] - firstSource] == target)
+        {
+          result[q] = 0;
+          continue;
+        }
+        nextWaiting[k - lo] = waiting[target];
+        waiting[target] = k - lo;
+        remaining++;
+      }
+
+      // seen[v]: searches that have reached v; visit[v]: those that
+      // reached it at the last level; next[v]: those reaching it now.
+      // The frontier lists the vertices with visit[v] set and touched
+      // those with next[v] set, so a level costs only the edges it uses
+      long[] seen = new long[n];
+      long[] visit = new long[n];
+      long[] next = new long[n];
+      int[] frontier = new int[n];
+      int[] touched = new int[n];
+      int frontierSize = 0;
+      for (int i = 0; i < groupSources.length; i++)
+      {
+        seen[groupSources[i]] |= 1L << i;
+        visit[groupSources[i]] |= 1L << i;
+        frontier[frontierSize++] = groupSources[i];
+      }
+
+      int level = 0;
+      while (remaining > 0 && frontierSize > 0)
+      {
+        level++;
+        int touchedSize = 0;
+        for (int f = 0; f < frontierSize; f++)
+        {
+          int v = frontier[f];
+          long searches = visit[v];
+          visit[v] = 0;
+          for (int edge = offsets[v]; edge < offsets[v + 1]; edge++)
+          {
+            int w = targets[edge];
+            if (next[w] == 0)
+            {
+              touched[touchedSize++] = w;
+            }
+            next[w] |= searches;
+          }
+        }
+        frontierSize = 0;
+        for (int t = 0; t < touchedSize; t++)
+        {
+          int v = touched[t];
+          long fresh = next[v] & ~seen[v];
+          next[v] = 0;
+          if (fresh != 0)
+          {
+            visit[v] = fresh;
+            frontier[frontierSize++] = v;
+            seen[v] |= fresh;
+            for (int k = waiting[v]; k != -1; k = nextWaiting[k])
+            {
+              int q = grouped[lo + k];
+              if (result[q] == Integer.MAX_VALUE
+                  && (fresh & (1L << (sourceOf[q] - firstSource))) != 0)
+              {
+                result[q] = level;
+                remaining--;
+              }
+            }
+          }
+        }
+      }
+    }
+}
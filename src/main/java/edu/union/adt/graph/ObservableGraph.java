@@ -0,0 +1,456 @@
+package edu.union.adt.graph;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps a graph and tells registered GraphListeners about every change
+ * made through it, so caches and indexes built from the graph can be
+ * updated change by change instead of rebuilt.  Only real changes are
+ * reported: adding a vertex that is already there, or removing an edge
+ * that is not, produces no event.  Vertices that addEdge adds are
+ * reported before the edge, and the edges that removeVertex removes
+ * are reported before the vertex.  An edge of an undirected graph from
+ * GraphFactory is reported once, as it was added, not once per
+ * direction.
+ *
+ * Events are handed to listeners in batches of up to batchSize, in the
+ * order the changes were made.  A synchronous graph calls the listeners
+ * on the changing thread whenever a batch fills up.  An asynchronous
+ * graph puts each event in a bounded ring buffer, and a dispatcher
+ * thread takes out whatever has built up, up to a batch, and calls the
+ * listeners; a change waits when the buffer is full, so a slow listener
+ * slows writers down rather than letting events pile up without limit.
+ * Either way, flush delivers everything outstanding.  Listeners must
+ * not change the graph they are listening to.
+ *
+ * @version 1
+ */
+public class ObservableGraph<V> implements Graph<V>, Closeable
+{
+    private final Graph<V> graph;
+
+    private final int batchSize;
+
+    private final List<GraphListener<V>> listeners;
+
+    // Synchronous mode: events not yet delivered
+    private final List<GraphEvent<V>> pending;
+
+    // Asynchronous mode: the ring buffer and the thread draining it
+    private final ArrayBlockingQueue<GraphEvent<V>> ring;
+    private final Thread dispatcher;
+
+    // Counts of events put in the ring and delivered from it, guarded by 'progress'
+    private final Object progress;
+    private long published;
+    private long delivered;
+
+    // The first exception a listener threw on the dispatcher thread
+    private RuntimeException failure;
+
+    private ObservableGraph(Graph<V> graph, int batchSize, int bufferCapacity)
+    {
+      if (batchSize < 1) {
+        throw new RuntimeException("Batch size must be at least 1 but was " + batchSize);
+      }
+      this.graph = graph;
+      this.batchSize = batchSize;
+      listeners = new CopyOnWriteArrayList<GraphListener<V>>();
+      pending = new ArrayList<GraphEvent<V>>(batchSize);
+      progress = new Object();
+      if (bufferCapacity > 0)
+      {
+        ring = new ArrayBlockingQueue<GraphEvent<V>>(bufferCapacity);
+        dispatcher = new Thread(new Runnable() {
+          public void run()
+          {
+            dispatch();
+          }
+        }, "graph-events");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+      }
+      else
+      {
+        ring = null;
+        dispatcher = null;
+      }
+    }
+
+    /**
+     * Wraps a graph so listeners are called on the thread that changes
+     * it, once every batchSize changes and on flush.
+     *
+     * @param graph the graph to observe
+     * @param batchSize the most events per delivery
+     * @return the observable graph
+     */
+    public static <V> ObservableGraph<V> synchronous(Graph<V> graph, int batchSize)
+    {
+      return new ObservableGraph<V>(graph, batchSize, 0);
+    }
+
+    /**
+     * Wraps a graph so listeners are called on a dispatcher thread.
+     * close should be called when the graph is no longer used.
+     *
+     * @param graph the graph to observe
+     * @param batchSize the most events per delivery
+     * @param bufferCapacity the most events waiting before changes block
+     * @return the observable graph
+     */
+    public static <V> ObservableGraph<V> asynchronous(Graph<V> graph, int batchSize,
+                                                      int bufferCapacity)
+    {
+      if (bufferCapacity < 1) {
+        throw new RuntimeException("Buffer capacity must be at least 1 but was " + bufferCapacity);
+      }
+      return new ObservableGraph<V>(graph, batchSize, bufferCapacity);
+    }
+
+    /**
+     * Registers a listener for later changes.
+     *
+     * @param listener the listener
+     */
+    public void addListener(GraphListener<V> listener)
+    {
+      listeners.add(listener);
+    }
+
+    /**
+     * Stops calling a listener.
+     *
+     * @param listener the listener
+     */
+    public void removeListener(GraphListener<V> listener)
+    {
+      listeners.remove(listener);
+    }
+
+    /**
+     * Delivers every event not yet delivered and waits until the
+     * listeners have seen them.  If a listener threw on the dispatcher
+     * thread since the last flush, the exception is rethrown here.
+     */
+    public void flush()
+    {
+      if (ring == null)
+      {
+        synchronized (this)
+        {
+          deliverPending();
+        }
+        return;
+      }
+      synchronized (progress)
+      {
+        while (delivered < published)
+        {
+          try
+          {
+            progress.wait();
+          }
+          catch (InterruptedException e)
+          {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while flushing graph events", e);
+          }
+        }
+        if (failure != null)
+        {
+          RuntimeException thrown = failure;
+          failure = null;
+          throw new RuntimeException("A graph listener failed", thrown);
+        }
+      }
+    }
+
+    /**
+     * Flushes outstanding events and stops the dispatcher thread.
+     */
+    public void close()
+    {
+      try
+      {
+        flush();
+      }
+      finally
+      {
+        if (dispatcher != null)
+        {
+          dispatcher.interrupt();
+        }
+      }
+    }
+
+    private void publish(GraphEvent.Type type, V from, V to)
+    {
+      GraphEvent<V> event = new GraphEvent<V>(type, from, to);
+      if (ring == null)
+      {
+        pending.add(event);
+        if (pending.size() >= batchSize)
+        {
+          deliverPending();
+        }
+        return;
+      }
+      synchronized (progress)
+      {
+        published++;
+      }
+      try
+      {
+        ring.put(event);
+      }
+      catch (InterruptedException e)
+      {
+        // The event never reached the ring, so flush must not wait for it
+        synchronized (progress)
+        {
+          published--;
+          progress.notifyAll();
+        }
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while publishing a graph event", e);
+      }
+    }
+
+    private void deliverPending()
+    {
+      if (!pending.isEmpty())
+      {
+        List<GraphEvent<V>> batch = Collections.unmodifiableList(new ArrayList<GraphEvent<V>>(pending));
+        pending.clear();
+        for (GraphListener<V> listener : listeners)
+        {
+          listener.graphChanged(batch);
+        }
+      }
+    }
+
+    // Body of the dispatcher thread
+    private void dispatch()
+    {
+      List<GraphEvent<V>> taken = new ArrayList<GraphEvent<V>>(batchSize);
+      while (true)
+      {
+        try
+        {
+          taken.add(ring.take());
+        }
+        catch (InterruptedException e)
+        {
+          return;
+        }
+        ring.drainTo(taken, batchSize - 1);
+        List<GraphEvent<V>> batch = Collections.unmodifiableList(new ArrayList<GraphEvent<V>>(taken));
+        RuntimeException thrown = null;
+        for (GraphListener<V> listener : listeners)
+        {
+          try
+          {
+            listener.graphChanged(batch);
+          }
+          catch (RuntimeException e)
+          {
+            thrown = e;
+          }
+        }
+        synchronized (progress)
+        {
+          if (thrown != null && failure == null)
+          {
+            failure = thrown;
+          }
+          delivered += taken.size();
+          progress.notifyAll();
+        }
+        taken.clear();
+      }
+    }
+
+    public int numVertices()
+    {
+      return graph.numVertices();
+    }
+
+    public int numEdges()
+    {
+      return graph.numEdges();
+    }
+
+    public int degree(V vertex)
+    {
+      return graph.degree(vertex);
+    }
+
+    /**
+     * Adds an edge, reporting any vertex it adds and then the edge.
+     *
+     * @param from the source vertex for the added edge
+     * @param to the destination vertex for the added edge
+     */
+    public synchronized void addEdge(V from, V to)
+    {
+      boolean newFrom = !graph.contains(from);
+      boolean newTo = !graph.contains(to) && !to.equals(from);
+      int before = graph.numEdges();
+      graph.addEdge(from, to);
+      if (newFrom)
+      {
+        publish(GraphEvent.Type.VERTEX_ADDED, from, null);
+      }
+      if (newTo)
+      {
+        publish(GraphEvent.Type.VERTEX_ADDED, to, null);
+      }
+      if (graph.numEdges() > before)
+      {
+        publish(GraphEvent.Type.EDGE_ADDED, from, to);
+      }
+    }
+
+    /**
+     * Adds a vertex, reporting it if it is new.
+     *
+     * @param vertex the vertex to add
+     */
+    public synchronized void addVertex(V vertex)
+    {
+      if (!graph.contains(vertex))
+      {
+        graph.addVertex(vertex);
+        publish(GraphEvent.Type.VERTEX_ADDED, vertex, null);
+      }
+    }
+
+    public Iterable<V> getVertices()
+    {
+      return graph.getVertices();
+    }
+
+    public Iterable<V> adjacentTo(V from)
+    {
+      return graph.adjacentTo(from);
+    }
+
+    public boolean contains(V vertex)
+    {
+      return graph.contains(vertex);
+    }
+
+    public boolean hasEdge(V from, V to)
+    {
+      return graph.hasEdge(from, to);
+    }
+
+    public String toString()
+    {
+      return graph.toString();
+    }
+
+    public boolean equals(Object obj)
+    {
+      return graph.equals(obj);
+    }
+
+    public int hashCode()
+    {
+      return graph.hashCode();
+    }
+
+    public boolean isEmpty()
+    {
+      return graph.isEmpty();
+    }
+
+    /**
+     * Removes a vertex and its edges, reporting each edge leaving the
+     * vertex, then each edge entering it, then the vertex.  Graphs keep
+     * no list of the edges entering a vertex, so on a directed graph
+     * finding them reads every edge of the graph, and removing a vertex
+     * takes time proportional to the size of the graph.  On an
+     * undirected graph every edge of the vertex leaves it, so each is
+     * reported once and only the vertex's own edges are read.
+     *
+     * @param toRemove the vertex to remove.
+     */
+    public synchronized void removeVertex(V toRemove)
+    {
+      if (graph.contains(toRemove))
+      {
+        List<V> removedFrom = new ArrayList<V>();
+        for (V to : graph.adjacentTo(toRemove))
+        {
+          removedFrom.add(to);
+        }
+        List<V> removedTo = new ArrayList<V>();
+        Iterable<V> others = PolicyGraph.isUndirected(graph)
+          ? Collections.<V>emptyList()
+          : graph.getVertices();
+        for (V from : others)
+        {
+          // A self loop was already counted as leaving the vertex
+          if (from.equals(toRemove))
+          {
+            continue;
+          }
+          for (V to : graph.adjacentTo(from))
+          {
+            if (to.equals(toRemove))
+            {
+              removedTo.add(from);
+            }
+          }
+        }
+        graph.removeVertex(toRemove);
+        for (V to : removedFrom)
+        {
+          publish(GraphEvent.Type.EDGE_REMOVED, toRemove, to);
+        }
+        for (V from : removedTo)
+        {
+          publish(GraphEvent.Type.EDGE_REMOVED, from, toRemove);
+        }
+        publish(GraphEvent.Type.VERTEX_REMOVED, toRemove, null);
+      }
+    }
+
+    /**
+     * Removes an edge, reporting it if it was there.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     */
+    public synchronized void removeEdge(V from, V to)
+    {
+      int before = graph.numEdges();
+      graph.removeEdge(from, to);
+      if (graph.numEdges() < before)
+      {
+        publish(GraphEvent.Type.EDGE_REMOVED, from, to);
+      }
+    }
+
+    public boolean hasPath(V from, V to)
+    {
+      return graph.hasPath(from, to);
+    }
+
+    public int pathLength(V from, V to)
+    {
+      return graph.pathLength(from, to);
+    }
+
+    public Iterable<V> getPath(V from, V to)
+    {
+      return graph.getPath(from, to);
+    }
+}
@@ -0,0 +1,346 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Ranks the vertices of a graph with PageRank or eigenvector
+ * centrality.
+ *
+ * The graph is frozen into a CSR snapshot of its reversed edges, and
+ * each iteration is a pull-based sparse matrix-vector product: every
+ * vertex sums the contributions of its in-neighbours from the previous
+ * iteration's double[] rank array.  Vertices are split into slices of
+ * about the same number of in-edges and the slices are computed in
+ * parallel, so no two workers ever write the same entry.
+ *
+ * PageRank can be personalised by giving a preference for some
+ * vertices; random jumps, and the rank of vertices with no outgoing
+ * edges, are then spread in proportion to the preference instead of
+ * evenly.
+ *
+ * @version 1
+ */
+public class PageRank<V>
+{
+    public static final double DEFAULT_DAMPING = 0.85;
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    private final Csr<V> csr;
+
+    // Reversed edges, so each vertex can pull from its in-neighbours
+    private final Csr<V> incoming;
+
+    private final ForkJoinPool pool;
+
+    // Slice p covers vertices [bounds[p], bounds[p + 1])
+    private final int[] bounds;
+
+    private double damping;
+    private double tolerance;
+    private int maxIterations;
+
+    // Teleport distribution summing to 1, or null for uniform
+    private double[] preference;
+
+    private int lastIterations;
+
+    /**
+     * Create a ranker over a snapshot of a graph, run on the common
+     * fork/join pool.
+     *
+     * @param graph the graph to rank
+     */
+    public PageRank(Graph<V> graph)
+    {
+      this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a ranker over a snapshot of a graph.
+     *
+     * @param graph the graph to rank
+     * @param pool runs the iterations
+     */
+    public PageRank(Graph<V> graph, ForkJoinPool pool)
+    {
+      csr = Csr.of(graph);
+      incoming = csr.transpose();
+      this.pool = pool;
+      int slices = Math.max(1, Math.min(csr.n, pool.getParallelism() * 2));
+      bounds = Parallel.balancedBounds(incoming, slices);
+      damping = DEFAULT_DAMPING;
+      tolerance = DEFAULT_TOLERANCE;
+      maxIterations = DEFAULT_MAX_ITERATIONS;
+      preference = null;
+    }
+
+    /**
+     * Sets the probability of following an edge rather than jumping.
+     *
+     * @param damping a number from 0 to 1
+     * @return this ranker
+     */
+    public PageRank<V> setDamping(double damping)
+    {
+      if (!(damping >= 0 && damping <= 1)) {
+        throw new RuntimeException("Damping must be between 0 and 1 but was " + damping);
+      }
+      this.damping = damping;
+      return this;
+    }
+
+    /**
+     * Sets how small the total change in rank between two iterations
+     * must be before the ranks count as converged.
+     *
+     * @param tolerance the L1 convergence threshold
+     * @return this ranker
+     */
+    public PageRank<V> setTolerance(double tolerance)
+    {
+      this.tolerance = tolerance;
+      return this;
+    }
+
+    /**
+     * Sets the most iterations to run before giving up on convergence.
+     *
+     * @param maxIterations the iteration limit
+     * @return this ranker
+     */
+    public PageRank<V> setMaxIterations(int maxIterations)
+    {
+      this.maxIterations = maxIterations;
+      return this;
+    }
+
+    /**
+     * Personalises PageRank towards some vertices.  Weights are scaled
+     * to sum to 1; vertices left out, or not in the graph, get none.
+     * Throws a RuntimeException if no vertex gets a positive weight.
+     *
+     * @param weights preference for each vertex, or null to jump to
+     * every vertex equally
+     * @return this ranker
+     */
+    public PageRank<V> setPreference(Map<V, Double> weights)
+    {
+      if (weights == null)
+      {
+        preference = null;
+        return this;
+      }
+      double[] chosen = new double[csr.n];
+      double total = 0;
+      for (Map.Entry<V, Double> entry : weights.entrySet())
+      {
+        int index = csr.indexOf(entry.getKey());
+        if (index != -1 && entry.getValue() > 0)
+        {
+          chosen[index] += entry.getValue();
+          total += entry.getValue();
+        }
+      }
+      if (total == 0) {
+        throw new RuntimeException("Preference must give some vertex in the graph a positive weight");
+      }
+      for (int v = 0; v < chosen.length; v++)
+      {
+        chosen[v] /= total;
+      }
+      preference = chosen;
+      return this;
+    }
+
+    /**
+     * Gives the number of iterations the last computation ran.
+     *
+     * @return the number of iterations
+     */
+    public int iterations()
+    {
+      return lastIterations;
+    }
+
+    /**
+     * Computes PageRank.  Ranks sum to 1.
+     *
+     * @return the rank of every vertex, in vertex order
+     */
+    public Map<V, Double> ranks()
+    {
+      return byVertex(iterate(false));
+    }
+
+    /**
+     * Computes eigenvector centrality: the principal eigenvector of the
+     * transposed adjacency matrix, found by power iteration and scaled
+     * to unit length.  Damping and preference are not used.
+     *
+     * @return the centrality of every vertex, in vertex order
+     */
+    public Map<V, Double> eigenvectorCentrality()
+    {
+      return byVertex(iterate(true));
+    }
+
+    /**
+     * Power iteration shared by both measures.  Each iteration runs two
+     * parallel passes: one works out what every vertex passes along
+     * its out-edges, the next pulls those contributions in.  Only the
+     * contributions are read while pulling, so the new ranks can be
+     * written straight over the old ones.
+     */
+    private double[] iterate(final boolean eigenvector)
+    {
+      final int n = csr.n;
+      final int slices = bounds.length - 1;
+      final double[] rank = new double[n];
+      final double[] contribution = new double[n];
+      final double[] danglingPart = new double[slices];
+      final double[] changePart = new double[slices];
+      final double[] teleport = new double[1];
+      if (n == 0)
+      {
+        return rank;
+      }
+      for (int v = 0; v < n; v++)
+      {
+        rank[v] = preference != null ? preference[v] : 1.0 / n;
+      }
+      if (eigenvector)
+      {
+        Arrays.fill(rank, 1.0 / Math.sqrt(n));
+      }
+
+      List<Callable<Void>> push = new ArrayList<Callable<Void>>(slices);
+      List<Callable<Void>> pull = new ArrayList<Callable<Void>>(slices);
+      for (int p = 0; p < slices; p++)
+      {
+        final int lo = bounds[p];
+        final int hi = bounds[p + 1];
+        final int part = p;
+        push.add(new Callable<Void>() {
+          public Void call()
+          {
+            double dangling = 0;
+            for (int u = lo; u < hi; u++)
+            {
+              int degree = csr.degree(u);
+              if (eigenvector)
+              {
+                contribution[u] = rank[u];
+              }
+              else if (degree == 0)
+              {
+                contribution[u] = 0;
+                dangling += rank[u];
+              }
+              else
+              {
+                contribution[u] = rank[u] / degree;
+              }
+            }
+            danglingPart[part] = dangling;
+            return null;
+          }
+        });
+        pull.add(new Callable<Void>() {
+          public Void call()
+          {
+            int[] offsets = incoming.offsets;
+            int[] sources = incoming.targets;
+            double spread = teleport[0];
+            double change = 0;
+            for (int v = lo; v < hi; v++)
+            {
+              double sum = 0;
+              for (int edge = offsets[v]; edge < offsets[v + 1]; edge++)
+              {
+                sum += contribution[sources[edge]];
+              }
+              if (eigenvector)
+              {
+                rank[v] = sum;
+              }
+              else
+              {
+                double share = preference != null ? preference[v] : 1.0 / n;
+                double updated = damping * sum + spread * share;
+                change += Math.abs(updated - rank[v]);
+                rank[v] = updated;
+              }
+            }
+            changePart[part] = change;
+            return null;
+          }
+        });
+      }
+
+      int iteration = 0;
+      while (iteration < maxIterations)
+      {
+        Parallel.runAll(pool, push, "PageRank iteration " + iteration);
+        // Mass that leaves the walk is handed back through the jump
+        teleport[0] = (1 - damping) + damping * sum(danglingPart);
+        Parallel.runAll(pool, pull, "PageRank iteration " + iteration);
+        iteration++;
+
+        double change = sum(changePart);
+        if (eigenvector)
+        {
+          // Scale back to unit length; the contributions still hold
+          // the previous vector to measure the change against
+          double norm = 0;
+          for (int v = 0; v < n; v++)
+          {
+            norm += rank[v] * rank[v];
+          }
+          norm = Math.sqrt(norm);
+          if (norm == 0)
+          {
+            break;
+          }
+          change = 0;
+          for (int v = 0; v < n; v++)
+          {
+            rank[v] /= norm;
+            change += Math.abs(rank[v] - contribution[v]);
+          }
+        }
+        if (change < tolerance)
+        {
+          break;
+        }
+      }
+      lastIterations = iteration;
+      return rank;
+    }
+
+    private Map<V, Double> byVertex(double[] values)
+    {
+      Map<V, Double> map = new LinkedHashMap<V, Double>(values.length * 2);
+      for (int v = 0; v < values.length; v++)
+      {
+        map.put(csr.vertex(v), values[v]);
+      }
+      return map;
+    }
+
+    private static double sum(double[] parts)
+    {
+      double total = 0;
+      for (double part : parts)
+      {
+        total += part;
+      }
+      return total;
+    }
+}
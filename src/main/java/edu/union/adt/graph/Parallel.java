@@ -0,0 +1,77 @@
+package edu.union.adt.graph;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Helpers shared by the algorithms that split a CSR snapshot into
+ * slices and work on the slices in parallel.
+ *
+ * @version 1
+ */
+final class Parallel
+{
+    private Parallel()
+    {
+
+    }
+
+    /**
+     * Splits the vertices of a snapshot into contiguous slices that
+     * each cover about the same number of vertices plus edges, so
+     * workers stay balanced even when a few vertices have most of the
+     * edges.
+     *
+     * @param csr the snapshot to split
+     * @param slices the number of slices wanted
+     * @return bounds where slice p is [bounds[p], bounds[p + 1])
+     */
+    static int[] balancedBounds(Csr<?> csr, int slices)
+    {
+      int[] bounds = new int[slices + 1];
+      long total = (long) csr.n + csr.numEdges();
+      int v = 0;
+      for (int p = 1; p < slices; p++)
+      {
+        long goal = total * p / slices;
+        while (v < csr.n && (long) v + csr.offsets[v] < goal)
+        {
+          v++;
+        }
+        bounds[p] = v;
+      }
+      bounds[slices] = csr.n;
+      return bounds;
+    }
+
+    /**
+     * Runs tasks on an executor and waits for all of them.  A task that
+     * throws is rethrown as a RuntimeException.
+     *
+     * @param executor where to run the tasks
+     * @param tasks the tasks
+     * @param what a description of the work for error messages
+     */
+    static void runAll(ExecutorService executor, List<? extends Callable<Void>> tasks, String what)
+    {
+      try
+      {
+        for (Future<Void> done : executor.invokeAll(tasks))
+        {
+          done.get();
+        }
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted during " + what, e);
+      }
+      catch (ExecutionException e)
+      {
+        throw new RuntimeException(what + " failed", e.getCause());
+      }
+    }
+}
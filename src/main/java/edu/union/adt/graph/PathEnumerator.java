@@ -0,0 +1,528 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Lists paths between two vertices one at a time, for callers that
+ * want alternatives to the single path getPath gives.  Each path is
+ * found when the iterator is asked for it, so a caller that stops
+ * after the first few pays only for those.
+ *
+ * allShortestPaths gives every shortest path.  One breadth first
+ * search builds the DAG of shortest path parents, and the paths are
+ * then walked out of it depth first, holding only the current path;
+ * memory grows with the graph, not with the number of paths, which can
+ * be exponential.
+ *
+ * shortestSimplePaths gives the simple paths (no repeated vertex) in
+ * order of length, by Yen's algorithm: each new path is the shortest
+ * of the candidates made by leaving an earlier path at one of its
+ * vertices and searching for the rest of the way without reusing the
+ * earlier path's edges.  Taking k paths costs k times the path length
+ * searches.
+ *
+ * Both work on a CSR snapshot taken when the object is created, so
+ * later changes to the graph are not seen.  Paths are lists of
+ * vertices from 'from' to 'to', both included; the only path from a
+ * vertex to itself is that vertex alone.  Edges repeated in the graph
+ * do not repeat paths.
+ *
+ * @version 1
+ */
+public class PathEnumerator<V>
+{
+    private final Csr<V> csr;
+
+    /**
+     * Create an enumerator over a snapshot of a graph.
+     *
+     * @param graph the graph to find paths in
+     */
+    public PathEnumerator(Graph<V> graph)
+    {
+      this.csr = Csr.of(graph);
+    }
+
+    /**
+     * Gives every shortest path between two vertices, each one once.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the shortest paths, found as they are iterated; none if
+     * there is no path or either vertex is not in the graph
+     */
+    public Iterable<List<V>> allShortestPaths(final V from, final V to)
+    {
+      return new Iterable<List<V>>() {
+        public Iterator<List<V>> iterator()
+        {
+          return new ShortestPathIterator(csr.indexOf(from), csr.indexOf(to));
+        }
+      };
+    }
+
+    /**
+     * Gives the simple paths between two vertices from shortest to
+     * longest, with paths of the same length in a fixed order.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the simple paths, found as they are iterated; none if
+     * there is no path or either vertex is not in the graph
+     */
+    public Iterable<List<V>> shortestSimplePaths(final V from, final V to)
+    {
+      return new Iterable<List<V>>() {
+        public Iterator<List<V>> iterator()
+        {
+          return new SimplePathIterator(csr.indexOf(from), csr.indexOf(to));
+        }
+      };
+    }
+
+    /**
+     * Gives up to k shortest simple paths between two vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @param k the most paths wanted
+     * @return the paths from shortest to longest
+     */
+    public List<List<V>> kShortestPaths(V from, V to, int k)
+    {
+      List<List<V>> paths = new ArrayList<List<V>>();
+      Iterator<List<V>> it = shortestSimplePaths(from, to).iterator();
+      while (paths.size() < k && it.hasNext())
+      {
+        paths.add(it.next());
+      }
+      return paths;
+    }
+
+    /**
+     * Walks every path of a BFS parent DAG from the target back to the
+     * source.  The walk keeps, for each step of the current path, which
+     * parent it has reached.
+     */
+    private class ShortestPathIterator implements Iterator<List<V>>
+    {
+        // parentStart[v] .. parentStart[v + 1] - 1 index v's shortest path parents in 'parents'
+        private int[] parentStart;
+        private int[] parents;
+
+        // path[d] is the vertex d steps before the target; cursor[d] is
+        // the position of path[d + 1] among path[d]'s parents
+        private int[] path;
+        private int[] cursor;
+
+        private List<V> next;
+        private boolean done;
+
+        ShortestPathIterator(int source, int target)
+        {
+          if (source == -1 || target == -1)
+          {
+            done = true;
+            return;
+          }
+          if (source == target)
+          {
+            next = Collections.singletonList(csr.vertex(source));
+            done = true;
+            return;
+          }
+          int length = buildDag(source, target);
+          if (length == -1)
+          {
+            done = true;
+            return;
+          }
+          path = new int[length + 1];
+          cursor = new int[length + 1];
+          path[0] = target;
+          cursor[0] = parentStart[target];
+          // Go down the first parent at every step to the source
+          for (int d = 0; d < length; d++)
+          {
+            path[d + 1] = parents[cursor[d]];
+            cursor[d + 1] = parentStart[path[d + 1]];
+          }
+          next = currentPath();
+        }
+
+        /**
+         * Runs BFS from the source to the end of the target's level,
+         * recording each reached vertex's distinct parents one level up.
+         *
+         * @return the target's distance, or -1 if it is not reached
+         */
+        private int buildDag(int source, int target)
+        {
+          int n = csr.n;
+          int[] dist = new int[n];
+          Arrays.fill(dist, -1);
+          int[] queue = new int[n];
+          int head = 0;
+          int tail = 0;
+          dist[source] = 0;
+          queue[tail++] = source;
+          while (head < tail)
+          {
+            int u = queue[head++];
+            if (dist[target] != -1 && dist[u] >= dist[target])
+            {
+              // Every vertex one level above the target has been expanded
+              break;
+            }
+            for (int e = csr.offsets[u]; e < csr.offsets[u + 1]; e++)
+            {
+              int w = csr.targets[e];
+              if (dist[w] == -1)
+              {
+                dist[w] = dist[u] + 1;
+                queue[tail++] = w;
+              }
+            }
+          }
+          if (dist[target] == -1)
+          {
+            return -1;
+          }
+
+          // Count and then fill each vertex's parents, skipping a parent
+          // met twice in a row through a repeated edge
+          int[] count = new int[n + 1];
+          int[] last = new int[n];
+          Arrays.fill(last, -1);
+          for (int k = 0; k < tail && dist[queue[k]] < dist[target]; k++)
+          {
+            int u = queue[k];
+            for (int e = csr.offsets[u]; e < csr.offsets[u + 1]; e++)
+            {
+              int w = csr.targets[e];
+              if (dist[w] == dist[u] + 1 && last[w] != u)
+              {
+                last[w] = u;
+                count[w + 1]++;
+              }
+            }
+          }
+          parentStart = new int[n + 1];
+          for (int v = 0; v < n; v++)
+          {
+            parentStart[v + 1] = parentStart[v] + count[v + 1];
+          }
+          parents = new int[parentStart[n]];
+          int[] fill = Arrays.copyOf(parentStart, n);
+          Arrays.fill(last, -1);
+          for (int k = 0; k < tail && dist[queue[k]] < dist[target]; k++)
+          {
+            int u = queue[k];
+            for (int e = csr.offsets[u]; e < csr.offsets[u + 1]; e++)
+            {
+              int w = csr.targets[e];
+              if (dist[w] == dist[u] + 1 && last[w] != u)
+              {
+                last[w] = u;
+                parents[fill[w]++] = u;
+              }
+            }
+          }
+          return dist[target];
+        }
+
+        private List<V> currentPath()
+        {
+          List<V> vertices = new ArrayList<V>(path.length);
+          for (int d = path.length - 1; d >= 0; d--)
+          {
+            vertices.add(csr.vertex(path[d]));
+          }
+          return vertices;
+        }
+
+        // Moves to the next path, or sets 'done'
+        private void advance()
+        {
+          // Find the deepest step that has another parent to try
+          int d = path.length - 2;
+          while (d >= 0 && cursor[d] + 1 >= parentStart[path[d] + 1])
+          {
+            d--;
+          }
+          if (d < 0)
+          {
+            done = true;
+            return;
+          }
+          cursor[d]++;
+          for (; d < path.length - 1; d++)
+          {
+            path[d + 1] = parents[cursor[d]];
+            cursor[d + 1] = parentStart[path[d + 1]];
+          }
+          next = currentPath();
+        }
+
+        public boolean hasNext()
+        {
+          return next != null;
+        }
+
+        public List<V> next()
+        {
+          if (next == null)
+          {
+            throw new NoSuchElementException();
+          }
+          List<V> result = next;
+          next = null;
+          if (!done)
+          {
+            advance();
+          }
+          return result;
+        }
+
+        public void remove()
+        {
+          throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Yen's algorithm, one path per call to next.
+     */
+    private class SimplePathIterator implements Iterator<List<V>>
+    {
+        private final int source;
+        private final int target;
+
+        // Paths given out so far
+        private final List<int[]> accepted;
+
+        // Candidates not yet given out, shortest first
+        private final PriorityQueue<int[]> candidates;
+
+        // Every path accepted or made a candidate, to skip repeats
+        private final Set<List<Integer>> known;
+
+        // Marks for the current spur search: a vertex or an edge from the
+        // spur vertex is blocked when its mark equals 'stamp'
+        private final int[] blockedVertex;
+        private final int[] blockedEdge;
+        private int stamp;
+
+        // Search space reused by every spur search
+        private final int[] parent;
+        private final int[] reached;
+        private final int[] queue;
+
+        private int[] next;
+        private boolean started;
+
+        SimplePathIterator(int source, int target)
+        {
+          this.source = source;
+          this.target = target;
+          accepted = new ArrayList<int[]>();
+          candidates = new PriorityQueue<int[]>(11, new Comparator<int[]>() {
+            public int compare(int[] a, int[] b)
+            {
+              if (a.length != b.length)
+              {
+                return a.length - b.length;
+              }
+              for (int i = 0; i < a.length; i++)
+              {
+                if (a[i] != b[i])
+                {
+                  return a[i] < b[i] ? -1 : 1;
+                }
+              }
+              return 0;
+            }
+          });
+          known = new HashSet<List<Integer>>();
+          int n = csr.n;
+          blockedVertex = new int[n];
+          blockedEdge = new int[n];
+          parent = new int[n];
+          reached = new int[n];
+          queue = new int[n];
+          stamp = 0;
+        }
+
+        public boolean hasNext()
+        {
+          if (next == null)
+          {
+            next = findNext();
+          }
+          return next != null;
+        }
+
+        public List<V> next()
+        {
+          if (!hasNext())
+          {
+            throw new NoSuchElementException();
+          }
+          int[] result = next;
+          next = null;
+          return csr.toVertices(result);
+        }
+
+        public void remove()
+        {
+          throw new UnsupportedOperationException();
+        }
+
+        private int[] findNext()
+        {
+          if (source == -1 || target == -1)
+          {
+            return null;
+          }
+          if (!started)
+          {
+            started = true;
+            stamp++;
+            int[] first = search(source);
+            if (first != null)
+            {
+              accept(first);
+            }
+            return first;
+          }
+          if (accepted.isEmpty())
+          {
+            return null;
+          }
+          int[] last = accepted.get(accepted.size() - 1);
+          for (int i = 0; i + 1 < last.length; i++)
+          {
+            stamp++;
+            // Block the next edge of every accepted path that shares this root
+            for (int[] path : accepted)
+            {
+              if (path.length > i + 1 && samePrefix(path, last, i + 1))
+              {
+                blockedEdge[path[i + 1]] = stamp;
+              }
+            }
+            // Keep the spur path off the root so the whole path stays simple
+            for (int j = 0; j < i; j++)
+            {
+              blockedVertex[last[j]] = stamp;
+            }
+            int[] spur = search(last[i]);
+            if (spur != null)
+            {
+              int[] candidate = new int[i + spur.length];
+              System.arraycopy(last, 0, candidate, 0, i);
+              System.arraycopy(spur, 0, candidate, i, spur.length);
+              if (known.add(key(candidate)))
+              {
+                candidates.add(candidate);
+              }
+            }
+          }
+          int[] best = candidates.poll();
+          if (best != null)
+          {
+            accept(best);
+          }
+          return best;
+        }
+
+        private void accept(int[] path)
+        {
+          accepted.add(path);
+          known.add(key(path));
+        }
+
+        /**
+         * BFS from a vertex to the target avoiding blocked vertices, and
+         * blocked edges out of the start vertex.
+         *
+         * @return the path, or null if the target cannot be reached
+         */
+        private int[] search(int start)
+        {
+          if (start == target)
+          {
+            return new int[] {start};
+          }
+          int head = 0;
+          int tail = 0;
+          reached[start] = stamp;
+          parent[start] = -1;
+          queue[tail++] = start;
+          while (head < tail)
+          {
+            int u = queue[head++];
+            for (int e = csr.offsets[u]; e < csr.offsets[u + 1]; e++)
+            {
+              int w = csr.targets[e];
+              if (reached[w] == stamp || blockedVertex[w] == stamp
+                  || (u == start && blockedEdge[w] == stamp))
+              {
+                continue;
+              }
+              reached[w] = stamp;
+              parent[w] = u;
+              if (w == target)
+              {
+                int length = 1;
+                for (int v = w; v != start; v = parent[v])
+                {
+                  length++;
+                }
+                int[] path = new int[length];
+                int v = w;
+                for (int k = length - 1; k >= 0; k--)
+                {
+                  path[k] = v;
+                  v = parent[v];
+                }
+                return path;
+              }
+              queue[tail++] = w;
+            }
+          }
+          return null;
+        }
+
+        private boolean samePrefix(int[] a, int[] b, int length)
+        {
+          for (int k = 0; k < length; k++)
+          {
+            if (a[k] != b[k])
+            {
+              return false;
+            }
+          }
+          return true;
+        }
+
+        private List<Integer> key(int[] path)
+        {
+          List<Integer> key = new ArrayList<Integer>(path.length);
+          for (int v : path)
+          {
+            key.add(v);
+          }
+          return key;
+        }
+    }
+}
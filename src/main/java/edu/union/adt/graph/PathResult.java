@@ -0,0 +1,119 @@
+package edu.union.adt.graph;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a limited path search: the shortest path if one was
+ * found, or why there is none.  A search that ran out of budget or time
+ * says so rather than claiming there is no path, since a path may
+ * still exist.
+ *
+ * @version 1
+ */
+public final class PathResult<V>
+{
+    /**
+     * How a search ended.
+     */
+    public enum Status
+    {
+        /** A shortest path was found. */
+        FOUND,
+        /** The search finished and there is no path. */
+        NO_PATH,
+        /** The search visited as many vertices or edges as it was allowed. */
+        BUDGET_EXCEEDED,
+        /** The deadline passed before the search finished. */
+        DEADLINE_EXCEEDED
+    }
+
+    private final Status status;
+    private final List<V> path;
+    private final long visitedVertices;
+    private final long visitedEdges;
+
+    PathResult(Status status, List<V> path, long visitedVertices, long visitedEdges)
+    {
+      this.status = status;
+      this.path = Collections.unmodifiableList(path);
+      this.visitedVertices = visitedVertices;
+      this.visitedEdges = visitedEdges;
+    }
+
+    /**
+     * Gives how the search ended.
+     *
+     * @return the status
+     */
+    public Status getStatus()
+    {
+      return status;
+    }
+
+    /**
+     * Tells whether a path was found.
+     *
+     * @return true iff the status is FOUND
+     */
+    public boolean isFound()
+    {
+      return status == Status.FOUND;
+    }
+
+    /**
+     * Gives the vertices along the shortest path, from the source to
+     * the destination inclusive.
+     *
+     * @return the path, or an empty list unless a path was found
+     */
+    public List<V> getPath()
+    {
+      return path;
+    }
+
+    /**
+     * Gives the number of edges on the shortest path.
+     *
+     * @return the length if a path was found, Integer.MAX_VALUE if
+     * there is no path, or -1 if the search stopped before it knew
+     */
+    public int getLength()
+    {
+      switch (status)
+      {
+        case FOUND:
+          return path.size() - 1;
+        case NO_PATH:
+          return Integer.MAX_VALUE;
+        default:
+          return -1;
+      }
+    }
+
+    /**
+     * Gives the number of vertices whose edges the search followed.
+     *
+     * @return the vertices visited
+     */
+    public long getVisitedVertices()
+    {
+      return visitedVertices;
+    }
+
+    /**
+     * Gives the number of edges the search examined.
+     *
+     * @return the edges examined
+     */
+    public long getVisitedEdges()
+    {
+      return visitedEdges;
+    }
+
+    public String toString()
+    {
+      return status + (isFound() ? " " + path : "") + " after " + visitedVertices + " vertices and "
+        + visitedEdges + " edges";
+    }
+}
@@ -0,0 +1,223 @@
+package edu.union.adt.graph;
+
+/**
+ * Wraps a directed graph so that it is undirected, or so that it
+ * treats repeated edges in a chosen way, or both.  GraphFactory puts
+ * this around a backend when it is asked for either.
+ *
+ * An undirected edge {u, v} is stored as the two directed edges (u, v)
+ * and (v, u), or as a single edge when u = v, and numEdges counts it
+ * once.  Paths are then found in both directions.
+ *
+ * The two halves of an undirected edge are added one after the other,
+ * so a thread reading a concurrent backend may briefly see only one.
+ *
+ * @version 1
+ */
+class PolicyGraph<V> implements Graph<V>
+{
+    private final Graph<V> graph;
+
+    private final boolean directed;
+
+    private final GraphFactory.Duplicates duplicates;
+
+    // Number of self loops, which are stored once even when undirected
+    private int loops;
+
+    /**
+     * Wraps a graph.
+     *
+     * @param graph the backend, which should be empty
+     * @param directed false to make every edge go both ways
+     * @param duplicates what to do when an edge is added twice
+     */
+    PolicyGraph(Graph<V> graph, boolean directed, GraphFactory.Duplicates duplicates)
+    {
+      this.graph = graph;
+      this.directed = directed;
+      this.duplicates = duplicates;
+      loops = 0;
+    }
+
+    /**
+     * Tells whether a graph, seen through any InstrumentedGraph, is an
+     * undirected PolicyGraph, which stores each edge {u, v} as both
+     * (u, v) and (v, u) but wants it added and removed only once.
+     *
+     * @param graph a graph
+     * @return true iff every edge of 'graph' goes both ways
+     */
+    static boolean isUndirected(Graph<?> graph)
+    {
+      while (graph instanceof InstrumentedGraph)
+      {
+        graph = ((InstrumentedGraph<?>) graph).wrapped();
+      }
+      return graph instanceof PolicyGraph && !((PolicyGraph<?>) graph).directed;
+    }
+
+    public int numVertices()
+    {
+      return graph.numVertices();
+    }
+
+    /**
+     * Gives the number of edges.  An undirected edge is counted once.
+     *
+     * @return the number of edges in the graph.
+     */
+    public int numEdges()
+    {
+      if (directed)
+      {
+        return graph.numEdges();
+      }
+      return (graph.numEdges() + loops) / 2;
+    }
+
+    public int degree(V vertex)
+    {
+      return graph.degree(vertex);
+    }
+
+    /**
+     * Adds an edge, in both directions when the graph is undirected.
+     * An edge that is already present is added again, ignored, or
+     * refused with a RuntimeException, according to the duplicate
+     * policy.
+     *
+     * @param from the source vertex for the added edge
+     * @param to the destination vertex for the added edge
+     */
+    public synchronized void addEdge(V from, V to)
+    {
+      if (duplicates != GraphFactory.Duplicates.ALLOW && graph.hasEdge(from, to))
+      {
+        if (duplicates == GraphFactory.Duplicates.REJECT) {
+          throw new RuntimeException("Edge (" + from + ", " + to + ") is already in the graph");
+        }
+        return;
+      }
+      graph.addEdge(from, to);
+      if (!directed)
+      {
+        if (from.equals(to))
+        {
+          loops++;
+        }
+        else
+        {
+          graph.addEdge(to, from);
+        }
+      }
+    }
+
+    public void addVertex(V vertex)
+    {
+      graph.addVertex(vertex);
+    }
+
+    public Iterable<V> getVertices()
+    {
+      return graph.getVertices();
+    }
+
+    public Iterable<V> adjacentTo(V from)
+    {
+      return graph.adjacentTo(from);
+    }
+
+    public boolean contains(V vertex)
+    {
+      return graph.contains(vertex);
+    }
+
+    public boolean hasEdge(V from, V to)
+    {
+      return graph.hasEdge(from, to);
+    }
+
+    public String toString()
+    {
+      return graph.toString();
+    }
+
+    public boolean equals(Object obj)
+    {
+      return graph.equals(obj);
+    }
+
+    public int hashCode()
+    {
+      return graph.hashCode();
+    }
+
+    public boolean isEmpty()
+    {
+      return graph.isEmpty();
+    }
+
+    /**
+     * Removes a vertex and every edge touching it.
+     *
+     * @param toRemove the vertex to remove.
+     */
+    public synchronized void removeVertex(V toRemove)
+    {
+      if (!directed && graph.contains(toRemove))
+      {
+        for (V adjacent : graph.adjacentTo(toRemove))
+        {
+          if (adjacent.equals(toRemove))
+          {
+            loops--;
+          }
+        }
+      }
+      graph.removeVertex(toRemove);
+    }
+
+    /**
+     * Removes an edge, in both directions when the graph is
+     * undirected.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     */
+    public synchronized void removeEdge(V from, V to)
+    {
+      if (directed)
+      {
+        graph.removeEdge(from, to);
+      }
+      else if (from.equals(to))
+      {
+        if (graph.hasEdge(from, to))
+        {
+          loops--;
+          graph.removeEdge(from, to);
+        }
+      }
+      else
+      {
+        graph.removeEdge(from, to);
+        graph.removeEdge(to, from);
+      }
+    }
+
+    public boolean hasPath(V from, V to)
+    {
+      return graph.hasPath(from, to);
+    }
+
+    public int pathLength(V from, V to)
+    {
+      return graph.pathLength(from, to);
+    }
+
+    public Iterable<V> getPath(V from, V to)
+    {
+      return graph.getPath(from, to);
+    }
+}
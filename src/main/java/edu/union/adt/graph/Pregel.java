@@ -0,0 +1,364 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A bulk synchronous, vertex-centric compute engine in the style of
+ * Pregel.  A VertexProgram is run over a frozen CSR snapshot of a graph
+ * in supersteps; in each one every active vertex is computed in
+ * parallel and the messages it sends are delivered before the next
+ * superstep starts.  The run ends once every vertex has voted to halt
+ * and no messages are in flight, or after a maximum number of
+ * supersteps.
+ *
+ * The vertices are split into contiguous slices of roughly equal edge
+ * count, one per worker task.  Values, halt flags and messages are all
+ * held in primitive arrays: each worker appends outgoing messages to an
+ * int/double buffer per destination slice, and each slice then gathers
+ * its incoming buffers into per-vertex inboxes, merging them with the
+ * program's combiner if it has one.  No objects are created per
+ * message or per edge.
+ *
+ * @version 1
+ */
+public class Pregel<V>
+{
+    final Csr<V> csr;
+
+    private final ForkJoinPool pool;
+
+    // Vertex slice boundaries: slice p is [bounds[p], bounds[p + 1])
+    private final int[] bounds;
+
+    // slice[v] is the slice vertex v belongs to
+    private final int[] slice;
+
+    // State of the run in progress, read by VertexContext
+    int superstep;
+    double[] values;
+    boolean[] halted;
+
+    private MessageCombiner combiner;
+
+    // Messages waiting for each vertex
+    private int[] inboxCount;
+
+    // With a combiner: the single merged message for each vertex
+    private double[] combined;
+
+    // Without one: messages for slice p, with vertex v's starting at inboxStart[v]
+    private double[][] inbox;
+    private int[] inboxStart;
+
+    // outTargets[w][p] and outValues[w][p] hold messages sent by worker w to slice p
+    private int[][][] outTargets;
+    private double[][][] outValues;
+    private int[][] outSize;
+
+    private int lastSupersteps;
+
+    /**
+     * Create an engine over a snapshot of a graph, run on the common
+     * fork/join pool.
+     *
+     * @param graph the graph to compute over
+     */
+    public Pregel(Graph<V> graph)
+    {
+      this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create an engine over a snapshot of a graph.
+     *
+     * @param graph the graph to compute over
+     * @param pool runs the worker tasks
+     */
+    public Pregel(Graph<V> graph, ForkJoinPool pool)
+    {
+      this.csr = Csr.of(graph);
+      this.pool = pool;
+      int slices = Math.max(1, Math.min(csr.n, pool.getParallelism() * 2));
+      bounds = Parallel.balancedBounds(csr, slices);
+      slice = new int[csr.n];
+      for (int p = 0; p < slices; p++)
+      {
+        Arrays.fill(slice, bounds[p], bounds[p + 1], p);
+      }
+    }
+
+    /**
+     * Gives the index the engine uses for a vertex.
+     *
+     * @param vertex a vertex
+     * @return its index, or -1 if it is not in the graph
+     */
+    public int indexOf(V vertex)
+    {
+      return csr.indexOf(vertex);
+    }
+
+    /**
+     * Gives the vertex with a given index.
+     *
+     * @param index a vertex index
+     * @return the vertex
+     */
+    public V vertex(int index)
+    {
+      return csr.vertex(index);
+    }
+
+    /**
+     * Gives the number of supersteps the last run took.
+     *
+     * @return the number of supersteps
+     */
+    public int supersteps()
+    {
+      return lastSupersteps;
+    }
+
+    /**
+     * Pairs each vertex with its entry in an array of values indexed
+     * like the engine's vertices.
+     *
+     * @param result values returned by run
+     * @return the values keyed by vertex, in vertex order
+     */
+    public Map<V, Double> byVertex(double[] result)
+    {
+      Map<V, Double> map = new LinkedHashMap<V, Double>(result.length * 2);
+      for (int i = 0; i < result.length; i++)
+      {
+        map.put(csr.vertex(i), result[i]);
+      }
+      return map;
+    }
+
+    /**
+     * Runs a program to completion.  Only one run can be in progress
+     * on an engine at a time.
+     *
+     * @param program the vertex program
+     * @param maxSupersteps the most supersteps to run
+     * @return the final value of every vertex, indexed by vertex index
+     */
+    public synchronized double[] run(VertexProgram program, int maxSupersteps)
+    {
+      final int n = csr.n;
+      final int slices = bounds.length - 1;
+      values = new double[n];
+      halted = new boolean[n];
+      inboxCount = new int[n];
+      combiner = program.combiner();
+      if (combiner != null)
+      {
+        combined = new double[n];
+      }
+      else
+      {
+        inbox = new double[slices][0];
+        inboxStart = new int[n];
+      }
+      outTargets = new int[slices][slices][16];
+      outValues = new double[slices][slices][16];
+      outSize = new int[slices][slices];
+      for (int v = 0; v < n; v++)
+      {
+        values[v] = program.initialValue(v, n);
+      }
+
+      final int[] active = new int[slices];
+      final int[] delivered = new int[slices];
+      List<Callable<Void>> compute = new ArrayList<Callable<Void>>(slices);
+      List<Callable<Void>> deliver = new ArrayList<Callable<Void>>(slices);
+      for (int p = 0; p < slices; p++)
+      {
+        final int part = p;
+        final VertexContext context = new VertexContext(this, part);
+        final VertexProgram vertexProgram = program;
+        compute.add(new Callable<Void>() {
+          public Void call()
+          {
+            int stillActive = 0;
+            for (int v = bounds[part]; v < bounds[part + 1]; v++)
+            {
+              if (inboxCount[v] > 0)
+              {
+                halted[v] = false;
+              }
+              if (!halted[v])
+              {
+                context.moveTo(v);
+                vertexProgram.compute(context);
+                if (!halted[v])
+                {
+                  stillActive++;
+                }
+              }
+            }
+            active[part] = stillActive;
+            return null;
+          }
+        });
+        deliver.add(new Callable<Void>() {
+          public Void call()
+          {
+            delivered[part] = deliverTo(part);
+            return null;
+          }
+        });
+      }
+
+      superstep = 0;
+      while (superstep < maxSupersteps)
+      {
+        Parallel.runAll(pool, compute, "superstep " + superstep);
+        Parallel.runAll(pool, deliver, "superstep " + superstep);
+        superstep++;
+        if (sum(active) == 0 && sum(delivered) == 0)
+        {
+          break;
+        }
+      }
+      lastSupersteps = superstep;
+
+      double[] result = values;
+      values = null;
+      halted = null;
+      inboxCount = null;
+      combined = null;
+      inbox = null;
+      inboxStart = null;
+      outTargets = null;
+      outValues = null;
+      outSize = null;
+      return result;
+    }
+
+    /**
+     * Gathers every message sent to slice 'part' into its inboxes and
+     * empties the buffers they came from.
+     *
+     * @return the number of messages delivered
+     */
+    private int deliverTo(int part)
+    {
+      int lo = bounds[part];
+      int hi = bounds[part + 1];
+      int workers = outSize.length;
+      Arrays.fill(inboxCount, lo, hi, 0);
+      int total = 0;
+
+      if (combiner != null)
+      {
+        for (int w = 0; w < workers; w++)
+        {
+          int[] targets = outTargets[w][part];
+          double[] messages = outValues[w][part];
+          int size = outSize[w][part];
+          for (int i = 0; i < size; i++)
+          {
+            int v = targets[i];
+            if (inboxCount[v] == 0)
+            {
+              combined[v] = messages[i];
+              inboxCount[v] = 1;
+            }
+            else
+            {
+              combined[v] = combiner.combine(combined[v], messages[i]);
+            }
+          }
+          total += size;
+          outSize[w][part] = 0;
+        }
+        return total;
+      }
+
+      // Count the messages per vertex, then lay them out back to back
+      for (int w = 0; w < workers; w++)
+      {
+        int[] targets = outTargets[w][part];
+        int size = outSize[w][part];
+        for (int i = 0; i < size; i++)
+        {
+          inboxCount[targets[i]]++;
+        }
+        total += size;
+      }
+      if (inbox[part].length < total)
+      {
+        inbox[part] = new double[Math.max(total, inbox[part].length * 2)];
+      }
+      int start = 0;
+      for (int v = lo; v < hi; v++)
+      {
+        inboxStart[v] = start;
+        start += inboxCount[v];
+        inboxCount[v] = 0;
+      }
+      double[] buffer = inbox[part];
+      for (int w = 0; w < workers; w++)
+      {
+        int[] targets = outTargets[w][part];
+        double[] messages = outValues[w][part];
+        int size = outSize[w][part];
+        for (int i = 0; i < size; i++)
+        {
+          int v = targets[i];
+          buffer[inboxStart[v] + inboxCount[v]++] = messages[i];
+        }
+        outSize[w][part] = 0;
+      }
+      return total;
+    }
+
+    int messageCount(int vertex)
+    {
+      return inboxCount[vertex];
+    }
+
+    double message(int vertex, int i)
+    {
+      if (i < 0 || i >= inboxCount[vertex]) {
+        throw new RuntimeException("Vertex " + vertex + " has no message " + i);
+      }
+      if (combiner != null)
+      {
+        return combined[vertex];
+      }
+      return inbox[slice[vertex]][inboxStart[vertex] + i];
+    }
+
+    void send(int worker, int target, double message)
+    {
+      int part = slice[target];
+      int size = outSize[worker][part];
+      if (size == outTargets[worker][part].length)
+      {
+        outTargets[worker][part] = Arrays.copyOf(outTargets[worker][part], size * 2);
+        outValues[worker][part] = Arrays.copyOf(outValues[worker][part], size * 2);
+      }
+      outTargets[worker][part][size] = target;
+      outValues[worker][part][size] = message;
+      outSize[worker][part] = size + 1;
+    }
+
+    private static int sum(int[] counts)
+    {
+      int total = 0;
+      for (int count : counts)
+      {
+        total += count;
+      }
+      return total;
+    }
+}
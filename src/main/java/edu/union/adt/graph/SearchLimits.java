@@ -0,0 +1,100 @@
+package edu.union.adt.graph;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits on how much one path search may do: a deadline and budgets of
+ * visited vertices and examined edges.  A new SearchLimits has no
+ * limits; each setter adds one and returns this object, so limits can
+ * be set in a chain.  The limits are copied when a query is
+ * submitted, so one SearchLimits can be changed and reused for later
+ * queries.
+ *
+ * @version 1
+ */
+public final class SearchLimits
+{
+    private long deadlineNanos = Long.MAX_VALUE;
+    private long maxVertices = Long.MAX_VALUE;
+    private long maxEdges = Long.MAX_VALUE;
+
+    /**
+     * Sets how long a query may take, counted from when it is
+     * submitted, so time spent waiting for a thread counts too.
+     *
+     * @param time the time allowed
+     * @param unit the unit of 'time'
+     * @return these limits
+     */
+    public SearchLimits setDeadline(long time, TimeUnit unit)
+    {
+      if (time < 0) {
+        throw new RuntimeException("A deadline must not be negative but was " + time);
+      }
+      deadlineNanos = unit.toNanos(time);
+      return this;
+    }
+
+    /**
+     * Sets the most vertices a search may visit, counting each vertex
+     * whose edges it follows.
+     *
+     * @param maxVertices the vertex budget
+     * @return these limits
+     */
+    public SearchLimits setMaxVertices(long maxVertices)
+    {
+      if (maxVertices < 1) {
+        throw new RuntimeException("A search must be allowed at least one vertex but was " + maxVertices);
+      }
+      this.maxVertices = maxVertices;
+      return this;
+    }
+
+    /**
+     * Sets the most edges a search may examine.
+     *
+     * @param maxEdges the edge budget
+     * @return these limits
+     */
+    public SearchLimits setMaxEdges(long maxEdges)
+    {
+      if (maxEdges < 0) {
+        throw new RuntimeException("An edge budget must not be negative but was " + maxEdges);
+      }
+      this.maxEdges = maxEdges;
+      return this;
+    }
+
+    /**
+     * Gives the time a query may take, in nanoseconds.
+     *
+     * @return the deadline, or Long.MAX_VALUE for none
+     */
+    public long getDeadlineNanos()
+    {
+      return deadlineNanos;
+    }
+
+    /**
+     * Gives the vertex budget.
+     *
+     * @return the most vertices a search may visit, or Long.MAX_VALUE
+     * for no limit
+     */
+    public long getMaxVertices()
+    {
+      return maxVertices;
+    }
+
+    /**
+     * Gives the edge budget.
+     *
+     * @return the most edges a search may examine, or Long.MAX_VALUE
+     * for no limit
+     */
+    public long getMaxEdges()
+    {
+      return maxEdges;
+    }
+}
@@ -0,0 +1,768 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A thread-safe graph whose vertices are split by hash code across a
+ * fixed number of shards.  Each shard holds its own vertices and the
+ * edges leaving them, guarded by its own lock, so threads adding to
+ * different shards do not wait for each other.
+ *
+ * An edge whose destination lives in a different shard from its source
+ * is a boundary edge.  Path searches run breadth first one level at a
+ * time: every shard expands its part of the frontier in parallel,
+ * routing boundary edges to the shard that owns their destination,
+ * and then every shard merges what it was sent into its part of the
+ * next frontier.
+ *
+ * Like GraphImpl, edges are directed.  Unlike GraphImpl, adding an edge
+ * that is already present does nothing, and getVertices() lists
+ * vertices shard by shard, each shard in the order its vertices were
+ * added.  Shards keep their edges in a LinkedHashMap of LinkedHashSets
+ * rather than in primitive arrays, so the graph costs about as much
+ * memory per edge as GraphImpl does.
+ *
+ * @version 1
+ */
+public class ShardedGraph<V> implements Graph<V>
+{
+    /**
+     * One partition of the graph.
+     */
+    private static final class Shard<V>
+    {
+      final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+      // Out-edges of every vertex in this shard
+      final Map<V, LinkedHashSet<V>> edges = new LinkedHashMap<V, LinkedHashSet<V>>();
+
+      int edgeCount;
+
+      // Edges whose destination is in another shard
+      int boundaryCount;
+    }
+
+    /**
+     * Runs path searches for graphs not given an executor.  A search
+     * holds every shard's read lock while it waits for its tasks, so
+     * the tasks must not queue behind threads that are waiting for a
+     * write lock, as tasks on the common pool could.  Tasks in this
+     * pool only read shards, so they never block.
+     */
+    private static final ForkJoinPool SEARCHES =
+      new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final List<Shard<V>> shards;
+
+    private final ExecutorService executor;
+
+    /**
+     * Create an empty graph with one shard per available processor,
+     * searched on a fork/join pool kept for path searches.
+     */
+    public ShardedGraph()
+    {
+      this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create an empty graph with the given number of shards, searched
+     * on a fork/join pool kept for path searches.
+     *
+     * @param shardCount the number of shards, at least 1
+     */
+    public ShardedGraph(int shardCount)
+    {
+      this(shardCount, SEARCHES);
+    }
+
+    /**
+     * Create an empty graph with the given number of shards.  A search
+     * holds every shard's read lock until the executor has run its
+     * steps, so the executor must not also run tasks that change this
+     * graph, or a search and those tasks can wait on each other forever.
+     *
+     * @param shardCount the number of shards, at least 1
+     * @param executor runs the per-shard steps of path searches
+     */
+    public ShardedGraph(int shardCount, ExecutorService executor)
+    {
+      if (shardCount < 1) {
+        throw new RuntimeException("A sharded graph needs at least one shard but was given " + shardCount);
+      }
+      shards = new ArrayList<Shard<V>>(shardCount);
+      for (int i = 0; i < shardCount; i++)
+      {
+        shards.add(new Shard<V>());
+      }
+      this.executor = executor;
+    }
+
+    /**
+     * Gives the number of shards.
+     *
+     * @return the number of shards
+     */
+    public int numShards()
+    {
+      return shards.size();
+    }
+
+    /**
+     * Gives the shard a vertex belongs to, whether or not it is in the
+     * graph yet.
+     *
+     * @param vertex a vertex
+     * @return the shard number, from 0 to numShards() - 1
+     */
+    public int shardOf(V vertex)
+    {
+      int hash = vertex == null ? 0 : vertex.hashCode();
+      // Spread the high bits so nearby hash codes land in different shards
+      hash ^= hash >>> 16;
+      hash *= 0x85ebca6b;
+      hash ^= hash >>> 13;
+      return (hash & 0x7fffffff) % shards.size();
+    }
+
+    /**
+     * Gives the number of edges that cross from one shard to another.
+     *
+     * @return the number of boundary edges
+     */
+    public int numBoundaryEdges()
+    {
+      int total = 0;
+      for (Shard<V> shard : shards)
+      {
+        shard.lock.readLock().lock();
+        try
+        {
+          total += shard.boundaryCount;
+        }
+        finally
+        {
+          shard.lock.readLock().unlock();
+        }
+      }
+      return total;
+    }
+
+    /**
+     * Gives the number of vertices in the graph.
+     *
+     * @return the number of vertices in the graph.
+     */
+    public int numVertices()
+    {
+      int total = 0;
+      for (Shard<V> shard : shards)
+      {
+        shard.lock.readLock().lock();
+        try
+        {
+          total += shard.edges.size();
+        }
+        finally
+        {
+          shard.lock.readLock().unlock();
+        }
+      }
+      return total;
+    }
+
+    /**
+     * Gives the number of edges in the graph.
+     *
+     * @return the number of edges in the graph.
+     */
+    public int numEdges()
+    {
+      int total = 0;
+      for (Shard<V> shard : shards)
+      {
+        shard.lock.readLock().lock();
+        try
+        {
+          total += shard.edgeCount;
+        }
+        finally
+        {
+          shard.lock.readLock().unlock();
+        }
+      }
+      return total;
+    }
+
+    /**
+     * Gets the number of vertices connected by edges from a given
+     * vertex.  If the given vertex is not in the graph, throws a
+     * RuntimeException.
+     *
+     * @param vertex the vertex whose degree we want.
+     * @return the degree of vertex 'vertex'
+     */
+    public int degree(V vertex)
+    {
+      Shard<V> shard = shards.get(shardOf(vertex));
+      shard.lock.readLock().lock();
+      try
+      {
+        LinkedHashSet<V> out = shard.edges.get(vertex);
+        if (out == null) {
+          throw new RuntimeException("Vertex does not exist");
+        }
+        return out.size();
+      }
+      finally
+      {
+        shard.lock.readLock().unlock();
+      }
+    }
+
+    /**
+     * Adds a directed edge between two vertices, adding either vertex
+     * first if it is not in the graph.  Does nothing if the edge is
+     * already there.  Only the shards of the two vertices are locked,
+     * in shard order, for the whole change, so a concurrent
+     * removeVertex(to) cannot leave the edge pointing at a missing
+     * vertex.
+     *
+     * @param from the source vertex for the added edge
+     * @param to the destination vertex for the added edge
+     */
+    public void addEdge(V from, V to)
+    {
+      int fromShard = shardOf(from);
+      int toShard = shardOf(to);
+      // Always lock in shard order so concurrent changes cannot deadlock
+      Shard<V> first = shards.get(Math.min(fromShard, toShard));
+      Shard<V> second = shards.get(Math.max(fromShard, toShard));
+      first.lock.writeLock().lock();
+      second.lock.writeLock().lock();
+      try
+      {
+        Shard<V> shard = shards.get(fromShard);
+        LinkedHashSet<V> out = vertexEdges(shard, from);
+        vertexEdges(shards.get(toShard), to);
+        if (out.add(to))
+        {
+          shard.edgeCount++;
+          if (toShard != fromShard)
+          {
+            shard.boundaryCount++;
+          }
+        }
+      }
+      finally
+      {
+        second.lock.writeLock().unlock();
+        first.lock.writeLock().unlock();
+      }
+    }
+
+    /**
+     * Adds a vertex to the graph.  If the vertex already exists in
+     * the graph, does nothing.
+     *
+     * @param vertex the vertex to add
+     */
+    public void addVertex(V vertex)
+    {
+      Shard<V> shard = shards.get(shardOf(vertex));
+      shard.lock.writeLock().lock();
+      try
+      {
+        vertexEdges(shard, vertex);
+      }
+      finally
+      {
+        shard.lock.writeLock().unlock();
+      }
+    }
+
+    // Gets a vertex's out-edges, adding the vertex if needed; caller holds the write lock
+    private LinkedHashSet<V> vertexEdges(Shard<V> shard, V vertex)
+    {
+      LinkedHashSet<V> out = shard.edges.get(vertex);
+      if (out == null)
+      {
+        out = new LinkedHashSet<V>();
+        shard.edges.put(vertex, out);
+      }
+      return out;
+    }
+
+    /**
+     * Gets all vertices in the graph, shard by shard.  The result is a
+     * copy, so later changes to the graph do not affect it.
+     *
+     * @return an iterable collection for the set of vertices of the
+     * graph.
+     */
+    public Iterable<V> getVertices()
+    {
+      List<V> all = new ArrayList<V>();
+      for (Shard<V> shard : shards)
+      {
+        shard.lock.readLock().lock();
+        try
+        {
+          all.addAll(shard.edges.keySet());
+        }
+        finally
+        {
+          shard.lock.readLock().unlock();
+        }
+      }
+      return all;
+    }
+
+    /**
+     * Gets a copy of the vertices adjacent to a given vertex.  If
+     * 'from' is not a vertex in the graph, returns an empty iterable.
+     *
+     * @param from the source vertex
+     * @return the destinations of edges leaving 'from'
+     */
+    public Iterable<V> adjacentTo(V from)
+    {
+      Shard<V> shard = shards.get(shardOf(from));
+      shard.lock.readLock().lock();
+      try
+      {
+        LinkedHashSet<V> out = shard.edges.get(from);
+        if (out == null)
+        {
+          return Collections.<V>emptyList();
+        }
+        return new ArrayList<V>(out);
+      }
+      finally
+      {
+        shard.lock.readLock().unlock();
+      }
+    }
+
+    /**
+     * Tells whether or not a vertex is in the graph.
+     *
+     * @param vertex a vertex
+     * @return true iff 'vertex' is a vertex in the graph.
+     */
+    public boolean contains(V vertex)
+    {
+      Shard<V> shard = shards.get(shardOf(vertex));
+      shard.lock.readLock().lock();
+      try
+      {
+        return shard.edges.containsKey(vertex);
+      }
+      finally
+      {
+        shard.lock.readLock().unlock();
+      }
+    }
+
+    /**
+     * Tells whether an edge exists in the graph connecting two vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return true iff there is an edge from 'from' to 'to'.
+     */
+    public boolean hasEdge(V from, V to)
+    {
+      Shard<V> shard = shards.get(shardOf(from));
+      shard.lock.readLock().lock();
+      try
+      {
+        LinkedHashSet<V> out = shard.edges.get(from);
+        return out != null && out.contains(to);
+      }
+      finally
+      {
+        shard.lock.readLock().unlock();
+      }
+    }
+
+    /**
+     * Gives a string representation of the graph in the same format as
+     * GraphImpl, with vertices listed shard by shard.
+     *
+     * @return the string representation of the graph
+     */
+    public String toString()
+    {
+      StringBuilder str = new StringBuilder();
+      for (Shard<V> shard : shards)
+      {
+        shard.lock.readLock().lock();
+        try
+        {
+          for (Map.Entry<V, LinkedHashSet<V>> entry : shard.edges.entrySet())
+          {
+            str.append(entry.getKey()).append(":");
+            String separator = " ";
+            for (V to : entry.getValue())
+            {
+              str.append(separator).append(to);
+              separator = ", ";
+            }
+            str.append("\n");
+          }
+        }
+        finally
+        {
+          shard.lock.readLock().unlock();
+        }
+      }
+      return str.toString();
+    }
+
+    /**
+     * Checks if a given object is a graph with the same vertices and
+     * edges as this one.
+     *
+     * @param obj the graph to compare this graph to
+     * @return true iff the graphs are equal
+     */
+    public boolean equals(Object obj)
+    {
+      if (!(obj instanceof Graph))
+      {
+        return false;
+      }
+      @SuppressWarnings("unchecked")
+      Graph<V> other = (Graph<V>) obj;
+      if (other.numVertices() != numVertices() || other.numEdges() != numEdges())
+      {
+        return false;
+      }
+      for (V vertex : getVertices())
+      {
+        if (!other.contains(vertex))
+        {
+          return false;
+        }
+        for (V to : adjacentTo(vertex))
+        {
+          if (!other.hasEdge(vertex, to))
+          {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Gives a hash code consistent with equals.
+     *
+     * @return a hash code built from the vertices and edge count
+     */
+    public int hashCode()
+    {
+      int hash = numEdges();
+      for (V vertex : getVertices())
+      {
+        hash += vertex == null ? 0 : vertex.hashCode();
+      }
+      return hash;
+    }
+
+    /**
+     * Tells whether the graph is empty.
+     *
+     * @return true iff the graph has no vertices.
+     */
+    public boolean isEmpty()
+    {
+      return numVertices() == 0;
+    }
+
+    /**
+     * Removes a vertex from the graph, along with any edges leaving or
+     * entering it.  Every shard is visited to remove incoming edges,
+     * and every shard is write-locked for the whole removal so no
+     * other change sees it half done.
+     *
+     * @param toRemove the vertex to remove.
+     */
+    public void removeVertex(V toRemove)
+    {
+      for (Shard<V> shard : shards)
+      {
+        shard.lock.writeLock().lock();
+      }
+      try
+      {
+        int home = shardOf(toRemove);
+        Shard<V> owner = shards.get(home);
+        LinkedHashSet<V> removed = owner.edges.remove(toRemove);
+        if (removed == null)
+        {
+          return;
+        }
+        for (V to : removed)
+        {
+          owner.edgeCount--;
+          if (shardOf(to) != home)
+          {
+            owner.boundaryCount--;
+          }
+        }
+
+        for (int i = 0; i < shards.size(); i++)
+        {
+          Shard<V> shard = shards.get(i);
+          for (LinkedHashSet<V> out : shard.edges.values())
+          {
+            if (out.remove(toRemove))
+            {
+              shard.edgeCount--;
+              if (i != home)
+              {
+                shard.boundaryCount--;
+              }
+            }
+          }
+        }
+      }
+      finally
+      {
+        for (int i = shards.size() - 1; i >= 0; i--)
+        {
+          shards.get(i).lock.writeLock().unlock();
+        }
+      }
+    }
+
+    /**
+     * Removes an edge from the graph.  Does nothing if the edge is not
+     * in the graph.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     */
+    public void removeEdge(V from, V to)
+    {
+      int fromShard = shardOf(from);
+      Shard<V> shard = shards.get(fromShard);
+      shard.lock.writeLock().lock();
+      try
+      {
+        LinkedHashSet<V> out = shard.edges.get(from);
+        if (out != null && out.remove(to))
+        {
+          shard.edgeCount--;
+          if (shardOf(to) != fromShard)
+          {
+            shard.boundaryCount--;
+          }
+        }
+      }
+      finally
+      {
+        shard.lock.writeLock().unlock();
+      }
+    }
+
+    /**
+     * Tells whether there is a path connecting two given vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return true iff there is a path from 'from' to 'to' in the graph.
+     */
+    public boolean hasPath(V from, V to)
+    {
+      return pathLength(from, to) != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Gets the number of edges on the shortest path connecting two
+     * given vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the length of the shortest path from 'from' to 'to' in
+     * the graph.  If there is no path, returns Integer.MAX_VALUE
+     */
+    public int pathLength(V from, V to)
+    {
+      List<V> path = getPath(from, to);
+      if (path.isEmpty())
+      {
+        return Integer.MAX_VALUE;
+      }
+      return path.size() - 1;
+    }
+
+    /**
+     * Returns the vertices along the shortest path connecting two
+     * given vertices, including both end points.  Every shard is
+     * read-locked for the length of the search, so the search sees a
+     * consistent graph.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the vertices on the path, or an empty list if there is
+     * none
+     */
+    public List<V> getPath(V from, V to)
+    {
+      // Always lock in shard order so concurrent searches cannot deadlock
+      for (Shard<V> shard : shards)
+      {
+        shard.lock.readLock().lock();
+      }
+      try
+      {
+        return search(from, to);
+      }
+      finally
+      {
+        for (Shard<V> shard : shards)
+        {
+          shard.lock.readLock().unlock();
+        }
+      }
+    }
+
+    /**
+     * Edges found while expanding one shard's frontier that lead into
+     * one particular shard.
+     */
+    private static final class Outbox<V>
+    {
+      final ArrayList<V> children = new ArrayList<V>();
+      final ArrayList<V> parents = new ArrayList<V>();
+    }
+
+    /**
+     * Level synchronous breadth first search.  Each shard keeps its own
+     * frontier and its own map from reached vertex to parent, and only
+     * the task for that shard ever touches them.
+     */
+    private List<V> search(V from, V to)
+    {
+      int fromShard = shardOf(from);
+      int toShard = shardOf(to);
+      if (!shards.get(fromShard).edges.containsKey(from) || !shards.get(toShard).edges.containsKey(to))
+      {
+        return new ArrayList<V>();
+      }
+      final int count = shards.size();
+      final List<Map<V, V>> parents = new ArrayList<Map<V, V>>(count);
+      final List<List<V>> frontier = new ArrayList<List<V>>(count);
+      final List<List<Outbox<V>>> outboxes = new ArrayList<List<Outbox<V>>>(count);
+      for (int i = 0; i < count; i++)
+      {
+        parents.add(new HashMap<V, V>());
+        frontier.add(new ArrayList<V>());
+        List<Outbox<V>> row = new ArrayList<Outbox<V>>(count);
+        for (int j = 0; j < count; j++)
+        {
+          row.add(new Outbox<V>());
+        }
+        outboxes.add(row);
+      }
+      parents.get(fromShard).put(from, from);
+      frontier.get(fromShard).add(from);
+
+      List<Callable<Void>> expand = new ArrayList<Callable<Void>>(count);
+      List<Callable<Void>> merge = new ArrayList<Callable<Void>>(count);
+      for (int i = 0; i < count; i++)
+      {
+        final int shard = i;
+        expand.add(new Callable<Void>() {
+          public Void call()
+          {
+            List<Outbox<V>> out = outboxes.get(shard);
+            Map<V, V> reached = parents.get(shard);
+            for (V u : frontier.get(shard))
+            {
+              for (V v : shards.get(shard).edges.get(u))
+              {
+                int target = shardOf(v);
+                // Skip vertices this shard has already reached
+                if (target == shard && reached.containsKey(v))
+                {
+                  continue;
+                }
+                out.get(target).children.add(v);
+                out.get(target).parents.add(u);
+              }
+            }
+            frontier.get(shard).clear();
+            return null;
+          }
+        });
+        merge.add(new Callable<Void>() {
+          public Void call()
+          {
+            for (int source = 0; source < count; source++)
+            {
+              Outbox<V> in = outboxes.get(source).get(shard);
+              for (int k = 0; k < in.children.size(); k++)
+              {
+                V v = in.children.get(k);
+                if (!parents.get(shard).containsKey(v))
+                {
+                  parents.get(shard).put(v, in.parents.get(k));
+                  frontier.get(shard).add(v);
+                }
+              }
+              in.children.clear();
+              in.parents.clear();
+            }
+            return null;
+          }
+        });
+      }
+
+      while (!parents.get(toShard).containsKey(to) && !isEmpty(frontier))
+      {
+        Parallel.runAll(executor, expand, "path search");
+        Parallel.runAll(executor, merge, "path search");
+      }
+      if (!parents.get(toShard).containsKey(to))
+      {
+        return new ArrayList<V>();
+      }
+
+      List<V> path = new ArrayList<V>();
+      V vertex = to;
+      path.add(vertex);
+      while (!vertex.equals(from))
+      {
+        vertex = parents.get(shardOf(vertex)).get(vertex);
+        path.add(vertex);
+      }
+      Collections.reverse(path);
+      return path;
+    }
+
+    private static <V> boolean isEmpty(List<List<V>> frontier)
+    {
+      for (List<V> part : frontier)
+      {
+        if (!part.isEmpty())
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+}
@@ -0,0 +1,248 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A topological ordering of a graph, for use with dependency graphs
+ * where an edge (a, b) means a must come before b.
+ *
+ * The ordering is found with Kahn's algorithm over a CSR snapshot of
+ * the graph in time proportional to its size.  Vertices are also
+ * grouped into layers: layer 0 holds the vertices with no incoming
+ * edges, and each later layer holds the vertices whose predecessors
+ * are all in earlier layers.  The vertices in one layer do not depend
+ * on each other, so a scheduler can run a whole layer at once.
+ *
+ * If the graph has a cycle, the vertices on or after it cannot be
+ * ordered.  isAcyclic() then returns false and findCycle() gives one
+ * of the cycles.
+ *
+ * @version 1
+ */
+public class TopologicalOrder<V>
+{
+    private final Csr<V> csr;
+
+    // Vertex indexes in topological order; only 'ordered' are valid
+    private final int[] order;
+    private final int ordered;
+
+    // layerStart[l] is where layer l begins in 'order'
+    private final int[] layerStart;
+    private final int layers;
+
+    // level[v] is the layer of v, or -1 if v could not be ordered
+    private final int[] level;
+
+    private TopologicalOrder(Csr<V> csr, int[] order, int ordered,
+                             int[] layerStart, int layers, int[] level)
+    {
+      this.csr = csr;
+      this.order = order;
+      this.ordered = ordered;
+      this.layerStart = layerStart;
+      this.layers = layers;
+      this.level = level;
+    }
+
+    /**
+     * Orders the vertices of a graph.
+     *
+     * @param graph the graph to order
+     * @return the topological ordering of the graph
+     */
+    public static <V> TopologicalOrder<V> of(Graph<V> graph)
+    {
+      Csr<V> csr = Csr.of(graph);
+      int n = csr.n;
+      int[] inDegree = new int[n];
+      for (int edge = 0; edge < csr.targets.length; edge++)
+      {
+        inDegree[csr.targets[edge]]++;
+      }
+
+      // 'order' doubles as the queue: each layer is appended in turn
+      int[] order = new int[n];
+      int[] level = new int[n];
+      int[] layerStart = new int[n + 1];
+      int tail = 0;
+      for (int v = 0; v < n; v++)
+      {
+        level[v] = -1;
+        if (inDegree[v] == 0)
+        {
+          order[tail++] = v;
+          level[v] = 0;
+        }
+      }
+
+      int layers = 0;
+      int head = 0;
+      while (head < tail)
+      {
+        layerStart[layers] = head;
+        int layerEnd = tail;
+        for (; head < layerEnd; head++)
+        {
+          int u = order[head];
+          for (int edge = csr.offsets[u]; edge < csr.offsets[u + 1]; edge++)
+          {
+            int v = csr.targets[edge];
+            if (--inDegree[v] == 0)
+            {
+              order[tail++] = v;
+              level[v] = layers + 1;
+            }
+          }
+        }
+        layers++;
+      }
+      layerStart[layers] = tail;
+      return new TopologicalOrder<V>(csr, order, tail, layerStart, layers, level);
+    }
+
+    /**
+     * Tells whether the graph has no cycles.
+     *
+     * @return true iff every vertex could be ordered
+     */
+    public boolean isAcyclic()
+    {
+      return ordered == csr.n;
+    }
+
+    /**
+     * Gives the vertices in an order where every edge goes from an
+     * earlier vertex to a later one.  Throws a RuntimeException if the
+     * graph has a cycle.
+     *
+     * @return the vertices in topological order
+     */
+    public List<V> getOrder()
+    {
+      if (!isAcyclic()) {
+        throw new RuntimeException("Graph has a cycle: " + findCycle());
+      }
+      return slice(0, ordered);
+    }
+
+    /**
+     * Gives the number of layers.  If the graph has a cycle, only the
+     * vertices before it are layered.
+     *
+     * @return the number of layers
+     */
+    public int numLayers()
+    {
+      return layers;
+    }
+
+    /**
+     * Gives the vertices in one layer.  None of them depends on
+     * another, and every vertex they depend on is in an earlier layer.
+     *
+     * @param layer a layer number from 0 to numLayers() - 1
+     * @return the vertices in that layer
+     */
+    public List<V> getLayer(int layer)
+    {
+      if (layer < 0 || layer >= layers) {
+        throw new RuntimeException("Layer " + layer + " does not exist");
+      }
+      return slice(layerStart[layer], layerStart[layer + 1]);
+    }
+
+    /**
+     * Gives every layer in order.
+     *
+     * @return the layers, first to last
+     */
+    public List<List<V>> getLayers()
+    {
+      List<List<V>> result = new ArrayList<List<V>>(layers);
+      for (int layer = 0; layer < layers; layer++)
+      {
+        result.add(getLayer(layer));
+      }
+      return result;
+    }
+
+    /**
+     * Gives the layer a vertex is in.
+     *
+     * @param vertex a vertex
+     * @return the vertex's layer, or -1 if it is not in the graph or
+     * comes on or after a cycle
+     */
+    public int layerOf(V vertex)
+    {
+      int index = csr.indexOf(vertex);
+      if (index == -1)
+      {
+        return -1;
+      }
+      return level[index];
+    }
+
+    /**
+     * Finds one cycle in the graph.  The result lists the vertices of
+     * the cycle in edge order, without repeating the first one.
+     *
+     * @return the vertices of a cycle, or an empty list if the graph
+     * is acyclic
+     */
+    public List<V> findCycle()
+    {
+      List<V> cycle = new ArrayList<V>();
+      if (isAcyclic())
+      {
+        return cycle;
+      }
+      // Every vertex left over still has a left over predecessor, so
+      // walking backwards along such edges must eventually repeat
+      Csr<V> reverse = csr.transpose();
+      int[] step = new int[csr.n];
+      int start = 0;
+      while (level[start] != -1)
+      {
+        start++;
+      }
+      int count = 0;
+      int v = start;
+      int[] walk = new int[csr.n];
+      Arrays.fill(step, -1);
+      while (step[v] == -1)
+      {
+        step[v] = count;
+        walk[count++] = v;
+        int next = -1;
+        for (int edge = reverse.offsets[v]; edge < reverse.offsets[v + 1]; edge++)
+        {
+          if (level[reverse.targets[edge]] == -1)
+          {
+            next = reverse.targets[edge];
+            break;
+          }
+        }
+        v = next;
+      }
+      // The walk followed edges backwards, so read it back to front
+      for (int i = count - 1; i >= step[v]; i--)
+      {
+        cycle.add(csr.vertex(walk[i]));
+      }
+      return cycle;
+    }
+
+    private List<V> slice(int from, int to)
+    {
+      List<V> result = new ArrayList<V>(to - from);
+      for (int i = from; i < to; i++)
+      {
+        result.add(csr.vertex(order[i]));
+      }
+      return result;
+    }
+}
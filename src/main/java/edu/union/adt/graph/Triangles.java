@@ -0,0 +1,444 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the triangles of a graph and works out its clustering
+ * coefficients.
+ *
+ * Edge directions are ignored: two vertices are neighbours if there is
+ * an edge between them either way, repeated edges count once and self
+ * loops not at all.  A triangle is three vertices that are all
+ * neighbours of each other.
+ *
+ * The graph is frozen into a CSR snapshot, and each neighbour list is
+ * sorted and cut down to the neighbours that come later in degree
+ * order (lowest degree first).  Every triangle is then found exactly
+ * once, from its earliest vertex, by intersecting that vertex's list
+ * with the list of each of its later neighbours.  Cutting the lists
+ * this way keeps every list shorter than the square root of twice the
+ * number of edges, so hubs do not make the work blow up.  A vertex
+ * with at least HUB_LIST_LENGTH later neighbours marks them in a
+ * bitmap instead, so each check against it is a single lookup.
+ * Vertices are split into slices of about the same work and the slices
+ * are counted in parallel.
+ *
+ * Counts are kept in arrays indexed by the position of each vertex in
+ * getVertices().  A count is a snapshot and does not follow later
+ * changes to the graph.
+ *
+ * @version 1
+ */
+public class Triangles<V>
+{
+    /**
+     * Vertices with at least this many later neighbours are checked
+     * against with a bitmap rather than by merging sorted lists.
+     */
+    public static final int HUB_LIST_LENGTH = 256;
+
+    private final Csr<V> csr;
+
+    // position[i] is where snapshot vertex i is in getVertices(), or
+    // null when the two orders are the same
+    private final int[] position;
+
+    // triangles[i] and neighbours[i] are for the i-th vertex in getVertices()
+    private final long[] triangles;
+    private final int[] neighbours;
+
+    private final long total;
+
+    private Triangles(Csr<V> csr, int[] position, long[] triangles, int[] neighbours, long total)
+    {
+      this.csr = csr;
+      this.position = position;
+      this.triangles = triangles;
+      this.neighbours = neighbours;
+      this.total = total;
+    }
+
+    /**
+     * Counts the triangles of a graph on the common fork/join pool.
+     *
+     * @param graph the graph to count
+     * @return the triangle counts of the graph
+     */
+    public static <V> Triangles<V> count(Graph<V> graph)
+    {
+      return count(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Counts the triangles of a graph.  Runs in time proportional to
+     * the number of edges times the square root of the number of
+     * edges at worst, and much less on sparse graphs.
+     *
+     * @param graph the graph to count
+     * @param pool runs the counting
+     * @return the triangle counts of the graph
+     */
+    public static <V> Triangles<V> count(Graph<V> graph, ForkJoinPool pool)
+    {
+      final Csr<V> csr = Csr.of(graph);
+      final Csr<V> incoming = csr.transpose();
+      final int n = csr.n;
+      int slices = Math.max(1, Math.min(n, pool.getParallelism() * 4));
+      int[] bounds = Parallel.balancedBounds(csr, slices);
+
+      // Both directions of every edge, then each list sorted with
+      // repeats and self loops dropped
+      final int[] start = new int[n + 1];
+      for (int u = 0; u < n; u++)
+      {
+        long end = (long) start[u] + csr.degree(u) + incoming.degree(u);
+        if (end > Integer.MAX_VALUE - 8) {
+          throw new RuntimeException("Too many edges to count triangles: " + (2L * csr.numEdges()));
+        }
+        start[u + 1] = (int) end;
+      }
+      final int[] both = new int[start[n]];
+      final int[] degree = new int[n];
+      List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(slices);
+      for (int p = 0; p < slices; p++)
+      {
+        final int lo = bounds[p];
+        final int hi = bounds[p + 1];
+        tasks.add(new Callable<Void>() {
+          public Void call()
+          {
+            for (int u = lo; u < hi; u++)
+            {
+              int out = csr.degree(u);
+              System.arraycopy(csr.targets, csr.offsets[u], both, start[u], out);
+              System.arraycopy(incoming.targets, incoming.offsets[u], both, start[u] + out,
+                               incoming.degree(u));
+              Arrays.sort(both, start[u], start[u + 1]);
+              int kept = start[u];
+              for (int i = start[u]; i < start[u + 1]; i++)
+              {
+                int v = both[i];
+                if (v != u && (kept == start[u] || both[kept - 1] != v))
+                {
+                  both[kept++] = v;
+                }
+              }
+              degree[u] = kept - start[u];
+            }
+            return null;
+          }
+        });
+      }
+      Parallel.runAll(pool, tasks, "Sorting neighbours");
+
+      // Each vertex keeps only its neighbours later in degree order
+      final int[] later = new int[n + 1];
+      for (int u = 0; u < n; u++)
+      {
+        int count = 0;
+        for (int i = start[u]; i < start[u] + degree[u]; i++)
+        {
+          if (before(u, both[i], degree))
+          {
+            count++;
+          }
+        }
+        later[u + 1] = later[u] + count;
+      }
+      final int[] forward = new int[later[n]];
+      for (int u = 0; u < n; u++)
+      {
+        int fill = later[u];
+        for (int i = start[u]; i < start[u] + degree[u]; i++)
+        {
+          if (before(u, both[i], degree))
+          {
+            forward[fill++] = both[i];
+          }
+        }
+      }
+
+      final AtomicLongArray found = new AtomicLongArray(n);
+      int[] workBounds = workBounds(later, forward, slices);
+      tasks.clear();
+      for (int p = 0; p < slices; p++)
+      {
+        final int lo = workBounds[p];
+        final int hi = workBounds[p + 1];
+        tasks.add(new Callable<Void>() {
+          public Void call()
+          {
+            countSlice(lo, hi, later, forward, found);
+            return null;
+          }
+        });
+      }
+      Parallel.runAll(pool, tasks, "Counting triangles");
+
+      int[] position = null;
+      if (graph instanceof GraphImpl && ((GraphImpl<V>) graph).isReordered())
+      {
+        position = new int[n];
+        int at = 0;
+        for (V vertex : graph.getVertices())
+        {
+          position[csr.indexOf(vertex)] = at++;
+        }
+      }
+      long[] triangles = new long[n];
+      int[] neighbours = new int[n];
+      long total = 0;
+      for (int u = 0; u < n; u++)
+      {
+        int at = position == null ? u : position[u];
+        triangles[at] = found.get(u);
+        neighbours[at] = degree[u];
+        total += triangles[at];
+      }
+      return new Triangles<V>(csr, position, triangles, neighbours, total / 3);
+    }
+
+    // Tells whether u comes before v in degree order, ties broken by number
+    private static boolean before(int u, int v, int[] degree)
+    {
+      return degree[u] < degree[v] || (degree[u] == degree[v] && u < v);
+    }
+
+    /**
+     * Splits the vertices into slices of about the same counting work:
+     * for each of a vertex's later neighbours, the two lists it merges.
+     */
+    private static int[] workBounds(int[] later, int[] forward, int slices)
+    {
+      int n = later.length - 1;
+      long[] work = new long[n + 1];
+      for (int u = 0; u < n; u++)
+      {
+        long cost = 1;
+        int length = later[u + 1] - later[u];
+        for (int i = later[u]; i < later[u + 1]; i++)
+        {
+          int v = forward[i];
+          cost += 1 + length + later[v + 1] - later[v];
+        }
+        work[u + 1] = work[u] + cost;
+      }
+      int[] bounds = new int[slices + 1];
+      int u = 0;
+      for (int p = 1; p < slices; p++)
+      {
+        long goal = work[n] / slices * p;
+        while (u < n && work[u] < goal)
+        {
+          u++;
+        }
+        bounds[p] = u;
+      }
+      bounds[slices] = n;
+      return bounds;
+    }
+
+    /**
+     * Finds the triangles whose earliest vertex is in [lo, hi), adding
+     * one to each of the three vertices' counts per triangle.
+     */
+    private static void countSlice(int lo, int hi, int[] later, int[] forward, AtomicLongArray found)
+    {
+      // Marks a hub's later neighbours; made when the first hub is met
+      long[] bitmap = null;
+      for (int u = lo; u < hi; u++)
+      {
+        int uStart = later[u];
+        int uEnd = later[u + 1];
+        boolean hub = uEnd - uStart >= HUB_LIST_LENGTH;
+        if (hub)
+        {
+          if (bitmap == null)
+          {
+            bitmap = new long[(later.length + 63) >>> 6];
+          }
+          for (int i = uStart; i < uEnd; i++)
+          {
+            bitmap[forward[i] >>> 6] |= 1L << forward[i];
+          }
+        }
+        long atU = 0;
+        for (int e = uStart; e < uEnd; e++)
+        {
+          int v = forward[e];
+          long atV = 0;
+          int i = uStart;
+          int j = later[v];
+          int vEnd = later[v + 1];
+          if (hub)
+          {
+            for (; j < vEnd; j++)
+            {
+              int w = forward[j];
+              if ((bitmap[w >>> 6] & (1L << w)) != 0)
+              {
+                atV++;
+                found.incrementAndGet(w);
+              }
+            }
+          }
+          else
+          {
+            while (i < uEnd && j < vEnd)
+            {
+              int a = forward[i];
+              int b = forward[j];
+              if (a < b)
+              {
+                i++;
+              }
+              else if (a > b)
+              {
+                j++;
+              }
+              else
+              {
+                atV++;
+                found.incrementAndGet(a);
+                i++;
+                j++;
+              }
+            }
+          }
+          if (atV > 0)
+          {
+            found.addAndGet(v, atV);
+            atU += atV;
+          }
+        }
+        if (atU > 0)
+        {
+          found.addAndGet(u, atU);
+        }
+        if (hub)
+        {
+          for (int i = uStart; i < uEnd; i++)
+          {
+            bitmap[forward[i] >>> 6] = 0;
+          }
+        }
+      }
+    }
+
+    /**
+     * Gives the number of triangles in the graph.
+     *
+     * @return the number of triangles
+     */
+    public long total()
+    {
+      return total;
+    }
+
+    /**
+     * Gives the number of triangles a vertex is in.
+     *
+     * @param vertex a vertex
+     * @return its number of triangles, or -1 if it was not in the graph
+     */
+    public long trianglesOf(V vertex)
+    {
+      int at = positionOf(vertex);
+      return at == -1 ? -1 : triangles[at];
+    }
+
+    /**
+     * Gives the number of triangles each vertex is in.
+     *
+     * @return a copy of the counts, where entry i is for the i-th
+     * vertex returned by getVertices()
+     */
+    public long[] perVertex()
+    {
+      return triangles.clone();
+    }
+
+    /**
+     * Gives a vertex's local clustering coefficient: the fraction of
+     * pairs of its neighbours that are neighbours of each other.
+     *
+     * @param vertex a vertex
+     * @return its coefficient from 0 to 1, 0 if it has fewer than two
+     * neighbours, or -1 if it was not in the graph
+     */
+    public double clusteringOf(V vertex)
+    {
+      int at = positionOf(vertex);
+      return at == -1 ? -1 : clustering(at);
+    }
+
+    /**
+     * Gives every vertex's local clustering coefficient.
+     *
+     * @return the coefficients, where entry i is for the i-th vertex
+     * returned by getVertices()
+     */
+    public double[] localClustering()
+    {
+      double[] coefficients = new double[triangles.length];
+      for (int i = 0; i < coefficients.length; i++)
+      {
+        coefficients[i] = clustering(i);
+      }
+      return coefficients;
+    }
+
+    /**
+     * Gives the mean of the local clustering coefficients, counting
+     * vertices with fewer than two neighbours as 0.
+     *
+     * @return the average clustering, or 0 for a graph with no vertices
+     */
+    public double averageClustering()
+    {
+      double sum = 0;
+      for (int i = 0; i < triangles.length; i++)
+      {
+        sum += clustering(i);
+      }
+      return triangles.length == 0 ? 0 : sum / triangles.length;
+    }
+
+    /**
+     * Gives the global clustering coefficient (transitivity): three
+     * times the number of triangles over the number of paths of two
+     * edges, so how often two neighbours of a vertex are neighbours.
+     *
+     * @return the transitivity, or 0 if no vertex has two neighbours
+     */
+    public double globalClustering()
+    {
+      double pairs = 0;
+      for (int d : neighbours)
+      {
+        pairs += d * (d - 1.0) / 2;
+      }
+      return pairs == 0 ? 0 : 3.0 * total / pairs;
+    }
+
+    private double clustering(int at)
+    {
+      int d = neighbours[at];
+      return d < 2 ? 0 : triangles[at] / (d * (d - 1.0) / 2);
+    }
+
+    private int positionOf(V vertex)
+    {
+      int index = csr.indexOf(vertex);
+      if (index == -1 || position == null)
+      {
+        return index;
+      }
+      return position[index];
+    }
+}
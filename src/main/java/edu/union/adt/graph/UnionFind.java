@@ -0,0 +1,177 @@
+package edu.union.adt.graph;
+
+import java.util.Arrays;
+
+/**
+ * Disjoint sets over the ints 0 to size - 1, with union by size and
+ * path halving.  New elements can be added at the end as a graph
+ * grows.
+ *
+ * find shortens paths as it goes, so it writes to the sets even when
+ * nothing is merged.  root and labels only read, so once the sets are
+ * built and safely published, several threads may call them at once.
+ *
+ * @version 1
+ */
+class UnionFind
+{
+    // parent[i] is i's parent in its tree; roots are their own parent
+    private int[] parent;
+
+    // setSize[r] is the number of elements under root r
+    private int[] setSize;
+
+    private int size;
+
+    private int sets;
+
+    /**
+     * Create disjoint sets with 'size' single element sets.
+     *
+     * @param size the number of elements
+     */
+    UnionFind(int size)
+    {
+      parent = new int[Math.max(8, size)];
+      setSize = new int[parent.length];
+      this.size = 0;
+      sets = 0;
+      for (int i = 0; i < size; i++)
+      {
+        add();
+      }
+    }
+
+    /**
+     * Estimates the bytes held by this object and its arrays.
+     *
+     * @return the estimated bytes
+     */
+    long retainedBytes()
+    {
+      return MemoryReport.objectBytes(2 * MemoryReport.REFERENCE + 2 * 4)
+        + 2 * MemoryReport.arrayBytes(parent.length, 4);
+    }
+
+    /**
+     * Adds a new element in a set of its own.
+     *
+     * @return the new element
+     */
+    int add()
+    {
+      if (size == parent.length)
+      {
+        parent = Arrays.copyOf(parent, size * 2);
+        setSize = Arrays.copyOf(setSize, size * 2);
+      }
+      parent[size] = size;
+      setSize[size] = 1;
+      sets++;
+      return size++;
+    }
+
+    /**
+     * Gives the number of elements.
+     *
+     * @return the number of elements
+     */
+    int size()
+    {
+      return size;
+    }
+
+    /**
+     * Gives the number of disjoint sets.
+     *
+     * @return the number of sets
+     */
+    int sets()
+    {
+      return sets;
+    }
+
+    /**
+     * Finds the representative of the set holding an element.
+     *
+     * @param element an element
+     * @return the root of element's set
+     */
+    int find(int element)
+    {
+      while (parent[element] != element)
+      {
+        parent[element] = parent[parent[element]];
+        element = parent[element];
+      }
+      return element;
+    }
+
+    /**
+     * Finds the representative of the set holding an element without
+     * shortening any paths, so the sets are left exactly as they were.
+     * Union by size keeps every tree O(log n) deep.
+     *
+     * @param element an element
+     * @return the root of element's set
+     */
+    int root(int element)
+    {
+      while (parent[element] != element)
+      {
+        element = parent[element];
+      }
+      return element;
+    }
+
+    /**
+     * Merges the sets holding two elements.
+     *
+     * @param a an element
+     * @param b an element
+     * @return true iff a and b were in different sets
+     */
+    boolean union(int a, int b)
+    {
+      int rootA = find(a);
+      int rootB = find(b);
+      if (rootA == rootB)
+      {
+        return false;
+      }
+      if (setSize[rootA] < setSize[rootB])
+      {
+        int swap = rootA;
+        rootA = rootB;
+        rootB = swap;
+      }
+      parent[rootB] = rootA;
+      setSize[rootA] += setSize[rootB];
+      sets--;
+      return true;
+    }
+
+    /**
+     * Numbers the sets 0 to sets() - 1 in order of their smallest
+     * element.
+     *
+     * @return labels[i] is the number of the set holding i
+     */
+    int[] labels()
+    {
+      int[] labels = new int[size];
+      int[] rootLabel = new int[size];
+      Arrays.fill(rootLabel, -1);
+      int next = 0;
+      for (int i = 0; i < size; i++)
+      {
+        int root = root(i);
+        if (rootLabel[root] == -1)
+        {
+          rootLabel[root] = next++;
+        }
+        labels[i] = rootLabel[root];
+      }
+      return labels;
+    }
+}
@@ -0,0 +1,118 @@
+package edu.union.adt.graph;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Variable length encoding of non-negative ints: seven bits per byte,
+ * low bits first, with the high bit set on every byte but the last.
+ * Small numbers take a single byte.
+ *
+ * @version 1
+ */
+final class Varint
+{
+    private Varint()
+    {
+
+    }
+
+    /**
+     * Writes a non-negative int.
+     *
+     * @param value the number to write
+     * @param out where to write it
+     * @throws IOException if the stream fails
+     */
+    static void write(int value, DataOutput out) throws IOException
+    {
+      while ((value & ~0x7f) != 0)
+      {
+        out.writeByte((value & 0x7f) | 0x80);
+        value >>>= 7;
+      }
+      out.writeByte(value);
+    }
+
+    /**
+     * Reads an int written by write.
+     *
+     * @param in where to read it from
+     * @return the number
+     * @throws IOException if the stream fails or the encoding is bad
+     */
+    static int read(DataInput in) throws IOException
+    {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7)
+      {
+        int b = in.readUnsignedByte();
+        value |= (b & 0x7f) << shift;
+        if ((b & 0x80) == 0)
+        {
+          return value;
+        }
+      }
+      throw new IOException("Varint is too long");
+    }
+
+    /**
+     * Writes a non-negative int into a byte array.
+     *
+     * @param value the number to write
+     * @param bytes the array, which must have room for five bytes
+     * @param pos where to start writing
+     * @return the position just past the written bytes
+     */
+    static int write(int value, byte[] bytes, int pos)
+    {
+      while ((value & ~0x7f) != 0)
+      {
+        bytes[pos++] = (byte) ((value & 0x7f) | 0x80);
+        value >>>= 7;
+      }
+      bytes[pos++] = (byte) value;
+      return pos;
+    }
+
+    /**
+     * Gives the number of bytes write would use for a value.
+     *
+     * @param value a non-negative int
+     * @return the encoded length, from 1 to 5
+     */
+    static int length(int value)
+    {
+      int length = 1;
+      while ((value & ~0x7f) != 0)
+      {
+        value >>>= 7;
+        length++;
+      }
+      return length;
+    }
+
+    /**
+     * Maps a signed int to a non-negative one so numbers near zero,
+     * either side, stay small: 0, -1, 1, -2 become 0, 1, 2, 3.
+     *
+     * @param value any int
+     * @return the zigzag encoding of the value
+     */
+    static int zigzag(int value)
+    {
+      return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Undoes zigzag.
+     *
+     * @param value a zigzag encoded int
+     * @return the original signed int
+     */
+    static int unzigzag(int value)
+    {
+      return (value >>> 1) ^ -(value & 1);
+    }
+}
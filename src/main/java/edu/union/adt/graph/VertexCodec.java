@@ -0,0 +1,52 @@
+package edu.union.adt.graph;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+* Interface for writing vertices to and reading them from binary streams
+*/
+
+public interface VertexCodec<V> {
+
+  void write(V vertex, DataOutput out) throws IOException;
+  V read(DataInput in) throws IOException;
+
+  VertexCodec<String> STRING = new VertexCodec<String>() {
+    public void write(String vertex, DataOutput out) throws IOException
+    {
+      out.writeUTF(vertex);
+    }
+
+    public String read(DataInput in) throws IOException
+    {
+      return in.readUTF();
+    }
+  };
+
+  VertexCodec<Integer> INTEGER = new VertexCodec<Integer>() {
+    public void write(Integer vertex, DataOutput out) throws IOException
+    {
+      out.writeInt(vertex);
+    }
+
+    public Integer read(DataInput in) throws IOException
+    {
+      return in.readInt();
+    }
+  };
+
+  VertexCodec<Long> LONG = new VertexCodec<Long>() {
+    public void write(Long vertex, DataOutput out) throws IOException
+    {
+      out.writeLong(vertex);
+    }
+
+    public Long read(DataInput in) throws IOException
+    {
+      return in.readLong();
+    }
+  };
+
+}
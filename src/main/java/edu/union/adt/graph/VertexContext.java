@@ -0,0 +1,158 @@
+package edu.union.adt.graph;
+
+/**
+ * What a VertexProgram can see and do while computing one vertex in
+ * one superstep.  Each worker thread reuses a single context for all
+ * of its vertices, so a context must not be kept after compute
+ * returns.
+ *
+ * @version 1
+ */
+public final class VertexContext
+{
+    private final Pregel<?> engine;
+
+    // Which slice of the vertices this context's worker owns
+    private final int partition;
+
+    private int vertex;
+
+    VertexContext(Pregel<?> engine, int partition)
+    {
+      this.engine = engine;
+      this.partition = partition;
+    }
+
+    void moveTo(int vertex)
+    {
+      this.vertex = vertex;
+    }
+
+    /**
+     * Gives the index of the vertex being computed.
+     *
+     * @return the vertex index
+     */
+    public int vertex()
+    {
+      return vertex;
+    }
+
+    /**
+     * Gives the number of the current superstep, starting from 0.
+     *
+     * @return the superstep number
+     */
+    public int superstep()
+    {
+      return engine.superstep;
+    }
+
+    /**
+     * Gives the number of vertices in the graph.
+     *
+     * @return the number of vertices
+     */
+    public int numVertices()
+    {
+      return engine.csr.n;
+    }
+
+    /**
+     * Gives the current value of the vertex.
+     *
+     * @return the vertex's value
+     */
+    public double value()
+    {
+      return engine.values[vertex];
+    }
+
+    /**
+     * Changes the value of the vertex.
+     *
+     * @param value the new value
+     */
+    public void setValue(double value)
+    {
+      engine.values[vertex] = value;
+    }
+
+    /**
+     * Gives the number of edges leaving the vertex.
+     *
+     * @return the vertex's out-degree
+     */
+    public int degree()
+    {
+      return engine.csr.degree(vertex);
+    }
+
+    /**
+     * Gives the destination of one of the vertex's edges.
+     *
+     * @param slot which edge, from 0 to degree() - 1
+     * @return the index of the edge's destination
+     */
+    public int neighbor(int slot)
+    {
+      return engine.csr.targets[engine.csr.offsets[vertex] + slot];
+    }
+
+    /**
+     * Gives the number of messages the vertex received.  With a
+     * combiner this is at most 1.
+     *
+     * @return the number of messages
+     */
+    public int numMessages()
+    {
+      return engine.messageCount(vertex);
+    }
+
+    /**
+     * Gives one of the messages the vertex received.
+     *
+     * @param i which message, from 0 to numMessages() - 1
+     * @return the message
+     */
+    public double message(int i)
+    {
+      return engine.message(vertex, i);
+    }
+
+    /**
+     * Sends a message that the target will receive next superstep.
+     *
+     * @param target the index of the receiving vertex
+     * @param message the message
+     */
+    public void sendTo(int target, double message)
+    {
+      engine.send(partition, target, message);
+    }
+
+    /**
+     * Sends the same message along every edge leaving the vertex.
+     *
+     * @param message the message
+     */
+    public void sendToNeighbors(double message)
+    {
+      int[] targets = engine.csr.targets;
+      int end = engine.csr.offsets[vertex + 1];
+      for (int edge = engine.csr.offsets[vertex]; edge < end; edge++)
+      {
+        engine.send(partition, targets[edge], message);
+      }
+    }
+
+    /**
+     * Marks the vertex as done.  It is skipped in later supersteps
+     * until it receives a message.
+     */
+    public void voteToHalt()
+    {
+      engine.halted[vertex] = true;
+    }
+}
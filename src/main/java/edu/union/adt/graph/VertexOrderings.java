@@ -0,0 +1,233 @@
+package edu.union.adt.graph;
+
+import java.util.Arrays;
+
+/**
+ * Computes new numberings of an IntGraphImpl's vertices that put
+ * vertices near each other in the graph near each other in memory,
+ * for GraphImpl.reorder.  Each method gives newId, where newId[v] is
+ * the new number of the vertex now numbered v.
+ *
+ * Edges are followed in both directions, so vertices that only point
+ * at each other still end up close together.
+ *
+ * @version 1
+ */
+final class VertexOrderings
+{
+    private VertexOrderings()
+    {
+
+    }
+
+    /**
+     * Numbers vertices in breadth first order, starting each new
+     * search from the lowest numbered vertex not yet reached.
+     *
+     * @param graph the graph to renumber
+     * @return the new number of every vertex
+     */
+    static int[] bfs(IntGraphImpl graph)
+    {
+      int n = graph.numVertices();
+      int[][] both = undirected(graph);
+      int[] order = new int[n];
+      boolean[] seen = new boolean[n];
+      int tail = 0;
+      for (int start = 0; start < n; start++)
+      {
+        if (!seen[start])
+        {
+          tail = search(both, start, seen, order, tail, null, null);
+        }
+      }
+      return inverse(order);
+    }
+
+    /**
+     * Reverse Cuthill-McKee: breadth first order where each search
+     * starts from an unreached vertex of lowest degree and each
+     * vertex's neighbours are taken lowest degree first, then
+     * reversed.  It keeps the numbers of every edge's ends close, which
+     * is what keeps a search's frontier in few cache lines.
+     *
+     * @param graph the graph to renumber
+     * @return the new number of every vertex
+     */
+    static int[] reverseCuthillMcKee(IntGraphImpl graph)
+    {
+      int n = graph.numVertices();
+      int[][] both = undirected(graph);
+      int[] degree = new int[n];
+      int maxDegree = 0;
+      for (int v = 0; v < n; v++)
+      {
+        degree[v] = both[v].length;
+        maxDegree = Math.max(maxDegree, degree[v]);
+      }
+      int[] byDegree = sortByDegree(degree, false);
+      long[] keys = new long[maxDegree];
+      int[] order = new int[n];
+      boolean[] seen = new boolean[n];
+      int tail = 0;
+      for (int start : byDegree)
+      {
+        if (!seen[start])
+        {
+          tail = search(both, start, seen, order, tail, degree, keys);
+        }
+      }
+      for (int i = 0, j = n - 1; i < j; i++, j--)
+      {
+        int swap = order[i];
+        order[i] = order[j];
+        order[j] = swap;
+      }
+      return inverse(order);
+    }
+
+    /**
+     * Numbers vertices from highest to lowest degree, so the hubs that
+     * most searches pass through sit together.
+     *
+     * @param graph the graph to renumber
+     * @return the new number of every vertex
+     */
+    static int[] degree(IntGraphImpl graph)
+    {
+      int n = graph.numVertices();
+      int[][] both = undirected(graph);
+      int[] degree = new int[n];
+      for (int v = 0; v < n; v++)
+      {
+        degree[v] = both[v].length;
+      }
+      return inverse(sortByDegree(degree, true));
+    }
+
+    /**
+     * Breadth first search over 'both' from 'start', appending each
+     * reached vertex to 'order'.  With 'degree' given, each vertex's
+     * unreached neighbours are queued lowest degree first, ties in
+     * number order, sorted in 'keys', which must hold the largest
+     * degree.
+     *
+     * @return the new end of 'order'
+     */
+    private static int search(int[][] both, int start, boolean[] seen, int[] order, int tail,
+                              int[] degree, long[] keys)
+    {
+      int head = tail;
+      seen[start] = true;
+      order[tail++] = start;
+      while (head < tail)
+      {
+        int u = order[head++];
+        int first = tail;
+        for (int w : both[u])
+        {
+          if (!seen[w])
+          {
+            seen[w] = true;
+            order[tail++] = w;
+          }
+        }
+        if (degree != null && tail - first > 1)
+        {
+          // Degree in the high half and number in the low half, so one
+          // primitive sort orders by both even around a hub
+          int count = tail - first;
+          for (int i = 0; i < count; i++)
+          {
+            int w = order[first + i];
+            keys[i] = (long) degree[w] << 32 | w;
+          }
+          Arrays.sort(keys, 0, count);
+          for (int i = 0; i < count; i++)
+          {
+            order[first + i] = (int) keys[i];
+          }
+        }
+      }
+      return tail;
+    }
+
+    /**
+     * Gives every vertex's neighbours along edges in either direction,
+     * each neighbour listed once per edge.
+     */
+    private static int[][] undirected(IntGraphImpl graph)
+    {
+      int n = graph.numVertices();
+      int[] size = new int[n];
+      for (int u = 0; u < n; u++)
+      {
+        int[] row = graph.row(u);
+        int degree = graph.degree(u);
+        size[u] += degree;
+        for (int slot = 0; slot < degree; slot++)
+        {
+          size[row[slot]]++;
+        }
+      }
+      int[][] both = new int[n][];
+      for (int v = 0; v < n; v++)
+      {
+        both[v] = new int[size[v]];
+      }
+      int[] fill = new int[n];
+      for (int u = 0; u < n; u++)
+      {
+        int[] row = graph.row(u);
+        int degree = graph.degree(u);
+        for (int slot = 0; slot < degree; slot++)
+        {
+          int w = row[slot];
+          both[u][fill[u]++] = w;
+          both[w][fill[w]++] = u;
+        }
+      }
+      return both;
+    }
+
+    /**
+     * Gives the vertices sorted by degree with a counting sort, ties in
+     * number order.
+     */
+    private static int[] sortByDegree(int[] degree, boolean highestFirst)
+    {
+      int n = degree.length;
+      int max = 0;
+      for (int d : degree)
+      {
+        max = Math.max(max, d);
+      }
+      int[] start = new int[max + 2];
+      for (int d : degree)
+      {
+        start[(highestFirst ? max - d : d) + 1]++;
+      }
+      for (int d = 0; d <= max; d++)
+      {
+        start[d + 1] += start[d];
+      }
+      int[] sorted = new int[n];
+      for (int v = 0; v < n; v++)
+      {
+        sorted[start[highestFirst ? max - degree[v] : degree[v]]++] = v;
+      }
+      return sorted;
+    }
+
+    // Turns a list of old numbers in new order into each old number's new number
+    private static int[] inverse(int[] order)
+    {
+      int[] newId = new int[order.length];
+      Arrays.fill(newId, -1);
+      for (int i = 0; i < order.length; i++)
+      {
+        newId[order[i]] = i;
+      }
+      return newId;
+    }
+}
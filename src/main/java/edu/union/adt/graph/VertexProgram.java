@@ -0,0 +1,47 @@
+package edu.union.adt.graph;
+
+/**
+ * The per-vertex logic of a bulk synchronous computation run by
+ * Pregel.  Every vertex holds one double value.  In each superstep,
+ * compute is called for every vertex that is active or has messages
+ * waiting; it can read those messages, update the vertex's value, send
+ * messages that arrive in the next superstep, and vote to halt.
+ *
+ * Vertices are identified by their int index in the engine's snapshot
+ * of the graph.  compute is called from several threads at once, but
+ * never for the same vertex at the same time, so a program should
+ * only touch the state of the vertex it is given.
+ *
+ * @version 1
+ */
+public abstract class VertexProgram
+{
+    /**
+     * Gives the value a vertex starts with.
+     *
+     * @param vertex the vertex index
+     * @param numVertices the number of vertices in the graph
+     * @return the starting value
+     */
+    public abstract double initialValue(int vertex, int numVertices);
+
+    /**
+     * Runs one superstep for one vertex.
+     *
+     * @param context the vertex, its messages and its value
+     */
+    public abstract void compute(VertexContext context);
+
+    /**
+     * Gives a combiner that merges the messages bound for one vertex as
+     * they are delivered, so each vertex receives at most one message
+     * per superstep.  Returns null by default, in which case every
+     * message is delivered.
+     *
+     * @return the combiner, or null for none
+     */
+    public MessageCombiner combiner()
+    {
+      return null;
+    }
+}
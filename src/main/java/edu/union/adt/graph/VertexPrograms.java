@@ -0,0 +1,90 @@
+package edu.union.adt.graph;
+
+/**
+ * Ready made vertex programs for Pregel.
+ *
+ * @version 1
+ */
+public final class VertexPrograms
+{
+    private VertexPrograms()
+    {
+
+    }
+
+    /**
+     * Computes the number of edges on the shortest path from a source
+     * to every vertex.  Unreachable vertices end with
+     * Double.POSITIVE_INFINITY.
+     *
+     * @param source the index of the start vertex
+     * @return the program
+     */
+    public static VertexProgram bfsLevels(final int source)
+    {
+      return new VertexProgram() {
+        public double initialValue(int vertex, int numVertices)
+        {
+          return vertex == source ? 0 : Double.POSITIVE_INFINITY;
+        }
+
+        public void compute(VertexContext context)
+        {
+          if (context.superstep() == 0)
+          {
+            if (context.vertex() == source)
+            {
+              context.sendToNeighbors(1);
+            }
+          }
+          else if (context.message(0) < context.value())
+          {
+            context.setValue(context.message(0));
+            context.sendToNeighbors(context.value() + 1);
+          }
+          context.voteToHalt();
+        }
+
+        public MessageCombiner combiner()
+        {
+          return MessageCombiner.MIN;
+        }
+      };
+    }
+
+    /**
+     * Labels every vertex with the smallest vertex index that can
+     * reach it.  On a graph where every edge has a reverse edge, this
+     * labels each connected component by its smallest member.
+     *
+     * @return the program
+     */
+    public static VertexProgram minLabel()
+    {
+      return new VertexProgram() {
+        public double initialValue(int vertex, int numVertices)
+        {
+          return vertex;
+        }
+
+        public void compute(VertexContext context)
+        {
+          if (context.superstep() == 0)
+          {
+            context.sendToNeighbors(context.value());
+          }
+          else if (context.message(0) < context.value())
+          {
+            context.setValue(context.message(0));
+            context.sendToNeighbors(context.value());
+          }
+          context.voteToHalt();
+        }
+
+        public MessageCombiner combiner()
+        {
+          return MessageCombiner.MIN;
+        }
+      };
+    }
+}
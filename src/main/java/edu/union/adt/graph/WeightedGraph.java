@@ -0,0 +1,14 @@
+package edu.union.adt.graph;
+
+/**
+* Interface for a Graph whose edges carry a non-negative cost
+*/
+
+public interface WeightedGraph<V> extends Graph<V> {
+
+  void addEdge(V from, V to, double weight);
+  double edgeWeight(V from, V to);
+  double weightedPathLength(V from, V to);
+  Iterable<V> getWeightedPath(V from, V to);
+
+}
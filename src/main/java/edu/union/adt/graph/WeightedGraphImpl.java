@@ -0,0 +1,697 @@
+package edu.union.adt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A directed graph whose edges carry a non-negative double weight.
+ * Edges added through the plain Graph interface get a weight of 1.
+ *
+ * Each vertex is given an int index when it is added.  The edges
+ * leaving a vertex are kept in a pair of parallel primitive arrays,
+ * one holding the destination indexes and one holding the weights, so
+ * shortest path searches run over arrays of ints and doubles rather
+ * than boxed objects.  Weighted shortest paths are found with
+ * Dijkstra's algorithm over an IndexedDaryHeap.
+ *
+ * Unlike GraphImpl, adding an edge that already exists does not add a
+ * second copy; the weight of the existing edge is replaced instead.
+ *
+ * @version 1
+ */
+public class WeightedGraphImpl<V> implements WeightedGraph<V>
+{
+    // Weight given to edges added without one
+    public static final double DEFAULT_WEIGHT = 1.0;
+
+    // Number of children per heap node used by Dijkstra searches
+    private static final int HEAP_ARITY = 4;
+
+    // Holds the vertices in the order they were added
+    private ArrayList<V> vertices;
+
+    // Maps each vertex to its position in 'vertices'
+    private Map<V, Integer> indices;
+
+    // targets[i][0 .. outDegree[i]) are the destinations of edges from vertex i
+    private int[][] targets;
+
+    // weights[i][j] is the weight of the edge to targets[i][j]
+    private double[][] weights;
+
+    // Number of edges leaving each vertex
+    private int[] outDegree;
+
+    private int edgeCount;
+
+    /**
+     * Create an empty weighted graph.
+     */
+    public WeightedGraphImpl()
+    {
+      vertices = new ArrayList<V>();
+      indices = new HashMap<V, Integer>();
+      targets = new int[8][];
+      weights = new double[8][];
+      outDegree = new int[8];
+      edgeCount = 0;
+    }
+
+    /**
+     * Gives the number of vertices in the graph.
+     *
+     * @return the number of vertices in the graph.
+     */
+    public int numVertices()
+    {
+      return vertices.size();
+    }
+
+    /**
+     * Gives the number of edges in the graph.
+     *
+     * @return the number of edges in the graph.
+     */
+    public int numEdges()
+    {
+      return edgeCount;
+    }
+
+    /**
+     * Gets the number of vertices connected by edges from a given
+     * vertex.  If the given vertex is not in the graph, throws a
+     * RuntimeException.
+     *
+     * @param vertex the vertex whose degree we want.
+     * @return the degree of vertex 'vertex'
+     */
+    public int degree(V vertex)
+    {
+      Integer index = indices.get(vertex);
+      if (index == null) {
+        throw new RuntimeException("Vertex does not exist");
+      }
+      return outDegree[index];
+    }
+
+    /**
+     * Adds a directed edge of weight DEFAULT_WEIGHT between two
+     * vertices.  If either vertex does not exist it is added first.
+     *
+     * @param from the source vertex for the added edge
+     * @param to the destination vertex for the added edge
+     */
+    public void addEdge(V from, V to)
+    {
+      addEdge(from, to, DEFAULT_WEIGHT);
+    }
+
+    /**
+     * Adds a directed edge with the given weight between two vertices.
+     * If there is already an edge between the given vertices, its
+     * weight is replaced.  If either (or both) of the given vertices
+     * does not exist, it is added to the graph before the edge is
+     * created between them.  Throws a RuntimeException if the weight
+     * is negative or not a number, since shortest path searches
+     * cannot handle such edges.
+     *
+     * @param from the source vertex for the added edge
+     * @param to the destination vertex for the added edge
+     * @param weight the cost of travelling along the edge
+     */
+    public void addEdge(V from, V to, double weight)
+    {
+      if (!(weight >= 0)) {
+        throw new RuntimeException("Edge weight must be non-negative but was " + weight);
+      }
+      int fromIndex = indexOrAdd(from);
+      int toIndex = indexOrAdd(to);
+
+      int slot = find(fromIndex, toIndex);
+      if (slot != -1)
+      {
+        weights[fromIndex][slot] = weight;
+        return;
+      }
+
+      int count = outDegree[fromIndex];
+      if (count == targets[fromIndex].length)
+      {
+        int newLength = Math.max(4, count * 2);
+        targets[fromIndex] = Arrays.copyOf(targets[fromIndex], newLength);
+        weights[fromIndex] = Arrays.copyOf(weights[fromIndex], newLength);
+      }
+      targets[fromIndex][count] = toIndex;
+      weights[fromIndex][count] = weight;
+      outDegree[fromIndex] = count + 1;
+      edgeCount++;
+    }
+
+    /**
+     * Adds a vertex to the graph.  If the vertex already exists in
+     * the graph, does nothing.
+     *
+     * @param vertex the vertex to add
+     */
+    public void addVertex(V vertex)
+    {
+      indexOrAdd(vertex);
+    }
+
+    /**
+     * Gets all vertices in the graph, in the order they were added.
+     *
+     * @return an iterable collection for the set of vertices of the
+     * graph.
+     */
+    public Iterable<V> getVertices()
+    {
+      return Collections.unmodifiableList(vertices);
+    }
+
+    /**
+     * Gets the vertices adjacent to a given vertex.  If 'from' is not a
+     * vertex in the graph, returns an empty iterable.
+     *
+     * @param from the source vertex
+     * @return an iterable collection for the set of vertices that are
+     * the destinations of edges for which 'from' is the source vertex.
+     */
+    public Iterable<V> adjacentTo(V from)
+    {
+      Integer index = indices.get(from);
+      if (index == null)
+      {
+        return Collections.<V>emptyList();
+      }
+      int count = outDegree[index];
+      int[] row = targets[index];
+      List<V> adjacent = new ArrayList<V>(count);
+      for (int i = 0; i < count; i++)
+      {
+        adjacent.add(vertices.get(row[i]));
+      }
+      return adjacent;
+    }
+
+    /**
+     * Tells whether or not a vertex is in the graph.
+     *
+     * @param vertex a vertex
+     * @return true iff 'vertex' is a vertex in the graph.
+     */
+    public boolean contains(V vertex)
+    {
+      return indices.containsKey(vertex);
+    }
+
+    /**
+     * Tells whether an edge exists in the graph connecting two vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return true iff there is an edge from the source vertex to the
+     * destination vertex in the graph.
+     */
+    public boolean hasEdge(V from, V to)
+    {
+      Integer fromIndex = indices.get(from);
+      Integer toIndex = indices.get(to);
+      if (fromIndex == null || toIndex == null)
+      {
+        return false;
+      }
+      return find(fromIndex, toIndex) != -1;
+    }
+
+    /**
+     * Gives the weight of the edge connecting two vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the weight of the edge (from, to), or NaN if there is no
+     * such edge.
+     */
+    public double edgeWeight(V from, V to)
+    {
+      Integer fromIndex = indices.get(from);
+      Integer toIndex = indices.get(to);
+      if (fromIndex == null || toIndex == null)
+      {
+        return Double.NaN;
+      }
+      int slot = find(fromIndex, toIndex);
+      if (slot == -1)
+      {
+        return Double.NaN;
+      }
+      return weights[fromIndex][slot];
+    }
+
+    /**
+     * Gives a string representation of the graph in the same format as
+     * GraphImpl.  Weights are not shown.
+     *
+     * @return the string representation of the graph
+     */
+    public String toString()
+    {
+      StringBuilder str = new StringBuilder();
+      for (int i = 0; i < vertices.size(); i++)
+      {
+        str.append(vertices.get(i)).append(":");
+        for (int j = 0; j < outDegree[i]; j++)
+        {
+          str.append(" ").append(vertices.get(targets[i][j]));
+          if (j < outDegree[i] - 1)
+          {
+            str.append(",");
+          }
+        }
+        str.append("\n");
+      }
+      return str.toString();
+    }
+
+    /**
+     * Checks if a given object is a graph with the same vertices and
+     * edges as this one.  If it is also a WeightedGraph, the edge
+     * weights must match as well.
+     *
+     * @param obj the graph to compare this graph to
+     * @return true iff the graphs are equal
+     */
+    public boolean equals(Object obj)
+    {
+      if (!(obj instanceof Graph))
+      {
+        return false;
+      }
+      @SuppressWarnings("unchecked")
+      Graph<V> other = (Graph<V>) obj;
+      if (other.numVertices() != numVertices() || other.numEdges() != numEdges())
+      {
+        return false;
+      }
+      WeightedGraph<V> weighted = null;
+      if (other instanceof WeightedGraph)
+      {
+        weighted = (WeightedGraph<V>) other;
+      }
+      for (int i = 0; i < vertices.size(); i++)
+      {
+        V vertex = vertices.get(i);
+        if (!other.contains(vertex))
+        {
+          return false;
+        }
+        for (int j = 0; j < outDegree[i]; j++)
+        {
+          V target = vertices.get(targets[i][j]);
+          if (!other.hasEdge(vertex, target))
+          {
+            return false;
+          }
+          if (weighted != null
+              && Double.compare(weighted.edgeWeight(vertex, target), weights[i][j]) != 0)
+          {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Gives a hash code consistent with equals.
+     *
+     * @return a hash code built from the vertices and edge count
+     */
+    public int hashCode()
+    {
+      int hash = edgeCount;
+      for (V vertex : vertices)
+      {
+        hash += vertex == null ? 0 : vertex.hashCode();
+      }
+      return hash;
+    }
+
+    /**
+     * Tells whether the graph is empty.
+     *
+     * @return true iff the graph has no vertices.
+     */
+    public boolean isEmpty()
+    {
+      return vertices.isEmpty();
+    }
+
+    /**
+     * Removes a vertex from the graph, along with any edges leaving or
+     * entering it.  Vertices added after it keep their relative order.
+     * Runs in time proportional to the size of the graph.
+     *
+     * @param toRemove the vertex to remove.
+     */
+    public void removeVertex(V toRemove)
+    {
+      Integer boxed = indices.remove(toRemove);
+      if (boxed == null)
+      {
+        return;
+      }
+      int removed = boxed;
+      int n = vertices.size();
+
+      edgeCount -= outDegree[removed];
+      // Close the gap left in the per-vertex arrays
+      System.arraycopy(targets, removed + 1, targets, removed, n - removed - 1);
+      System.arraycopy(weights, removed + 1, weights, removed, n - removed - 1);
+      System.arraycopy(outDegree, removed + 1, outDegree, removed, n - removed - 1);
+      targets[n - 1] = null;
+      weights[n - 1] = null;
+      outDegree[n - 1] = 0;
+      vertices.remove(removed);
+
+      // Drop edges into the removed vertex and renumber the rest
+      for (int i = 0; i < n - 1; i++)
+      {
+        int[] row = targets[i];
+        double[] rowWeights = weights[i];
+        int kept = 0;
+        for (int j = 0; j < outDegree[i]; j++)
+        {
+          int target = row[j];
+          if (target == removed)
+          {
+            edgeCount--;
+            continue;
+          }
+          row[kept] = target > removed ? target - 1 : target;
+          rowWeights[kept] = rowWeights[j];
+          kept++;
+        }
+        outDegree[i] = kept;
+      }
+      for (int i = removed; i < n - 1; i++)
+      {
+        indices.put(vertices.get(i), i);
+      }
+    }
+
+    /**
+     * Removes an edge from the graph.  Does nothing if the edge is not
+     * in the graph.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     */
+    public void removeEdge(V from, V to)
+    {
+      Integer fromIndex = indices.get(from);
+      Integer toIndex = indices.get(to);
+      if (fromIndex == null || toIndex == null)
+      {
+        return;
+      }
+      int slot = find(fromIndex, toIndex);
+      if (slot != -1)
+      {
+        int last = outDegree[fromIndex] - 1;
+        targets[fromIndex][slot] = targets[fromIndex][last];
+        weights[fromIndex][slot] = weights[fromIndex][last];
+        outDegree[fromIndex] = last;
+        edgeCount--;
+      }
+    }
+
+    /**
+     * Tells whether there is a path connecting two given vertices.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return true iff there is a path from 'from' to 'to' in the graph.
+     */
+    public boolean hasPath(V from, V to)
+    {
+      return pathLength(from, to) != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Gets the number of edges on the path with the fewest edges
+     * connecting two given vertices.  Weights are ignored; see
+     * weightedPathLength for the cheapest path.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the length of the shortest path from 'from' to 'to' in
+     * the graph.  If there is no path, returns Integer.MAX_VALUE
+     */
+    public int pathLength(V from, V to)
+    {
+      int[] path = hopPath(from, to);
+      if (path == null)
+      {
+        return Integer.MAX_VALUE;
+      }
+      return path.length - 1;
+    }
+
+    /**
+     * Returns the vertices along the path with the fewest edges
+     * connecting two given vertices, including both end points.  If
+     * there is no path, returns an empty iterable.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the vertices on the path from 'from' to 'to'
+     */
+    public Iterable<V> getPath(V from, V to)
+    {
+      return toVertices(hopPath(from, to));
+    }
+
+    /**
+     * Gives the total weight of the cheapest path connecting two
+     * vertices.  The cheapest path from a vertex to itself costs 0.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the sum of the edge weights on the cheapest path from
+     * 'from' to 'to', or Double.POSITIVE_INFINITY if there is no path.
+     */
+    public double weightedPathLength(V from, V to)
+    {
+      Integer fromIndex = indices.get(from);
+      Integer toIndex = indices.get(to);
+      if (fromIndex == null || toIndex == null)
+      {
+        return Double.POSITIVE_INFINITY;
+      }
+      double[] dist = new double[vertices.size()];
+      dijkstra(fromIndex, toIndex, dist, null);
+      return dist[toIndex];
+    }
+
+    /**
+     * Returns the vertices along the cheapest path connecting two
+     * vertices, including both end points.  If there is no path,
+     * returns an empty iterable.
+     *
+     * @param from the source vertex
+     * @param to the destination vertex
+     * @return the vertices on the cheapest path from 'from' to 'to'
+     */
+    public Iterable<V> getWeightedPath(V from, V to)
+    {
+      Integer fromIndex = indices.get(from);
+      Integer toIndex = indices.get(to);
+      if (fromIndex == null || toIndex == null)
+      {
+        return Collections.<V>emptyList();
+      }
+      int n = vertices.size();
+      double[] dist = new double[n];
+      int[] parent = new int[n];
+      dijkstra(fromIndex, toIndex, dist, parent);
+      if (dist[toIndex] == Double.POSITIVE_INFINITY)
+      {
+        return Collections.<V>emptyList();
+      }
+      return toVertices(tracePath(parent, fromIndex, toIndex));
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a source until the target is
+     * settled.  Afterwards dist[target] holds the cheapest cost, or
+     * infinity if the target cannot be reached.
+     *
+     * @param source index of the start vertex
+     * @param target index of the end vertex
+     * @param dist filled with tentative distances
+     * @param parent if not null, filled with the predecessor of each
+     * reached vertex
+     */
+    private void dijkstra(int source, int target, double[] dist, int[] parent)
+    {
+      Arrays.fill(dist, Double.POSITIVE_INFINITY);
+      dist[source] = 0;
+      if (parent != null)
+      {
+        parent[source] = -1;
+      }
+      IndexedDaryHeap heap = new IndexedDaryHeap(HEAP_ARITY, dist.length);
+      heap.offer(source, 0);
+
+      while (!heap.isEmpty())
+      {
+        int u = heap.poll();
+        if (u == target)
+        {
+          return;
+        }
+        double du = dist[u];
+        int[] row = targets[u];
+        double[] rowWeights = weights[u];
+        for (int j = 0; j < outDegree[u]; j++)
+        {
+          int v = row[j];
+          double candidate = du + rowWeights[j];
+          if (candidate < dist[v])
+          {
+            dist[v] = candidate;
+            if (parent != null)
+            {
+              parent[v] = u;
+            }
+            heap.offer(v, candidate);
+          }
+        }
+      }
+    }
+
+    /**
+     * Finds the path with the fewest edges using a breadth first search
+     * over the index arrays.
+     *
+     * @return the indexes on the path, or null if there is none
+     */
+    private int[] hopPath(V from, V to)
+    {
+      Integer fromIndex = indices.get(from);
+      Integer toIndex = indices.get(to);
+      if (fromIndex == null || toIndex == null)
+      {
+        return null;
+      }
+      int source = fromIndex;
+      int target = toIndex;
+      if (source == target)
+      {
+        return new int[] { source };
+      }
+
+      int n = vertices.size();
+      int[] parent = new int[n];
+      Arrays.fill(parent, -2);
+      parent[source] = -1;
+      int[] queue = new int[n];
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = source;
+
+      while (head < tail)
+      {
+        int u = queue[head++];
+        int[] row = targets[u];
+        for (int j = 0; j < outDegree[u]; j++)
+        {
+          int v = row[j];
+          if (parent[v] == -2)
+          {
+            parent[v] = u;
+            if (v == target)
+            {
+              return tracePath(parent, source, target);
+            }
+            queue[tail++] = v;
+          }
+        }
+      }
+      return null;
+    }
+
+    // Follows parent links back from target and returns the path in order
+    private int[] tracePath(int[] parent, int source, int target)
+    {
+      int length = 1;
+      for (int v = target; v != source; v = parent[v])
+      {
+        length++;
+      }
+      int[] path = new int[length];
+      int v = target;
+      for (int i = length - 1; i >= 0; i--)
+      {
+        path[i] = v;
+        v = parent[v];
+      }
+      return path;
+    }
+
+    private Iterable<V> toVertices(int[] path)
+    {
+      if (path == null)
+      {
+        return Collections.<V>emptyList();
+      }
+      List<V> result = new ArrayList<V>(path.length);
+      for (int index : path)
+      {
+        result.add(vertices.get(index));
+      }
+      return result;
+    }
+
+    // Gives the slot of 'to' among the edges leaving 'from', or -1
+    private int find(int from, int to)
+    {
+      int[] row = targets[from];
+      for (int j = 0; j < outDegree[from]; j++)
+      {
+        if (row[j] == to)
+        {
+          return j;
+        }
+      }
+      return -1;
+    }
+
+    private int indexOrAdd(V vertex)
+    {
+      Integer index = indices.get(vertex);
+      if (index != null)
+      {
+        return index;
+      }
+      int added = vertices.size();
+      if (added == outDegree.length)
+      {
+        int newLength = added * 2;
+        targets = Arrays.copyOf(targets, newLength);
+        weights = Arrays.copyOf(weights, newLength);
+        outDegree = Arrays.copyOf(outDegree, newLength);
+      }
+      vertices.add(vertex);
+      indices.put(vertex, added);
+      targets[added] = new int[0];
+      weights[added] = new double[0];
+      outDegree[added] = 0;
+      return added;
+    }
+}
@@ -9,7 +9,32 @@ import org.junit.runners.Suite;
     SimpleGraphTests.class,
     GraphTestsUsingEquals.class,
     AdditionalTests.class,
-    ExtendedAPITests.class
+    ExtendedAPITests.class,
+    WeightedGraphTests.class,
+    LandmarkIndexTests.class,
+    ComponentsTests.class,
+    TopologicalOrderTests.class,
+    ShardedGraphTests.class,
+    PregelTests.class,
+    PageRankTests.class,
+    GraphQueryServerTests.class,
+    DurableGraphTests.class,
+    CompressedGraphTests.class,
+    IntGraphTests.class,
+    GraphFactoryTests.class,
+    BitMatrixGraphTests.class,
+    MultiSourceBfsTests.class,
+    ObservableGraphTests.class,
+    GraphViewTests.class,
+    GraphPatchTests.class,
+    DifferentialFuzzTests.class,
+    MemoryReportTests.class,
+    GraphGeneratorTests.class,
+    PathEnumeratorTests.class,
+    GraphStreamTests.class,
+    GraphReorderTests.class,
+    TrianglesTests.class,
+    AsyncPathQueriesTests.class
 })
 public class GraphTestSuite
 { // no implementation needed; above annotations do the work.
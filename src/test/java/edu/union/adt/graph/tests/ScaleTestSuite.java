@@ -0,0 +1,14 @@
+package edu.union.adt.graph.tests;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses
+({
+    ScalingTests.class,
+    ReorderBenchmarkTests.class
+})
+public class ScaleTestSuite
+{ // no implementation needed; above annotations do the work.
+}
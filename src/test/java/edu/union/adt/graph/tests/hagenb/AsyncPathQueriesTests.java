@@ -0,0 +1,234 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+
+@RunWith(JUnit4.class)
+public class AsyncPathQueriesTests
+{
+  /**
+   * A view of a long chain whose first edge check waits for a latch,
+   * so a search over it stays busy until the test lets it go on.
+   */
+  private static GraphView<Integer> blockingChain(final CountDownLatch started,
+                                                  final CountDownLatch release)
+  {
+    return GraphView.filtered(GraphGenerator.chain(100000).toGraph(), new BiPredicate<Integer, Integer>() {
+      public boolean test(Integer from, Integer to)
+      {
+        started.countDown();
+        try {
+          release.await();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return true;
+      }
+    });
+  }
+
+  @Test
+  public void testAnswers() throws Exception
+  {
+    GraphImpl<String> g = new GraphImpl<String>();
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("a", "d");
+    g.addEdge("d", "c");
+    g.addVertex("lone");
+    AsyncPathQueries<String> queries = new AsyncPathQueries<String>(g, 2, 8);
+
+    PathResult<String> found = queries.getPath("a", "c").get();
+    assertEquals(PathResult.Status.FOUND, found.getStatus());
+    assertEquals(Arrays.asList("a", "b", "c"), found.getPath());
+    assertEquals(2, found.getLength());
+
+    assertEquals(PathResult.Status.NO_PATH, queries.getPath("c", "a").get().getStatus());
+    assertEquals(Integer.MAX_VALUE, queries.getPath("a", "lone").get().getLength());
+    assertEquals(PathResult.Status.NO_PATH, queries.getPath("a", "missing").get().getStatus());
+    assertEquals(Arrays.asList("b"), queries.getPath("b", "b").get().getPath());
+    queries.close();
+  }
+
+  @Test
+  public void testMatchesGraphFromManyThreads() throws Exception
+  {
+    GraphImpl<Integer> g = GraphGenerator.erdosRenyi(2000, 2.0 / 1999, 50).toGraph();
+    GraphView<Integer> view = GraphView.induced(g, g.getVertices());
+    AsyncPathQueries<Integer> onImpl = new AsyncPathQueries<Integer>(g, 4, 256);
+    AsyncPathQueries<Integer> onView = new AsyncPathQueries<Integer>(view, 4, 256);
+    Random random = new Random(50);
+    List<int[]> pairs = new ArrayList<int[]>();
+    List<CompletableFuture<PathResult<Integer>>> fromImpl = new ArrayList<CompletableFuture<PathResult<Integer>>>();
+    List<CompletableFuture<PathResult<Integer>>> fromView = new ArrayList<CompletableFuture<PathResult<Integer>>>();
+    for (int k = 0; k < 200; k++) {
+      int[] pair = {random.nextInt(2000), random.nextInt(2000)};
+      pairs.add(pair);
+      fromImpl.add(onImpl.getPath(pair[0], pair[1]));
+      fromView.add(onView.getPath(pair[0], pair[1]));
+    }
+    for (int k = 0; k < pairs.size(); k++) {
+      int expected = g.pathLength(pairs.get(k)[0], pairs.get(k)[1]);
+      assertEquals(expected, fromImpl.get(k).get().getLength());
+      assertEquals(expected, fromView.get(k).get().getLength());
+      List<Integer> path = fromImpl.get(k).get().getPath();
+      for (int i = 0; i + 1 < path.size(); i++) {
+        assertTrue(g.hasEdge(path.get(i), path.get(i + 1)));
+      }
+    }
+    onImpl.close();
+    onView.close();
+  }
+
+  @Test
+  public void testBudgetsAndDeadline() throws Exception
+  {
+    GraphImpl<Integer> chain = GraphGenerator.chain(10000).toGraph();
+    AsyncPathQueries<Integer> queries = new AsyncPathQueries<Integer>(chain, 1, 4);
+
+    PathResult<Integer> vertices = queries.getPath(0, 9999, new SearchLimits().setMaxVertices(100)).get();
+    assertEquals(PathResult.Status.BUDGET_EXCEEDED, vertices.getStatus());
+    assertEquals(100, vertices.getVisitedVertices());
+    assertEquals(-1, vertices.getLength());
+    assertTrue(vertices.getPath().isEmpty());
+
+    PathResult<Integer> edges = queries.getPath(0, 9999, new SearchLimits().setMaxEdges(40)).get();
+    assertEquals(PathResult.Status.BUDGET_EXCEEDED, edges.getStatus());
+    assertEquals(40, edges.getVisitedEdges());
+
+    PathResult<Integer> enough = queries.getPath(0, 50, new SearchLimits().setMaxVertices(50)).get();
+    assertEquals(50, enough.getLength());
+
+    PathResult<Integer> late = queries.getPath(0, 9999, new SearchLimits().setDeadline(0, TimeUnit.SECONDS)).get();
+    assertEquals(PathResult.Status.DEADLINE_EXCEEDED, late.getStatus());
+
+    PathResult<Integer> onTime = queries.getPath(0, 9999, new SearchLimits().setDeadline(1, TimeUnit.MINUTES)).get();
+    assertEquals(9999, onTime.getLength());
+    queries.close();
+  }
+
+  @Test
+  public void testDeadlineInsideHubEdges() throws Exception
+  {
+    GraphImpl<Integer> star = new GraphImpl<Integer>();
+    for (int v = 1; v <= 5000; v++) {
+      star.addEdge(0, v);
+    }
+    star.addVertex(-1);
+    // Listing the hub's edges outlasts the deadline
+    final CountDownLatch once = new CountDownLatch(1);
+    GraphView<Integer> slowStar = GraphView.filtered(star, new BiPredicate<Integer, Integer>() {
+      public boolean test(Integer from, Integer to)
+      {
+        if (once.getCount() > 0) {
+          once.countDown();
+          try {
+            Thread.sleep(300);
+          }
+          catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return true;
+      }
+    });
+    AsyncPathQueries<Integer> queries = new AsyncPathQueries<Integer>(slowStar, 1, 4);
+
+    PathResult<Integer> late =
+      queries.getPath(0, -1, new SearchLimits().setDeadline(100, TimeUnit.MILLISECONDS)).get();
+    assertEquals(PathResult.Status.DEADLINE_EXCEEDED, late.getStatus());
+    assertTrue("Stopped inside the hub's edges after " + late.getVisitedEdges(),
+               late.getVisitedEdges() <= AsyncPathQueries.CHECK_INTERVAL);
+    queries.close();
+  }
+
+  @Test
+  public void testCancelFreesThread() throws Exception
+  {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AsyncPathQueries<Integer> queries = new AsyncPathQueries<Integer>(blockingChain(started, release), 1, 4);
+
+    CompletableFuture<PathResult<Integer>> endless = queries.getPath(0, 99999);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    CompletableFuture<PathResult<Integer>> next = queries.getPath(0, 3);
+    assertTrue(endless.cancel(true));
+    release.countDown();
+
+    // The only thread gives up the cancelled search and takes the next
+    assertEquals(3, next.get(10, TimeUnit.SECONDS).getLength());
+    assertTrue(endless.isCancelled());
+    queries.close();
+  }
+
+  @Test
+  public void testFullQueueRejects() throws Exception
+  {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AsyncPathQueries<Integer> queries = new AsyncPathQueries<Integer>(blockingChain(started, release), 1, 1);
+
+    CompletableFuture<PathResult<Integer>> running = queries.getPath(0, 5);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    CompletableFuture<PathResult<Integer>> queued = queries.getPath(0, 6);
+    CompletableFuture<PathResult<Integer>> turnedAway = queries.getPath(0, 7);
+    assertEquals(1, queries.numQueued());
+    try {
+      turnedAway.get();
+      fail("A query beyond the queue's capacity should be rejected");
+    }
+    catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+    assertEquals(1, queries.numRejected());
+
+    release.countDown();
+    assertEquals(5, running.get(10, TimeUnit.SECONDS).getLength());
+    assertEquals(6, queued.get(10, TimeUnit.SECONDS).getLength());
+    queries.close();
+  }
+
+  @Test
+  public void testCloseCancelsWaiting() throws Exception
+  {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AsyncPathQueries<Integer> queries = new AsyncPathQueries<Integer>(blockingChain(started, release), 1, 4);
+
+    CompletableFuture<PathResult<Integer>> running = queries.getPath(0, 99999);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    CompletableFuture<PathResult<Integer>> waiting = queries.getPath(0, 2);
+    queries.close();
+    release.countDown();
+
+    assertTrue(waiting.isCancelled());
+    try {
+      running.get(10, TimeUnit.SECONDS);
+      fail("A search running at close should be cancelled");
+    }
+    catch (CancellationException e) {
+      assertTrue(running.isCancelled());
+    }
+    assertTrue(queries.getPath(0, 1).isCompletedExceptionally());
+  }
+}
@@ -0,0 +1,145 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class BitMatrixGraphTests
+{
+  private BitMatrixGraph<String> g;
+
+  @Before
+  public void setUp()
+  {
+    g = new BitMatrixGraph<String>();
+  }
+
+  private static <V> List<V> listOf(Iterable<V> items)
+  {
+    List<V> list = new ArrayList<V>();
+    for (V item : items) {
+      list.add(item);
+    }
+    return list;
+  }
+
+  @Test
+  public void testEdges()
+  {
+    g.addEdge("a", "b");
+    g.addEdge("a", "c");
+    g.addEdge("a", "b");
+    g.addEdge("c", "c");
+
+    assertEquals(3, g.numVertices());
+    assertEquals("A repeated edge is stored once", 3, g.numEdges());
+    assertEquals(2, g.degree("a"));
+    assertTrue(g.hasEdge("c", "c"));
+    assertFalse(g.hasEdge("b", "a"));
+    assertEquals("[b, c]", listOf(g.adjacentTo("a")).toString());
+
+    g.removeEdge("a", "b");
+    assertFalse(g.hasEdge("a", "b"));
+    assertEquals(2, g.numEdges());
+  }
+
+  @Test
+  public void testRemoveVertexFreesSlot()
+  {
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("c", "b");
+    g.addEdge("b", "b");
+
+    g.removeVertex("b");
+
+    assertEquals(2, g.numVertices());
+    assertEquals("Edges to and from b are gone", 0, g.numEdges());
+    assertFalse(g.contains("b"));
+
+    g.addEdge("d", "a");
+    assertEquals("The new vertex takes b's slot", "[a, d, c]", listOf(g.getVertices()).toString());
+    assertEquals(0, g.degree("a"));
+    assertTrue(g.hasEdge("d", "a"));
+  }
+
+  @Test
+  public void testPaths()
+  {
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("c", "d");
+    g.addEdge("a", "c");
+    g.addVertex("lonely");
+
+    assertEquals("[a, c, d]", listOf(g.getPath("a", "d")).toString());
+    assertEquals(2, g.pathLength("a", "d"));
+    assertEquals(0, g.pathLength("b", "b"));
+    assertTrue(g.hasPath("a", "d"));
+    assertFalse(g.hasPath("d", "a"));
+    assertEquals(Integer.MAX_VALUE, g.pathLength("a", "lonely"));
+    assertEquals(0, listOf(g.getPath("a", "nope")).size());
+  }
+
+  @Test
+  public void testMatchesAdjacencyList()
+  {
+    // Grows past one word per row and matches GraphImpl on paths
+    Random random = new Random(38);
+    Graph<Integer> list = new GraphFactory<Integer>().setDuplicates(GraphFactory.Duplicates.IGNORE)
+      .createGraph();
+    BitMatrixGraph<Integer> matrix = new BitMatrixGraph<Integer>(8);
+    int n = 300;
+    for (int i = 0; i < n * 6; i++) {
+      int from = random.nextInt(n);
+      int to = random.nextInt(n);
+      list.addEdge(from, to);
+      matrix.addEdge(from, to);
+    }
+
+    assertEquals(list.numVertices(), matrix.numVertices());
+    assertEquals(list.numEdges(), matrix.numEdges());
+    assertTrue(matrix.equals(list));
+    for (int k = 0; k < 200; k++) {
+      int from = random.nextInt(n);
+      int to = random.nextInt(n);
+      if (!list.contains(from) || !list.contains(to)) {
+        continue;
+      }
+      assertEquals("Path length from " + from + " to " + to,
+                   list.pathLength(from, to), matrix.pathLength(from, to));
+      List<Integer> path = listOf(matrix.getPath(from, to));
+      if (from != to && !path.isEmpty()) {
+        assertEquals(matrix.pathLength(from, to), path.size() - 1);
+        for (int i = 0; i + 1 < path.size(); i++) {
+          assertTrue(matrix.hasEdge(path.get(i), path.get(i + 1)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFactoryPicksMatrixWhenDense()
+  {
+    GraphFactory<String> factory = new GraphFactory<String>()
+      .setExpectedVertices(1000).setExpectedEdges(100000);
+
+    assertEquals(GraphFactory.Backend.DENSE_MATRIX, factory.chooseBackend());
+    assertTrue(factory.createGraph() instanceof BitMatrixGraph);
+    assertEquals("Sparse hints keep the adjacency list",
+                 GraphFactory.Backend.ADJACENCY_LIST,
+                 factory.setExpectedEdges(3000).chooseBackend());
+  }
+}
@@ -0,0 +1,102 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.Arrays;
+
+@RunWith(JUnit4.class)
+public class ComponentsTests
+{
+  private Graph<String> g;
+
+  @Before
+  public void setUp()
+  {
+    g = new GraphFactory<String>().createGraph();
+  }
+
+  @Test
+  public void testStrongComponents()
+  {
+    // Two cycles joined by a one-way edge, plus a lone vertex
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("c", "a");
+    g.addEdge("c", "d");
+    g.addEdge("d", "e");
+    g.addEdge("e", "d");
+    g.addVertex("f");
+
+    Components<String> strong = Components.strong(g);
+
+    assertEquals("Three strong components", 3, strong.count());
+    assertTrue("A cycle is one component", strong.together("a", "c"));
+    assertTrue("A two-cycle is one component", strong.together("d", "e"));
+    assertFalse("A one-way edge does not join components", strong.together("c", "d"));
+    assertTrue("Components are in reverse topological order",
+               strong.componentOf("a") > strong.componentOf("d"));
+    assertEquals("Missing vertices have no component", -1, strong.componentOf("z"));
+    assertEquals("Members are listed in vertex order",
+                 "[a, b, c]", strong.members(strong.componentOf("b")).toString());
+  }
+
+  @Test
+  public void testWeakComponents()
+  {
+    g.addEdge("a", "b");
+    g.addEdge("c", "b");
+    g.addEdge("d", "e");
+
+    Components<String> weak = Components.weak(g);
+
+    assertEquals("Two weak components", 2, weak.count());
+    assertTrue("Direction is ignored", weak.together("a", "c"));
+    assertFalse("Separate pieces stay apart", weak.together("a", "d"));
+    assertEquals("Labels follow vertex order",
+                 "[0, 0, 0, 1, 1]", Arrays.toString(weak.labels()));
+  }
+
+  @Test
+  public void testWeakComponentsFollowChanges()
+  {
+    g.addEdge("a", "b");
+    g.addEdge("c", "d");
+    assertFalse("No path between pieces", g.hasPath("a", "d"));
+
+    g.addEdge("b", "c");
+    assertTrue("Adding an edge joins pieces", g.hasPath("a", "d"));
+    assertEquals("One weak component", 1, Components.weak(g).count());
+
+    g.removeEdge("b", "c");
+    assertFalse("Removing the edge splits them again", g.hasPath("a", "d"));
+    assertEquals("Two weak components", 2, Components.weak(g).count());
+  }
+
+  @Test
+  public void testDeepChainDoesNotOverflow()
+  {
+    WeightedGraph<Integer> chain = new WeightedGraphImpl<Integer>();
+    int length = 200000;
+    for (int i = 0; i < length; i++) {
+      chain.addEdge(i, i + 1);
+    }
+    chain.addEdge(length, 0);
+
+    assertEquals("A long cycle is one strong component",
+                 1, Components.strong(chain).count());
+    chain.removeEdge(length, 0);
+    assertEquals("A long chain is all separate strong components",
+                 length + 1, Components.strong(chain).count());
+    assertEquals("A long chain is one weak component",
+                 1, Components.weak(chain).count());
+  }
+}
@@ -0,0 +1,171 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class CompressedGraphTests
+{
+  private Graph<String> g;
+
+  @Before
+  public void setUp()
+  {
+    g = new GraphFactory<String>().createGraph();
+  }
+
+  @Test
+  public void testSameGraph()
+  {
+    g.addEdge("a", "c");
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("c", "a");
+    g.addEdge("c", "d");
+    g.addVertex("e");
+
+    CompressedGraph<String> c = CompressedGraph.of(g);
+
+    assertEquals(5, c.numVertices());
+    assertEquals(5, c.numEdges());
+    assertEquals(2, c.degree("a"));
+    assertEquals(0, c.degree("e"));
+    assertTrue(c.hasEdge("c", "d"));
+    assertFalse(c.hasEdge("d", "c"));
+    assertEquals("Neighbours come back in vertex order",
+                 "[c, b]", listOf(c.adjacentTo("a")).toString());
+    assertTrue("Equal to the graph it came from", c.equals(g));
+    assertEquals(2, c.pathLength("b", "d"));
+    assertEquals("[b, c, d]", listOf(c.getPath("b", "d")).toString());
+    assertFalse(c.hasPath("d", "a"));
+  }
+
+  private static <V> List<V> listOf(Iterable<V> items)
+  {
+    List<V> list = new ArrayList<V>();
+    for (V item : items) {
+      list.add(item);
+    }
+    return list;
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testReadOnly()
+  {
+    g.addEdge("a", "b");
+    CompressedGraph.of(g).addEdge("b", "a");
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testDegreeOfMissingVertex()
+  {
+    g.addEdge("a", "b");
+    CompressedGraph.of(g).degree("z");
+  }
+
+  @Test
+  public void testRandomGraphMatches()
+  {
+    Random random = new Random(35);
+    Graph<Integer> source = new WeightedGraphImpl<Integer>();
+    int n = 400;
+    for (int i = 0; i < n; i++) {
+      source.addVertex(i);
+    }
+    for (int i = 0; i < n; i++) {
+      // Mostly nearby neighbours, some far ones, and repeated lists
+      int degree = random.nextInt(12);
+      for (int j = 0; j < degree; j++) {
+        int to = random.nextInt(4) == 0 ? random.nextInt(n)
+          : Math.min(n - 1, Math.max(0, i + random.nextInt(20) - 10));
+        source.addEdge(i, to);
+      }
+      if (i > 0 && random.nextInt(3) == 0) {
+        for (Integer to : source.adjacentTo(i - 1)) {
+          source.addEdge(i, to);
+        }
+      }
+    }
+
+    for (int window : new int[] { 0, 1, 7 }) {
+      CompressedGraph<Integer> c = CompressedGraph.of(source, window, 2);
+      assertEquals(source.numEdges(), c.numEdges());
+      for (int i = 0; i < n; i++) {
+        List<Integer> expected = listOf(source.adjacentTo(i));
+        Collections.sort(expected);
+        assertEquals("Neighbours of " + i + " with window " + window,
+                     expected, listOf(c.adjacentTo(i)));
+        assertEquals(expected.size(), c.degree(i));
+      }
+      for (int k = 0; k < 50; k++) {
+        int from = random.nextInt(n);
+        int to = random.nextInt(n);
+        assertEquals("Path length from " + from + " to " + to,
+                     source.pathLength(from, to), c.pathLength(from, to));
+      }
+    }
+  }
+
+  @Test
+  public void testLocalGraphCompresses()
+  {
+    // Every vertex links to the next few, so the gaps are all small
+    Graph<Integer> ring = new WeightedGraphImpl<Integer>();
+    int n = 5000;
+    for (int i = 0; i < n; i++) {
+      for (int j = 1; j <= 8; j++) {
+        ring.addEdge(i, (i + j) % n);
+      }
+    }
+    CompressedGraph<Integer> c = CompressedGraph.of(ring);
+
+    assertTrue("Small gaps take a byte or less: " + c.bitsPerEdge(),
+               c.bitsPerEdge() < 11);
+    assertEquals(n / 2 / 8 + (n / 2 % 8 == 0 ? 0 : 1), c.pathLength(0, n / 2));
+    assertTrue(c.equals(ring));
+  }
+
+  @Test
+  public void testSharedListsUseReferences()
+  {
+    // Groups of pages that all link to the same scattered set of pages
+    Random random = new Random(8);
+    Graph<Integer> site = new WeightedGraphImpl<Integer>();
+    int n = 2000;
+    for (int i = 0; i < n; i++) {
+      site.addVertex(i);
+    }
+    for (int group = 0; group < n; group += 10) {
+      List<Integer> links = new ArrayList<Integer>();
+      for (int k = 0; k < 40; k++) {
+        links.add(random.nextInt(n));
+      }
+      for (int i = group; i < group + 10; i++) {
+        for (Integer to : links) {
+          site.addEdge(i, to);
+        }
+      }
+    }
+
+    CompressedGraph<Integer> plain = CompressedGraph.of(site, 0, 0);
+    CompressedGraph<Integer> referenced = CompressedGraph.of(site);
+
+    assertTrue("Copies cost a few bytes per list: " + referenced.bitsPerEdge(),
+               referenced.bitsPerEdge() < plain.bitsPerEdge() / 4);
+    assertTrue(referenced.equals(site));
+    assertTrue(plain.equals(referenced));
+  }
+}
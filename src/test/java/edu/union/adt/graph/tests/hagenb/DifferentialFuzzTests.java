@@ -0,0 +1,315 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiPredicate;
+
+/**
+ * Runs the same random changes against every backend and a simple
+ * reference model, and checks after each change that the backend
+ * answers every query the way the model does.
+ */
+@RunWith(JUnit4.class)
+public class DifferentialFuzzTests
+{
+  private static final int VERTICES = 24;
+  private static final int STEPS = 1500;
+
+  private Path dir;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    dir = Files.createTempDirectory("fuzz-graph");
+  }
+
+  @After
+  public void tearDown()
+  {
+    File[] files = dir.toFile().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    dir.toFile().delete();
+  }
+
+  /**
+   * The reference: each vertex's destinations as a list, in insertion
+   * order.  With 'once' set, an edge that is already there is not
+   * added again.
+   */
+  private static class Model
+  {
+    final boolean once;
+    final Map<Integer, List<Integer>> adjacent = new LinkedHashMap<Integer, List<Integer>>();
+
+    Model(boolean once)
+    {
+      this.once = once;
+    }
+
+    void addVertex(int v)
+    {
+      if (!adjacent.containsKey(v)) {
+        adjacent.put(v, new ArrayList<Integer>());
+      }
+    }
+
+    void addEdge(int from, int to)
+    {
+      addVertex(from);
+      addVertex(to);
+      if (!once || !adjacent.get(from).contains(to)) {
+        adjacent.get(from).add(to);
+      }
+    }
+
+    void removeEdge(int from, int to)
+    {
+      if (adjacent.containsKey(from) && adjacent.containsKey(to)) {
+        adjacent.get(from).remove(Integer.valueOf(to));
+      }
+    }
+
+    void removeVertex(int v)
+    {
+      if (adjacent.remove(v) != null) {
+        for (List<Integer> list : adjacent.values()) {
+          while (list.remove(Integer.valueOf(v))) {
+          }
+        }
+      }
+    }
+
+    int numEdges()
+    {
+      int count = 0;
+      for (List<Integer> list : adjacent.values()) {
+        count += list.size();
+      }
+      return count;
+    }
+
+    int pathLength(int from, int to)
+    {
+      if (!adjacent.containsKey(from) || !adjacent.containsKey(to)) {
+        return Integer.MAX_VALUE;
+      }
+      Map<Integer, Integer> distance = new HashMap<Integer, Integer>();
+      ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+      distance.put(from, 0);
+      queue.add(from);
+      while (!queue.isEmpty()) {
+        int v = queue.remove();
+        if (v == to) {
+          return distance.get(v);
+        }
+        for (int w : adjacent.get(v)) {
+          if (!distance.containsKey(w)) {
+            distance.put(w, distance.get(v) + 1);
+            queue.add(w);
+          }
+        }
+      }
+      return Integer.MAX_VALUE;
+    }
+  }
+
+  private static List<Integer> sorted(Iterable<Integer> items)
+  {
+    List<Integer> list = new ArrayList<Integer>();
+    for (Integer item : items) {
+      list.add(item);
+    }
+    Collections.sort(list);
+    return list;
+  }
+
+  private static void assertMatches(String name, Model model, Graph<Integer> graph, Random random)
+  {
+    assertEquals(name + " vertices", sorted(model.adjacent.keySet()), sorted(graph.getVertices()));
+    assertEquals(name + " edges", model.numEdges(), graph.numEdges());
+    assertEquals(name + " isEmpty", model.adjacent.isEmpty(), graph.isEmpty());
+    for (Map.Entry<Integer, List<Integer>> entry : model.adjacent.entrySet()) {
+      int v = entry.getKey();
+      assertTrue(name + " contains " + v, graph.contains(v));
+      assertEquals(name + " degree of " + v, entry.getValue().size(), graph.degree(v));
+      assertEquals(name + " adjacent to " + v, sorted(entry.getValue()), sorted(graph.adjacentTo(v)));
+    }
+    for (int k = 0; k < 10; k++) {
+      int from = random.nextInt(VERTICES + 2);
+      int to = random.nextInt(VERTICES + 2);
+      boolean edge = model.adjacent.containsKey(from) && model.adjacent.get(from).contains(to);
+      assertEquals(name + " hasEdge " + from + " " + to, edge, graph.hasEdge(from, to));
+      if (from == to || !model.adjacent.containsKey(from)) {
+        continue;
+      }
+      int length = model.pathLength(from, to);
+      assertEquals(name + " pathLength " + from + " " + to, length, graph.pathLength(from, to));
+      assertEquals(name + " hasPath " + from + " " + to, length != Integer.MAX_VALUE,
+                   graph.hasPath(from, to));
+      List<Integer> path = new ArrayList<Integer>();
+      for (Integer v : graph.getPath(from, to)) {
+        path.add(v);
+      }
+      if (length == Integer.MAX_VALUE) {
+        assertEquals(name + " getPath " + from + " " + to, 0, path.size());
+      }
+      else {
+        assertEquals(name + " getPath " + from + " " + to, length + 1, path.size());
+        assertEquals((Integer) from, path.get(0));
+        assertEquals((Integer) to, path.get(path.size() - 1));
+        for (int i = 0; i + 1 < path.size(); i++) {
+          assertTrue(name + " path edge", model.adjacent.get(path.get(i)).contains(path.get(i + 1)));
+        }
+      }
+    }
+  }
+
+  /**
+   * Makes the same seeded changes to a graph and a model, checking
+   * after each one.  Every few steps the graph is also frozen and
+   * viewed, and the read-only copies are checked against the model;
+   * a GraphImpl is also reordered, which must not change anything.
+   */
+  private static void fuzz(String name, Graph<Integer> graph, boolean once, long seed)
+  {
+    Random random = new Random(seed);
+    Random queries = new Random(seed + 1);
+    Model model = new Model(once);
+    for (int step = 0; step < STEPS; step++) {
+      int from = random.nextInt(VERTICES);
+      int to = random.nextInt(VERTICES);
+      int op = random.nextInt(20);
+      if (op < 10) {
+        graph.addEdge(from, to);
+        model.addEdge(from, to);
+      }
+      else if (op < 14) {
+        graph.removeEdge(from, to);
+        model.removeEdge(from, to);
+      }
+      else if (op < 16) {
+        graph.removeVertex(from);
+        model.removeVertex(from);
+      }
+      else {
+        graph.addVertex(from);
+        model.addVertex(from);
+      }
+      assertMatches(name + " at step " + step, model, graph, queries);
+      if (step % 100 == 99) {
+        assertMatches(name + " frozen at step " + step, model, CompressedGraph.of(graph), queries);
+      }
+      if (step % 100 == 49 && graph instanceof GraphImpl) {
+        GraphImpl.Ordering[] orderings = GraphImpl.Ordering.values();
+        ((GraphImpl<Integer>) graph).reorder(orderings[step / 100 % orderings.length]);
+        List<Integer> order = new ArrayList<Integer>();
+        for (Integer v : graph.getVertices()) {
+          order.add(v);
+        }
+        assertEquals(name + " order after reorder", new ArrayList<Integer>(model.adjacent.keySet()), order);
+        assertMatches(name + " reordered at step " + step, model, graph, queries);
+      }
+    }
+  }
+
+  @Test
+  public void testAdjacencyList()
+  {
+    fuzz("GraphImpl", new GraphImpl<Integer>(), false, 1);
+  }
+
+  @Test
+  public void testDenseMatrix()
+  {
+    fuzz("BitMatrixGraph", new BitMatrixGraph<Integer>(4), true, 2);
+  }
+
+  @Test
+  public void testSharded()
+  {
+    fuzz("ShardedGraph", new ShardedGraph<Integer>(4), true, 3);
+  }
+
+  @Test
+  public void testWeighted()
+  {
+    fuzz("WeightedGraphImpl", new WeightedGraphImpl<Integer>(), true, 4);
+  }
+
+  @Test
+  public void testFactoryPolicies()
+  {
+    fuzz("IGNORE duplicates", new GraphFactory<Integer>().setDuplicates(GraphFactory.Duplicates.IGNORE)
+         .createGraph(), true, 5);
+    fuzz("instrumented", new GraphFactory<Integer>().setInstrumented(true).createGraph(), false, 6);
+  }
+
+  @Test
+  public void testWrappers()
+  {
+    ObservableGraph<Integer> observable = ObservableGraph.synchronous(new GraphImpl<Integer>(), 16);
+    fuzz("ObservableGraph", observable, false, 7);
+    observable.close();
+  }
+
+  @Test
+  public void testDurableSurvivesReopen() throws IOException
+  {
+    DurableGraph<Integer> durable = DurableGraph.open(dir, VertexCodec.INTEGER, new GraphImpl<Integer>(),
+                                                      0, 500);
+    fuzz("DurableGraph", durable, false, 8);
+    String before = sorted(durable.getVertices()) + " " + durable.numEdges();
+    durable.close();
+
+    DurableGraph<Integer> reopened = DurableGraph.open(dir, VertexCodec.INTEGER, new GraphImpl<Integer>());
+    assertEquals(before, sorted(reopened.getVertices()) + " " + reopened.numEdges());
+    reopened.close();
+  }
+
+  @Test
+  public void testWholeGraphView()
+  {
+    GraphImpl<Integer> graph = new GraphImpl<Integer>();
+    Random random = new Random(9);
+    Model model = new Model(false);
+    for (int k = 0; k < 200; k++) {
+      int from = random.nextInt(VERTICES);
+      int to = random.nextInt(VERTICES);
+      graph.addEdge(from, to);
+      model.addEdge(from, to);
+    }
+    GraphView<Integer> view = GraphView.filtered(graph, new BiPredicate<Integer, Integer>() {
+      public boolean test(Integer from, Integer to)
+      {
+        return true;
+      }
+    });
+    assertMatches("GraphView", model, view, random);
+    assertMatches("induced GraphView", model, GraphView.induced(graph, graph.getVertices()), random);
+  }
+}
@@ -0,0 +1,269 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RunWith(JUnit4.class)
+public class DurableGraphTests
+{
+  private Path dir;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    dir = Files.createTempDirectory("durable-graph");
+  }
+
+  @After
+  public void tearDown()
+  {
+    File[] files = dir.toFile().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    dir.toFile().delete();
+  }
+
+  private DurableGraph<String> open(int syncEvery, int checkpointEvery) throws IOException
+  {
+    return DurableGraph.open(dir, VertexCodec.STRING,
+                             new GraphFactory<String>().createGraph(),
+                             syncEvery, checkpointEvery);
+  }
+
+  // A graph that refuses an edge it already has
+  private static Graph<String> rejecting()
+  {
+    return new GraphImpl<String>() {
+      public void addEdge(String from, String to)
+      {
+        if (hasEdge(from, to)) {
+          throw new RuntimeException("Edge (" + from + ", " + to + ") is already in the graph");
+        }
+        super.addEdge(from, to);
+      }
+    };
+  }
+
+  private File onlyLog()
+  {
+    File log = null;
+    for (File file : dir.toFile().listFiles()) {
+      if (file.getName().startsWith("log-")) {
+        assertEquals("There is one log", null, log);
+        log = file;
+      }
+    }
+    return log;
+  }
+
+  @Test
+  public void testReplayAfterClose() throws IOException
+  {
+    DurableGraph<String> g = open(0, 0);
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addVertex("lonely");
+    g.addEdge("c", "a");
+    g.removeEdge("b", "c");
+    g.close();
+
+    DurableGraph<String> again = open(0, 0);
+    assertEquals("Every change is replayed", 5, again.recoveredRecords());
+    assertEquals("Vertices are recovered", 4, again.numVertices());
+    assertEquals("Edges are recovered", 2, again.numEdges());
+    assertTrue(again.hasEdge("c", "a"));
+    assertFalse("Removals are recovered", again.hasEdge("b", "c"));
+    again.close();
+  }
+
+  @Test
+  public void testCheckpointReplacesLog() throws IOException
+  {
+    DurableGraph<String> g = open(1, 3);
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("c", "d");
+    g.addEdge("d", "a");
+    g.removeEdge("a", "b");
+    g.close();
+
+    assertEquals("Old checkpoints and logs are deleted", 2, dir.toFile().list().length);
+
+    DurableGraph<String> again = open(1, 3);
+    assertEquals("Only changes after the checkpoint are replayed",
+                 2, again.recoveredRecords());
+    assertEquals(4, again.numVertices());
+    assertEquals(3, again.numEdges());
+    assertFalse(again.hasEdge("a", "b"));
+    assertTrue(again.hasEdge("d", "a"));
+    again.close();
+  }
+
+  @Test
+  public void testTornRecordIsDropped() throws IOException
+  {
+    DurableGraph<String> g = open(1, 0);
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.close();
+
+    // Chop the last record in half, as a crash mid-write would
+    File log = onlyLog();
+    try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+      file.setLength(file.length() - 5);
+    }
+
+    DurableGraph<String> again = open(1, 0);
+    assertEquals("Only the intact record is replayed", 1, again.recoveredRecords());
+    assertTrue(again.hasEdge("a", "b"));
+    assertFalse(again.contains("c"));
+    again.addEdge("a", "d");
+    again.close();
+
+    DurableGraph<String> last = open(1, 0);
+    assertEquals("New records follow the good ones", 2, last.recoveredRecords());
+    assertTrue(last.hasEdge("a", "d"));
+    last.close();
+  }
+
+  @Test
+  public void testCorruptRecordIsDropped() throws IOException
+  {
+    DurableGraph<String> g = open(1, 0);
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.close();
+
+    File log = onlyLog();
+    try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+      file.seek(file.length() - 6);
+      file.write('x');
+    }
+
+    DurableGraph<String> again = open(1, 0);
+    assertEquals("A record failing its checksum is dropped",
+                 1, again.recoveredRecords());
+    assertFalse(again.hasEdge("b", "c"));
+    again.close();
+  }
+
+  @Test
+  public void testManualCheckpoint() throws IOException
+  {
+    DurableGraph<Integer> g = DurableGraph.open(dir, VertexCodec.INTEGER,
+                                                new GraphFactory<Integer>().createGraph(),
+                                                0, 0);
+    for (int i = 0; i < 200; i++) {
+      g.addEdge(i, (i * 7) % 200);
+    }
+    g.checkpoint();
+    g.close();
+
+    DurableGraph<Integer> again = DurableGraph.open(dir, VertexCodec.INTEGER,
+                                                    new GraphFactory<Integer>().createGraph());
+    assertEquals("Nothing left to replay", 0, again.recoveredRecords());
+    assertEquals(200, again.numVertices());
+    assertEquals(200, again.numEdges());
+    assertTrue(again.hasEdge(3, 21));
+    again.close();
+  }
+
+  @Test
+  public void testRejectedChangeIsNotLogged() throws IOException
+  {
+    DurableGraph<String> g = DurableGraph.open(dir, VertexCodec.STRING, rejecting(), 1, 0);
+    g.addEdge("a", "b");
+    try {
+      g.addEdge("a", "b");
+      assertTrue("A duplicate edge should be rejected", false);
+    }
+    catch (RuntimeException e) {
+      // expected
+    }
+    g.addEdge("b", "c");
+    g.close();
+
+    DurableGraph<String> reopened = DurableGraph.open(dir, VertexCodec.STRING, rejecting(), 1, 0);
+    assertEquals(2, reopened.numEdges());
+    assertTrue(reopened.hasEdge("b", "c"));
+    reopened.close();
+  }
+
+  @Test
+  public void testUndirectedCheckpoint() throws IOException
+  {
+    for (GraphFactory.Duplicates duplicates : new GraphFactory.Duplicates[] {
+           GraphFactory.Duplicates.ALLOW, GraphFactory.Duplicates.REJECT }) {
+      GraphFactory<String> undirected =
+        new GraphFactory<String>().setDirected(false).setDuplicates(duplicates);
+      DurableGraph<String> g = DurableGraph.open(dir, VertexCodec.STRING, undirected.createGraph(), 1, 0);
+      g.addEdge("a", "b");
+      g.addEdge("c", "c");
+      g.checkpoint();
+      g.close();
+
+      DurableGraph<String> reopened = DurableGraph.open(dir, VertexCodec.STRING, undirected.createGraph(), 1, 0);
+      assertEquals(duplicates + " edges", 2, reopened.numEdges());
+      assertEquals("[b]", reopened.adjacentTo("a").toString());
+      assertEquals("[a]", reopened.adjacentTo("b").toString());
+      assertEquals("[c]", reopened.adjacentTo("c").toString());
+      reopened.close();
+      tearDown();
+      dir.toFile().mkdir();
+    }
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testOversizedRecordRefused() throws IOException
+  {
+    // Unlike VertexCodec.STRING, writes strings of any length
+    VertexCodec<String> longStrings = new VertexCodec<String>() {
+      public void write(String vertex, DataOutput out) throws IOException
+      {
+        byte[] bytes = vertex.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+
+      public String read(DataInput in) throws IOException
+      {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+      }
+    };
+    DurableGraph<String> g = DurableGraph.open(dir, longStrings, new GraphFactory<String>().createGraph(), 1, 0);
+    StringBuilder huge = new StringBuilder();
+    while (huge.length() <= DurableGraph.MAX_RECORD_BYTES) {
+      huge.append("0123456789abcdef");
+    }
+    try {
+      g.addVertex(huge.toString());
+    }
+    finally {
+      assertEquals("A refused change leaves the graph alone", 0, g.numVertices());
+      g.close();
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+@RunWith(JUnit4.class)
+public class GraphFactoryTests
+{
+  private GraphFactory<String> factory;
+
+  @Before
+  public void setUp()
+  {
+    factory = new GraphFactory<String>();
+  }
+
+  @Test
+  public void testDefaultIsAdjacencyList()
+  {
+    assertEquals(GraphFactory.Backend.ADJACENCY_LIST, factory.chooseBackend());
+    assertTrue(factory.createGraph() instanceof GraphImpl);
+    assertTrue("Size hints do not change the kind of graph",
+               factory.setExpectedVertices(1000).setExpectedEdges(5000).createGraph()
+               instanceof GraphImpl);
+  }
+
+  @Test
+  public void testConcurrentBackend()
+  {
+    Graph<String> g = factory.setBackend(GraphFactory.Backend.CONCURRENT).createGraph();
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+
+    assertTrue(g instanceof ShardedGraph);
+    assertEquals(2, g.pathLength("a", "c"));
+  }
+
+  @Test
+  public void testFreeze()
+  {
+    Graph<String> g = factory.createGraph();
+    g.addEdge("a", "b");
+    Graph<String> frozen = factory.freeze(g);
+
+    assertTrue(frozen.hasEdge("a", "b"));
+    assertTrue(frozen.equals(g));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testFrozenCannotBeCreatedEmpty()
+  {
+    factory.setBackend(GraphFactory.Backend.FROZEN).createGraph();
+  }
+
+  @Test
+  public void testUndirected()
+  {
+    Graph<String> g = factory.setDirected(false).createGraph();
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("c", "c");
+
+    assertEquals("Each undirected edge counts once", 3, g.numEdges());
+    assertTrue(g.hasEdge("b", "a"));
+    assertEquals(2, g.pathLength("c", "a"));
+
+    g.removeEdge("b", "a");
+    assertFalse(g.hasEdge("a", "b"));
+    assertEquals(2, g.numEdges());
+
+    g.removeVertex("c");
+    assertEquals("The loop goes with its vertex", 0, g.numEdges());
+  }
+
+  @Test
+  public void testIgnoreDuplicates()
+  {
+    Graph<String> g = factory.setDuplicates(GraphFactory.Duplicates.IGNORE).createGraph();
+    g.addEdge("a", "b");
+    g.addEdge("a", "b");
+
+    assertEquals(1, g.numEdges());
+    assertEquals(1, g.degree("a"));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testRejectDuplicates()
+  {
+    Graph<String> g = factory.setDuplicates(GraphFactory.Duplicates.REJECT).createGraph();
+    g.addEdge("a", "b");
+    g.addEdge("a", "b");
+  }
+
+  @Test
+  public void testAllowDuplicates()
+  {
+    Graph<String> g = factory.createGraph();
+    g.addEdge("a", "b");
+    g.addEdge("a", "b");
+
+    assertEquals("GraphImpl keeps both copies", 2, g.numEdges());
+  }
+
+  @Test
+  public void testInstrumented()
+  {
+    Graph<String> g = factory.setInstrumented(true).createGraph();
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.hasPath("a", "c");
+
+    InstrumentedGraph<String> counted = (InstrumentedGraph<String>) g;
+    assertEquals(2, counted.calls(InstrumentedGraph.Operation.ADD_EDGE));
+    assertEquals(1, counted.calls(InstrumentedGraph.Operation.HAS_PATH));
+    assertEquals(0, counted.calls(InstrumentedGraph.Operation.REMOVE_EDGE));
+    assertTrue(counted.report().contains("ADD_EDGE: 2 calls"));
+
+    counted.reset();
+    assertEquals(0, counted.calls(InstrumentedGraph.Operation.ADD_EDGE));
+  }
+}
@@ -0,0 +1,122 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class GraphGeneratorTests
+{
+  // Records edges as "from>to" strings
+  private static List<String> edgesOf(GraphGenerator generator)
+  {
+    final List<String> edges = new ArrayList<String>();
+    generator.generate(new EdgeSink() {
+      public void addEdge(int from, int to)
+      {
+        edges.add(from + ">" + to);
+      }
+    });
+    return edges;
+  }
+
+  @Test
+  public void testChain()
+  {
+    GraphImpl<Integer> chain = GraphGenerator.chain(1000).toGraph();
+
+    assertEquals(1000, chain.numVertices());
+    assertEquals(999, chain.numEdges());
+    assertEquals(999, chain.pathLength(0, 999));
+    assertFalse(chain.hasPath(999, 0));
+    assertEquals(0, GraphGenerator.chain(0).toIntGraph().numVertices());
+  }
+
+  @Test
+  public void testGrid()
+  {
+    GraphGenerator grid = GraphGenerator.grid(3, 4);
+    IntGraphImpl graph = grid.toIntGraph();
+
+    assertEquals(12, graph.numVertices());
+    assertEquals(grid.expectedEdges(), graph.numEdges());
+    assertEquals(34, graph.numEdges());
+    assertEquals("Corner to corner", 5, graph.pathLength(0, 11));
+    assertEquals(5, graph.pathLength(11, 0));
+    assertEquals(4, graph.degree(5));
+  }
+
+  @Test
+  public void testErdosRenyi()
+  {
+    GraphGenerator generator = GraphGenerator.erdosRenyi(2000, 0.002, 45);
+    List<String> edges = edgesOf(generator);
+
+    assertEquals("The same seed gives the same edges", edges, edgesOf(GraphGenerator.erdosRenyi(2000, 0.002, 45)));
+    assertFalse(edges.equals(edgesOf(GraphGenerator.erdosRenyi(2000, 0.002, 46))));
+    long expected = generator.expectedEdges();
+    assertTrue("Got " + edges.size() + " edges, expected about " + expected,
+               Math.abs(edges.size() - expected) < expected / 10);
+
+    IntGraphImpl graph = generator.toIntGraph();
+    assertEquals(edges.size(), graph.numEdges());
+    for (int v = 0; v < graph.numVertices(); v++) {
+      assertFalse("No self loops", graph.hasEdge(v, v));
+    }
+    assertEquals("p = 1 gives every edge", 20, GraphGenerator.erdosRenyi(5, 1, 1).toIntGraph().numEdges());
+    assertEquals(0, GraphGenerator.erdosRenyi(5, 0, 1).toIntGraph().numEdges());
+  }
+
+  @Test
+  public void testRmat()
+  {
+    GraphGenerator generator = GraphGenerator.rmat(10, 8000, 45);
+    IntGraphImpl graph = generator.toIntGraph();
+
+    assertEquals(1024, graph.numVertices());
+    assertEquals(8000, graph.numEdges());
+    assertEquals(edgesOf(generator), edgesOf(GraphGenerator.rmat(10, 8000, 45)));
+    int highest = 0;
+    for (int v = 0; v < graph.numVertices(); v++) {
+      highest = Math.max(highest, graph.degree(v));
+    }
+    assertTrue("Skewed quadrants give a heavy hub, got " + highest, highest > 8 * 8);
+  }
+
+  @Test
+  public void testBarabasiAlbert()
+  {
+    GraphImpl<Integer> graph = GraphGenerator.barabasiAlbert(5000, 3, 45).toGraph();
+
+    assertEquals(5000, graph.numVertices());
+    assertEquals((5000 - 3) * 3, graph.numEdges());
+    assertEquals(3, graph.degree(4999));
+    int[] inDegree = new int[5000];
+    for (Integer from : graph.getVertices()) {
+      for (Integer to : graph.adjacentTo(from)) {
+        assertTrue("Edges go to earlier vertices", to < from);
+        inDegree[to]++;
+      }
+    }
+    int highest = 0;
+    for (int d : inDegree) {
+      highest = Math.max(highest, d);
+    }
+    assertTrue("Preferential attachment grows hubs, got " + highest, highest > 60);
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testBadProbability()
+  {
+    GraphGenerator.erdosRenyi(10, 1.5, 1);
+  }
+}
@@ -0,0 +1,172 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class GraphPatchTests
+{
+  // Vertices and sorted destinations, one line per vertex in sorted order
+  private static String contents(Graph<Integer> graph)
+  {
+    List<Integer> vertices = new ArrayList<Integer>();
+    for (Integer vertex : graph.getVertices()) {
+      vertices.add(vertex);
+    }
+    Collections.sort(vertices);
+    StringBuilder str = new StringBuilder();
+    for (Integer vertex : vertices) {
+      List<Integer> adjacent = new ArrayList<Integer>();
+      for (Integer to : graph.adjacentTo(vertex)) {
+        adjacent.add(to);
+      }
+      Collections.sort(adjacent);
+      str.append(vertex).append(adjacent).append("\n");
+    }
+    return str.toString();
+  }
+
+  private static Graph<Integer> copyOf(Graph<Integer> graph)
+  {
+    Graph<Integer> copy = new GraphImpl<Integer>();
+    for (Integer vertex : graph.getVertices()) {
+      copy.addVertex(vertex);
+      for (Integer to : graph.adjacentTo(vertex)) {
+        copy.addEdge(vertex, to);
+      }
+    }
+    return copy;
+  }
+
+  @Test
+  public void testSmallDiff()
+  {
+    Graph<String> before = new GraphImpl<String>();
+    before.addEdge("a", "b");
+    before.addEdge("b", "c");
+    before.addEdge("c", "a");
+    Graph<String> after = new GraphImpl<String>();
+    after.addEdge("a", "b");
+    after.addEdge("b", "d");
+    after.addVertex("e");
+
+    GraphPatch<String> patch = GraphPatch.diff(before, after);
+    assertEquals("Remove c, add d, e and (b, d)", 4, patch.size());
+
+    byte[] bytes = patch.toBytes(VertexCodec.STRING);
+    GraphPatch.fromBytes(bytes, VertexCodec.STRING).applyTo(before);
+
+    assertEquals(4, before.numVertices());
+    assertEquals(2, before.numEdges());
+    assertTrue(before.hasEdge("b", "d"));
+    assertTrue(before.contains("e"));
+    assertFalse(before.contains("c"));
+  }
+
+  @Test
+  public void testSameGraphsGiveEmptyPatch()
+  {
+    Graph<String> g = new GraphImpl<String>();
+    g.addEdge("a", "b");
+    GraphPatch<String> patch = GraphPatch.diff(g, g);
+
+    assertTrue(patch.isEmpty());
+    assertTrue(GraphPatch.fromBytes(patch.toBytes(VertexCodec.STRING), VertexCodec.STRING).isEmpty());
+  }
+
+  @Test
+  public void testRepeatedEdgesAreCounted()
+  {
+    Graph<Integer> before = new GraphImpl<Integer>();
+    before.addEdge(1, 2);
+    before.addEdge(1, 2);
+    before.addEdge(1, 2);
+    Graph<Integer> after = new GraphImpl<Integer>();
+    after.addEdge(1, 2);
+    after.addEdge(2, 1);
+    after.addEdge(2, 1);
+
+    GraphPatch.diff(before, after).applyTo(before);
+
+    assertEquals(contents(after), contents(before));
+    assertEquals(3, before.numEdges());
+  }
+
+  @Test
+  public void testUndirectedRoundTrip()
+  {
+    for (GraphFactory.Duplicates duplicates : new GraphFactory.Duplicates[] {
+           GraphFactory.Duplicates.ALLOW, GraphFactory.Duplicates.REJECT }) {
+      GraphFactory<String> undirected =
+        new GraphFactory<String>().setDirected(false).setDuplicates(duplicates);
+      Graph<String> before = undirected.createGraph();
+      before.addEdge("a", "b");
+      before.addEdge("b", "c");
+      Graph<String> after = undirected.createGraph();
+      after.addEdge("a", "b");
+      after.addEdge("c", "a");
+      after.addEdge("d", "d");
+
+      GraphPatch<String> patch = GraphPatch.diff(before, after);
+      assertEquals(duplicates + ": remove {b, c}, add d, {c, a} and {d, d}", 4, patch.size());
+
+      byte[] bytes = patch.toBytes(VertexCodec.STRING);
+      GraphPatch.fromBytes(bytes, VertexCodec.STRING).applyTo(before);
+
+      assertEquals(duplicates + " edges", 3, before.numEdges());
+      assertEquals("[b, c]", before.adjacentTo("a").toString());
+      assertEquals("[a]", before.adjacentTo("b").toString());
+      assertEquals("[a]", before.adjacentTo("c").toString());
+      assertEquals("[d]", before.adjacentTo("d").toString());
+      assertTrue(GraphPatch.diff(before, after).isEmpty());
+    }
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testRejectsOtherBytes()
+  {
+    GraphPatch.fromBytes(new byte[] {1, 2, 3, 4, 5}, VertexCodec.STRING);
+  }
+
+  @Test
+  public void testRandomChangesReplicate()
+  {
+    Random random = new Random(42);
+    Graph<Integer> primary = new GraphImpl<Integer>();
+    int n = 2000;
+    for (int i = 0; i < n * 4; i++) {
+      primary.addEdge(random.nextInt(n), random.nextInt(n));
+    }
+    Graph<Integer> replica = copyOf(primary);
+
+    for (int round = 0; round < 5; round++) {
+      Graph<Integer> before = copyOf(primary);
+      for (int k = 0; k < 20; k++) {
+        int from = random.nextInt(n + 50);
+        int to = random.nextInt(n + 50);
+        switch (random.nextInt(4)) {
+        case 0: primary.removeEdge(from, to); break;
+        case 1: primary.removeVertex(from); break;
+        default: primary.addEdge(from, to); break;
+        }
+      }
+      byte[] bytes = GraphPatch.diff(before, primary).toBytes(VertexCodec.INTEGER);
+      assertTrue("A small change makes a small patch, got " + bytes.length + " bytes",
+                 bytes.length < 2000);
+      GraphPatch.fromBytes(bytes, VertexCodec.INTEGER).applyTo(replica);
+      assertEquals(contents(primary), contents(replica));
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.After;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+@RunWith(JUnit4.class)
+public class GraphQueryServerTests
+{
+  private Graph<String> g;
+  private GraphQueryServer<String> server;
+  private Socket socket;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    g = new WeightedGraphImpl<String>();
+    for (int i = 0; i < 100; i++) {
+      g.addEdge("v" + i, "v" + (i + 1));
+    }
+    g.addVertex("alone");
+    server = new GraphQueryServer<String>(g, Function.<String>identity(), 0, 2, 50, 5000);
+    server.start();
+    socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+  }
+
+  @After
+  public void tearDown() throws IOException
+  {
+    socket.close();
+    server.close();
+  }
+
+  // Sends request lines all at once and collects the answers by id
+  private Map<String, String> ask(String... lines) throws IOException
+  {
+    StringBuilder requests = new StringBuilder();
+    for (String line : lines) {
+      requests.append(line).append('\n');
+    }
+    OutputStream out = socket.getOutputStream();
+    out.write(requests.toString().getBytes(StandardCharsets.UTF_8));
+    out.flush();
+
+    BufferedReader in = new BufferedReader(
+      new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    Map<String, String> answers = new HashMap<String, String>();
+    for (int i = 0; i < lines.length; i++) {
+      String line = in.readLine();
+      int space = line.indexOf(' ');
+      answers.put(line.substring(0, space), line.substring(space + 1));
+    }
+    return answers;
+  }
+
+  @Test
+  public void testQueries() throws IOException
+  {
+    Map<String, String> answers = ask("1 PATHLENGTH v0 v10",
+                                      "2 HASPATH v10 v0",
+                                      "3 ADJACENT v5",
+                                      "4 HASEDGE v5 v6",
+                                      "5 PATHLENGTH v0 alone",
+                                      "6 FROB v1",
+                                      "7 PATHLENGTH v3 v3");
+
+    assertEquals("Path length is answered", "OK 10", answers.get("1"));
+    assertEquals("Edges are directed", "OK false", answers.get("2"));
+    assertEquals("Adjacent vertices are listed", "OK v6", answers.get("3"));
+    assertEquals("Edges are found", "OK true", answers.get("4"));
+    assertEquals("Unreachable is Integer.MAX_VALUE",
+                 "OK " + Integer.MAX_VALUE, answers.get("5"));
+    assertTrue("Unknown requests are errors", answers.get("6").startsWith("ERROR"));
+    assertEquals("A vertex is zero from itself", "OK 0", answers.get("7"));
+  }
+
+  @Test
+  public void testSameSourceQueriesShareATraversal() throws IOException
+  {
+    String[] lines = new String[40];
+    for (int i = 0; i < lines.length; i++) {
+      lines[i] = "q" + i + " PATHLENGTH v0 v" + (i * 2);
+    }
+    Map<String, String> answers = ask(lines);
+
+    for (int i = 0; i < lines.length; i++) {
+      assertEquals("Query " + i, "OK " + (i * 2), answers.get("q" + i));
+    }
+    assertEquals("Every query was counted", 40, server.numQueries());
+    assertTrue("Queries were coalesced into fewer searches",
+               server.numTraversals() < server.numQueries());
+  }
+
+  @Test
+  public void testDeadline() throws IOException
+  {
+    Map<String, String> answers = ask("late PATHLENGTH v0 v100 0",
+                                      "fine PATHLENGTH v1 v100 5000");
+
+    assertEquals("A query past its deadline times out", "TIMEOUT", answers.get("late"));
+    assertEquals("Other queries are unaffected", "OK 99", answers.get("fine"));
+  }
+
+  @Test
+  public void testCharacterSplitAcrossReads() throws IOException, InterruptedException
+  {
+    g.addEdge("v0", "caf\u00e9");
+    byte[] request = "split HASEDGE v0 caf\u00e9\n".getBytes(StandardCharsets.UTF_8);
+    // Ends the first write after the first byte of the two byte character
+    int middle = request.length - 2;
+    OutputStream out = socket.getOutputStream();
+    out.write(request, 0, middle);
+    out.flush();
+    Thread.sleep(100);
+    out.write(request, middle, request.length - middle);
+    out.flush();
+
+    BufferedReader in = new BufferedReader(
+      new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    assertEquals("split OK true", in.readLine());
+  }
+
+  @Test
+  public void testOverlongLineClosesConnection() throws IOException
+  {
+    StringBuilder line = new StringBuilder("long HASEDGE v0 ");
+    for (int i = 0; i < GraphQueryServer.MAX_LINE_LENGTH; i++) {
+      line.append('x');
+    }
+    socket.setSoTimeout(5000);
+    OutputStream out = socket.getOutputStream();
+    out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+    out.flush();
+    assertEquals("The server hangs up", -1, socket.getInputStream().read());
+
+    socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    assertEquals("Other connections are still served", "OK true", ask("1 HASEDGE v5 v6").get("1"));
+  }
+}
@@ -0,0 +1,189 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+@RunWith(JUnit4.class)
+public class GraphReorderTests
+{
+  // A rows by columns grid whose vertices, r * columns + c, are added in a shuffled order
+  static GraphImpl<Integer> shuffledGrid(int rows, int columns, long seed)
+  {
+    List<Integer> order = new ArrayList<Integer>();
+    for (int v = 0; v < rows * columns; v++) {
+      order.add(v);
+    }
+    Collections.shuffle(order, new Random(seed));
+    final GraphImpl<Integer> graph = new GraphImpl<Integer>();
+    for (int v : order) {
+      graph.addVertex(v);
+    }
+    GraphGenerator.grid(rows, columns).generate(new EdgeSink() {
+      public void addEdge(int from, int to)
+      {
+        graph.addEdge(from, to);
+      }
+    });
+    return graph;
+  }
+
+  private static <V> List<V> listOf(Iterable<V> items)
+  {
+    List<V> list = new ArrayList<V>();
+    for (V item : items) {
+      list.add(item);
+    }
+    return list;
+  }
+
+  // The widest gap between the stored positions of an edge's two ends
+  private static int bandwidth(GraphImpl<Integer> graph)
+  {
+    List<Integer> stored = graph.vertexStream().collect(Collectors.toList());
+    Map<Integer, Integer> position = new HashMap<Integer, Integer>();
+    for (int i = 0; i < stored.size(); i++) {
+      position.put(stored.get(i), i);
+    }
+    int widest = 0;
+    for (Edge<Integer> edge : graph.edgeStream().collect(Collectors.toList())) {
+      widest = Math.max(widest, Math.abs(position.get(edge.getFrom()) - position.get(edge.getTo())));
+    }
+    return widest;
+  }
+
+  @Test
+  public void testReorderKeepsGraph()
+  {
+    for (GraphImpl.Ordering ordering : GraphImpl.Ordering.values()) {
+      GraphImpl<Integer> g = shuffledGrid(12, 9, 48);
+      g.addEdge(5, 5);
+      g.addEdge(0, 50);
+      g.addEdge(0, 50);
+      GraphImpl<Integer> before = shuffledGrid(12, 9, 48);
+      before.addEdge(5, 5);
+      before.addEdge(0, 50);
+      before.addEdge(0, 50);
+
+      g.reorder(ordering);
+
+      assertEquals(ordering + " getVertices", listOf(before.getVertices()), listOf(g.getVertices()));
+      assertEquals(before.numEdges(), g.numEdges());
+      assertTrue(g.equals(before));
+      assertTrue(before.equals(g));
+      for (Integer v : before.getVertices()) {
+        assertEquals(ordering + " adjacent to " + v, listOf(before.adjacentTo(v)), listOf(g.adjacentTo(v)));
+      }
+      assertEquals(10, g.pathLength(0, 107));
+      assertEquals(before.pathLength(107, 0), g.pathLength(107, 0));
+      assertEquals(11, listOf(g.getPath(0, 107)).size());
+      assertEquals(1, g.pathLength(0, 50));
+      assertTrue(g.hasPath(107, 0));
+    }
+  }
+
+  @Test
+  public void testReverseCuthillMcKeeNarrowsBandwidth()
+  {
+    GraphImpl<Integer> g = shuffledGrid(30, 30, 48);
+    assertTrue(bandwidth(g) > 300);
+
+    g.reorder(GraphImpl.Ordering.REVERSE_CUTHILL_MCKEE);
+    assertTrue("bandwidth " + bandwidth(g), bandwidth(g) <= 60);
+
+    g.reorder(GraphImpl.Ordering.BFS);
+    assertTrue("bandwidth " + bandwidth(g), bandwidth(g) <= 60);
+  }
+
+  @Test
+  public void testDegreeOrderPutsHubsFirst()
+  {
+    GraphImpl<String> g = new GraphImpl<String>();
+    g.addEdge("a", "b");
+    g.addEdge("c", "hub");
+    g.addEdge("hub", "a");
+    g.addEdge("hub", "b");
+    g.addEdge("d", "hub");
+
+    g.reorder(GraphImpl.Ordering.DEGREE);
+    assertEquals("hub", g.vertexStream().findFirst().get());
+    assertEquals("[a, b, c, hub, d]", listOf(g.getVertices()).toString());
+  }
+
+  @Test
+  public void testChangesAfterReorder()
+  {
+    GraphImpl<String> g = new GraphImpl<String>();
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("c", "d");
+    g.reorder(GraphImpl.Ordering.REVERSE_CUTHILL_MCKEE);
+
+    g.addEdge("d", "e");
+    g.removeVertex("b");
+    g.removeEdge("c", "d");
+    g.addEdge("a", "c");
+
+    assertEquals("[a, c, d, e]", listOf(g.getVertices()).toString());
+    assertEquals(2, g.numEdges());
+    assertEquals(1, g.pathLength("a", "c"));
+    assertFalse(g.hasPath("a", "d"));
+    assertEquals("a: c\nc:\nd: e\ne:\n", g.toString());
+
+    g.trimToSize();
+    assertTrue(g.memoryReport().bytes(MemoryReport.VERTEX_DICTIONARY) > 0);
+    assertEquals("[a, c, d, e]", listOf(g.getVertices()).toString());
+  }
+
+  @Test
+  public void testAnalysesFollowGetVertices()
+  {
+    GraphImpl<String> g = new GraphImpl<String>();
+    g.addEdge("x", "y");
+    g.addVertex("lone");
+    g.addEdge("p", "q");
+    g.addEdge("q", "p");
+    g.addEdge("q", "lone");
+    g.reorder(GraphImpl.Ordering.DEGREE);
+
+    Components<String> weak = Components.weak(g);
+    assertEquals(2, weak.count());
+    assertEquals(0, weak.componentOf("x"));
+    assertEquals(1, weak.componentOf("lone"));
+    assertEquals("[x, y]", weak.members(0).toString());
+    assertEquals("[lone, p, q]", weak.members(1).toString());
+
+    Components<String> strong = Components.strong(g);
+    assertEquals(4, strong.count());
+    assertTrue(strong.together("p", "q"));
+    List<String> vertices = listOf(g.getVertices());
+    for (int i = 0; i < vertices.size(); i++) {
+      assertEquals(strong.componentOf(vertices.get(i)), strong.labels()[i]);
+    }
+    assertEquals("[p, q]", strong.members(strong.componentOf("p")).toString());
+
+    BitSet bits = new BitSet();
+    bits.set(2);
+    bits.set(4);
+    GraphView<String> view = GraphView.induced(g, bits);
+    assertEquals("[lone, q]", listOf(view.getVertices()).toString());
+    assertTrue(view.hasEdge("q", "lone"));
+    assertEquals("[y, lone, p, q]",
+                 listOf(GraphView.induced(g, listOf(g.getVertices()).subList(1, 5)).getVertices()).toString());
+  }
+}
@@ -0,0 +1,128 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+@RunWith(JUnit4.class)
+public class GraphStreamTests
+{
+  // Sums from * 100000 + to over the edges, so any lost or repeated edge shows
+  private static final ToLongFunction<Edge<Integer>> WEIGHT = new ToLongFunction<Edge<Integer>>() {
+    public long applyAsLong(Edge<Integer> edge)
+    {
+      return edge.getFrom() * 100000L + edge.getTo();
+    }
+  };
+
+  @Test
+  public void testStreamsMatchGraph()
+  {
+    GraphImpl<String> g = new GraphImpl<String>();
+    g.addEdge("a", "b");
+    g.addEdge("a", "c");
+    g.addEdge("c", "a");
+    g.addEdge("a", "b");
+    g.addVertex("d");
+
+    assertEquals("[a, b, c, d]", g.vertexStream().collect(Collectors.toList()).toString());
+    assertEquals("[a -> b, a -> c, a -> b, c -> a]", g.edgeStream().collect(Collectors.toList()).toString());
+    assertEquals(g.numEdges(), g.edgeStream().count());
+    assertTrue(g.edgeStream().collect(Collectors.toList()).contains(new Edge<String>("c", "a")));
+    assertEquals(0, new GraphImpl<String>().edgeStream().count());
+  }
+
+  @Test
+  public void testParallelMatchesSequential()
+  {
+    GraphImpl<Integer> g = GraphGenerator.rmat(12, 40000, 47).toGraph();
+
+    long sequential = g.edgeStream().mapToLong(WEIGHT).sum();
+    assertEquals(sequential, g.edgeStream().parallel().mapToLong(WEIGHT).sum());
+    assertEquals(g.numEdges(), g.edgeStream().parallel().count());
+    assertEquals(g.numVertices(), g.vertexStream().parallel().distinct().count());
+  }
+
+  @Test
+  public void testSplitsByEdges()
+  {
+    // A star: vertex 0 has every edge
+    GraphImpl<Integer> star = new GraphImpl<Integer>();
+    for (int v = 1; v <= 1000; v++) {
+      star.addEdge(0, v);
+    }
+
+    Spliterator<Edge<Integer>> edges = star.edgeStream().spliterator();
+    assertTrue(edges.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+    Spliterator<Edge<Integer>> firstHalf = edges.trySplit();
+    assertEquals("The hub's edges are split in half", 500, firstHalf.estimateSize());
+    assertEquals(500, edges.estimateSize());
+    final List<Edge<Integer>> seen = new ArrayList<Edge<Integer>>();
+    Consumer<Edge<Integer>> collect = new Consumer<Edge<Integer>>() {
+      public void accept(Edge<Integer> edge)
+      {
+        seen.add(edge);
+      }
+    };
+    assertTrue(edges.tryAdvance(collect));
+    edges.forEachRemaining(collect);
+    firstHalf.forEachRemaining(collect);
+    assertEquals(1000, seen.size());
+    assertEquals(new Edge<Integer>(0, 501), seen.get(0));
+
+    Spliterator<Integer> vertices = star.vertexStream().spliterator();
+    assertTrue(vertices.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+    Spliterator<Integer> hub = vertices.trySplit();
+    assertEquals("The hub alone is as much work as the leaves", 1, hub.estimateSize());
+    assertEquals(1000, vertices.estimateSize());
+  }
+
+  @Test(expected = ConcurrentModificationException.class)
+  public void testChangeWhileStreaming()
+  {
+    final GraphImpl<Integer> g = GraphGenerator.chain(10).toGraph();
+    g.vertexStream().forEach(new Consumer<Integer>() {
+      public void accept(Integer vertex)
+      {
+        g.addEdge(vertex, 100);
+      }
+    });
+  }
+
+  @Test
+  public void testSplitAfterChangeFails()
+  {
+    GraphImpl<Integer> g = GraphGenerator.chain(10).toGraph();
+    Spliterator<Edge<Integer>> edges = g.edgeStream().spliterator();
+    Spliterator<Integer> vertices = g.vertexStream().spliterator();
+    g.addEdge(0, 5);
+
+    try {
+      edges.trySplit();
+      assertTrue("Splitting edges after a change should throw", false);
+    }
+    catch (ConcurrentModificationException e) {
+      // expected
+    }
+    try {
+      vertices.trySplit();
+      assertTrue("Splitting vertices after a change should throw", false);
+    }
+    catch (ConcurrentModificationException e) {
+      // expected
+    }
+  }
+}
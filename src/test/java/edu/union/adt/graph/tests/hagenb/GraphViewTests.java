@@ -0,0 +1,137 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+@RunWith(JUnit4.class)
+public class GraphViewTests
+{
+  private GraphImpl<String> g;
+
+  @Before
+  public void setUp()
+  {
+    g = new GraphImpl<String>();
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("c", "d");
+    g.addEdge("a", "x");
+    g.addEdge("x", "d");
+  }
+
+  private static <V> List<V> listOf(Iterable<V> items)
+  {
+    List<V> list = new ArrayList<V>();
+    for (V item : items) {
+      list.add(item);
+    }
+    return list;
+  }
+
+  @Test
+  public void testInducedSubgraph()
+  {
+    GraphView<String> view = GraphView.induced(g, Arrays.asList("a", "b", "c", "d", "nope"));
+
+    assertEquals(4, view.numVertices());
+    assertEquals("Edges touching x are left out", 3, view.numEdges());
+    assertFalse(view.contains("x"));
+    assertEquals("[b]", listOf(view.adjacentTo("a")).toString());
+    assertEquals(1, view.degree("a"));
+    assertFalse(view.hasEdge("a", "x"));
+    assertEquals("[a, b, c, d]", listOf(view.getPath("a", "d")).toString());
+    assertEquals(3, view.pathLength("a", "d"));
+    assertEquals("The parent still takes the short cut", 2, g.pathLength("a", "d"));
+    assertEquals("[a, b, c, d]", listOf(view.getVertices()).toString());
+  }
+
+  @Test
+  public void testInducedFromBits()
+  {
+    // Vertex numbers follow getVertices order: a, b, c, d, x
+    BitSet bits = new BitSet();
+    bits.set(0);
+    bits.set(3);
+    bits.set(4);
+    GraphView<String> view = GraphView.induced(g, bits);
+
+    assertEquals("[a, d, x]", listOf(view.getVertices()).toString());
+    assertEquals(2, view.numEdges());
+    assertTrue(view.hasPath("a", "d"));
+    assertFalse(view.hasPath("a", "b"));
+  }
+
+  @Test
+  public void testFilteredEdges()
+  {
+    GraphView<String> view = GraphView.filtered(g, new BiPredicate<String, String>() {
+      public boolean test(String from, String to)
+      {
+        return !to.equals("x");
+      }
+    });
+
+    assertEquals(5, view.numVertices());
+    assertEquals(4, view.numEdges());
+    assertEquals(3, view.pathLength("a", "d"));
+    assertEquals(Integer.MAX_VALUE, view.pathLength("a", "x"));
+    assertEquals(0, view.pathLength("x", "x"));
+
+    GraphView<String> narrower = view.filtered(new BiPredicate<String, String>() {
+      public boolean test(String from, String to)
+      {
+        return !from.equals("c");
+      }
+    });
+    assertFalse(narrower.hasPath("a", "d"));
+    assertEquals(0, listOf(narrower.getPath("a", "d")).size());
+    assertEquals(3, narrower.numEdges());
+  }
+
+  @Test
+  public void testEqualsCopiedSubgraph()
+  {
+    Graph<String> copy = new GraphImpl<String>();
+    copy.addEdge("a", "x");
+    copy.addEdge("x", "d");
+
+    assertTrue(GraphView.induced(g, Arrays.asList("a", "x", "d")).equals(copy));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testViewCannotChange()
+  {
+    GraphView.induced(g, Arrays.asList("a", "b")).addEdge("b", "a");
+  }
+
+  @Test
+  public void testStaleViewThrows()
+  {
+    GraphView<String> view = GraphView.induced(g, Arrays.asList("a", "b"));
+    assertTrue(view.isCurrent());
+
+    g.addEdge("b", "a");
+
+    assertFalse(view.isCurrent());
+    try {
+      view.hasEdge("b", "a");
+      assertTrue("Queries on a stale view should throw", false);
+    }
+    catch (RuntimeException expected) {
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+@RunWith(JUnit4.class)
+public class IntGraphTests
+{
+  private IntGraph g;
+
+  @Before
+  public void setUp()
+  {
+    g = new GraphFactory<Integer>().createIntGraph();
+  }
+
+  private List<Integer> neighbors(int vertex)
+  {
+    final List<Integer> seen = new ArrayList<Integer>();
+    g.forEachNeighbor(vertex, new IntConsumer() {
+      public void accept(int to)
+      {
+        seen.add(to);
+      }
+    });
+    return seen;
+  }
+
+  @Test
+  public void testAddEdgeGrowsVertices()
+  {
+    g.addEdge(0, 3);
+    g.addEdge(0, 1);
+    g.addEdge(3, 3);
+
+    assertEquals("Vertices up to the largest id are added", 4, g.numVertices());
+    assertEquals(3, g.numEdges());
+    assertEquals(2, g.degree(0));
+    assertEquals(0, g.degree(2));
+    assertEquals(1, g.neighbor(0, 1));
+    assertTrue(g.hasEdge(3, 3));
+    assertFalse(g.hasEdge(1, 0));
+    assertEquals("Neighbours come in the order added", "[3, 1]", neighbors(0).toString());
+    assertEquals("A new vertex gets the next id", 4, g.addVertex());
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testDegreeOfMissingVertex()
+  {
+    g.addVertex();
+    g.degree(1);
+  }
+
+  @Test
+  public void testPaths()
+  {
+    g.addEdge(0, 1);
+    g.addEdge(1, 2);
+    g.addEdge(2, 3);
+    g.addEdge(0, 2);
+    g.addVertex();
+
+    assertArrayEquals(new int[] { 0, 2, 3 }, g.getPath(0, 3));
+    assertEquals(2, g.pathLength(0, 3));
+    assertEquals(0, g.pathLength(4, 4));
+    assertArrayEquals(new int[] { 4 }, g.getPath(4, 4));
+    assertFalse(g.hasPath(3, 0));
+    assertEquals(Integer.MAX_VALUE, g.pathLength(0, 4));
+    assertEquals(0, g.getPath(0, 9).length);
+  }
+
+  @Test
+  public void testRemoveVertexRenumbers()
+  {
+    g.addEdge(0, 1);
+    g.addEdge(1, 2);
+    g.addEdge(2, 3);
+    g.addEdge(3, 1);
+    g.addEdge(3, 0);
+
+    g.removeVertex(1);
+
+    assertEquals(3, g.numVertices());
+    assertEquals("Edges to and from the removed vertex are gone", 2, g.numEdges());
+    assertTrue("Old vertex 2 is now 1 and old 3 is now 2", g.hasEdge(1, 2));
+    assertTrue(g.hasEdge(2, 0));
+    assertEquals(0, g.degree(0));
+  }
+
+  @Test
+  public void testRemoveEdgeKeepsOrder()
+  {
+    g.addEdge(0, 1);
+    g.addEdge(0, 2);
+    g.addEdge(0, 1);
+    g.addEdge(0, 3);
+
+    g.removeEdge(0, 1);
+
+    assertEquals("Only one copy is removed", "[2, 1, 3]", neighbors(0).toString());
+    assertEquals(3, g.numEdges());
+  }
+
+  @Test
+  public void testGraphImplRemoveVertex()
+  {
+    Graph<String> named = new GraphFactory<String>().createGraph();
+    named.addEdge("a", "b");
+    named.addEdge("b", "c");
+    named.addEdge("c", "d");
+    named.addEdge("d", "b");
+
+    named.removeVertex("b");
+
+    assertEquals(3, named.numVertices());
+    assertEquals(1, named.numEdges());
+    assertTrue("Edges between later vertices survive renumbering",
+               named.hasEdge("c", "d"));
+    assertFalse(named.hasEdge("d", "b"));
+    assertEquals(Integer.MAX_VALUE, named.pathLength("a", "d"));
+    named.addEdge("a", "c");
+    assertEquals(2, named.pathLength("a", "d"));
+  }
+}
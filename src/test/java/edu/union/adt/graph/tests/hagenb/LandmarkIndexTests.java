@@ -0,0 +1,148 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+@RunWith(JUnit4.class)
+public class LandmarkIndexTests
+{
+  private static final int SIDE = 12;
+
+  private Graph<Integer> plain;
+  private GraphImpl<Integer> indexed;
+
+  @Before
+  public void setUp()
+  {
+    plain = new GraphImpl<Integer>();
+    indexed = new GraphImpl<Integer>();
+    // A one-way grid with a few long jumps, plus an unreachable island
+    for (Graph<Integer> g : Arrays.asList(plain, indexed)) {
+      for (int row = 0; row < SIDE; row++) {
+        for (int col = 0; col < SIDE; col++) {
+          int here = row * SIDE + col;
+          if (col + 1 < SIDE) {
+            g.addEdge(here, here + 1);
+          }
+          if (row + 1 < SIDE) {
+            g.addEdge(here, here + SIDE);
+          }
+          if (row > 0 && col % 5 == 0) {
+            g.addEdge(here, here - SIDE);
+          }
+        }
+      }
+      g.addEdge(1000, 1001);
+    }
+  }
+
+  private void assertAgreesWithSearch(String message)
+  {
+    for (int from = 0; from < SIDE * SIDE; from += 7) {
+      for (int to = 0; to < SIDE * SIDE; to += 5) {
+        assertEquals(message + " " + from + " -> " + to,
+                     plain.pathLength(from, to), indexed.pathLength(from, to));
+      }
+    }
+  }
+
+  @Test
+  public void testEveryStrategyGivesShortestPaths()
+  {
+    for (LandmarkIndex.Selection selection : LandmarkIndex.Selection.values()) {
+      indexed.useLandmarks(LandmarkIndex.build(indexed, 4, selection, Long.MAX_VALUE));
+      assertTrue("The index is in use", indexed.usesLandmarks());
+      assertAgreesWithSearch(selection.toString());
+    }
+  }
+
+  @Test
+  public void testPathIsValid()
+  {
+    indexed.useLandmarks(LandmarkIndex.build(indexed, 3));
+    int last = SIDE * SIDE - 1;
+    Iterator<Integer> path = indexed.getPath(0, last).iterator();
+    int previous = path.next();
+    int count = 0;
+    assertEquals("Path starts at the source", 0, previous);
+    while (path.hasNext()) {
+      int next = path.next();
+      assertTrue("Each step is an edge", indexed.hasEdge(previous, next));
+      previous = next;
+      count++;
+    }
+    assertEquals("Path ends at the destination", last, previous);
+    assertEquals("Path is as short as pathLength says",
+                 indexed.pathLength(0, last), count);
+  }
+
+  @Test
+  public void testUnreachable()
+  {
+    indexed.useLandmarks(LandmarkIndex.build(indexed, 2));
+    assertFalse("The island cannot be reached", indexed.hasPath(0, 1000));
+    assertFalse("No path to the island", indexed.getPath(0, 1000).iterator().hasNext());
+    assertTrue("The island is connected to itself", indexed.hasPath(1000, 1001));
+  }
+
+  @Test
+  public void testMemoryBudgetLimitsLandmarks()
+  {
+    int n = indexed.numVertices();
+    long twoLandmarks = 2L * 2 * 4 * n;
+    LandmarkIndex<Integer> index =
+      LandmarkIndex.build(indexed, 8, LandmarkIndex.Selection.DEGREE, twoLandmarks);
+
+    assertEquals("Only as many landmarks as fit are used",
+                 2, index.getLandmarks().size());
+    assertTrue("Tables stay within the budget", index.memoryBytes() <= twoLandmarks);
+
+    indexed.useLandmarks(LandmarkIndex.build(indexed, 8, LandmarkIndex.Selection.DEGREE, 0));
+    assertAgreesWithSearch("No landmarks");
+  }
+
+  @Test
+  public void testChangeDropsIndex()
+  {
+    indexed.useLandmarks(LandmarkIndex.build(indexed, 4));
+    indexed.addEdge(0, SIDE * SIDE - 1);
+    plain.addEdge(0, SIDE * SIDE - 1);
+
+    assertFalse("Changing the graph drops the index", indexed.usesLandmarks());
+    assertEquals("New edges are seen", 1, indexed.pathLength(0, SIDE * SIDE - 1));
+  }
+
+  @Test
+  public void testStaleIndexRejected()
+  {
+    LandmarkIndex<Integer> index = LandmarkIndex.build(indexed, 4);
+    indexed.addEdge(0, SIDE * SIDE - 1);
+    assertFalse("A changed graph makes the index stale", index.isFor(indexed));
+    try {
+      indexed.useLandmarks(index);
+      fail("A stale index should be rejected");
+    }
+    catch (RuntimeException e) {
+      assertFalse(indexed.usesLandmarks());
+    }
+    assertEquals("Paths still see the change", 1, indexed.pathLength(0, SIDE * SIDE - 1));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testIndexForOtherGraph()
+  {
+    indexed.useLandmarks(LandmarkIndex.build(plain, 2));
+  }
+}
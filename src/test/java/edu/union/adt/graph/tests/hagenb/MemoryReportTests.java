@@ -0,0 +1,102 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class MemoryReportTests
+{
+  private static GraphImpl<Integer> randomGraph(int n, int edges)
+  {
+    Random random = new Random(44);
+    GraphImpl<Integer> graph = new GraphImpl<Integer>();
+    for (int v = 0; v < n; v++) {
+      graph.addVertex(v);
+    }
+    for (int e = 0; e < edges; e++) {
+      graph.addEdge(random.nextInt(n), random.nextInt(n));
+    }
+    return graph;
+  }
+
+  @Test
+  public void testComponentsAddUp()
+  {
+    GraphImpl<Integer> graph = randomGraph(1000, 8000);
+    MemoryReport report = graph.memoryReport();
+
+    long sum = 0;
+    for (String component : report.components()) {
+      sum += report.bytes(component);
+    }
+    assertEquals(report.totalBytes(), sum);
+    assertTrue(report.bytes(MemoryReport.VERTEX_DICTIONARY) > 1000 * 48);
+    assertTrue("Each edge takes at least an int", report.bytes(MemoryReport.ADJACENCY) > 8000 * 4);
+    assertEquals("No landmark index yet", 0, report.bytes(MemoryReport.INDEXES));
+    assertEquals(report.totalBytes() / 1000.0, report.bytesPerVertex(), 1e-9);
+    assertEquals(report.totalBytes() / 8000.0, report.bytesPerEdge(), 1e-9);
+    assertTrue(report.toString().contains("total: " + report.totalBytes() + " bytes"));
+  }
+
+  @Test
+  public void testLandmarksAreCounted()
+  {
+    GraphImpl<Integer> graph = randomGraph(500, 2000);
+    graph.useLandmarks(LandmarkIndex.build(graph, 4));
+
+    assertTrue(graph.memoryReport().bytes(MemoryReport.INDEXES) > 2 * 4 * 500 * 4);
+  }
+
+  @Test
+  public void testTrimReleasesSlack()
+  {
+    GraphImpl<Integer> graph = randomGraph(2000, 10000);
+    for (int v = 0; v < 1500; v++) {
+      graph.removeVertex(v);
+    }
+    int edges = graph.numEdges();
+    String before = graph.memoryReport().toString();
+    long untrimmed = graph.memoryReport().totalBytes();
+
+    graph.trimToSize();
+    MemoryReport trimmed = graph.memoryReport();
+
+    assertTrue(before + trimmed, trimmed.totalBytes() < untrimmed / 2);
+    assertEquals(500, graph.numVertices());
+    assertEquals(edges, graph.numEdges());
+    assertTrue("Trimmed edge arrays hold about one int per edge",
+               trimmed.bytes(MemoryReport.ADJACENCY) < edges * 4 + 500 * 24 + 4096);
+
+    // The graph keeps working and growing after a trim
+    graph.addEdge(1999, 5000);
+    graph.addEdge(5000, 1600);
+    assertTrue(graph.hasPath(1999, 1600));
+    assertEquals(501, graph.numVertices());
+  }
+
+  @Test
+  public void testIntGraphTrim()
+  {
+    IntGraphImpl graph = new IntGraphImpl(100, 1000);
+    graph.addEdge(0, 1);
+    long before = graph.memoryReport().totalBytes();
+
+    graph.trimToSize();
+
+    assertTrue(graph.memoryReport().totalBytes() < before);
+    graph.removeVertex(0);
+    graph.removeVertex(0);
+    graph.trimToSize();
+    assertEquals(0, graph.addVertex());
+    graph.addEdge(0, 3);
+    assertEquals(1, graph.numEdges());
+  }
+}
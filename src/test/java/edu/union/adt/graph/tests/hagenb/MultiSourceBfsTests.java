@@ -0,0 +1,113 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class MultiSourceBfsTests
+{
+  private Graph<String> g;
+
+  @Before
+  public void setUp()
+  {
+    g = new GraphFactory<String>().createGraph();
+  }
+
+  @Test
+  public void testSmallBatch()
+  {
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("c", "d");
+    g.addEdge("a", "c");
+    g.addVertex("lonely");
+
+    MultiSourceBfs<String> bfs = new MultiSourceBfs<String>(g);
+    int[] lengths = bfs.pathLengths(Arrays.asList("a", "a", "b", "d", "a", "nope", "c"),
+                                    Arrays.asList("d", "a", "d", "a", "lonely", "a", "d"));
+
+    assertEquals(2, lengths[0]);
+    assertEquals("A vertex reaches itself in 0 edges", 0, lengths[1]);
+    assertEquals(2, lengths[2]);
+    assertEquals("No path backwards", Integer.MAX_VALUE, lengths[3]);
+    assertEquals(Integer.MAX_VALUE, lengths[4]);
+    assertEquals("Missing vertices have no path", Integer.MAX_VALUE, lengths[5]);
+    assertEquals(1, lengths[6]);
+
+    boolean[] reachable = bfs.hasPaths(Arrays.asList("a", "d"), Arrays.asList("d", "a"));
+    assertTrue(reachable[0]);
+    assertFalse(reachable[1]);
+  }
+
+  @Test
+  public void testLongChain()
+  {
+    // Each level reaches one new vertex, so a search that walked every
+    // vertex per level would take n * n steps here
+    Graph<Integer> chain = new GraphFactory<Integer>().createGraph();
+    int n = 80000;
+    for (int i = 0; i + 1 < n; i++) {
+      chain.addEdge(i, i + 1);
+    }
+
+    long start = System.nanoTime();
+    int[] lengths = new MultiSourceBfs<Integer>(chain).pathLengths(Arrays.asList(0, 1, n - 1, 5),
+                                                                   Arrays.asList(n - 1, n / 2, 0, 5));
+    long millis = (System.nanoTime() - start) / 1000000;
+
+    assertEquals(n - 1, lengths[0]);
+    assertEquals(n / 2 - 1, lengths[1]);
+    assertEquals(Integer.MAX_VALUE, lengths[2]);
+    assertEquals(0, lengths[3]);
+    assertTrue("A chain of " + n + " took " + millis + "ms", millis < 5000);
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testMismatchedLists()
+  {
+    g.addVertex("a");
+    new MultiSourceBfs<String>(g).pathLengths(Arrays.asList("a"), new ArrayList<String>());
+  }
+
+  @Test
+  public void testManySourcesMatchSingleSearches()
+  {
+    // More than 64 distinct sources, so several groups run
+    Random random = new Random(39);
+    Graph<Integer> graph = new GraphFactory<Integer>().createGraph();
+    int n = 500;
+    for (int i = 0; i < n; i++) {
+      graph.addVertex(i);
+    }
+    for (int i = 0; i < n * 3; i++) {
+      graph.addEdge(random.nextInt(n), random.nextInt(n));
+    }
+    List<Integer> from = new ArrayList<Integer>();
+    List<Integer> to = new ArrayList<Integer>();
+    for (int q = 0; q < 1000; q++) {
+      from.add(random.nextInt(200));
+      to.add(random.nextInt(n));
+    }
+
+    int[] lengths = new MultiSourceBfs<Integer>(graph).pathLengths(from, to);
+
+    for (int q = 0; q < from.size(); q++) {
+      assertEquals("Query " + from.get(q) + " to " + to.get(q),
+                   graph.pathLength(from.get(q), to.get(q)), lengths[q]);
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class ObservableGraphTests
+{
+  private List<GraphEvent<String>> seen;
+  private List<Integer> batchSizes;
+  private GraphListener<String> recorder;
+
+  @Before
+  public void setUp()
+  {
+    seen = new ArrayList<GraphEvent<String>>();
+    batchSizes = new ArrayList<Integer>();
+    recorder = new GraphListener<String>() {
+      public void graphChanged(List<GraphEvent<String>> events)
+      {
+        synchronized (seen) {
+          seen.addAll(events);
+          batchSizes.add(events.size());
+        }
+      }
+    };
+  }
+
+  private static GraphEvent<String> event(GraphEvent.Type type, String from, String to)
+  {
+    return new GraphEvent<String>(type, from, to);
+  }
+
+  @Test
+  public void testOnlyRealChangesAreReported()
+  {
+    ObservableGraph<String> g =
+      ObservableGraph.synchronous(new GraphFactory<String>().createGraph(), 1);
+    g.addListener(recorder);
+
+    g.addEdge("a", "b");
+    g.addVertex("a");
+    g.addEdge("b", "b");
+    g.removeEdge("b", "a");
+    g.removeEdge("a", "b");
+    g.removeVertex("nope");
+    g.removeVertex("a");
+
+    List<GraphEvent<String>> expected = new ArrayList<GraphEvent<String>>();
+    expected.add(event(GraphEvent.Type.VERTEX_ADDED, "a", null));
+    expected.add(event(GraphEvent.Type.VERTEX_ADDED, "b", null));
+    expected.add(event(GraphEvent.Type.EDGE_ADDED, "a", "b"));
+    expected.add(event(GraphEvent.Type.EDGE_ADDED, "b", "b"));
+    expected.add(event(GraphEvent.Type.EDGE_REMOVED, "a", "b"));
+    expected.add(event(GraphEvent.Type.VERTEX_REMOVED, "a", null));
+    assertEquals(expected, seen);
+  }
+
+  @Test
+  public void testSynchronousBatches()
+  {
+    ObservableGraph<String> g =
+      ObservableGraph.synchronous(new GraphFactory<String>().createGraph(), 3);
+    g.addListener(recorder);
+
+    g.addEdge("a", "b");
+    assertEquals("A full batch is delivered at once", 3, seen.size());
+    g.addVertex("c");
+    g.addVertex("d");
+    assertEquals("A partial batch waits", 3, seen.size());
+    g.flush();
+    assertEquals(5, seen.size());
+    assertEquals("[3, 2]", batchSizes.toString());
+  }
+
+  @Test
+  public void testAsynchronousDeliversInOrder()
+  {
+    ObservableGraph<String> g =
+      ObservableGraph.asynchronous(new GraphFactory<String>().createGraph(), 16, 8);
+    g.addListener(recorder);
+
+    for (int i = 0; i < 500; i++) {
+      g.addVertex("v" + i);
+    }
+    g.flush();
+    g.close();
+
+    assertEquals(500, seen.size());
+    for (int i = 0; i < 500; i++) {
+      assertEquals(event(GraphEvent.Type.VERTEX_ADDED, "v" + i, null), seen.get(i));
+    }
+    for (int size : batchSizes) {
+      assertTrue("Batches are at most 16 events", size <= 16);
+    }
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testAsynchronousFailureSurfacesOnFlush()
+  {
+    ObservableGraph<String> g =
+      ObservableGraph.asynchronous(new GraphFactory<String>().createGraph(), 4, 4);
+    g.addListener(new GraphListener<String>() {
+      public void graphChanged(List<GraphEvent<String>> events)
+      {
+        throw new IllegalStateException("listener broke");
+      }
+    });
+    g.addVertex("a");
+    try {
+      g.flush();
+    }
+    finally {
+      g.close();
+    }
+  }
+
+  @Test
+  public void testRemoveVertexReportsItsEdges()
+  {
+    ObservableGraph<String> g =
+      ObservableGraph.synchronous(new GraphFactory<String>().createGraph(), 1);
+    g.addEdge("a", "b");
+    g.addEdge("c", "a");
+    g.addEdge("a", "a");
+    g.addEdge("b", "c");
+    g.addListener(recorder);
+
+    g.removeVertex("a");
+
+    List<GraphEvent<String>> expected = new ArrayList<GraphEvent<String>>();
+    expected.add(event(GraphEvent.Type.EDGE_REMOVED, "a", "b"));
+    expected.add(event(GraphEvent.Type.EDGE_REMOVED, "a", "a"));
+    expected.add(event(GraphEvent.Type.EDGE_REMOVED, "c", "a"));
+    expected.add(event(GraphEvent.Type.VERTEX_REMOVED, "a", null));
+    assertEquals(expected, seen);
+    assertEquals(1, g.numEdges());
+  }
+
+  @Test
+  public void testUndirectedRemoveVertexReportsEdgesOnce()
+  {
+    ObservableGraph<String> g =
+      ObservableGraph.synchronous(new GraphFactory<String>().setDirected(false).createGraph(), 1);
+    g.addEdge("a", "b");
+    g.addEdge("c", "a");
+    g.addEdge("a", "a");
+    g.addEdge("b", "c");
+    g.addListener(recorder);
+
+    g.removeVertex("a");
+
+    List<GraphEvent<String>> expected = new ArrayList<GraphEvent<String>>();
+    expected.add(event(GraphEvent.Type.EDGE_REMOVED, "a", "b"));
+    expected.add(event(GraphEvent.Type.EDGE_REMOVED, "a", "c"));
+    expected.add(event(GraphEvent.Type.EDGE_REMOVED, "a", "a"));
+    expected.add(event(GraphEvent.Type.VERTEX_REMOVED, "a", null));
+    assertEquals(expected, seen);
+    assertEquals(1, g.numEdges());
+  }
+
+  @Test
+  public void testInterruptedPublishDoesNotBlockFlush()
+  {
+    ObservableGraph<String> g =
+      ObservableGraph.asynchronous(new GraphFactory<String>().createGraph(), 4, 4);
+    g.addListener(recorder);
+    g.addVertex("a");
+    Thread.currentThread().interrupt();
+    try {
+      g.addVertex("b");
+    }
+    catch (RuntimeException e) {
+      // expected: the event could not be queued
+    }
+    assertTrue("The interrupt is kept", Thread.interrupted());
+
+    g.flush();
+    g.close();
+    assertEquals(event(GraphEvent.Type.VERTEX_ADDED, "a", null), seen.get(0));
+  }
+}
@@ -0,0 +1,125 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+@RunWith(JUnit4.class)
+public class PageRankTests
+{
+  private Graph<String> g;
+
+  @Before
+  public void setUp()
+  {
+    g = new GraphFactory<String>().createGraph();
+  }
+
+  private double total(Map<String, Double> ranks)
+  {
+    double sum = 0;
+    for (double rank : ranks.values()) {
+      sum += rank;
+    }
+    return sum;
+  }
+
+  @Test
+  public void testCycleIsUniform()
+  {
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("c", "a");
+
+    Map<String, Double> ranks = new PageRank<String>(g).ranks();
+
+    for (double rank : ranks.values()) {
+      assertEquals("Every vertex on a cycle is equal", 1.0 / 3, rank, 1e-9);
+    }
+  }
+
+  @Test
+  public void testMatchesSerialPowerIteration()
+  {
+    // A small web with a dangling page
+    g.addEdge("a", "b");
+    g.addEdge("a", "c");
+    g.addEdge("b", "c");
+    g.addEdge("c", "a");
+    g.addEdge("d", "c");
+    g.addEdge("d", "e");
+    String[] names = { "a", "b", "c", "d", "e" };
+
+    double d = 0.85;
+    double[] rank = { 0.2, 0.2, 0.2, 0.2, 0.2 };
+    for (int iteration = 0; iteration < 200; iteration++) {
+      double dangling = rank[4];
+      double[] next = new double[5];
+      for (int v = 0; v < 5; v++) {
+        next[v] = (1 - d) / 5 + d * dangling / 5;
+      }
+      next[1] += d * rank[0] / 2;
+      next[2] += d * (rank[0] / 2 + rank[1] + rank[3] / 2);
+      next[0] += d * rank[2];
+      next[4] += d * rank[3] / 2;
+      rank = next;
+    }
+
+    PageRank<String> pageRank = new PageRank<String>(g, new ForkJoinPool(3));
+    Map<String, Double> ranks = pageRank.setDamping(d).setTolerance(1e-12).ranks();
+    for (int v = 0; v < 5; v++) {
+      assertEquals("Rank of " + names[v], rank[v], ranks.get(names[v]), 1e-9);
+    }
+    assertEquals("Ranks sum to one", 1.0, total(ranks), 1e-9);
+    assertTrue("Converges before the limit",
+               pageRank.iterations() < PageRank.DEFAULT_MAX_ITERATIONS);
+  }
+
+  @Test
+  public void testPersonalised()
+  {
+    for (int i = 0; i < 10; i++) {
+      g.addEdge("v" + i, "v" + ((i + 1) % 10));
+      g.addEdge("v" + i, "v" + ((i + 3) % 10));
+    }
+    Map<String, Double> plain = new PageRank<String>(g).ranks();
+
+    Map<String, Double> preference = new HashMap<String, Double>();
+    preference.put("v4", 1.0);
+    Map<String, Double> personal = new PageRank<String>(g).setPreference(preference).ranks();
+
+    assertTrue("The preferred vertex gains rank", personal.get("v4") > plain.get("v4"));
+    assertEquals("Personalised ranks still sum to one", 1.0, total(personal), 1e-9);
+  }
+
+  @Test
+  public void testEigenvectorCentralityOfStar()
+  {
+    int leaves = 4;
+    for (int i = 0; i < leaves; i++) {
+      g.addEdge("hub", "leaf" + i);
+      g.addEdge("leaf" + i, "hub");
+    }
+    // Make the graph aperiodic so power iteration settles
+    g.addEdge("hub", "hub");
+
+    Map<String, Double> centrality =
+      new PageRank<String>(g).setMaxIterations(1000).eigenvectorCentrality();
+
+    double hub = centrality.get("hub");
+    double leaf = centrality.get("leaf0");
+    double lambda = (1 + Math.sqrt(1 + 4 * leaves)) / 2;
+    assertEquals("Hub to leaf ratio is the eigenvalue", lambda, hub / leaf, 1e-6);
+    assertEquals("Leaves are equal", leaf, centrality.get("leaf3"), 1e-9);
+  }
+}
@@ -0,0 +1,142 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+@RunWith(JUnit4.class)
+public class PathEnumeratorTests
+{
+  private static <V> List<List<V>> listOf(Iterable<List<V>> paths)
+  {
+    List<List<V>> list = new ArrayList<List<V>>();
+    for (List<V> path : paths) {
+      list.add(path);
+    }
+    return list;
+  }
+
+  // Two ways round a square, plus a long way from a to d
+  private static Graph<String> square()
+  {
+    Graph<String> g = new GraphImpl<String>();
+    g.addEdge("a", "b");
+    g.addEdge("a", "c");
+    g.addEdge("b", "d");
+    g.addEdge("c", "d");
+    g.addEdge("a", "x");
+    g.addEdge("x", "y");
+    g.addEdge("y", "d");
+    g.addEdge("b", "c");
+    return g;
+  }
+
+  @Test
+  public void testAllShortestPaths()
+  {
+    PathEnumerator<String> paths = new PathEnumerator<String>(square());
+    List<List<String>> shortest = listOf(paths.allShortestPaths("a", "d"));
+
+    assertEquals(2, shortest.size());
+    assertTrue(shortest.toString(), shortest.toString().contains("[a, b, d]"));
+    assertTrue(shortest.toString(), shortest.toString().contains("[a, c, d]"));
+    assertEquals("[[a]]", listOf(paths.allShortestPaths("a", "a")).toString());
+    assertEquals(0, listOf(paths.allShortestPaths("d", "a")).size());
+    assertEquals(0, listOf(paths.allShortestPaths("a", "nope")).size());
+  }
+
+  @Test
+  public void testRepeatedEdgesDoNotRepeatPaths()
+  {
+    Graph<String> g = square();
+    g.addEdge("a", "b");
+    g.addEdge("b", "d");
+
+    assertEquals(2, listOf(new PathEnumerator<String>(g).allShortestPaths("a", "d")).size());
+  }
+
+  @Test
+  public void testExponentiallyManyShortestPaths()
+  {
+    // A ladder of 20 diamonds has 2^20 shortest paths; take a few lazily
+    Graph<Integer> g = new GraphImpl<Integer>();
+    for (int k = 0; k < 20; k++) {
+      int top = 3 * k;
+      g.addEdge(top, top + 1);
+      g.addEdge(top, top + 2);
+      g.addEdge(top + 1, top + 3);
+      g.addEdge(top + 2, top + 3);
+    }
+    Iterator<List<Integer>> it = new PathEnumerator<Integer>(g).allShortestPaths(0, 60).iterator();
+    Set<List<Integer>> seen = new HashSet<List<Integer>>();
+    for (int k = 0; k < 1000; k++) {
+      List<Integer> path = it.next();
+      assertEquals(41, path.size());
+      assertTrue("Each path once", seen.add(path));
+    }
+    assertTrue(it.hasNext());
+
+    // A smaller ladder can be listed in full
+    Graph<Integer> small = new GraphImpl<Integer>();
+    for (int k = 0; k < 6; k++) {
+      small.addEdge(3 * k, 3 * k + 1);
+      small.addEdge(3 * k, 3 * k + 2);
+      small.addEdge(3 * k + 1, 3 * k + 3);
+      small.addEdge(3 * k + 2, 3 * k + 3);
+    }
+    assertEquals(64, listOf(new PathEnumerator<Integer>(small).allShortestPaths(0, 18)).size());
+  }
+
+  @Test
+  public void testKShortestSimplePaths()
+  {
+    PathEnumerator<String> paths = new PathEnumerator<String>(square());
+    List<List<String>> all = listOf(paths.shortestSimplePaths("a", "d"));
+
+    assertEquals("[[a, b, d], [a, c, d], [a, b, c, d], [a, x, y, d]]", all.toString());
+    assertEquals(all.subList(0, 2), paths.kShortestPaths("a", "d", 2));
+    assertEquals("[[a]]", paths.kShortestPaths("a", "a", 5).toString());
+    assertEquals(0, paths.kShortestPaths("d", "a", 5).size());
+  }
+
+  @Test
+  public void testSimplePathsOnCycles()
+  {
+    // Every simple path from 0 to 3 in a complete graph on 5 vertices:
+    // 1 direct, 3 through one vertex, 6 through two, 6 through three
+    Graph<Integer> g = new GraphImpl<Integer>();
+    for (int u = 0; u < 5; u++) {
+      for (int v = 0; v < 5; v++) {
+        if (u != v) {
+          g.addEdge(u, v);
+        }
+      }
+    }
+    List<List<Integer>> all = listOf(new PathEnumerator<Integer>(g).shortestSimplePaths(0, 3));
+
+    assertEquals(16, all.size());
+    assertEquals(new HashSet<List<Integer>>(all).size(), all.size());
+    int previous = 0;
+    for (List<Integer> path : all) {
+      assertTrue("Paths come shortest first", path.size() >= previous);
+      previous = path.size();
+      assertEquals("Simple", new HashSet<Integer>(path).size(), path.size());
+      for (int i = 0; i + 1 < path.size(); i++) {
+        assertTrue(g.hasEdge(path.get(i), path.get(i + 1)));
+      }
+    }
+    assertEquals("[0, 3]", all.get(0).toString());
+  }
+}
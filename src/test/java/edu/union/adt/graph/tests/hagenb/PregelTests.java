@@ -0,0 +1,120 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+@RunWith(JUnit4.class)
+public class PregelTests
+{
+  private Graph<Integer> g;
+
+  @Before
+  public void setUp()
+  {
+    g = new WeightedGraphImpl<Integer>();
+    // Two undirected rings of 300 and 200 vertices with chords
+    for (int i = 0; i < 300; i++) {
+      g.addEdge(i, (i + 1) % 300);
+      g.addEdge((i + 1) % 300, i);
+      g.addEdge(i, (i * 17) % 300);
+    }
+    for (int i = 0; i < 200; i++) {
+      g.addEdge(1000 + i, 1000 + (i + 1) % 200);
+      g.addEdge(1000 + (i + 1) % 200, 1000 + i);
+    }
+  }
+
+  @Test
+  public void testBfsLevelsMatchPathLength()
+  {
+    Pregel<Integer> engine = new Pregel<Integer>(g, new ForkJoinPool(4));
+    double[] levels = engine.run(VertexPrograms.bfsLevels(engine.indexOf(5)), 1000);
+
+    for (int i = 0; i < levels.length; i++) {
+      int expected = g.pathLength(5, engine.vertex(i));
+      if (expected == Integer.MAX_VALUE) {
+        assertEquals("Unreachable vertices stay infinite",
+                     Double.POSITIVE_INFINITY, levels[i], 0.0);
+      }
+      else {
+        assertEquals("Level of " + engine.vertex(i), expected, levels[i], 0.0);
+      }
+    }
+    assertTrue("The run halts once levels settle", engine.supersteps() < 1000);
+  }
+
+  @Test
+  public void testMinLabelComponents()
+  {
+    Pregel<Integer> engine = new Pregel<Integer>(g);
+    Map<Integer, Double> labels = engine.byVertex(engine.run(VertexPrograms.minLabel(), 1000));
+
+    assertEquals("First ring is labelled by its first vertex",
+                 engine.indexOf(0), labels.get(150), 0.0);
+    assertEquals("Second ring has its own label",
+                 engine.indexOf(1000), labels.get(1150), 0.0);
+  }
+
+  @Test
+  public void testUncombinedMessagesAllArrive()
+  {
+    // Every vertex sends its degree to its neighbours once; each then
+    // sums what it got and the number of messages is its in-degree
+    VertexProgram inDegree = new VertexProgram() {
+      public double initialValue(int vertex, int numVertices)
+      {
+        return 0;
+      }
+
+      public void compute(VertexContext context)
+      {
+        if (context.superstep() == 0) {
+          context.sendToNeighbors(1);
+        }
+        else {
+          double total = 0;
+          for (int i = 0; i < context.numMessages(); i++) {
+            total += context.message(i);
+          }
+          context.setValue(total);
+        }
+        context.voteToHalt();
+      }
+    };
+    Pregel<Integer> engine = new Pregel<Integer>(g, new ForkJoinPool(3));
+    double[] counts = engine.run(inDegree, 10);
+
+    int[] expected = new int[counts.length];
+    for (Integer from : g.getVertices()) {
+      for (Integer to : g.adjacentTo(from)) {
+        expected[engine.indexOf(to)]++;
+      }
+    }
+    for (int i = 0; i < counts.length; i++) {
+      assertEquals("In-degree of " + engine.vertex(i), expected[i], counts[i], 0.0);
+    }
+    assertEquals("Two supersteps are enough", 2, engine.supersteps());
+  }
+
+  @Test
+  public void testMaxSupersteps()
+  {
+    Pregel<Integer> engine = new Pregel<Integer>(g);
+    double[] levels = engine.run(VertexPrograms.bfsLevels(engine.indexOf(0)), 3);
+
+    assertEquals("The run stops at the limit", 3, engine.supersteps());
+    assertEquals("Close vertices are reached", 1.0, levels[engine.indexOf(1)], 0.0);
+    assertEquals("Far vertices are not",
+                 Double.POSITIVE_INFINITY, levels[engine.indexOf(150)], 0.0);
+  }
+}
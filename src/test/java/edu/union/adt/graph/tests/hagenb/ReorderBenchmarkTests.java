@@ -0,0 +1,76 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+/**
+ * Measures what GraphImpl.reorder buys: full searches on a large grid
+ * whose vertices were added in a shuffled order are timed before and
+ * after each ordering, and the speedups are printed.  BFS and Reverse
+ * Cuthill-McKee order must be at least MIN_SPEEDUP times faster than
+ * the shuffled one; the exact gain depends on the machine's caches,
+ * and is usually well over 2x.  Degree order is only reported: nearly
+ * every grid vertex has the same degree, so it gives the grid no
+ * locality.
+ */
+@RunWith(JUnit4.class)
+public class ReorderBenchmarkTests
+{
+  private static final int SIDE = 400;
+
+  // Searches per timed run, each crossing the whole grid
+  private static final int SEARCHES = 8;
+
+  // Timed runs; the fastest counts
+  private static final int REPEATS = 5;
+
+  // A locality ordering must make searches at least this much faster
+  private static final double MIN_SPEEDUP = 1.2;
+
+  // Best time for SEARCHES corner to corner path lengths, in nanoseconds
+  private static long time(GraphImpl<Integer> graph)
+  {
+    int last = SIDE * SIDE - 1;
+    long best = Long.MAX_VALUE;
+    for (int k = 0; k < REPEATS; k++) {
+      long start = System.nanoTime();
+      for (int s = 0; s < SEARCHES; s++) {
+        int from = s % 2 == 0 ? 0 : SIDE - 1;
+        int to = s % 2 == 0 ? last : last - SIDE + 1;
+        assertEquals(2 * (SIDE - 1), graph.pathLength(from, to));
+      }
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best;
+  }
+
+  @Test
+  public void testReorderSpeedsUpSearches()
+  {
+    StringBuilder report = new StringBuilder("reorder on a shuffled " + SIDE + "x" + SIDE + " grid:");
+    GraphImpl<Integer> shuffled = GraphReorderTests.shuffledGrid(SIDE, SIDE, 48);
+    long baseline = time(shuffled);
+    report.append(String.format(" shuffled %.1f ms;", baseline / 1e6));
+
+    for (GraphImpl.Ordering ordering : GraphImpl.Ordering.values()) {
+      GraphImpl<Integer> graph = GraphReorderTests.shuffledGrid(SIDE, SIDE, 48);
+      long start = System.nanoTime();
+      graph.reorder(ordering);
+      long reorderTime = System.nanoTime() - start;
+      long reordered = time(graph);
+      double speedup = (double) baseline / reordered;
+      report.append(String.format(" %s %.1f ms (speedup %.2fx, reorder took %.1f ms);", ordering,
+                                  reordered / 1e6, speedup, reorderTime / 1e6));
+      if (ordering != GraphImpl.Ordering.DEGREE) {
+        assertTrue(report.toString(), speedup >= MIN_SPEEDUP);
+      }
+    }
+    System.out.println(report);
+  }
+}
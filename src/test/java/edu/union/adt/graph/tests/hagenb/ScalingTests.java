@@ -0,0 +1,287 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.Random;
+
+/**
+ * Complexity checks: each operation is timed at five sizes, each
+ * double the last, and a straight line is fitted through the log of
+ * its cost per operation against the log of the size.  The slope of
+ * that line is the power of the size the cost grows with.  Work that
+ * grows linearly with the size has a slope near 0, apart from the
+ * slowdown as the data outgrows each cache; random lookups get slower
+ * all the way from 20000 to 320000 vertices, which can lift their
+ * slope to about 0.7.  Work that is accidentally quadratic has a slope
+ * of at least 1, and fails.
+ */
+@RunWith(JUnit4.class)
+public class ScalingTests
+{
+  // A fitted slope above this means super-linear work
+  private static final double MAX_SLOPE = 0.8;
+
+  // Timed runs at each size; the fastest counts
+  private static final int REPEATS = 3;
+
+  /**
+   * Something to time.  prepare builds the input for a size outside
+   * the timing, and run does the timed work and tells how many
+   * operations it made.
+   */
+  private abstract static class Workload
+  {
+    abstract void prepare(int n);
+
+    abstract int run(int n);
+  }
+
+  /**
+   * Times a workload at doubling sizes and fails if the least squares
+   * slope of log cost per operation against log size is more than
+   * MAX_SLOPE.  When each operation is expected to cost time
+   * proportional to the size, throughput is counted in operations
+   * times size per second.
+   */
+  private static void assertScales(String what, int baseSize, boolean linearPerOp, Workload workload)
+  {
+    int[] sizes = {baseSize, baseSize * 2, baseSize * 4, baseSize * 8, baseSize * 16};
+    double[] rates = new double[sizes.length];
+    // Warm up so the first size is not timed in the interpreter
+    for (int k = 0; k < REPEATS; k++) {
+      workload.prepare(baseSize);
+      workload.run(baseSize);
+    }
+    StringBuilder report = new StringBuilder();
+    for (int i = 0; i < sizes.length; i++) {
+      int n = sizes[i];
+      long best = Long.MAX_VALUE;
+      int ops = 0;
+      for (int k = 0; k < REPEATS; k++) {
+        workload.prepare(n);
+        // Settle the prepared data into the old generation so young
+        // collections during the run do not copy it over and over
+        System.gc();
+        long start = System.nanoTime();
+        ops = workload.run(n);
+        best = Math.min(best, Math.max(1, System.nanoTime() - start));
+      }
+      double opsPerSecond = ops * 1e9 / best;
+      rates[i] = linearPerOp ? opsPerSecond * n : opsPerSecond;
+      report.append(String.format(" n=%d: %.0f ops/s;", n, opsPerSecond));
+    }
+    double slope = slope(sizes, rates);
+    assertTrue(String.format("%s grows faster than expected (cost grows with size to the power %.2f):%s",
+                             what, slope, report),
+               slope <= MAX_SLOPE);
+  }
+
+  // Least squares slope of log(1 / rate) against log(size)
+  private static double slope(int[] sizes, double[] rates)
+  {
+    double meanX = 0;
+    double meanY = 0;
+    for (int i = 0; i < sizes.length; i++) {
+      meanX += Math.log(sizes[i]) / sizes.length;
+      meanY += -Math.log(rates[i]) / sizes.length;
+    }
+    double covariance = 0;
+    double variance = 0;
+    for (int i = 0; i < sizes.length; i++) {
+      double dx = Math.log(sizes[i]) - meanX;
+      covariance += dx * (-Math.log(rates[i]) - meanY);
+      variance += dx * dx;
+    }
+    return covariance / variance;
+  }
+
+  // A graph of n vertices 0 .. n-1 with about 4n random edges
+  private static GraphImpl<Integer> randomGraph(int n, long seed)
+  {
+    return GraphGenerator.erdosRenyi(n, 4.0 / (n - 1), seed).toGraph();
+  }
+
+  @Test
+  public void testAddEdge()
+  {
+    assertScales("addEdge", 20000, false, new Workload() {
+      int[] ends;
+
+      void prepare(int n)
+      {
+        Random random = new Random(1);
+        ends = new int[n * 8];
+        for (int k = 0; k < ends.length; k++) {
+          ends[k] = random.nextInt(n);
+        }
+      }
+
+      int run(int n)
+      {
+        Graph<Integer> graph = new GraphImpl<Integer>();
+        for (int k = 0; k < ends.length; k += 2) {
+          graph.addEdge(ends[k], ends[k + 1]);
+        }
+        return ends.length / 2;
+      }
+    });
+  }
+
+  @Test
+  public void testEdgeQueries()
+  {
+    assertScales("hasEdge and adjacentTo", 20000, false, new Workload() {
+      GraphImpl<Integer> graph;
+      // Keeps the answers used so the queries are not optimized away
+      int found;
+
+      void prepare(int n)
+      {
+        if (graph == null || graph.numVertices() != n) {
+          graph = randomGraph(n, 2);
+        }
+      }
+
+      int run(int n)
+      {
+        Random random = new Random(3);
+        for (int k = 0; k < n * 2; k++) {
+          int from = random.nextInt(n);
+          if (graph.hasEdge(from, random.nextInt(n))) {
+            found++;
+          }
+          for (Integer to : graph.adjacentTo(from)) {
+            found += to & 1;
+          }
+        }
+        return n * 4;
+      }
+    });
+  }
+
+  @Test
+  public void testGetPathOnChain()
+  {
+    assertScales("getPath", 20000, true, new Workload() {
+      GraphImpl<Integer> chain;
+
+      void prepare(int n)
+      {
+        if (chain == null || chain.numVertices() != n) {
+          chain = new GraphImpl<Integer>(n);
+          for (int v = 0; v + 1 < n; v++) {
+            chain.addEdge(v, v + 1);
+          }
+        }
+      }
+
+      int run(int n)
+      {
+        for (int k = 0; k < 10; k++) {
+          chain.getPath(0, n - 1);
+          chain.pathLength(0, n - 1);
+        }
+        return 20;
+      }
+    });
+  }
+
+  @Test
+  public void testRemoveVertex()
+  {
+    assertScales("removeVertex", 10000, true, new Workload() {
+      GraphImpl<Integer> graph;
+
+      void prepare(int n)
+      {
+        graph = randomGraph(n, 4);
+      }
+
+      int run(int n)
+      {
+        for (int k = 0; k < 20; k++) {
+          graph.removeVertex(n / 2 + k);
+        }
+        return 20;
+      }
+    });
+  }
+
+  @Test
+  public void testRemoveEdge()
+  {
+    assertScales("removeEdge", 20000, false, new Workload() {
+      GraphImpl<Integer> graph;
+
+      void prepare(int n)
+      {
+        graph = randomGraph(n, 5);
+      }
+
+      int run(int n)
+      {
+        Random random = new Random(5);
+        for (int e = 0; e < n * 4; e++) {
+          graph.removeEdge(random.nextInt(n), random.nextInt(n));
+        }
+        return n * 4;
+      }
+    });
+  }
+
+  @Test
+  public void testEquals()
+  {
+    assertScales("equals", 10000, true, new Workload() {
+      GraphImpl<Integer> first;
+      GraphImpl<Integer> second;
+
+      void prepare(int n)
+      {
+        if (first == null || first.numVertices() != n) {
+          first = randomGraph(n, 6);
+          second = randomGraph(n, 6);
+        }
+      }
+
+      int run(int n)
+      {
+        for (int k = 0; k < 5; k++) {
+          assertTrue(first.equals(second));
+        }
+        return 5;
+      }
+    });
+  }
+
+  @Test
+  public void testDiff()
+  {
+    assertScales("GraphPatch.diff", 10000, true, new Workload() {
+      GraphImpl<Integer> before;
+      GraphImpl<Integer> after;
+
+      void prepare(int n)
+      {
+        if (before == null || before.numVertices() != n) {
+          before = randomGraph(n, 7);
+          after = randomGraph(n, 7);
+          after.removeVertex(0);
+          after.addEdge(1, 2);
+        }
+      }
+
+      int run(int n)
+      {
+        GraphPatch.diff(before, after);
+        return 1;
+      }
+    });
+  }
+}
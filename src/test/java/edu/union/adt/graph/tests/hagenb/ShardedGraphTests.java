@@ -0,0 +1,199 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+@RunWith(JUnit4.class)
+public class ShardedGraphTests
+{
+  private ShardedGraph<Integer> g;
+
+  @Before
+  public void setUp()
+  {
+    g = new ShardedGraph<Integer>(4);
+  }
+
+  @Test
+  public void testBasicOperations()
+  {
+    g.addEdge(1, 2);
+    g.addEdge(1, 2);
+    g.addEdge(2, 3);
+    g.addVertex(4);
+
+    assertEquals("Four vertices", 4, g.numVertices());
+    assertEquals("Duplicate edges are not added", 2, g.numEdges());
+    assertTrue("Edges are found", g.hasEdge(1, 2));
+    assertFalse("Edges are directed", g.hasEdge(2, 1));
+    assertEquals("Degree counts out-edges", 1, g.degree(1));
+
+    g.removeVertex(2);
+    assertEquals("Edges into and out of a removed vertex go too", 0, g.numEdges());
+    assertEquals("Boundary edges are forgotten too", 0, g.numBoundaryEdges());
+  }
+
+  @Test
+  public void testEqualsGraphImpl()
+  {
+    Graph<Integer> plain = new GraphImpl<Integer>();
+    for (int i = 0; i < 20; i++) {
+      g.addEdge(i, (i * 7) % 20);
+      plain.addEdge(i, (i * 7) % 20);
+    }
+    assertTrue("Same vertices and edges are equal", g.equals(plain));
+    assertTrue("Equality works both ways", plain.equals(g));
+  }
+
+  @Test
+  public void testBoundaryEdges()
+  {
+    int expected = 0;
+    for (int i = 0; i < 50; i++) {
+      g.addEdge(i, i + 1);
+      if (g.shardOf(i) != g.shardOf(i + 1)) {
+        expected++;
+      }
+    }
+    assertEquals("Cross-shard edges are counted", expected, g.numBoundaryEdges());
+    assertTrue("A chain spreads across shards", expected > 0);
+  }
+
+  @Test
+  public void testPathsMatchGraphImpl()
+  {
+    Graph<Integer> plain = new GraphImpl<Integer>();
+    int size = 200;
+    for (int i = 0; i < size; i++) {
+      int[] targets = { (i * 3 + 1) % size, (i * i + 7) % size };
+      for (int to : targets) {
+        g.addEdge(i, to);
+        plain.addEdge(i, to);
+      }
+    }
+    g.addVertex(-1);
+    plain.addVertex(-1);
+
+    for (int from = 0; from < size; from += 13) {
+      for (int to = -1; to < size; to += 11) {
+        assertEquals(from + " -> " + to,
+                     plain.pathLength(from, to), g.pathLength(from, to));
+      }
+    }
+    List<Integer> path = g.getPath(0, 199);
+    for (int i = 0; i + 1 < path.size(); i++) {
+      assertTrue("Each step is an edge", g.hasEdge(path.get(i), path.get(i + 1)));
+    }
+  }
+
+  @Test
+  public void testConcurrentIngestion() throws InterruptedException
+  {
+    final int threads = 4;
+    final int perThread = 5000;
+    List<Thread> workers = new ArrayList<Thread>();
+    for (int t = 0; t < threads; t++) {
+      final int offset = t * perThread;
+      Thread worker = new Thread(new Runnable() {
+        public void run()
+        {
+          for (int i = 0; i < perThread; i++) {
+            g.addEdge(offset + i, offset + i + 1);
+          }
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    assertEquals("Every edge is added exactly once",
+                 threads * perThread, g.numEdges());
+    assertEquals("Threads meet where their ranges touch",
+                 threads * perThread + 1, g.numVertices());
+    assertEquals("The whole chain is connected",
+                 threads * perThread, g.pathLength(0, threads * perThread));
+  }
+
+  @Test
+  public void testConcurrentAddAndRemove() throws InterruptedException
+  {
+    final int rounds = 20000;
+    Thread adder = new Thread(new Runnable() {
+      public void run()
+      {
+        for (int i = 1; i <= rounds; i++) {
+          g.addEdge(i, 0);
+        }
+      }
+    });
+    Thread remover = new Thread(new Runnable() {
+      public void run()
+      {
+        for (int i = 0; i < rounds; i++) {
+          g.removeVertex(0);
+        }
+      }
+    });
+    adder.start();
+    remover.start();
+    adder.join();
+    remover.join();
+
+    int edges = 0;
+    for (Integer v : g.getVertices()) {
+      for (Integer to : g.adjacentTo(v)) {
+        assertTrue("Edge " + v + " -> " + to + " leads to a vertex", g.contains(to));
+        edges++;
+      }
+    }
+    assertEquals(edges, g.numEdges());
+    g.getPath(rounds, 0);
+  }
+
+  @Test
+  public void testSearchWithWritersOnCommonPool() throws InterruptedException
+  {
+    // A long search holds the read locks while writers fill the common
+    // pool; the search's own steps must still get to run
+    final int n = 20000;
+    for (int i = 0; i < n; i++) {
+      g.addEdge(i, i + 1);
+    }
+    final int[] length = {-1};
+    Thread searcher = new Thread(new Runnable() {
+      public void run()
+      {
+        length[0] = g.pathLength(0, n);
+      }
+    });
+    searcher.start();
+    for (int t = 0; t < ForkJoinPool.getCommonPoolParallelism(); t++) {
+      final int vertex = n + 1 + t;
+      ForkJoinPool.commonPool().execute(new Runnable() {
+        public void run()
+        {
+          g.addEdge(vertex, 0);
+        }
+      });
+    }
+    searcher.join(30000);
+
+    assertFalse("The search finished", searcher.isAlive());
+    assertEquals(n, length[0]);
+  }
+}
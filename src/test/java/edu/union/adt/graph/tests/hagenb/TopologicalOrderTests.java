@@ -0,0 +1,110 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class TopologicalOrderTests
+{
+  private Graph<String> g;
+
+  @Before
+  public void setUp()
+  {
+    g = new GraphFactory<String>().createGraph();
+  }
+
+  @Test
+  public void testOrderRespectsEdges()
+  {
+    g.addEdge("shirt", "tie");
+    g.addEdge("tie", "jacket");
+    g.addEdge("pants", "shoes");
+    g.addEdge("pants", "belt");
+    g.addEdge("belt", "jacket");
+    g.addEdge("socks", "shoes");
+
+    TopologicalOrder<String> order = TopologicalOrder.of(g);
+    List<String> sorted = order.getOrder();
+
+    assertTrue("A DAG is acyclic", order.isAcyclic());
+    assertEquals("Every vertex is ordered", g.numVertices(), sorted.size());
+    for (String from : g.getVertices()) {
+      for (String to : g.adjacentTo(from)) {
+        assertTrue(from + " comes before " + to,
+                   sorted.indexOf(from) < sorted.indexOf(to));
+      }
+    }
+    assertTrue("No cycle in a DAG", order.findCycle().isEmpty());
+  }
+
+  @Test
+  public void testLayers()
+  {
+    g.addEdge("a", "c");
+    g.addEdge("b", "c");
+    g.addEdge("c", "d");
+    g.addEdge("a", "d");
+    g.addVertex("e");
+
+    TopologicalOrder<String> order = TopologicalOrder.of(g);
+
+    assertEquals("Three layers", 3, order.numLayers());
+    assertEquals("Sources come first", "[a, b, e]", order.getLayer(0).toString());
+    assertEquals("Then what they unblock", "[c]", order.getLayer(1).toString());
+    assertEquals("d waits for its last dependency", 2, order.layerOf("d"));
+  }
+
+  @Test
+  public void testCycle()
+  {
+    g.addEdge("start", "a");
+    g.addEdge("a", "b");
+    g.addEdge("b", "c");
+    g.addEdge("c", "a");
+    g.addEdge("c", "end");
+
+    TopologicalOrder<String> order = TopologicalOrder.of(g);
+    List<String> cycle = order.findCycle();
+
+    assertFalse("A cycle is detected", order.isAcyclic());
+    assertEquals("The cycle has three vertices", 3, cycle.size());
+    for (int i = 0; i < cycle.size(); i++) {
+      assertTrue("The cycle follows edges",
+                 g.hasEdge(cycle.get(i), cycle.get((i + 1) % cycle.size())));
+    }
+    assertEquals("Vertices before the cycle are layered", 0, order.layerOf("start"));
+    assertEquals("Vertices after the cycle are not", -1, order.layerOf("end"));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testNoOrderWithCycle()
+  {
+    g.addEdge("a", "a");
+    TopologicalOrder.of(g).getOrder();
+  }
+
+  @Test
+  public void testLongChain()
+  {
+    WeightedGraph<Integer> chain = new WeightedGraphImpl<Integer>();
+    int length = 100000;
+    for (int i = length; i > 0; i--) {
+      chain.addEdge(i - 1, i);
+    }
+    TopologicalOrder<Integer> order = TopologicalOrder.of(chain);
+
+    assertEquals("A chain has one layer per vertex", length + 1, order.numLayers());
+    assertEquals("The chain starts at 0", 0, (int) order.getOrder().get(0));
+  }
+}
@@ -0,0 +1,163 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+@RunWith(JUnit4.class)
+public class TrianglesTests
+{
+  private static final double DELTA = 1e-12;
+
+  // Triangles per vertex by checking every pair of neighbours, ignoring direction
+  private static long[] naive(Graph<Integer> g)
+  {
+    List<Integer> vertices = new ArrayList<Integer>();
+    for (Integer v : g.getVertices()) {
+      vertices.add(v);
+    }
+    long[] counts = new long[vertices.size()];
+    for (int i = 0; i < vertices.size(); i++) {
+      int v = vertices.get(i);
+      List<Integer> around = new ArrayList<Integer>(neighbours(g, v));
+      for (int a = 0; a < around.size(); a++) {
+        for (int b = a + 1; b < around.size(); b++) {
+          if (g.hasEdge(around.get(a), around.get(b)) || g.hasEdge(around.get(b), around.get(a))) {
+            counts[i]++;
+          }
+        }
+      }
+    }
+    return counts;
+  }
+
+  private static Set<Integer> neighbours(Graph<Integer> g, int v)
+  {
+    Set<Integer> around = new HashSet<Integer>();
+    for (Integer w : g.getVertices()) {
+      if (w != v && (g.hasEdge(v, w) || g.hasEdge(w, v))) {
+        around.add(w);
+      }
+    }
+    return around;
+  }
+
+  @Test
+  public void testSmallGraph()
+  {
+    GraphImpl<String> g = new GraphImpl<String>();
+    // a, b, c form a triangle with edges in mixed directions and a repeat
+    g.addEdge("a", "b");
+    g.addEdge("c", "b");
+    g.addEdge("a", "c");
+    g.addEdge("c", "a");
+    g.addEdge("a", "b");
+    // c, d, e form a second triangle; d has a self loop
+    g.addEdge("c", "d");
+    g.addEdge("d", "e");
+    g.addEdge("e", "c");
+    g.addEdge("d", "d");
+    g.addVertex("lone");
+
+    Triangles<String> t = Triangles.count(g);
+    assertEquals(2, t.total());
+    assertArrayEquals(new long[] {1, 1, 2, 1, 1, 0}, t.perVertex());
+    assertEquals(2, t.trianglesOf("c"));
+    assertEquals(-1, t.trianglesOf("missing"));
+    assertEquals(1.0, t.clusteringOf("a"), DELTA);
+    assertEquals(2.0 / 6, t.clusteringOf("c"), DELTA);
+    assertEquals(0.0, t.clusteringOf("lone"), DELTA);
+    assertArrayEquals(new double[] {1, 1, 2.0 / 6, 1, 1, 0}, t.localClustering(), DELTA);
+    assertEquals((4 + 2.0 / 6) / 6, t.averageClustering(), DELTA);
+    // 4 vertices with 2 neighbours and c with 4: 4 + 6 paths of two edges
+    assertEquals(3.0 * 2 / 10, t.globalClustering(), DELTA);
+  }
+
+  @Test
+  public void testEmptyAndTriangleFree()
+  {
+    Triangles<Integer> empty = Triangles.count(new GraphImpl<Integer>());
+    assertEquals(0, empty.total());
+    assertEquals(0, empty.perVertex().length);
+    assertEquals(0.0, empty.averageClustering(), DELTA);
+    assertEquals(0.0, empty.globalClustering(), DELTA);
+
+    Triangles<Integer> grid = Triangles.count(GraphGenerator.grid(20, 20).toGraph());
+    assertEquals(0, grid.total());
+    assertEquals(0.0, grid.globalClustering(), DELTA);
+  }
+
+  @Test
+  public void testMatchesNaiveCount()
+  {
+    GraphImpl<Integer> g = GraphGenerator.erdosRenyi(150, 0.05, 49).toGraph();
+    long[] expected = naive(g);
+    Triangles<Integer> t = Triangles.count(g);
+    assertArrayEquals(expected, t.perVertex());
+    long sum = 0;
+    for (long count : expected) {
+      sum += count;
+    }
+    assertEquals(sum / 3, t.total());
+
+    BitMatrixGraph<Integer> dense = new BitMatrixGraph<Integer>(8);
+    for (Edge<Integer> edge : GraphGenerator.rmat(7, 1500, 49).toGraph().edgeStream()
+           .collect(Collectors.<Edge<Integer>>toList())) {
+      dense.addEdge(edge.getFrom(), edge.getTo());
+    }
+    assertArrayEquals(naive(dense), Triangles.count(dense).perVertex());
+  }
+
+  @Test
+  public void testHubsAndThreadsAgree()
+  {
+    // A clique big enough that its vertices check each other with bitmaps
+    GraphImpl<Integer> g = new GraphImpl<Integer>();
+    int size = Triangles.HUB_LIST_LENGTH + 44;
+    for (int u = 0; u < size; u++) {
+      for (int v = u + 1; v < size; v++) {
+        g.addEdge(u, v);
+      }
+    }
+    // A tail of triangles hanging off vertex 0
+    for (int k = 0; k < 50; k++) {
+      g.addEdge(0, size + 2 * k);
+      g.addEdge(size + 2 * k, size + 2 * k + 1);
+      g.addEdge(size + 2 * k + 1, 0);
+    }
+    long clique = (long) size * (size - 1) * (size - 2) / 6;
+
+    Triangles<Integer> parallel = Triangles.count(g, new ForkJoinPool(4));
+    Triangles<Integer> single = Triangles.count(g, new ForkJoinPool(1));
+    assertEquals(clique + 50, parallel.total());
+    assertEquals((long) (size - 1) * (size - 2) / 2 + 50, parallel.trianglesOf(0));
+    assertEquals((long) (size - 1) * (size - 2) / 2, parallel.trianglesOf(1));
+    assertEquals(1, parallel.trianglesOf(size));
+    assertEquals(1.0, parallel.clusteringOf(1), DELTA);
+    assertArrayEquals(single.perVertex(), parallel.perVertex());
+    assertArrayEquals(single.localClustering(), parallel.localClustering(), DELTA);
+  }
+
+  @Test
+  public void testFollowsGetVerticesAfterReorder()
+  {
+    GraphImpl<Integer> g = GraphGenerator.barabasiAlbert(300, 3, 49).toGraph();
+    long[] before = Triangles.count(g).perVertex();
+    g.reorder(GraphImpl.Ordering.DEGREE);
+    Triangles<Integer> t = Triangles.count(g);
+    assertArrayEquals(before, t.perVertex());
+    assertEquals(before[7], t.trianglesOf(7));
+  }
+}
@@ -0,0 +1,136 @@
+package edu.union.adt.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.union.adt.graph.*;
+
+import java.util.ArrayList;
+
+@RunWith(JUnit4.class)
+public class WeightedGraphTests
+{
+  private WeightedGraph<String> g;
+
+  @Before
+  public void setUp()
+  {
+    GraphFactory<String> factory = new GraphFactory<String>();
+    g = factory.createWeightedGraph();
+  }
+
+  private ArrayList<String> toList(Iterable<String> path)
+  {
+    ArrayList<String> list = new ArrayList<String>();
+    for (String vertex : path) {
+      list.add(vertex);
+    }
+    return list;
+  }
+
+  @Test
+  public void testEdgeWeight()
+  {
+    g.addEdge("a", "b", 2.5);
+    g.addEdge("a", "c");
+
+    assertEquals("Weighted edges keep their weight",
+                 2.5, g.edgeWeight("a", "b"), 0.0);
+    assertEquals("Unweighted edges get the default weight",
+                 1.0, g.edgeWeight("a", "c"), 0.0);
+    assertTrue("Missing edges have no weight",
+               Double.isNaN(g.edgeWeight("b", "a")));
+
+    g.addEdge("a", "b", 4.0);
+    assertEquals("Re-adding an edge replaces its weight",
+                 4.0, g.edgeWeight("a", "b"), 0.0);
+    assertEquals("Re-adding an edge does not duplicate it",
+                 2, g.numEdges());
+  }
+
+  @Test
+  public void testCheapestPathIsNotFewestHops()
+  {
+    g.addEdge("a", "d", 10);
+    g.addEdge("a", "b", 1);
+    g.addEdge("b", "c", 1);
+    g.addEdge("c", "d", 1);
+
+    assertEquals("pathLength still counts edges",
+                 1, g.pathLength("a", "d"));
+    assertEquals("Weighted length takes the cheaper detour",
+                 3.0, g.weightedPathLength("a", "d"), 0.0);
+
+    ArrayList<String> path = toList(g.getWeightedPath("a", "d"));
+    assertEquals("Weighted path goes through every cheap edge",
+                 "[a, b, c, d]", path.toString());
+  }
+
+  @Test
+  public void testNoWeightedPath()
+  {
+    g.addEdge("a", "b", 3);
+    g.addVertex("c");
+
+    assertEquals("Unreachable vertices are infinitely far",
+                 Double.POSITIVE_INFINITY, g.weightedPathLength("a", "c"), 0.0);
+    assertFalse("There is no weighted path to an unreachable vertex",
+                g.getWeightedPath("a", "c").iterator().hasNext());
+    assertEquals("A vertex is zero away from itself",
+                 0.0, g.weightedPathLength("c", "c"), 0.0);
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testNegativeWeight()
+  {
+    g.addEdge("a", "b", -1);
+  }
+
+  @Test
+  public void testRemoveVertexKeepsWeights()
+  {
+    g.addEdge("a", "b", 1);
+    g.addEdge("b", "c", 2);
+    g.addEdge("a", "c", 7);
+    g.addEdge("c", "a", 5);
+
+    g.removeVertex("b");
+
+    assertEquals("Edges through the removed vertex are gone",
+                 2, g.numEdges());
+    assertEquals("Remaining weights are kept",
+                 7.0, g.edgeWeight("a", "c"), 0.0);
+    assertEquals("Remaining weights are kept",
+                 5.0, g.edgeWeight("c", "a"), 0.0);
+    assertEquals("Paths use the remaining edges",
+                 7.0, g.weightedPathLength("a", "c"), 0.0);
+  }
+
+  @Test
+  public void testLargerGridAgreesWithHops()
+  {
+    int side = 30;
+    for (int row = 0; row < side; row++) {
+      for (int col = 0; col < side; col++) {
+        String here = row + "," + col;
+        if (col + 1 < side) {
+          g.addEdge(here, row + "," + (col + 1));
+        }
+        if (row + 1 < side) {
+          g.addEdge(here, (row + 1) + "," + col);
+        }
+      }
+    }
+    String corner = (side - 1) + "," + (side - 1);
+
+    assertEquals("Unit weights make cheapest equal fewest hops",
+                 (double) g.pathLength("0,0", corner),
+                 g.weightedPathLength("0,0", corner), 0.0);
+  }
+}